@@ -0,0 +1,81 @@
+package com.service.stock.benchmark;
+
+import com.service.avro.model.AvroOrder;
+import com.service.avro.model.AvroOrderStatus;
+import com.service.stock.model.Order;
+import com.service.stock.serialization.OrderDeserializer;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.serializers.KafkaAvroDeserializer;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserialization of an {@link AvroOrder} as received by the listener, through the Confluent deserializer (schema
+ * lookup by id against a mock registry), through the generated decoder of the Avro class alone and straight into an
+ * {@link Order} by {@link OrderDeserializer}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvroDeserializationBenchmark {
+
+    private static final String TOPIC = "orders";
+
+    private KafkaAvroDeserializer deserializer;
+
+    private OrderDeserializer orderDeserializer;
+
+    private byte[] confluentPayload;
+
+    private byte[] rawPayload;
+
+    @Setup
+    public void setUp() throws IOException {
+        SchemaRegistryClient schemaRegistry = new MockSchemaRegistryClient();
+        Map<String, Object> config = Map.of(
+                "schema.registry.url", "mock://benchmark",
+                "specific.avro.reader", true);
+
+        AvroOrder avroOrder = BenchmarkData.avroOrder(AvroOrderStatus.NEW, 1L, 2);
+        try (KafkaAvroSerializer serializer = new KafkaAvroSerializer(schemaRegistry, config)) {
+            confluentPayload = serializer.serialize(TOPIC, avroOrder);
+        }
+        deserializer = new KafkaAvroDeserializer(schemaRegistry, config);
+        orderDeserializer = new OrderDeserializer(schemaRegistry);
+        orderDeserializer.configure(config, false);
+
+        ByteBuffer buffer = avroOrder.toByteBuffer();
+        rawPayload = new byte[buffer.remaining()];
+        buffer.get(rawPayload);
+    }
+
+    @TearDown
+    public void tearDown() {
+        deserializer.close();
+        orderDeserializer.close();
+    }
+
+    @Benchmark
+    public Object confluentDeserializer() {
+        return deserializer.deserialize(TOPIC, confluentPayload);
+    }
+
+    @Benchmark
+    public AvroOrder specificDecoder() throws IOException {
+        return AvroOrder.fromByteBuffer(ByteBuffer.wrap(rawPayload));
+    }
+
+    @Benchmark
+    public Order orderDeserializer() {
+        return orderDeserializer.deserialize(TOPIC, confluentPayload);
+    }
+}
@@ -0,0 +1,58 @@
+package com.service.stock.benchmark;
+
+import com.service.avro.model.AvroOrder;
+import com.service.avro.model.AvroOrderStatus;
+import com.service.avro.model.AvroProduct;
+import com.service.stock.model.Order;
+import com.service.stock.model.OrderStatus;
+import com.service.stock.model.Product;
+
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.UUID;
+
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static AvroOrder avroOrder(AvroOrderStatus status, long productId, int quantity) {
+        AvroProduct avroProduct = new AvroProduct();
+        avroProduct.setId(productId);
+        avroProduct.setQuantity(quantity);
+        avroProduct.setPrice(100L);
+
+        AvroOrder avroOrder = new AvroOrder();
+        avroOrder.setId(UUID.randomUUID().toString());
+        avroOrder.setCustomerId(1L);
+        avroOrder.setProduct(avroProduct);
+        avroOrder.setStatus(status);
+        avroOrder.setSource("Source");
+        return avroOrder;
+    }
+
+    static Order order(OrderStatus status, long productId, int quantity) {
+        Product product = new Product();
+        product.setId(productId);
+        product.setQuantity(quantity);
+        product.setPrice(100L);
+
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setCustomerId(1L);
+        order.setProduct(product);
+        order.setStatus(status);
+        order.setSource("Source");
+        return order;
+    }
+
+    /**
+     * Sets a field normally injected from the application properties.
+     */
+    static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
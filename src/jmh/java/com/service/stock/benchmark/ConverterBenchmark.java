@@ -0,0 +1,104 @@
+package com.service.stock.benchmark;
+
+import com.service.avro.model.AvroOrder;
+import com.service.avro.model.AvroOrderStatus;
+import com.service.stock.converter.*;
+import com.service.stock.dto.ItemDto;
+import com.service.stock.entity.Item;
+import com.service.stock.model.Order;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hand-written converters against the ModelMapper mappings they replaced. Run with {@code -prof gc} to compare the
+ * allocation rate as well.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConverterBenchmark {
+
+    private final ModelMapperConverters modelMapper = new ModelMapperConverters();
+
+    private final AvroOrderToOrderConverter avroOrderToOrderConverter = new AvroOrderToOrderConverter();
+
+    private final OrderToAvroOrderConverter orderToAvroOrderConverter = new OrderToAvroOrderConverter();
+
+    private final ItemToItemDtoConverter itemToItemDtoConverter = new ItemToItemDtoConverter();
+
+    private final ItemDtoToItemConverter itemDtoToItemConverter = new ItemDtoToItemConverter();
+
+    private final ItemFromItemDtoUpdater itemFromItemDtoUpdater = new ItemFromItemDtoUpdater();
+
+    private AvroOrder avroOrder;
+
+    private Order order;
+
+    private Item item;
+
+    private ItemDto itemDto;
+
+    @Setup
+    public void setUp() {
+        avroOrder = BenchmarkData.avroOrder(AvroOrderStatus.NEW, 1L, 2);
+        order = avroOrderToOrderConverter.convert(avroOrder);
+        item = new Item(1L, "Name", 1000L, 10L);
+        itemDto = itemToItemDtoConverter.convert(item);
+    }
+
+    @Benchmark
+    public Order avroOrderToOrder_handWritten() {
+        return avroOrderToOrderConverter.convert(avroOrder);
+    }
+
+    @Benchmark
+    public Order avroOrderToOrder_modelMapper() {
+        return modelMapper.toOrder(avroOrder);
+    }
+
+    @Benchmark
+    public AvroOrder orderToAvroOrder_handWritten() {
+        return orderToAvroOrderConverter.convert(order);
+    }
+
+    @Benchmark
+    public AvroOrder orderToAvroOrder_modelMapper() {
+        return modelMapper.toAvroOrder(order);
+    }
+
+    @Benchmark
+    public ItemDto itemToItemDto_handWritten() {
+        return itemToItemDtoConverter.convert(item);
+    }
+
+    @Benchmark
+    public ItemDto itemToItemDto_modelMapper() {
+        return modelMapper.toItemDto(item);
+    }
+
+    @Benchmark
+    public Item itemDtoToItem_handWritten() {
+        return itemDtoToItemConverter.convert(itemDto);
+    }
+
+    @Benchmark
+    public Item itemDtoToItem_modelMapper() {
+        return modelMapper.toItem(itemDto);
+    }
+
+    @Benchmark
+    public Item updateItem_handWritten() {
+        itemFromItemDtoUpdater.update(itemDto, item);
+        return item;
+    }
+
+    @Benchmark
+    public Item updateItem_modelMapper() {
+        modelMapper.update(itemDto, item);
+        return item;
+    }
+}
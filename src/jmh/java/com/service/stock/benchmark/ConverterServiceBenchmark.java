@@ -0,0 +1,53 @@
+package com.service.stock.benchmark;
+
+import com.service.avro.model.AvroOrder;
+import com.service.avro.model.AvroOrderStatus;
+import com.service.stock.converter.*;
+import com.service.stock.dto.ItemDto;
+import com.service.stock.entity.Item;
+import com.service.stock.model.Order;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trips through {@link ConverterService}, including its converter lookup, as done by the services.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConverterServiceBenchmark {
+
+    private ConverterService converterService;
+
+    private AvroOrder avroOrder;
+
+    private Item item;
+
+    @Setup
+    public void setUp() {
+        converterService = new ConverterService(
+                List.of(new AvroOrderToOrderConverter(), new OrderToAvroOrderConverter(),
+                        new ItemToItemDtoConverter(), new ItemDtoToItemConverter()));
+        converterService.init();
+
+        avroOrder = BenchmarkData.avroOrder(AvroOrderStatus.NEW, 1L, 2);
+        item = new Item(1L, "Name", 1000L, 10L);
+    }
+
+    @Benchmark
+    public AvroOrder avroOrderRoundTrip() {
+        Order order = converterService.convert(avroOrder, Order.class);
+        return converterService.convert(order, AvroOrder.class);
+    }
+
+    @Benchmark
+    public Item itemRoundTrip() {
+        ItemDto itemDto = converterService.convert(item, ItemDto.class);
+        return converterService.convert(itemDto, Item.class);
+    }
+}
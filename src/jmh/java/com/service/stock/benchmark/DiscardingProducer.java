@@ -0,0 +1,62 @@
+package com.service.stock.benchmark;
+
+import com.service.avro.model.AvroOrder;
+import com.service.stock.converter.OrderToAvroOrderConverter;
+import com.service.stock.service.KafkaStockOrderProducerService;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.mock.MockProducerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * {@link MockProducer} that serializes every record like the real producer would and acknowledges it immediately,
+ * without keeping a send history that would grow during a benchmark run.
+ */
+class DiscardingProducer extends MockProducer<String, AvroOrder> {
+
+    static final String TOPIC = "stock-orders";
+
+    private final StringSerializer keySerializer = new StringSerializer();
+
+    DiscardingProducer() {
+        super(true, null, null);
+    }
+
+    static KafkaTemplate<String, AvroOrder> template() {
+        DiscardingProducer producer = new DiscardingProducer();
+        return new KafkaTemplate<>(new MockProducerFactory<>(() -> producer));
+    }
+
+    static KafkaStockOrderProducerService producerService(KafkaTemplate<String, AvroOrder> template,
+                                                          OrderToAvroOrderConverter converter) {
+        KafkaStockOrderProducerService producerService = new KafkaStockOrderProducerService(template, converter);
+        BenchmarkData.setField(producerService, "topic", TOPIC);
+        return producerService;
+    }
+
+    @Override
+    public synchronized Future<RecordMetadata> send(ProducerRecord<String, AvroOrder> record, Callback callback) {
+        byte[] key = keySerializer.serialize(record.topic(), record.key());
+        int valueSize;
+        try {
+            valueSize = record.value().toByteBuffer().remaining();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition(record.topic(), 0), 0, 0,
+                System.currentTimeMillis(), key.length, valueSize);
+        if (callback != null) {
+            callback.onCompletion(metadata, null);
+        }
+        return CompletableFuture.completedFuture(metadata);
+    }
+}
@@ -0,0 +1,82 @@
+package com.service.stock.benchmark;
+
+import com.service.stock.entity.Item;
+import com.service.stock.repository.ItemRepository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link ItemRepository} stand-in keeping the items in a map, so the benchmarks measure the service code and not the
+ * database. Only the methods used by the order-processing path are supported.
+ */
+public class InMemoryItemRepository implements InvocationHandler {
+
+    private final Map<Long, Item> items = new ConcurrentHashMap<>();
+
+    public static ItemRepository create(Item... items) {
+        InMemoryItemRepository handler = new InMemoryItemRepository();
+        for (Item item : items) {
+            handler.items.put(item.getId(), item);
+        }
+        return (ItemRepository) Proxy.newProxyInstance(ItemRepository.class.getClassLoader(),
+                new Class<?>[]{ItemRepository.class}, handler);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "reserveStock" -> update((Long) args[0], -(long) args[1], (long) args[1]);
+            case "releaseStock" -> update((Long) args[0], (long) args[1], -(long) args[1]);
+            case "confirmStock" -> update((Long) args[0], 0, -(long) args[1]);
+            case "existsById" -> items.containsKey((Long) args[0]);
+            case "findById" -> Optional.ofNullable(items.get((Long) args[0]));
+            case "findAllById" -> findAllById((Iterable<Long>) args[0]);
+            case "save" -> save((Item) args[0]);
+            case "saveAll" -> saveAll((Iterable<Item>) args[0]);
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "InMemoryItemRepository" + items.keySet();
+            default -> throw new UnsupportedOperationException(method.getName());
+        };
+    }
+
+    private int update(Long id, long availableDelta, long reservedDelta) {
+        int[] updatedRows = {0};
+        items.computeIfPresent(id, (key, item) -> {
+            if (item.getStockAvailable() + availableDelta >= 0 && item.getStockReserved() + reservedDelta >= 0) {
+                item.setStockAvailable(item.getStockAvailable() + availableDelta);
+                item.setStockReserved(item.getStockReserved() + reservedDelta);
+                updatedRows[0] = 1;
+            }
+            return item;
+        });
+        return updatedRows[0];
+    }
+
+    private List<Item> findAllById(Iterable<Long> ids) {
+        List<Item> result = new ArrayList<>();
+        for (Long id : ids) {
+            Item item = items.get(id);
+            if (item != null) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    private Item save(Item item) {
+        items.put(item.getId(), item);
+        return item;
+    }
+
+    private List<Item> saveAll(Iterable<Item> itemsToSave) {
+        List<Item> result = new ArrayList<>();
+        itemsToSave.forEach(item -> result.add(save(item)));
+        return result;
+    }
+}
@@ -0,0 +1,52 @@
+package com.service.stock.benchmark;
+
+import com.service.stock.model.Reservation;
+import com.service.stock.model.ReservationState;
+import com.service.stock.repository.ReservationRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link ReservationRepository} stand-in keeping the latest reservation of every order in a map, so the benchmarks
+ * measure the service code and not the database. Only the methods used by the order-processing path are supported,
+ * for orders of a single product.
+ */
+class InMemoryReservationRepository extends ReservationRepository {
+
+    private final Map<UUID, Reservation> reservations = new ConcurrentHashMap<>();
+
+    InMemoryReservationRepository() {
+        super(new JdbcTemplate());
+    }
+
+    @Override
+    public void save(Reservation reservation) {
+        reservations.put(reservation.getOrderId(), reservation);
+    }
+
+    @Override
+    public void saveAll(Collection<Reservation> reservations) {
+        reservations.forEach(this::save);
+    }
+
+    @Override
+    public List<Reservation> settle(UUID orderId, ReservationState state) {
+        Reservation reservation = reservations.get(orderId);
+        if (reservation == null || reservation.getState() != ReservationState.RESERVED) {
+            return List.of();
+        }
+        reservation.setState(state);
+        return List.of(reservation);
+    }
+
+    @Override
+    public Optional<ReservationState> findLatestState(UUID orderId) {
+        return Optional.ofNullable(reservations.get(orderId)).map(Reservation::getState);
+    }
+}
@@ -0,0 +1,67 @@
+package com.service.stock.benchmark;
+
+import com.service.stock.entity.Item;
+import com.service.stock.exception.InsufficientAvailableStockException;
+import com.service.stock.model.Order;
+import com.service.stock.model.Product;
+import com.service.stock.validation.ItemStockValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stock checks of {@link ItemStockValidator}; the rejecting case includes the cost of building the exception.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemStockValidatorBenchmark {
+
+    private final ItemStockValidator validator = new ItemStockValidator();
+
+    private Item item;
+
+    private Order acceptedOrder;
+
+    private Order rejectedOrder;
+
+    @Setup
+    public void setUp() {
+        item = new Item(1L, "Name", 10L, 10L);
+        acceptedOrder = order(5);
+        rejectedOrder = order(50);
+    }
+
+    @Benchmark
+    public void validateReservationCreation_accepted() {
+        validator.validateReservationCreation(item, acceptedOrder);
+    }
+
+    @Benchmark
+    public Object validateReservationCreation_rejected() {
+        try {
+            validator.validateReservationCreation(item, rejectedOrder);
+            return null;
+        } catch (InsufficientAvailableStockException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public void validateReservationConfirmation_accepted() {
+        validator.validateReservationConfirmation(item, acceptedOrder);
+    }
+
+    private Order order(int quantity) {
+        Product product = new Product();
+        product.setId(1L);
+        product.setQuantity(quantity);
+        product.setPrice(100L);
+        Order order = new Order();
+        order.setProduct(product);
+        return order;
+    }
+}
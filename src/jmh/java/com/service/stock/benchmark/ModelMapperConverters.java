@@ -0,0 +1,55 @@
+package com.service.stock.benchmark;
+
+import com.service.avro.model.AvroOrder;
+import com.service.stock.dto.ItemDto;
+import com.service.stock.entity.Item;
+import com.service.stock.model.Order;
+import org.modelmapper.Condition;
+import org.modelmapper.ModelMapper;
+
+import java.util.UUID;
+
+/**
+ * The ModelMapper based mappings the converters used before they were hand-written, kept as benchmark baseline.
+ */
+public class ModelMapperConverters {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+
+    private final ModelMapper orderToAvroOrderMapper = new ModelMapper();
+
+    private final ModelMapper skipNullModelMapper = new ModelMapper();
+
+    public ModelMapperConverters() {
+        org.modelmapper.Converter<UUID, CharSequence> uuidCharSequenceConverter =
+                context -> context.getSource().toString();
+
+        Condition notNull = ctx -> ctx.getSource() != null;
+
+        orderToAvroOrderMapper.typeMap(Order.class, AvroOrder.class).addMappings(mapper -> {
+            mapper.when(notNull).using(uuidCharSequenceConverter).map(Order::getId, AvroOrder::setId);
+        });
+
+        skipNullModelMapper.getConfiguration().setSkipNullEnabled(true);
+    }
+
+    public Order toOrder(AvroOrder avroOrder) {
+        return modelMapper.map(avroOrder, Order.class);
+    }
+
+    public AvroOrder toAvroOrder(Order order) {
+        return orderToAvroOrderMapper.map(order, AvroOrder.class);
+    }
+
+    public ItemDto toItemDto(Item item) {
+        return modelMapper.map(item, ItemDto.class);
+    }
+
+    public Item toItem(ItemDto itemDto) {
+        return modelMapper.map(itemDto, Item.class);
+    }
+
+    public void update(ItemDto itemDto, Item item) {
+        skipNullModelMapper.map(itemDto, item);
+    }
+}
@@ -0,0 +1,163 @@
+package com.service.stock.benchmark;
+
+import com.service.avro.model.AvroOrder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.service.stock.cache.ItemCache;
+import com.service.stock.cache.ItemCountCache;
+import com.service.stock.cache.OrderIdempotencyCache;
+import com.service.stock.converter.*;
+import com.service.stock.entity.Item;
+import com.service.stock.metrics.OrderMetrics;
+import com.service.stock.model.Order;
+import com.service.stock.model.OrderStatus;
+import com.service.stock.movement.StockMovementLog;
+import com.service.stock.repository.ItemRepository;
+import com.service.stock.repository.ItemStockBucketRepository;
+import com.service.stock.repository.ItemStockLevelRepository;
+import com.service.stock.repository.StockMovementRepository;
+import com.service.stock.reservation.DatabaseStockReservationEngine;
+import com.service.stock.reservation.ReservationCoalescer;
+import com.service.stock.reservation.ReservationExpiry;
+import com.service.stock.reservation.StockStriping;
+import com.service.stock.service.*;
+import com.service.stock.stocklevel.StockLevelPublisher;
+import com.service.stock.validation.ItemStockValidator;
+import com.service.stock.validation.ItemValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link OrderProcessingService#process(Order)} with the repository replaced by {@link InMemoryItemRepository} and
+ * the result producer by a discarding {@link org.apache.kafka.clients.producer.MockProducer}, so only the service
+ * layer is measured. Processing replaces the status of a NEW order by its result, so it is set again before every
+ * use of an order, as if it was deserialized anew.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderProcessingBenchmark {
+
+    private static final long ITEM_ID = 1L;
+
+    private static final long SOLD_OUT_ITEM_ID = 2L;
+
+    private OrderProcessingService orderProcessingService;
+
+    private OrderProcessingService cachingOrderProcessingService;
+
+    private Order newOrder;
+
+    private Order rollbackOrder;
+
+    private Order rejectedOrder;
+
+    @Setup
+    public void setUp() {
+        ConverterService converterService = new ConverterService(
+                List.of(new AvroOrderToOrderConverter(), new OrderToAvroOrderConverter(),
+                        new ItemToItemDtoConverter(), new ItemDtoToItemConverter()));
+        converterService.init();
+
+        ItemRepository itemRepository = InMemoryItemRepository.create(
+                new Item(ITEM_ID, "Name", Long.MAX_VALUE / 2, 0L),
+                new Item(SOLD_OUT_ITEM_ID, "Sold out", 0L, 0L));
+        KafkaTemplate<String, AvroOrder> template = DiscardingProducer.template();
+        KafkaStockOrderProducerService producerService =
+                DiscardingProducer.producerService(template, new OrderToAvroOrderConverter());
+
+        // Striping, coalescing, expiry, the movement log and the stock levels stay disabled and no item is striped, so
+        // the bucket, movement and stock level tables are never queried and the reservations are only kept in memory
+        ItemStockBucketRepository bucketRepository = new ItemStockBucketRepository(new JdbcTemplate());
+        DatabaseStockReservationEngine reservationEngine = new DatabaseStockReservationEngine(itemRepository,
+                new StockStriping(bucketRepository),
+                new ReservationCoalescer(itemRepository, new TransactionTemplate(), new SimpleMeterRegistry()));
+        ItemCache itemCache = itemCache();
+        InMemoryReservationRepository reservationRepository = new InMemoryReservationRepository();
+        StockMovementLog stockMovementLog = new StockMovementLog(new StockMovementRepository(new JdbcTemplate()));
+        ItemStockLevelRepository stockLevelRepository = new ItemStockLevelRepository(new JdbcTemplate());
+        StockLevelPublisher stockLevelPublisher = new StockLevelPublisher(stockLevelRepository, null);
+        ItemService itemService = new ItemService(
+                new ItemValidator(Validation.buildDefaultValidatorFactory().getValidator()),
+                itemRepository,
+                new ItemStockValidator(),
+                new ItemFromItemDtoUpdater(),
+                converterService,
+                reservationEngine,
+                itemCache,
+                new ItemCountCache(itemRepository),
+                bucketRepository,
+                reservationRepository,
+                new ReservationExpiry(reservationRepository, reservationEngine, stockMovementLog, producerService,
+                        itemCache, stockLevelPublisher, new TransactionTemplate(), new SimpleMeterRegistry()),
+                stockMovementLog,
+                stockLevelPublisher,
+                new TransactionTemplate(new NoOpTransactionManager()));
+
+        OrderService orderService = new OrderService(itemService, producerService,
+                new OrderMetrics(new SimpleMeterRegistry()));
+        orderProcessingService = new OrderProcessingService(orderService, idempotencyCache(false));
+        cachingOrderProcessingService = new OrderProcessingService(orderService, idempotencyCache(true));
+
+        newOrder = BenchmarkData.order(OrderStatus.NEW, ITEM_ID, 1);
+        rollbackOrder = BenchmarkData.order(OrderStatus.ROLLBACK, ITEM_ID, 1);
+        rollbackOrder.setId(newOrder.getId());
+        rejectedOrder = BenchmarkData.order(OrderStatus.NEW, SOLD_OUT_ITEM_ID, 1);
+        cachingOrderProcessingService.process(newOrder);
+    }
+
+    @Benchmark
+    public void acceptNewOrder() {
+        newOrder.setStatus(OrderStatus.NEW);
+        orderProcessingService.process(newOrder);
+    }
+
+    @Benchmark
+    public void rejectNewOrder() {
+        rejectedOrder.setStatus(OrderStatus.NEW);
+        orderProcessingService.process(rejectedOrder);
+    }
+
+    /**
+     * The same NEW order every time, answered from the idempotency cache after the first one.
+     */
+    @Benchmark
+    public void redeliveredNewOrder() {
+        newOrder.setStatus(OrderStatus.NEW);
+        cachingOrderProcessingService.process(newOrder);
+    }
+
+    @Benchmark
+    public void reserveAndRollback() {
+        newOrder.setStatus(OrderStatus.NEW);
+        orderProcessingService.process(newOrder);
+        orderProcessingService.process(rollbackOrder);
+    }
+
+    private static OrderIdempotencyCache idempotencyCache(boolean enabled) {
+        OrderIdempotencyCache cache = new OrderIdempotencyCache(new SimpleMeterRegistry());
+        BenchmarkData.setField(cache, "enabled", enabled);
+        BenchmarkData.setField(cache, "maxSize", 100_000L);
+        BenchmarkData.setField(cache, "ttlMs", 600_000L);
+        cache.init();
+        return cache;
+    }
+
+    private static ItemCache itemCache() {
+        ItemCache cache = new ItemCache(new SimpleMeterRegistry(), new ObjectMapper());
+        BenchmarkData.setField(cache, "enabled", true);
+        BenchmarkData.setField(cache, "maxSize", 10_000L);
+        BenchmarkData.setField(cache, "ttlMs", 5_000L);
+        cache.init();
+        return cache;
+    }
+}
@@ -0,0 +1,39 @@
+package com.service.stock.benchmark;
+
+import com.service.avro.model.AvroOrderStatus;
+import com.service.stock.converter.AvroOrderToOrderConverter;
+import com.service.stock.converter.OrderToAvroOrderConverter;
+import com.service.stock.model.Order;
+import com.service.stock.service.KafkaStockOrderProducerService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link KafkaStockOrderProducerService#sendOrder(Order)} against a {@link DiscardingProducer}: conversion, the
+ * {@link org.springframework.kafka.core.KafkaTemplate} overhead and serialization of the record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProducerBenchmark {
+
+    private KafkaStockOrderProducerService producerService;
+
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        producerService = DiscardingProducer.producerService(DiscardingProducer.template(),
+                new OrderToAvroOrderConverter());
+        order = new AvroOrderToOrderConverter().convert(BenchmarkData.avroOrder(AvroOrderStatus.ACCEPT, 1L, 2));
+    }
+
+    @Benchmark
+    public void sendOrder() {
+        producerService.sendOrder(order);
+    }
+}
@@ -0,0 +1,123 @@
+package com.service.stock.benchmark;
+
+import com.service.stock.repository.ItemRepository;
+import com.service.stock.repository.ItemStockBucketRepository;
+import com.service.stock.reservation.DatabaseStockReservationEngine;
+import com.service.stock.reservation.ReservationCoalescer;
+import com.service.stock.reservation.StockStriping;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reservations of a single item by many threads against a real PostgreSQL database, with the stock in the item row
+ * ({@code buckets = 0}) and striped over bucket rows by {@link StockStriping}. Every reservation is a transaction of
+ * its own, as in the order listener, unless {@code coalescing} groups the reservations of the item row with the
+ * {@link ReservationCoalescer}.
+ * <p>
+ * The database is taken from {@code BENCHMARK_DB_URL}, {@code BENCHMARK_DB_USERNAME} and
+ * {@code BENCHMARK_DB_PASSWORD}; it is migrated with Flyway and must not hold data that matters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(32)
+@Fork(1)
+public class StockContentionBenchmark {
+
+    private static final long STOCK = Long.MAX_VALUE / 4;
+
+    private static final String RESERVE_SQL = "UPDATE item SET stock_available = stock_available - ?, " +
+            "stock_reserved = stock_reserved + ? WHERE id = ? AND stock_available >= ?";
+
+    @Param({"0", "8", "32"})
+    private int buckets;
+
+    @Param({"false", "true"})
+    private boolean coalescing;
+
+    private HikariDataSource dataSource;
+
+    private DatabaseStockReservationEngine engine;
+
+    private long itemId;
+
+    @Setup
+    public void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(env("BENCHMARK_DB_URL", "jdbc:postgresql://localhost:5432/stock"));
+        dataSource.setUsername(env("BENCHMARK_DB_USERNAME", "postgres"));
+        dataSource.setPassword(env("BENCHMARK_DB_PASSWORD", "postgres"));
+        dataSource.setMaximumPoolSize(64);
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        itemId = jdbcTemplate.queryForObject("SELECT nextval('item_seq')", Long.class);
+        jdbcTemplate.update("INSERT INTO item (id, name, stock_available, stock_reserved) VALUES (?, 'hot', ?, 0)",
+                itemId, STOCK);
+
+        ItemStockBucketRepository bucketRepository = new ItemStockBucketRepository(jdbcTemplate);
+        if (buckets > 0) {
+            bucketRepository.rebalance(itemId, buckets, 1);
+        }
+        // Enabled for the per-item reservation counting, detection only runs once to pick up the buckets
+        StockStriping stockStriping = new StockStriping(bucketRepository);
+        BenchmarkData.setField(stockStriping, "enabled", true);
+        BenchmarkData.setField(stockStriping, "buckets", buckets);
+        BenchmarkData.setField(stockStriping, "minBucketStock", 1L);
+        stockStriping.init();
+        stockStriping.detect();
+
+        ItemRepository itemRepository = itemRepository(jdbcTemplate);
+        ReservationCoalescer reservationCoalescer = new ReservationCoalescer(itemRepository,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), new SimpleMeterRegistry());
+        BenchmarkData.setField(reservationCoalescer, "enabled", coalescing);
+        BenchmarkData.setField(reservationCoalescer, "windowMs", 2L);
+        BenchmarkData.setField(reservationCoalescer, "maxGroupSize", 64);
+        reservationCoalescer.init();
+        engine = new DatabaseStockReservationEngine(itemRepository, stockStriping, reservationCoalescer);
+    }
+
+    @TearDown
+    public void tearDown() {
+        new JdbcTemplate(dataSource).update("DELETE FROM item WHERE id = ?", itemId);
+        dataSource.close();
+    }
+
+    @Benchmark
+    public boolean reserve() {
+        return engine.reserve(itemId, 1);
+    }
+
+    /**
+     * The item row queries of {@link ItemRepository} the engine uses, as plain JDBC joining the transaction of the
+     * coalescer or in auto-commit mode.
+     */
+    private static ItemRepository itemRepository(JdbcTemplate jdbcTemplate) {
+        return (ItemRepository) Proxy.newProxyInstance(ItemRepository.class.getClassLoader(),
+                new Class<?>[]{ItemRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "reserveStock" -> jdbcTemplate.update(RESERVE_SQL, args[1], args[1], args[0], args[1]);
+                    case "findStockAvailableForUpdate" -> Optional.ofNullable(jdbcTemplate.queryForObject(
+                            "SELECT stock_available FROM item WHERE id = ? FOR UPDATE", Long.class, args[0]));
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "JdbcItemRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null ? defaultValue : value;
+    }
+}
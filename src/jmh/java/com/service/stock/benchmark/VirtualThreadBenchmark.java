@@ -0,0 +1,146 @@
+package com.service.stock.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.Arrays;
+import java.util.concurrent.*;
+
+/**
+ * Request handling of the web tier on platform threads (a Tomcat sized worker pool) and on virtual threads.
+ * <p>
+ * Every invocation fires {@value #REQUESTS} concurrent requests. A request blocks for {@code waitMs} without a
+ * connection (downstream calls, Kafka acks) and then holds one of {@code poolSize} JDBC connections for
+ * {@code queryMs}. The score is requests per second; p50/p99 request latency, queueing for a worker included, is
+ * logged after every iteration.
+ * <p>
+ * The {@code virtual} variant needs Java 21: {@code mvn -Pbenchmark,java21 compile exec:exec
+ * -Djmh.args="VirtualThreadBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadBenchmark.class);
+
+    private static final int REQUESTS = 2_000;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"200"})
+    private int workerThreads;
+
+    @Param({"20"})
+    private int poolSize;
+
+    @Param({"10"})
+    private long waitMs;
+
+    @Param({"1"})
+    private long queryMs;
+
+    private ExecutorService platformExecutor;
+
+    private SimpleAsyncTaskExecutor virtualExecutor;
+
+    private Semaphore connections;
+
+    private long[] latencies;
+
+    private int latencyCount;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (threads.equals("virtual")) {
+            virtualExecutor = new SimpleAsyncTaskExecutor("request-");
+            virtualExecutor.setVirtualThreads(true);
+        } else {
+            platformExecutor = Executors.newFixedThreadPool(workerThreads);
+        }
+        connections = new Semaphore(poolSize, true);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetLatencies() {
+        latencies = new long[REQUESTS * 64];
+        latencyCount = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void logLatencies() {
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        log.info("{} threads: p50 {} ms, p99 {} ms over {} requests", threads,
+                String.format("%.1f", percentile(sorted, 0.50)), String.format("%.1f", percentile(sorted, 0.99)),
+                sorted.length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (platformExecutor != null) {
+            platformExecutor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void requests() throws InterruptedException {
+        long[] burst = new long[REQUESTS];
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            int index = i;
+            Runnable request = () -> {
+                try {
+                    handleRequest();
+                } finally {
+                    burst[index] = System.nanoTime() - start;
+                    done.countDown();
+                }
+            };
+            if (virtualExecutor != null) {
+                virtualExecutor.execute(request);
+            } else {
+                platformExecutor.execute(request);
+            }
+        }
+        done.await();
+        record(burst);
+    }
+
+    private void handleRequest() {
+        try {
+            Thread.sleep(waitMs);
+            connections.acquire();
+            try {
+                Thread.sleep(queryMs);
+            } finally {
+                connections.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void record(long[] burst) {
+        if (latencyCount + burst.length > latencies.length) {
+            latencies = Arrays.copyOf(latencies, latencies.length * 2);
+        }
+        System.arraycopy(burst, 0, latencies, latencyCount, burst.length);
+        latencyCount += burst.length;
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.ceil(percentile * sorted.length) - 1] / 1_000_000.0;
+    }
+}
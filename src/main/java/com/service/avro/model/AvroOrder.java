@@ -14,10 +14,10 @@ import org.apache.avro.message.SchemaStore;
 
 @org.apache.avro.specific.AvroGenerated
 public class AvroOrder extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
-  private static final long serialVersionUID = -9028040220593139628L;
+  private static final long serialVersionUID = -7862764390720236101L;
 
 
-  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"AvroOrder\",\"namespace\":\"com.service.avro.model\",\"fields\":[{\"name\":\"id\",\"type\":[\"null\",{\"type\":\"string\",\"avro.java.string\":\"String\"}],\"default\":null},{\"name\":\"customerId\",\"type\":[\"null\",\"long\"],\"default\":null},{\"name\":\"product\",\"type\":[\"null\",{\"type\":\"record\",\"name\":\"AvroProduct\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"},{\"name\":\"quantity\",\"type\":\"int\"},{\"name\":\"price\",\"type\":\"long\"}]}],\"default\":null},{\"name\":\"status\",\"type\":[\"null\",{\"type\":\"enum\",\"name\":\"AvroOrderStatus\",\"symbols\":[\"NEW\",\"ACCEPT\",\"REJECT\",\"CONFIRMATION\",\"ROLLBACK\"]}],\"default\":null},{\"name\":\"source\",\"type\":[\"null\",\"string\"],\"default\":null}]}");
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"AvroOrder\",\"namespace\":\"com.service.avro.model\",\"fields\":[{\"name\":\"id\",\"type\":[\"null\",{\"type\":\"string\",\"avro.java.string\":\"String\"}],\"default\":null},{\"name\":\"customerId\",\"type\":[\"null\",\"long\"],\"default\":null},{\"name\":\"product\",\"type\":[\"null\",{\"type\":\"record\",\"name\":\"AvroProduct\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"},{\"name\":\"quantity\",\"type\":\"int\"},{\"name\":\"price\",\"type\":\"long\"}]}],\"default\":null},{\"name\":\"status\",\"type\":[\"null\",{\"type\":\"enum\",\"name\":\"AvroOrderStatus\",\"symbols\":[\"NEW\",\"ACCEPT\",\"REJECT\",\"CONFIRMATION\",\"ROLLBACK\"]}],\"default\":null},{\"name\":\"source\",\"type\":[\"null\",\"string\"],\"default\":null},{\"name\":\"products\",\"type\":[\"null\",{\"type\":\"array\",\"items\":\"AvroProduct\"}],\"default\":null}]}");
   public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
 
   private static final SpecificData MODEL$ = new SpecificData();
@@ -78,6 +78,7 @@ public class AvroOrder extends org.apache.avro.specific.SpecificRecordBase imple
   private com.service.avro.model.AvroProduct product;
   private com.service.avro.model.AvroOrderStatus status;
   private java.lang.CharSequence source;
+  private java.util.List<com.service.avro.model.AvroProduct> products;
 
   /**
    * Default constructor.  Note that this does not initialize fields
@@ -93,13 +94,15 @@ public class AvroOrder extends org.apache.avro.specific.SpecificRecordBase imple
    * @param product The new value for product
    * @param status The new value for status
    * @param source The new value for source
+   * @param products The new value for products
    */
-  public AvroOrder(java.lang.CharSequence id, java.lang.Long customerId, com.service.avro.model.AvroProduct product, com.service.avro.model.AvroOrderStatus status, java.lang.CharSequence source) {
+  public AvroOrder(java.lang.CharSequence id, java.lang.Long customerId, com.service.avro.model.AvroProduct product, com.service.avro.model.AvroOrderStatus status, java.lang.CharSequence source, java.util.List<com.service.avro.model.AvroProduct> products) {
     this.id = id;
     this.customerId = customerId;
     this.product = product;
     this.status = status;
     this.source = source;
+    this.products = products;
   }
 
   @Override
@@ -117,6 +120,7 @@ public class AvroOrder extends org.apache.avro.specific.SpecificRecordBase imple
     case 2: return product;
     case 3: return status;
     case 4: return source;
+    case 5: return products;
     default: throw new IndexOutOfBoundsException("Invalid index: " + field$);
     }
   }
@@ -131,6 +135,7 @@ public class AvroOrder extends org.apache.avro.specific.SpecificRecordBase imple
     case 2: product = (com.service.avro.model.AvroProduct)value$; break;
     case 3: status = (com.service.avro.model.AvroOrderStatus)value$; break;
     case 4: source = (java.lang.CharSequence)value$; break;
+    case 5: products = (java.util.List<com.service.avro.model.AvroProduct>)value$; break;
     default: throw new IndexOutOfBoundsException("Invalid index: " + field$);
     }
   }
@@ -220,6 +225,23 @@ public class AvroOrder extends org.apache.avro.specific.SpecificRecordBase imple
     this.source = value;
   }
 
+  /**
+   * Gets the value of the 'products' field.
+   * @return The value of the 'products' field.
+   */
+  public java.util.List<com.service.avro.model.AvroProduct> getProducts() {
+    return products;
+  }
+
+
+  /**
+   * Sets the value of the 'products' field.
+   * @param value the value to set.
+   */
+  public void setProducts(java.util.List<com.service.avro.model.AvroProduct> value) {
+    this.products = value;
+  }
+
   /**
    * Creates a new AvroOrder RecordBuilder.
    * @return A new AvroOrder RecordBuilder
@@ -267,6 +289,7 @@ public class AvroOrder extends org.apache.avro.specific.SpecificRecordBase imple
     private com.service.avro.model.AvroProduct.Builder productBuilder;
     private com.service.avro.model.AvroOrderStatus status;
     private java.lang.CharSequence source;
+    private java.util.List<com.service.avro.model.AvroProduct> products;
 
     /** Creates a new Builder */
     private Builder() {
@@ -302,6 +325,10 @@ public class AvroOrder extends org.apache.avro.specific.SpecificRecordBase imple
         this.source = data().deepCopy(fields()[4].schema(), other.source);
         fieldSetFlags()[4] = other.fieldSetFlags()[4];
       }
+      if (isValidValue(fields()[5], other.products)) {
+        this.products = data().deepCopy(fields()[5].schema(), other.products);
+        fieldSetFlags()[5] = other.fieldSetFlags()[5];
+      }
     }
 
     /**
@@ -331,6 +358,10 @@ public class AvroOrder extends org.apache.avro.specific.SpecificRecordBase imple
         this.source = data().deepCopy(fields()[4].schema(), other.source);
         fieldSetFlags()[4] = true;
       }
+      if (isValidValue(fields()[5], other.products)) {
+        this.products = data().deepCopy(fields()[5].schema(), other.products);
+        fieldSetFlags()[5] = true;
+      }
     }
 
     /**
@@ -569,6 +600,46 @@ public class AvroOrder extends org.apache.avro.specific.SpecificRecordBase imple
       return this;
     }
 
+    /**
+      * Gets the value of the 'products' field.
+      * @return The value.
+      */
+    public java.util.List<com.service.avro.model.AvroProduct> getProducts() {
+      return products;
+    }
+
+
+    /**
+      * Sets the value of the 'products' field.
+      * @param value The value of 'products'.
+      * @return This builder.
+      */
+    public com.service.avro.model.AvroOrder.Builder setProducts(java.util.List<com.service.avro.model.AvroProduct> value) {
+      validate(fields()[5], value);
+      this.products = value;
+      fieldSetFlags()[5] = true;
+      return this;
+    }
+
+    /**
+      * Checks whether the 'products' field has been set.
+      * @return True if the 'products' field has been set, false otherwise.
+      */
+    public boolean hasProducts() {
+      return fieldSetFlags()[5];
+    }
+
+
+    /**
+      * Clears the value of the 'products' field.
+      * @return This builder.
+      */
+    public com.service.avro.model.AvroOrder.Builder clearProducts() {
+      products = null;
+      fieldSetFlags()[5] = false;
+      return this;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public AvroOrder build() {
@@ -588,6 +659,7 @@ public class AvroOrder extends org.apache.avro.specific.SpecificRecordBase imple
         }
         record.status = fieldSetFlags()[3] ? this.status : (com.service.avro.model.AvroOrderStatus) defaultValue(fields()[3]);
         record.source = fieldSetFlags()[4] ? this.source : (java.lang.CharSequence) defaultValue(fields()[4]);
+        record.products = fieldSetFlags()[5] ? this.products : (java.util.List<com.service.avro.model.AvroProduct>) defaultValue(fields()[5]);
         return record;
       } catch (org.apache.avro.AvroMissingFieldException e) {
         throw e;
@@ -660,6 +732,25 @@ public class AvroOrder extends org.apache.avro.specific.SpecificRecordBase imple
       out.writeString(this.source);
     }
 
+    if (this.products == null) {
+      out.writeIndex(0);
+      out.writeNull();
+    } else {
+      out.writeIndex(1);
+      long size0 = this.products.size();
+      out.writeArrayStart();
+      out.setItemCount(size0);
+      long actualSize0 = 0;
+      for (com.service.avro.model.AvroProduct e0: this.products) {
+        actualSize0++;
+        out.startItem();
+        e0.customEncode(out);
+      }
+      out.writeArrayEnd();
+      if (actualSize0 != size0)
+        throw new java.util.ConcurrentModificationException("Array-size written was " + size0 + ", but element count was " + actualSize0 + ".");
+    }
+
   }
 
   @Override public void customDecode(org.apache.avro.io.ResolvingDecoder in)
@@ -705,8 +796,31 @@ public class AvroOrder extends org.apache.avro.specific.SpecificRecordBase imple
         this.source = in.readString(this.source instanceof Utf8 ? (Utf8)this.source : null);
       }
 
+      if (in.readIndex() != 1) {
+        in.readNull();
+        this.products = null;
+      } else {
+        long size0 = in.readArrayStart();
+        java.util.List<com.service.avro.model.AvroProduct> a0 = this.products;
+        if (a0 == null) {
+          a0 = new SpecificData.Array<com.service.avro.model.AvroProduct>((int)size0, SCHEMA$.getField("products").schema().getTypes().get(1));
+          this.products = a0;
+        } else a0.clear();
+        SpecificData.Array<com.service.avro.model.AvroProduct> ga0 = (a0 instanceof SpecificData.Array ? (SpecificData.Array<com.service.avro.model.AvroProduct>)a0 : null);
+        for ( ; 0 < size0; size0 = in.arrayNext()) {
+          for ( ; size0 != 0; size0--) {
+            com.service.avro.model.AvroProduct e0 = (ga0 != null ? ga0.peek() : null);
+            if (e0 == null) {
+              e0 = new com.service.avro.model.AvroProduct();
+            }
+            e0.customDecode(in);
+            a0.add(e0);
+          }
+        }
+      }
+
     } else {
-      for (int i = 0; i < 5; i++) {
+      for (int i = 0; i < 6; i++) {
         switch (fieldOrder[i].pos()) {
         case 0:
           if (in.readIndex() != 1) {
@@ -756,6 +870,31 @@ public class AvroOrder extends org.apache.avro.specific.SpecificRecordBase imple
           }
           break;
 
+        case 5:
+          if (in.readIndex() != 1) {
+            in.readNull();
+            this.products = null;
+          } else {
+            long size0 = in.readArrayStart();
+            java.util.List<com.service.avro.model.AvroProduct> a0 = this.products;
+            if (a0 == null) {
+              a0 = new SpecificData.Array<com.service.avro.model.AvroProduct>((int)size0, SCHEMA$.getField("products").schema().getTypes().get(1));
+              this.products = a0;
+            } else a0.clear();
+            SpecificData.Array<com.service.avro.model.AvroProduct> ga0 = (a0 instanceof SpecificData.Array ? (SpecificData.Array<com.service.avro.model.AvroProduct>)a0 : null);
+            for ( ; 0 < size0; size0 = in.arrayNext()) {
+              for ( ; size0 != 0; size0--) {
+                com.service.avro.model.AvroProduct e0 = (ga0 != null ? ga0.peek() : null);
+                if (e0 == null) {
+                  e0 = new com.service.avro.model.AvroProduct();
+                }
+                e0.customDecode(in);
+                a0.add(e0);
+              }
+            }
+          }
+          break;
+
         default:
           throw new java.io.IOException("Corrupt ResolvingDecoder.");
         }
@@ -0,0 +1,132 @@
+package com.service.stock.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.service.stock.dto.ItemDto;
+import com.service.stock.exception.ServiceException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of single items as served by {@code GET /api/v1/items/{itemId}}.
+ * <p>
+ * Caffeine's W-TinyLFU policy keeps the items the storefront polls most. Optionally the JSON representation is cached
+ * as well, so a hit is answered without conversion or serialization. Hits, misses and evictions are published as the
+ * {@code cache.*} metrics of the {@value #CACHE_NAME} cache, load latency as {@value #LOAD_TIMER_NAME}.
+ * <p>
+ * Every local write invalidates its items once committed; a load racing with the invalidation is discarded because
+ * Caffeine computes and removes an entry under the same lock. Writes of other nodes are only picked up when the
+ * entry expires.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ItemCache {
+
+    static final String CACHE_NAME = "items";
+
+    static final String LOAD_TIMER_NAME = "items.cache.load";
+
+    private final MeterRegistry meterRegistry;
+
+    private final ObjectMapper objectMapper;
+
+    private Cache<Long, CachedItem> cache;
+
+    private Timer loadTimer;
+
+    @Value("${items.cache.enabled}")
+    private boolean enabled;
+
+    @Value("${items.cache.max-size}")
+    private long maxSize;
+
+    @Value("${items.cache.ttl-ms}")
+    private long ttlMs;
+
+    @Value("${items.cache.serialized-json}")
+    private boolean serializedJson;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        loadTimer = meterRegistry.timer(LOAD_TIMER_NAME);
+        log.info("Item cache started with max size {} and ttl {} ms", maxSize, ttlMs);
+    }
+
+    /**
+     * @return a copy of the cached item, so callers can not modify the cache
+     */
+    public ItemDto get(@NonNull Long id, @NonNull Function<Long, ItemDto> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        return copy(cache.get(id, key -> load(key, loader)).itemDto());
+    }
+
+    public byte[] getJson(@NonNull Long id, @NonNull Function<Long, ItemDto> loader) {
+        if (!enabled) {
+            return serialize(loader.apply(id));
+        }
+        CachedItem cachedItem = cache.get(id, key -> load(key, loader));
+        return cachedItem.json() != null ? cachedItem.json() : serialize(cachedItem.itemDto());
+    }
+
+    public void invalidate(@NonNull Long id) {
+        if (enabled) {
+            cache.invalidate(id);
+        }
+    }
+
+    public void invalidateAll(@NonNull Collection<Long> ids) {
+        if (enabled && !ids.isEmpty()) {
+            cache.invalidateAll(ids);
+        }
+    }
+
+    private CachedItem load(Long id, Function<Long, ItemDto> loader) {
+        ItemDto itemDto = loadTimer.record(() -> loader.apply(id));
+        return new CachedItem(itemDto, serializedJson ? serialize(itemDto) : null);
+    }
+
+    private byte[] serialize(ItemDto itemDto) {
+        try {
+            return objectMapper.writeValueAsBytes(itemDto);
+        } catch (JsonProcessingException e) {
+            throw new ServiceException("Error serializing item", e);
+        }
+    }
+
+    private static ItemDto copy(ItemDto itemDto) {
+        ItemDto copy = new ItemDto();
+        copy.setId(itemDto.getId());
+        copy.setName(itemDto.getName());
+        copy.setStockAvailable(itemDto.getStockAvailable());
+        copy.setStockReserved(itemDto.getStockReserved());
+        return copy;
+    }
+
+    private record CachedItem(ItemDto itemDto, byte[] json) {
+    }
+}
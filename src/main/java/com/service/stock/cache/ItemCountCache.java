@@ -0,0 +1,84 @@
+package com.service.stock.cache;
+
+import com.service.stock.exception.ServiceException;
+import com.service.stock.model.CountMode;
+import com.service.stock.repository.ItemRepository;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Total number of items, so listings do not run a {@code COUNT(*)} per request.
+ * <p>
+ * The count is loaded on first use, adjusted by the committed creates and deletes of this node and recounted every
+ * {@code items.count.refresh-interval-ms}, which also picks up the writes of other nodes. A write committing while a
+ * recount runs may be missed until the next recount.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ItemCountCache {
+
+    private static final long UNKNOWN = -1;
+
+    private final ItemRepository itemRepository;
+
+    private final AtomicLong count = new AtomicLong(UNKNOWN);
+
+    /**
+     * @return the total for the given mode, {@code null} for {@link CountMode#NONE}
+     */
+    public Long getTotal(@NonNull CountMode countMode) {
+        return switch (countMode) {
+            case EXACT -> getCount();
+            case APPROXIMATE -> getEstimate();
+            case NONE -> null;
+        };
+    }
+
+    public long getCount() {
+        long current = count.get();
+        return current == UNKNOWN ? load() : current;
+    }
+
+    /**
+     * Falls back to the cached count while the table has never been analyzed.
+     */
+    public long getEstimate() {
+        long estimate = execute(itemRepository::estimateCount);
+        return estimate <= 0 ? getCount() : estimate;
+    }
+
+    /**
+     * Adjusts a loaded count by committed creates (positive) or deletes (negative).
+     */
+    public void add(long delta) {
+        count.updateAndGet(current -> current == UNKNOWN ? UNKNOWN : Math.max(0, current + delta));
+    }
+
+    @Scheduled(fixedDelayString = "${items.count.refresh-interval-ms}",
+            initialDelayString = "${items.count.refresh-interval-ms}")
+    public void refresh() {
+        log.debug("Item count refreshed: {}", load());
+    }
+
+    private long load() {
+        long current = execute(itemRepository::count);
+        count.set(current);
+        return current;
+    }
+
+    private long execute(LongSupplier supplier) {
+        try {
+            return supplier.getAsLong();
+        } catch (DataAccessException e) {
+            throw new ServiceException("DAO operation failed", e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.service.stock.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.service.stock.model.OrderStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Results of the orders this node processed recently, keyed by order id and status, so orders redelivered after a
+ * rebalance are answered without touching the {@code item} table.
+ * <p>
+ * The cache is bounded by size and time. A {@link RotatingBloomFilter} in front of it answers the common case, an
+ * order never seen before, without a hash table lookup. Hits, misses and evictions are published as the
+ * {@code cache.*} metrics of the {@value #CACHE_NAME} cache, filtered lookups as {@code orders.idempotency.bloom.negative}.
+ * <p>
+ * The cache is local to the node and lost on restart, so it complements rather than replaces the exactly-once mode.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class OrderIdempotencyCache {
+
+    static final String CACHE_NAME = "orders.idempotency";
+
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+
+    private final MeterRegistry meterRegistry;
+
+    private Cache<Key, OrderStatus> cache;
+
+    private RotatingBloomFilter bloomFilter;
+
+    private Counter bloomNegatives;
+
+    @Value("${orders.idempotency-cache.enabled}")
+    private boolean enabled;
+
+    @Value("${orders.idempotency-cache.max-size}")
+    private long maxSize;
+
+    @Value("${orders.idempotency-cache.ttl-ms}")
+    private long ttlMs;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        bloomFilter = new RotatingBloomFilter(maxSize, BLOOM_FALSE_POSITIVE_RATE, Duration.ofMillis(ttlMs).toNanos());
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        bloomNegatives = meterRegistry.counter(CACHE_NAME + ".bloom.negative");
+        log.info("Order idempotency cache started with max size {} and ttl {} ms", maxSize, ttlMs);
+    }
+
+    /**
+     * @return the result of the order if it was processed recently: ACCEPT/REJECT for NEW orders, the order status
+     * itself for the others
+     */
+    public Optional<OrderStatus> getResult(UUID orderId, OrderStatus status) {
+        if (!enabled || orderId == null || status == null) {
+            return Optional.empty();
+        }
+        Key key = new Key(orderId, status);
+        if (!bloomFilter.mightContain(key.hash())) {
+            bloomNegatives.increment();
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.getIfPresent(key));
+    }
+
+    public void putResult(UUID orderId, OrderStatus status, @NonNull OrderStatus result) {
+        if (!enabled || orderId == null || status == null) {
+            return;
+        }
+        Key key = new Key(orderId, status);
+        bloomFilter.put(key.hash());
+        cache.put(key, result);
+    }
+
+    private record Key(UUID orderId, OrderStatus status) {
+
+        /**
+         * 64-bit FNV-1a hash (over the two halves of the id) with a final mix, the two halves of the result are used as
+         * independent hashes by the Bloom filter.
+         */
+        long hash() {
+            long hash = 0xcbf29ce484222325L;
+            hash = (hash ^ orderId.getMostSignificantBits()) * 0x100000001b3L;
+            hash = (hash ^ orderId.getLeastSignificantBits()) * 0x100000001b3L;
+            hash = (hash ^ status.ordinal()) * 0x100000001b3L;
+            hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+            return hash ^ (hash >>> 33);
+        }
+    }
+}
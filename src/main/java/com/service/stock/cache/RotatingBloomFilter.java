@@ -0,0 +1,98 @@
+package com.service.stock.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over the keys added during the last one to two rotation periods.
+ * <p>
+ * A plain Bloom filter can not forget keys, so it would saturate in front of a cache with expiring entries. Keys are
+ * added to the current generation and looked up in the current and the previous one; on rotation the previous
+ * generation is dropped. A key therefore stays visible for at least one full period, which must not be shorter than
+ * the lifetime of the cache entries behind the filter.
+ */
+class RotatingBloomFilter {
+
+    private final int bitCount;
+
+    private final int hashCount;
+
+    private final long periodNanos;
+
+    private volatile AtomicLongArray current;
+
+    private volatile AtomicLongArray previous;
+
+    private volatile long rotatedAt;
+
+    /**
+     * @param expectedInsertions keys expected per period
+     * @param falsePositiveRate  false positive rate at the expected number of keys, per generation
+     * @param periodNanos        rotation period
+     */
+    RotatingBloomFilter(long expectedInsertions, double falsePositiveRate, long periodNanos) {
+        long bits = (long) Math.ceil(-Math.max(expectedInsertions, 1) * Math.log(falsePositiveRate)
+                / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Math.max(bits, Long.SIZE), (long) Integer.MAX_VALUE - Long.SIZE);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / Math.max(expectedInsertions, 1) * Math.log(2)));
+        this.periodNanos = periodNanos;
+        this.current = newGeneration();
+        this.previous = newGeneration();
+        this.rotatedAt = System.nanoTime();
+    }
+
+    void put(long hash) {
+        rotateIfDue();
+        AtomicLongArray bits = current;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = index(h1 + i * h2);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long value;
+            while (((value = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, value, value | mask)) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    boolean mightContain(long hash) {
+        rotateIfDue();
+        return mightContain(current, hash) || mightContain(previous, hash);
+    }
+
+    private boolean mightContain(AtomicLongArray bits, long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = index(h1 + i * h2);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rotateIfDue() {
+        if (System.nanoTime() - rotatedAt >= periodNanos) {
+            rotate();
+        }
+    }
+
+    private synchronized void rotate() {
+        if (System.nanoTime() - rotatedAt < periodNanos) {
+            return;
+        }
+        previous = current;
+        current = newGeneration();
+        rotatedAt = System.nanoTime();
+    }
+
+    private int index(int hash) {
+        return (hash & Integer.MAX_VALUE) % bitCount;
+    }
+
+    private AtomicLongArray newGeneration() {
+        return new AtomicLongArray((bitCount + Long.SIZE - 1) / Long.SIZE);
+    }
+}
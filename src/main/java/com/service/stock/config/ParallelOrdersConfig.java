@@ -0,0 +1,34 @@
+package com.service.stock.config;
+
+import com.service.stock.consumer.ParallelKafkaConsumer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+/**
+ * Listener container of the {@link ParallelKafkaConsumer}: configured from the {@code spring.kafka.listener.*}
+ * properties like the default one, with manual out-of-order acknowledgments on top.
+ */
+@Configuration
+@ConditionalOnProperty(name = "kafka.orders.parallel.enabled", havingValue = "true")
+public class ParallelOrdersConfig {
+
+    public static final String CONTAINER_FACTORY = "parallelOrdersContainerFactory";
+
+    @Bean(CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> parallelOrdersContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer, ConsumerFactory<Object, Object> consumerFactory,
+            ParallelKafkaConsumer parallelKafkaConsumer) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        ContainerProperties containerProperties = factory.getContainerProperties();
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        containerProperties.setAsyncAcks(true);
+        containerProperties.setConsumerRebalanceListener(parallelKafkaConsumer);
+        return factory;
+    }
+}
@@ -0,0 +1,58 @@
+package com.service.stock.config;
+
+import com.service.stock.consumer.StockLevelConsumer;
+import com.service.stock.metrics.TimedDeserializer;
+import com.service.stock.stocklevel.StockLevelPublisher;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Log-compacted topic of the {@link StockLevelPublisher}, created on startup unless it exists, and the listener
+ * container of the {@link StockLevelConsumer}.
+ * <p>
+ * The container reads the topic with the Avro deserializer instead of the order one, from the end, and never commits
+ * offsets: every node joins a group of its own and only needs the levels published while it runs.
+ */
+@Configuration
+@ConditionalOnProperty(name = "kafka.stock-levels.enabled", havingValue = "true")
+public class StockLevelTopicConfig {
+
+    public static final String CONTAINER_FACTORY = "stockLevelsContainerFactory";
+
+    private static final String AVRO_DESERIALIZER_CLASS = "io.confluent.kafka.serializers.KafkaAvroDeserializer";
+
+    @Bean
+    public NewTopic stockLevelsTopic(@Value("${kafka.stock-levels.topic}") String topic,
+                                     @Value("${kafka.stock-levels.partitions}") int partitions,
+                                     @Value("${kafka.stock-levels.replicas}") int replicas) {
+        return TopicBuilder.name(topic).partitions(partitions).replicas(replicas).compact().build();
+    }
+
+    @Bean(CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> stockLevelsContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer, ConsumerFactory<Object, Object> consumerFactory) {
+        Map<String, Object> properties = new HashMap<>(consumerFactory.getConfigurationProperties());
+        properties.put(TimedDeserializer.DELEGATE_CLASS_CONFIG, AVRO_DESERIALIZER_CLASS);
+        properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, new DefaultKafkaConsumerFactory<>(properties));
+        // Records are never acknowledged, so nothing is committed and the group is dropped once the node stops
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+}
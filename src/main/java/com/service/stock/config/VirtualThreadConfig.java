@@ -0,0 +1,31 @@
+package com.service.stock.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Guard of the {@code virtual-threads} profile. Spring Boot silently falls back to platform threads below Java 21,
+ * which would hide a misconfigured deployment, so startup fails instead.
+ */
+@Configuration
+@Slf4j
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    static final int MIN_JAVA_VERSION = 21;
+
+    @PostConstruct
+    public void init() {
+        checkJavaVersion(Runtime.version().feature());
+        log.info("Web requests, scheduled tasks and Kafka listeners run on virtual threads");
+    }
+
+    static void checkJavaVersion(int javaVersion) {
+        if (javaVersion < MIN_JAVA_VERSION) {
+            throw new IllegalStateException("Virtual threads require Java " + MIN_JAVA_VERSION + ", running on Java " +
+                    javaVersion);
+        }
+    }
+}
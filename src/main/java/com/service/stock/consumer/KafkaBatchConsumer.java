@@ -0,0 +1,32 @@
+package com.service.stock.consumer;
+
+import com.service.stock.model.Order;
+import com.service.stock.service.OrderProcessingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@EnableKafka
+@ConditionalOnProperty(name = "kafka.orders.batch.enabled", havingValue = "true")
+public class KafkaBatchConsumer {
+
+    private final OrderProcessingService orderProcessingService;
+
+    @KafkaListener(id = "orders", topics = "orders", groupId = "stock", batch = "true",
+            properties = {"max.poll.records=${kafka.orders.batch.max-size}",
+                    "fetch.max.wait.ms=${kafka.orders.batch.max-wait-ms}",
+                    "fetch.min.bytes=${kafka.orders.batch.min-bytes}"})
+    public void onOrdersReceive(List<Order> orders) {
+        log.info("Received batch of {} orders from Kafka", orders.size());
+        orderProcessingService.processBatch(orders);
+    }
+
+}
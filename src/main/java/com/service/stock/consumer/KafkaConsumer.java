@@ -1,9 +1,10 @@
 package com.service.stock.consumer;
 
-import com.service.avro.model.AvroOrder;
+import com.service.stock.model.Order;
 import com.service.stock.service.OrderProcessingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
@@ -12,14 +13,16 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 @Slf4j
 @EnableKafka
+@ConditionalOnProperty(name = {"kafka.orders.batch.enabled", "kafka.orders.parallel.enabled"}, havingValue = "false",
+        matchIfMissing = true)
 public class KafkaConsumer {
 
     private final OrderProcessingService orderProcessingService;
 
     @KafkaListener(id = "orders", topics = "orders", groupId = "stock")
-    public void onOrderReceive(AvroOrder avroOrder) {
-        log.info("Received from Kafka: {}", avroOrder);
-        orderProcessingService.process(avroOrder);
+    public void onOrderReceive(Order order) {
+        log.info("Received from Kafka: {}", order);
+        orderProcessingService.process(order);
     }
 
 }
@@ -0,0 +1,130 @@
+package com.service.stock.consumer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.*;
+
+/**
+ * Runs tasks on a fixed number of single threaded lanes, picked by the hash of the task key. Tasks with the same key
+ * run one after another in submission order, tasks with different keys usually run concurrently. A task with several
+ * keys holds the lanes of all of them while it runs.
+ */
+@Slf4j
+class KeyOrderedDispatcher {
+
+    private final List<ExecutorService> lanes;
+
+    KeyOrderedDispatcher(int laneCount, String threadNamePrefix) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("Lane count must be at least 1");
+        }
+        lanes = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            String threadName = threadNamePrefix + i;
+            lanes.add(Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            }));
+        }
+    }
+
+    void dispatch(Object key, Runnable task) {
+        lanes.get(laneIndex(key)).execute(task);
+    }
+
+    /**
+     * Runs the task after every task submitted before on the lanes of its keys, and before every task submitted later
+     * on any of them. The lanes are entered in ascending lane order by one dispatch at a time, so two tasks sharing
+     * several lanes queue on all of them in the same order and can not wait for each other. Apart from the one running
+     * the task, the lanes only wait while it runs.
+     *
+     * @param keys keys of the task, the lane of the {@code null} key if empty
+     */
+    synchronized void dispatchAll(Collection<?> keys, Runnable task) {
+        SortedSet<Integer> laneIndexes = new TreeSet<>();
+        keys.forEach(key -> laneIndexes.add(laneIndex(key)));
+        if (laneIndexes.size() <= 1) {
+            lanes.get(laneIndexes.isEmpty() ? laneIndex(null) : laneIndexes.first()).execute(task);
+            return;
+        }
+        CountDownLatch entered = new CountDownLatch(laneIndexes.size());
+        CountDownLatch completed = new CountDownLatch(1);
+        Iterator<Integer> iterator = laneIndexes.iterator();
+        lanes.get(iterator.next()).execute(() -> {
+            entered.countDown();
+            try {
+                if (await(entered)) {
+                    task.run();
+                }
+            } finally {
+                completed.countDown();
+            }
+        });
+        iterator.forEachRemaining(laneIndex -> lanes.get(laneIndex).execute(() -> {
+            entered.countDown();
+            await(completed);
+        }));
+    }
+
+    /**
+     * Waits until every task submitted before the call has completed.
+     *
+     * @return {@code false} if the timeout elapsed first
+     */
+    boolean awaitSubmitted(long timeoutMs) {
+        List<CompletableFuture<Void>> markers = lanes.stream()
+                .map(lane -> CompletableFuture.runAsync(() -> {
+                }, lane)).toList();
+        try {
+            CompletableFuture.allOf(markers.toArray(CompletableFuture[]::new)).get(timeoutMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    private int laneIndex(Object key) {
+        return Math.floorMod(Objects.hashCode(key), lanes.size());
+    }
+
+    /**
+     * @return {@code false} if the lane was interrupted, which only happens on shutdown
+     */
+    private static boolean await(CountDownLatch latch) {
+        try {
+            latch.await();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    void shutdown(long timeoutMs) {
+        lanes.forEach(ExecutorService::shutdown);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        try {
+            for (ExecutorService lane : lanes) {
+                if (!lane.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    log.warn("Dispatcher lanes did not finish within {} ms", timeoutMs);
+                    lanes.forEach(ExecutorService::shutdownNow);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lanes.forEach(ExecutorService::shutdownNow);
+        }
+    }
+}
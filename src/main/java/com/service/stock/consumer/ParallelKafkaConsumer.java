@@ -0,0 +1,151 @@
+package com.service.stock.consumer;
+
+import com.service.stock.config.ParallelOrdersConfig;
+import com.service.stock.model.Order;
+import com.service.stock.model.OrderStatus;
+import com.service.stock.model.Product;
+import com.service.stock.service.OrderProcessingService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Processes the records of a partition concurrently, on lanes keyed by item id, so orders of the same item keep
+ * their order while orders of different items do not wait for each other. An order with several items runs on the
+ * lanes of all of them, so it keeps its order relative to the orders of each of its items.
+ * <p>
+ * Records are acknowledged when their processing completes, in any order. The container (with async acks, see
+ * {@link ParallelOrdersConfig}) commits only up to the highest contiguous acknowledged offset and does not hand out
+ * the next poll before the previous one is acknowledged, so at most {@code max.poll.records} orders are in flight.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@EnableKafka
+@ConditionalOnProperty(name = "kafka.orders.parallel.enabled", havingValue = "true")
+public class ParallelKafkaConsumer implements ConsumerAwareRebalanceListener {
+
+    private final OrderProcessingService orderProcessingService;
+
+    private KeyOrderedDispatcher dispatcher;
+
+    @Value("${kafka.orders.parallel.workers}")
+    private int workers;
+
+    @Value("${kafka.orders.parallel.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${kafka.orders.parallel.retry-backoff-ms}")
+    private long retryBackoffMs;
+
+    @Value("${kafka.orders.parallel.drain-timeout-ms}")
+    private long drainTimeoutMs;
+
+    @Value("${kafka.orders.batch.enabled}")
+    private boolean batchListenerEnabled;
+
+    @Value("${stock.ledger.enabled}")
+    private boolean stockLedgerEnabled;
+
+    @PostConstruct
+    public void init() {
+        if (batchListenerEnabled) {
+            throw new IllegalStateException("Parallel orders processing can not be used together with the batch " +
+                    "orders listener");
+        }
+        if (stockLedgerEnabled) {
+            throw new IllegalStateException("Parallel orders processing can not be used together with the stock " +
+                    "ledger");
+        }
+        dispatcher = new KeyOrderedDispatcher(workers, "orders-worker-");
+        log.info("Parallel orders processing started with {} workers", workers);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdown(drainTimeoutMs);
+    }
+
+    @KafkaListener(id = "orders", topics = "orders", groupId = "stock",
+            containerFactory = ParallelOrdersConfig.CONTAINER_FACTORY,
+            properties = "max.poll.records=${kafka.orders.parallel.max-poll-records}")
+    public void onOrderReceive(Order order, Acknowledgment acknowledgment) {
+        log.info("Received from Kafka: {}", order);
+        dispatcher.dispatchAll(keys(order), () -> {
+            if (process(order)) {
+                acknowledgment.acknowledge();
+            }
+        });
+    }
+
+    /**
+     * Lets the records of the revoked partitions complete, so their offsets are committed before the new owner starts
+     * and no order is processed by two consumers at once.
+     */
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (!dispatcher.awaitSubmitted(drainTimeoutMs)) {
+            log.warn("In-flight orders did not complete within {} ms on revocation of {}", drainTimeoutMs,
+                    partitions);
+        }
+    }
+
+    /**
+     * Retries within the lane, so later orders of the same item wait. After the last attempt the order is skipped
+     * like the default error handler of the sequential listener does. Processing replaces the status of NEW orders by
+     * their result, so every attempt starts from the received status.
+     *
+     * @return {@code false} if the lane was interrupted before the order was processed or skipped, so the record must
+     * not be acknowledged and is redelivered
+     */
+    private boolean process(Order order) {
+        OrderStatus status = order.getStatus();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                order.setStatus(status);
+                orderProcessingService.process(order);
+                return true;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    log.error("Order processing failed after {} attempts, skipping order: {}", attempt, order, e);
+                    return true;
+                }
+                log.warn("Order processing failed, retrying (attempt {}): {}", attempt, order, e);
+                if (!sleep(retryBackoffMs * attempt)) {
+                    log.warn("Interrupted while retrying, leaving order unacknowledged: {}", order);
+                    return false;
+                }
+            }
+        }
+    }
+
+    private static Set<Long> keys(Order order) {
+        return order.getLines().stream().filter(Objects::nonNull).map(Product::getId).filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
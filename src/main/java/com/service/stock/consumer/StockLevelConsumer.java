@@ -0,0 +1,41 @@
+package com.service.stock.consumer;
+
+import com.service.avro.model.AvroStockLevel;
+import com.service.stock.config.StockLevelTopicConfig;
+import com.service.stock.model.ItemStockLevel;
+import com.service.stock.stocklevel.StockLevelStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands the stock levels published by every node to the {@link StockLevelStream} of this node, so its subscribers
+ * see the changes made through any node. Tombstones are handed over as deleted items.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@EnableKafka
+@ConditionalOnProperty(name = "kafka.stock-levels.enabled", havingValue = "true")
+public class StockLevelConsumer {
+
+    private final StockLevelStream stockLevelStream;
+
+    @KafkaListener(id = "stock-levels", topics = "${kafka.stock-levels.topic}",
+            groupId = "${kafka.stock-levels.stream-group-id}",
+            containerFactory = StockLevelTopicConfig.CONTAINER_FACTORY)
+    public void onStockLevelReceive(ConsumerRecord<String, AvroStockLevel> record) {
+        AvroStockLevel stockLevel = record.value();
+        if (stockLevel == null) {
+            stockLevelStream.deleted(Long.valueOf(record.key()));
+            return;
+        }
+        log.trace("Received stock level from Kafka: {}", stockLevel);
+        stockLevelStream.publish(new ItemStockLevel(stockLevel.getItemId(), stockLevel.getStockAvailable(),
+                stockLevel.getStockReserved(), stockLevel.getVersion()));
+    }
+}
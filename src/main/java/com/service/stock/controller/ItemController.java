@@ -1,20 +1,38 @@
 package com.service.stock.controller;
 
+import com.service.stock.dto.DtoBatchResponse;
 import com.service.stock.dto.ItemDto;
 import com.service.stock.dto.DtoSearchResponse;
 import com.service.stock.entity.Item;
+import com.service.stock.model.CountMode;
+import com.service.stock.model.ExportFormat;
+import com.service.stock.service.ItemBatchService;
+import com.service.stock.service.ItemExportService;
 import com.service.stock.service.ItemService;
+import com.service.stock.stocklevel.StockLevelStream;
 import com.service.stock.utils.PaginationSortingUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/items")
@@ -24,6 +42,18 @@ public class ItemController {
 
     private final ItemService service;
 
+    private final ItemExportService exportService;
+
+    private final ItemBatchService batchService;
+
+    private final StockLevelStream stockLevelStream;
+
+    @Value("${items.cache.serialized-json}")
+    private boolean serializedJson;
+
+    @Value("${items.export.timeout-ms}")
+    private long exportTimeoutMs;
+
     @Operation(summary = "Create the Item")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Item created successfully", content = {
@@ -35,6 +65,26 @@ public class ItemController {
         return service.create(itemDto);
     }
 
+    @Operation(summary = "Create the Items in bulk")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Result of every Item of the batch", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = DtoBatchResponse.class))})})
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public DtoBatchResponse createAll(@RequestBody List<ItemDto> itemDtos) {
+        return batchService.createAll(itemDtos);
+    }
+
+    @Operation(summary = "Update the Items in bulk")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Result of every Item of the batch", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = DtoBatchResponse.class))})})
+    @PatchMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public DtoBatchResponse updateAll(@RequestBody List<ItemDto> itemDtos) {
+        return batchService.updateAll(itemDtos);
+    }
+
     @Operation(summary = "Update the Item")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Item updated successfully", content = {
@@ -53,8 +103,12 @@ public class ItemController {
             @ApiResponse(responseCode = "404", description = "Item not found", content = @Content)})
     @GetMapping("/{itemId}")
     @ResponseStatus(HttpStatus.OK)
-    public ItemDto getById(@PathVariable Long itemId) {
-        return service.findByIdAsDto(itemId);
+    public ResponseEntity<?> getById(@PathVariable Long itemId) {
+        if (serializedJson) {
+            // The cached bytes already are the JSON of the ItemDto, see the 200 response schema
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(service.findByIdAsJson(itemId));
+        }
+        return ResponseEntity.ok(service.findByIdAsDto(itemId));
     }
 
     @Operation(summary = "Retrieve the Items")
@@ -65,9 +119,49 @@ public class ItemController {
     @ResponseStatus(HttpStatus.OK)
     public DtoSearchResponse getAll(@RequestParam(defaultValue = "100") int limit,
                                     @RequestParam(defaultValue = "0") int offset,
-                                    @RequestParam(defaultValue = "id,asc") String[] sort) {
+                                    @RequestParam(defaultValue = "id,asc") String[] sort,
+                                    @RequestParam(required = false) String after,
+                                    @RequestParam(defaultValue = "exact") String count) {
+        CountMode countMode = CountMode.fromString(count);
+        if (after != null) {
+            if (offset != 0) {
+                throw new IllegalArgumentException("Offset can not be combined with a cursor");
+            }
+            return service.findAllAfter(after, limit, PaginationSortingUtils.getSort(sort), countMode);
+        }
         Pageable pageable = PaginationSortingUtils.getPageable(limit, offset, sort);
-        return service.findAll(pageable);
+        return service.findAll(pageable, countMode);
+    }
+
+    @Operation(summary = "Export all Items as NDJSON or CSV")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Items exported successfully", content = {
+                    @Content(mediaType = "application/x-ndjson"), @Content(mediaType = "text/csv")})})
+    @GetMapping("/export")
+    public WebAsyncTask<Void> export(@RequestParam(defaultValue = "ndjson") String format,
+                                     HttpServletResponse response) {
+        ExportFormat exportFormat = ExportFormat.fromString(format);
+        response.setContentType(exportFormat.getMediaType().toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("items." + exportFormat.getFileExtension()).build().toString());
+        // Only the export may run this long, other async requests keep the default timeout
+        return new WebAsyncTask<>(exportTimeoutMs, () -> {
+            OutputStream outputStream = response.getOutputStream();
+            exportService.export(exportFormat, outputStream);
+            outputStream.flush();
+            return null;
+        });
+    }
+
+    @Operation(summary = "Stream the stock changes of the Items as Server-Sent Events")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream opened, all Items if no itemIds are given",
+                    content = {@Content(mediaType = "text/event-stream")}),
+            @ApiResponse(responseCode = "503", description = "Subscribers limit reached", content = @Content)})
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public void stream(@RequestParam(required = false) Set<Long> itemIds, HttpServletRequest request,
+                       HttpServletResponse response) {
+        stockLevelStream.subscribe(itemIds == null ? Set.of() : itemIds, request, response);
     }
 
     @Operation(summary = "Delete the Item by Id")
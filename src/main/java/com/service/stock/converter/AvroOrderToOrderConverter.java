@@ -1,24 +1,38 @@
 package com.service.stock.converter;
 
 import com.service.avro.model.AvroOrder;
+import com.service.avro.model.AvroProduct;
 import com.service.stock.model.Order;
+import com.service.stock.model.OrderStatus;
+import com.service.stock.model.Product;
 import lombok.NonNull;
-import org.modelmapper.ModelMapper;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.stereotype.Component;
 
+import java.util.UUID;
+
 @Component
 public class AvroOrderToOrderConverter implements Converter<AvroOrder, Order> {
 
-    private final ModelMapper modelMapper;
-
-    public AvroOrderToOrderConverter() {
-        this.modelMapper = new ModelMapper();
-    }
-
     @Override
     @NonNull
     public Order convert(@NonNull AvroOrder source) {
-        return modelMapper.map(source, Order.class);
+        Order order = new Order();
+        order.setId(source.getId() == null ? null : UUID.fromString(source.getId().toString()));
+        order.setCustomerId(source.getCustomerId());
+        order.setProduct(source.getProduct() == null ? null : convertProduct(source.getProduct()));
+        order.setStatus(source.getStatus() == null ? null : OrderStatus.valueOf(source.getStatus().name()));
+        order.setSource(source.getSource() == null ? null : source.getSource().toString());
+        order.setProducts(source.getProducts() == null ? null :
+                source.getProducts().stream().map(this::convertProduct).toList());
+        return order;
+    }
+
+    private Product convertProduct(AvroProduct source) {
+        Product product = new Product();
+        product.setId(source.getId());
+        product.setQuantity(source.getQuantity());
+        product.setPrice(source.getPrice());
+        return product;
     }
 }
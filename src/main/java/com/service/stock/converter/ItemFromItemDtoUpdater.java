@@ -2,21 +2,27 @@ package com.service.stock.converter;
 
 import com.service.stock.dto.ItemDto;
 import com.service.stock.entity.Item;
-import org.modelmapper.ModelMapper;
+import lombok.NonNull;
 import org.springframework.stereotype.Component;
 
+/**
+ * Copies every non-null field of the {@link ItemDto} onto the {@link Item}, leaving the other fields untouched.
+ */
 @Component
 public class ItemFromItemDtoUpdater {
 
-    private final ModelMapper modelMapper;
-
-    public ItemFromItemDtoUpdater() {
-        this.modelMapper = new ModelMapper();
-        modelMapper.getConfiguration().setSkipNullEnabled(true);
-
-    }
-
-    public void update(ItemDto itemDto, Item item) {
-        modelMapper.map(itemDto, item);
+    public void update(@NonNull ItemDto itemDto, @NonNull Item item) {
+        if (itemDto.getId() != null) {
+            item.setId(itemDto.getId());
+        }
+        if (itemDto.getName() != null) {
+            item.setName(itemDto.getName());
+        }
+        if (itemDto.getStockAvailable() != null) {
+            item.setStockAvailable(itemDto.getStockAvailable());
+        }
+        if (itemDto.getStockReserved() != null) {
+            item.setStockReserved(itemDto.getStockReserved());
+        }
     }
 }
@@ -1,35 +1,35 @@
 package com.service.stock.converter;
 
 import com.service.avro.model.AvroOrder;
+import com.service.avro.model.AvroOrderStatus;
+import com.service.avro.model.AvroProduct;
 import com.service.stock.model.Order;
+import com.service.stock.model.Product;
 import lombok.NonNull;
-import org.modelmapper.Condition;
-import org.modelmapper.ModelMapper;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.stereotype.Component;
 
-import java.util.UUID;
-
 @Component
 public class OrderToAvroOrderConverter implements Converter<Order, AvroOrder> {
 
-    private final ModelMapper modelMapper;
-
-    public OrderToAvroOrderConverter() {
-        this.modelMapper = new ModelMapper();
-
-        org.modelmapper.Converter<UUID, CharSequence> uuidCharSequenceConverter =
-                categoryList -> categoryList.getSource().toString();
-
-        Condition notNull = ctx -> ctx.getSource() != null;
-
-        modelMapper.typeMap(Order.class, AvroOrder.class).addMappings(modelMapper -> {
-            modelMapper.when(notNull).using(uuidCharSequenceConverter).map(Order::getId, AvroOrder::setId);
-        });
-    }
-
     @Override
     public AvroOrder convert(@NonNull Order source) {
-        return modelMapper.map(source, AvroOrder.class);
+        AvroOrder avroOrder = new AvroOrder();
+        avroOrder.setId(source.getId() == null ? null : source.getId().toString());
+        avroOrder.setCustomerId(source.getCustomerId());
+        avroOrder.setProduct(source.getProduct() == null ? null : convertProduct(source.getProduct()));
+        avroOrder.setStatus(source.getStatus() == null ? null : AvroOrderStatus.valueOf(source.getStatus().name()));
+        avroOrder.setSource(source.getSource());
+        avroOrder.setProducts(source.getProducts() == null ? null :
+                source.getProducts().stream().map(this::convertProduct).toList());
+        return avroOrder;
+    }
+
+    private AvroProduct convertProduct(Product source) {
+        AvroProduct avroProduct = new AvroProduct();
+        avroProduct.setId(source.getId());
+        avroProduct.setQuantity(source.getQuantity());
+        avroProduct.setPrice(source.getPrice());
+        return avroProduct;
     }
 }
@@ -0,0 +1,77 @@
+package com.service.stock.diagnostics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier thread (inside {@code synchronized} or a native
+ * frame), which takes the carrier away from all other virtual threads.
+ * <p>
+ * Listens to the {@code jdk.VirtualThreadPinned} JFR event in-process, so no recording has to be dumped: every pin
+ * longer than {@code virtual-threads.pinning-monitor.threshold-ms} is logged with its top frames and recorded in the
+ * {@value #PINNED_TIMER_NAME} timer. {@code -Djdk.tracePinnedThreads=short} gives the same information on stdout.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "virtual-threads.pinning-monitor.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    static final String PINNED_EVENT_NAME = "jdk.VirtualThreadPinned";
+
+    static final String PINNED_TIMER_NAME = "jvm.threads.virtual.pinned";
+
+    private static final int LOGGED_FRAMES = 5;
+
+    private final MeterRegistry meterRegistry;
+
+    private RecordingStream recordingStream;
+
+    private Timer pinnedTimer;
+
+    @Value("${virtual-threads.pinning-monitor.threshold-ms}")
+    private long thresholdMs;
+
+    @PostConstruct
+    public void start() {
+        pinnedTimer = meterRegistry.timer(PINNED_TIMER_NAME);
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT_NAME).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT_NAME, this::onPinned);
+        recordingStream.startAsync();
+        log.info("Virtual thread pinning monitor started with threshold {} ms", thresholdMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        recordingStream.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedTimer.record(event.getDuration());
+        RecordedThread thread = event.getThread();
+        String frames = event.getStackTrace() == null ? "" : event.getStackTrace().getFrames().stream()
+                .limit(LOGGED_FRAMES).map(VirtualThreadPinningMonitor::format).collect(Collectors.joining(" <- "));
+        log.warn("Virtual thread {} was pinned for {} ms: {}", thread == null ? "?" : thread.getJavaName(),
+                event.getDuration().toMillis(), frames);
+    }
+
+    private static String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" +
+                frame.getLineNumber();
+    }
+}
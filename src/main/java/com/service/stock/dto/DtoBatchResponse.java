@@ -0,0 +1,18 @@
+package com.service.stock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class DtoBatchResponse {
+
+    private Integer succeeded, failed;
+    private List<ItemBatchResult> results;
+}
@@ -12,7 +12,9 @@ import lombok.NoArgsConstructor;
 public class DtoSearchResponse {
 
     private Long offset;
-    private Integer limit, total;
+    private Integer limit;
+    private Long total;
     private String sort;
     private Iterable<? extends Dto> data;
+    private String nextCursor;
 }
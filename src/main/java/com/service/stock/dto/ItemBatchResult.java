@@ -0,0 +1,35 @@
+package com.service.stock.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.service.stock.exception.FieldViolation;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a single item of a batch request, {@code index} is the position of the item in the request.
+ */
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ItemBatchResult {
+
+    private int index;
+    private Long id;
+    private Status status;
+    private String message;
+    private List<FieldViolation> violations;
+
+    public enum Status {
+        CREATED, UPDATED, INVALID, ALREADY_EXISTS, NOT_FOUND, FAILED;
+
+        public boolean isSuccessful() {
+            return this == CREATED || this == UPDATED;
+        }
+    }
+}
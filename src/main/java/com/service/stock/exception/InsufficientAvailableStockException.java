@@ -1,6 +1,6 @@
 package com.service.stock.exception;
 
-public class InsufficientAvailableStockException extends RuntimeException {
+public class InsufficientAvailableStockException extends ServiceException {
     public InsufficientAvailableStockException(String errorMessage) {
         super(errorMessage);
     }
@@ -1,6 +1,6 @@
 package com.service.stock.exception;
 
-public class InsufficientReserveStockException extends RuntimeException {
+public class InsufficientReserveStockException extends ServiceException {
     public InsufficientReserveStockException(String errorMessage) {
         super(errorMessage);
     }
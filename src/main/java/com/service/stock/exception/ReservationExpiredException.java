@@ -0,0 +1,7 @@
+package com.service.stock.exception;
+
+public class ReservationExpiredException extends ReservationStateException {
+    public ReservationExpiredException(String errorMessage) {
+        super(errorMessage);
+    }
+}
@@ -0,0 +1,7 @@
+package com.service.stock.exception;
+
+public class ReservationStateException extends ServiceException {
+    public ReservationStateException(String errorMessage) {
+        super(errorMessage);
+    }
+}
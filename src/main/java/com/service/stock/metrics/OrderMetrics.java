@@ -0,0 +1,122 @@
+package com.service.stock.metrics;
+
+import com.service.stock.exception.EntityNotFoundException;
+import com.service.stock.exception.InsufficientAvailableStockException;
+import com.service.stock.exception.InsufficientReserveStockException;
+import com.service.stock.exception.ReservationExpiredException;
+import com.service.stock.exception.ReservationStateException;
+import com.service.stock.exception.ValidationException;
+import com.service.stock.model.OrderStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Meters of the order processing pipeline.
+ * <p>
+ * Every step of an order is timed with an {@code outcome} tag of {@code success} or {@code failure}:
+ * {@value #DESERIALIZATION_TIMER_NAME} (see {@link TimedDeserializer}), {@value #RESERVATION_TIMER_NAME} tagged by
+ * {@code operation} and {@value #PUBLISH_TIMER_NAME}. Results of NEW orders
+ * are counted as {@value #RESULT_COUNTER_NAME} tagged by {@code status} and {@code reason}, failures that do not end
+ * in a result as {@value #ERROR_COUNTER_NAME} tagged by {@code operation} and {@code reason}.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderMetrics {
+
+    public static final String DESERIALIZATION_TIMER_NAME = "orders.deserialization";
+
+    public static final String RESERVATION_TIMER_NAME = "orders.reservation";
+
+    public static final String PUBLISH_TIMER_NAME = "orders.publish";
+
+    public static final String RESULT_COUNTER_NAME = "orders.results";
+
+    public static final String ERROR_COUNTER_NAME = "orders.errors";
+
+    public static final String NO_REASON = "none";
+
+    /**
+     * Reason of batch reservations, which report only whether a change was applied.
+     */
+    public static final String NOT_APPLIED_REASON = "not_applied";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param operation {@code create}, {@code rollback}, {@code confirm} or {@code batch}
+     */
+    public <T> T recordReservation(String operation, Supplier<T> reservation) {
+        return record(reservation, RESERVATION_TIMER_NAME, "operation", operation);
+    }
+
+    public void recordReservation(String operation, Runnable reservation) {
+        recordReservation(operation, () -> {
+            reservation.run();
+            return null;
+        });
+    }
+
+    public void recordPublish(Runnable publish) {
+        record(() -> {
+            publish.run();
+            return null;
+        }, PUBLISH_TIMER_NAME);
+    }
+
+    public void countResult(OrderStatus status, String reason) {
+        meterRegistry.counter(RESULT_COUNTER_NAME, "status", status.name(), "reason", reason).increment();
+    }
+
+    public void countError(String operation, Throwable error) {
+        countError(meterRegistry, operation, reason(error));
+    }
+
+    public void countError(String operation, String reason) {
+        countError(meterRegistry, operation, reason);
+    }
+
+    static void countError(MeterRegistry meterRegistry, String operation, String reason) {
+        meterRegistry.counter(ERROR_COUNTER_NAME, "operation", operation, "reason", reason).increment();
+    }
+
+    /**
+     * @return a low cardinality tag value describing why an order could not be processed
+     */
+    public static String reason(Throwable error) {
+        if (error instanceof InsufficientAvailableStockException) {
+            return "insufficient_stock";
+        }
+        if (error instanceof InsufficientReserveStockException) {
+            return "insufficient_reserved_stock";
+        }
+        if (error instanceof EntityNotFoundException) {
+            return "item_not_found";
+        }
+        if (error instanceof ReservationExpiredException) {
+            return "reservation_expired";
+        }
+        if (error instanceof ReservationStateException) {
+            return "reservation_state";
+        }
+        if (error instanceof ValidationException) {
+            return "invalid_order";
+        }
+        return error.getClass().getSimpleName();
+    }
+
+    private <T> T record(Supplier<T> step, String name, String... tags) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            T result = step.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(Timer.builder(name).tags(tags).tag("outcome", outcome).register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.service.stock.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.utils.Utils;
+
+import java.util.Map;
+
+/**
+ * Kafka deserializer timing its delegate as {@value OrderMetrics#DESERIALIZATION_TIMER_NAME}, tagged by
+ * {@code topic} and {@code outcome}. Failures are counted as {@value OrderMetrics#ERROR_COUNTER_NAME} with operation
+ * {@code deserialization} and rethrown.
+ * <p>
+ * Kafka instantiates deserializers itself, so the meters are registered in the global registry Spring Boot adds its
+ * registries to. The delegate class is taken from {@value #DELEGATE_CLASS_CONFIG}.
+ */
+public class TimedDeserializer<T> implements Deserializer<T> {
+
+    public static final String DELEGATE_CLASS_CONFIG = "orders.deserializer.delegate.class";
+
+    private final MeterRegistry meterRegistry;
+
+    private Deserializer<T> delegate;
+
+    public TimedDeserializer() {
+        this(Metrics.globalRegistry, null);
+    }
+
+    TimedDeserializer(MeterRegistry meterRegistry, Deserializer<T> delegate) {
+        this.meterRegistry = meterRegistry;
+        this.delegate = delegate;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        if (delegate == null) {
+            Object delegateClass = configs.get(DELEGATE_CLASS_CONFIG);
+            if (delegateClass == null) {
+                throw new IllegalStateException("No delegate deserializer configured, set " + DELEGATE_CLASS_CONFIG);
+            }
+            try {
+                delegate = delegateClass instanceof Class<?> clazz
+                        ? Utils.newInstance(clazz, Deserializer.class)
+                        : Utils.newInstance(delegateClass.toString(), Deserializer.class);
+            } catch (ClassNotFoundException e) {
+                throw new KafkaException("Delegate deserializer class not found: " + delegateClass, e);
+            }
+        }
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            T result = headers == null ? delegate.deserialize(topic, data) : delegate.deserialize(topic, headers, data);
+            outcome = "success";
+            return result;
+        } catch (RuntimeException e) {
+            OrderMetrics.countError(meterRegistry, "deserialization", OrderMetrics.reason(e));
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer(OrderMetrics.DESERIALIZATION_TIMER_NAME,
+                    "topic", topic, "outcome", outcome));
+        }
+    }
+
+    @Override
+    public void close() {
+        if (delegate != null) {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.service.stock.model;
+
+/**
+ * How the {@code total} of an item listing is computed.
+ */
+public enum CountMode {
+
+    /**
+     * Row count kept by this node, see {@link com.service.stock.cache.ItemCountCache}.
+     */
+    EXACT,
+
+    /**
+     * Row estimate of the PostgreSQL statistics, free to read but only as fresh as the last (auto)vacuum or analyze.
+     */
+    APPROXIMATE,
+
+    /**
+     * No total at all.
+     */
+    NONE;
+
+    public static CountMode fromString(String mode) {
+        for (CountMode countMode : values()) {
+            if (countMode.name().equalsIgnoreCase(mode)) {
+                return countMode;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported count mode: " + mode);
+    }
+}
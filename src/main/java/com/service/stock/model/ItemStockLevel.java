@@ -0,0 +1,20 @@
+package com.service.stock.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Stock of an item including its buckets, with the version of that stock.
+ */
+@Data
+@AllArgsConstructor
+public class ItemStockLevel {
+
+    private Long itemId;
+
+    private long stockAvailable;
+
+    private long stockReserved;
+
+    private long version;
+}
@@ -1,7 +1,9 @@
 package com.service.stock.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 
+import java.util.List;
 import java.util.UUID;
 
 @Data
@@ -11,16 +13,31 @@ public class Order {
 
     private Long customerId;
 
+    /**
+     * Single product of orders written before {@link #products} existed.
+     */
     private Product product;
 
+    private List<Product> products;
+
     private OrderStatus status;
 
     private String source;
 
     private String description;
 
+    /**
+     * @return the ordered products: {@link #products} if any, otherwise the single {@link #product}
+     */
+    @JsonIgnore
+    public List<Product> getLines() {
+        if (products != null && !products.isEmpty()) {
+            return products;
+        }
+        return product == null ? List.of() : List.of(product);
+    }
+
     public Long getTotalPrice() {
-        return product.getTotalPrice();
+        return getLines().stream().mapToLong(Product::getTotalPrice).sum();
     }
 }
-
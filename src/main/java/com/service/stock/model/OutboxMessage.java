@@ -0,0 +1,15 @@
+package com.service.stock.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class OutboxMessage {
+
+    private Long id;
+
+    private String key;
+
+    private byte[] payload;
+}
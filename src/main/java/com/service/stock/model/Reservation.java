@@ -0,0 +1,55 @@
+package com.service.stock.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Stock reserved for one product of an order, a row of the {@code reservation} table.
+ */
+@Data
+@AllArgsConstructor
+public class Reservation {
+
+    private UUID orderId;
+
+    private Long customerId;
+
+    private Long itemId;
+
+    private Integer quantity;
+
+    private Long price;
+
+    private ReservationState state;
+
+    private Instant createdAt;
+
+    private Instant expiresAt;
+
+    /**
+     * @param product one of the lines of the order
+     */
+    public static Reservation of(Order order, Product product, Instant createdAt, Instant expiresAt) {
+        return new Reservation(order.getId(), order.getCustomerId(), product.getId(), product.getQuantity(),
+                product.getPrice(), ReservationState.RESERVED, createdAt, expiresAt);
+    }
+
+    /**
+     * @return the order this reservation was made for, with the reserved product and without status
+     */
+    public Order toOrder() {
+        Product product = new Product();
+        product.setId(itemId);
+        product.setQuantity(quantity);
+        product.setPrice(price);
+
+        Order order = new Order();
+        order.setId(orderId);
+        order.setCustomerId(customerId);
+        order.setProduct(product);
+        return order;
+    }
+}
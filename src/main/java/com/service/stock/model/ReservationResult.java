@@ -0,0 +1,13 @@
+package com.service.stock.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ReservationResult {
+
+    private Order order;
+
+    private boolean applied;
+}
@@ -0,0 +1,5 @@
+package com.service.stock.model;
+
+public enum ReservationState {
+    RESERVED, CONFIRMED, ROLLED_BACK, EXPIRED
+}
@@ -0,0 +1,36 @@
+package com.service.stock.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * One change of the stock of an item, a row of the append-only {@code stock_movement} table.
+ */
+@Data
+@AllArgsConstructor
+public class StockMovement {
+
+    private Long itemId;
+
+    private long availableDelta;
+
+    private long reservedDelta;
+
+    private StockMovementReason reason;
+
+    private UUID orderId;
+
+    public static StockMovement reserve(Long itemId, long quantity, UUID orderId) {
+        return new StockMovement(itemId, -quantity, quantity, StockMovementReason.RESERVE, orderId);
+    }
+
+    public static StockMovement release(Long itemId, long quantity, UUID orderId, StockMovementReason reason) {
+        return new StockMovement(itemId, quantity, -quantity, reason, orderId);
+    }
+
+    public static StockMovement confirm(Long itemId, long quantity, UUID orderId) {
+        return new StockMovement(itemId, 0, -quantity, StockMovementReason.CONFIRM, orderId);
+    }
+}
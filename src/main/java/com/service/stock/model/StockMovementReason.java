@@ -0,0 +1,5 @@
+package com.service.stock.model;
+
+public enum StockMovementReason {
+    CREATE, ADJUST, RESERVE, RELEASE, CONFIRM, EXPIRE
+}
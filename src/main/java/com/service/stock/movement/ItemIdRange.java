@@ -0,0 +1,25 @@
+package com.service.stock.movement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inclusive range of item ids the snapshots are compacted and rebuilt by.
+ */
+record ItemIdRange(long from, long to) {
+
+    static List<ItemIdRange> split(long min, long max, long size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Range size must be at least 1");
+        }
+        List<ItemIdRange> ranges = new ArrayList<>();
+        for (long from = min; from <= max; from += size) {
+            long to = Math.min(max, from + size - 1);
+            ranges.add(new ItemIdRange(from, to));
+            if (to == max) {
+                break;
+            }
+        }
+        return ranges;
+    }
+}
@@ -0,0 +1,69 @@
+package com.service.stock.movement;
+
+import com.service.stock.model.StockMovement;
+import com.service.stock.repository.StockMovementRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends stock changes to the {@code stock_movement} log when {@code stock.movements.enabled} is set.
+ * <p>
+ * Within a transaction the movements are collected and written with one JDBC batch right before the commit, so a
+ * transaction adds at most one insert however many items it changes, and the movements are committed or rolled back
+ * together with the stock change. Outside a transaction every call writes its movements immediately.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class StockMovementLog {
+
+    private final StockMovementRepository stockMovementRepository;
+
+    @Value("${stock.movements.enabled}")
+    private boolean enabled;
+
+    public void record(StockMovement movement) {
+        record(List.of(movement));
+    }
+
+    public void record(List<StockMovement> movements) {
+        if (!enabled || movements.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            stockMovementRepository.saveAll(movements);
+            return;
+        }
+        pendingMovements().addAll(movements);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<StockMovement> pendingMovements() {
+        List<StockMovement> pending = (List<StockMovement>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        List<StockMovement> movements = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, movements);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                stockMovementRepository.saveAll(movements);
+                log.debug("Appended {} stock movements", movements.size());
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(StockMovementLog.this);
+            }
+        });
+        return movements;
+    }
+}
@@ -0,0 +1,143 @@
+package com.service.stock.movement;
+
+import com.service.stock.cache.ItemCache;
+import com.service.stock.exception.ServiceException;
+import com.service.stock.repository.StockMovementRepository;
+import com.service.stock.stocklevel.StockLevelPublisher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Rebuilds the stock of every item from its snapshot plus the movements after it, e.g. after the item rows were
+ * restored from a backup or changed by hand.
+ * <p>
+ * The items are rebuilt in ranges of {@code stock.movements.range-size} ids, {@code stock.movements.rebuild-threads}
+ * ranges at a time, each in its own transaction holding the locks of its item rows. Only the rows whose stock
+ * differs are written. Runs on startup when {@code stock.movements.rebuild-on-startup} is set; stock changed while a
+ * range is rebuilt without a transaction, such as a reservation outside the batch listener, may be logged after the
+ * range was read, so the rebuild is meant to run while no orders are processed.
+ * <p>
+ * The snapshots are only a valid starting point if the log was written ever since they were taken. An instance
+ * started with the log off therefore removes the {@code stock_movement_log_state} marker, and the first instance
+ * started with the log on without the marker seeds every snapshot from the item rows before setting it again. The
+ * rebuild refuses to run without the marker. The log has to be switched on or off on all instances together: one
+ * still running with the log off after the marker was set changes stock the log misses.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class StockRebuilder implements ApplicationRunner {
+
+    private final StockMovementRepository stockMovementRepository;
+
+    private final ItemCache itemCache;
+
+    private final StockLevelPublisher stockLevelPublisher;
+
+    @Value("${stock.movements.enabled}")
+    private boolean enabled;
+
+    @Value("${stock.movements.rebuild-on-startup}")
+    private boolean rebuildOnStartup;
+
+    @Value("${stock.movements.rebuild-threads}")
+    private int rebuildThreads;
+
+    @Value("${stock.movements.range-size}")
+    private long rangeSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        startLog();
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Removes the marker of a gapless log when the log is off, or seeds the snapshots and sets the marker when the log
+     * is on and the marker is missing.
+     */
+    void startLog() {
+        try {
+            if (!enabled) {
+                if (stockMovementRepository.markLogDisabled()) {
+                    log.warn("Stock movement log switched off, the snapshots are seeded again when it is switched on");
+                }
+                return;
+            }
+            if (stockMovementRepository.findLogEnabledSince().isPresent()) {
+                return;
+            }
+            int seeded = 0;
+            Optional<long[]> itemIds = stockMovementRepository.findItemIdRange();
+            if (itemIds.isPresent()) {
+                for (ItemIdRange range : ItemIdRange.split(itemIds.get()[0], itemIds.get()[1], rangeSize)) {
+                    seeded += stockMovementRepository.seed(range.from(), range.to());
+                }
+            }
+            stockMovementRepository.markLogEnabled();
+            log.info("Stock movement log switched on, seeded {} snapshots from the item rows", seeded);
+        } catch (DataAccessException e) {
+            throw new ServiceException(e);
+        }
+    }
+
+    /**
+     * @return number of items whose stock was corrected
+     */
+    public int rebuild() {
+        if (!enabled) {
+            throw new IllegalStateException("Stock can only be rebuilt with the stock movement log enabled");
+        }
+        List<ItemIdRange> ranges;
+        try {
+            if (stockMovementRepository.findLogEnabledSince().isEmpty()) {
+                throw new IllegalStateException("Stock can only be rebuilt when the stock movement log was on since " +
+                        "its snapshots were seeded");
+            }
+            ranges = stockMovementRepository.findItemIdRange()
+                    .map(itemIds -> ItemIdRange.split(itemIds[0], itemIds[1], rangeSize)).orElse(List.of());
+        } catch (DataAccessException e) {
+            throw new ServiceException(e);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(rebuildThreads);
+        try {
+            List<Future<List<Long>>> rebuilt = new ArrayList<>(ranges.size());
+            for (ItemIdRange range : ranges) {
+                rebuilt.add(executor.submit(() -> stockMovementRepository.rebuild(range.from(), range.to())));
+            }
+            int corrected = 0;
+            for (Future<List<Long>> future : rebuilt) {
+                List<Long> itemIds = future.get();
+                itemCache.invalidateAll(itemIds);
+                stockLevelPublisher.changed(itemIds);
+                corrected += itemIds.size();
+            }
+            log.info("Rebuilt the stock of {} item ranges from the movement log, corrected {} items", ranges.size(),
+                    corrected);
+            return corrected;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("Interrupted while rebuilding the stock", e);
+        } catch (ExecutionException e) {
+            throw new ServiceException("Rebuilding the stock failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.service.stock.movement;
+
+import com.service.stock.repository.StockMovementRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Periodically folds the {@code stock_movement} log into {@code stock_snapshot}, one statement per
+ * {@code stock.movements.range-size} items.
+ * <p>
+ * Movement ids are assigned when a movement is inserted, not when it is committed, so only movements older than
+ * {@code stock.movements.snapshot-lag-ms} are compacted: a transaction still open by then could otherwise commit a
+ * movement below the id a snapshot already covers.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class StockSnapshotCompactor {
+
+    private final StockMovementRepository stockMovementRepository;
+
+    @Value("${stock.movements.enabled}")
+    private boolean enabled;
+
+    @Value("${stock.movements.snapshot-lag-ms}")
+    private long snapshotLagMs;
+
+    @Value("${stock.movements.range-size}")
+    private long rangeSize;
+
+    @Scheduled(fixedDelayString = "${stock.movements.snapshot-interval-ms}",
+            initialDelayString = "${stock.movements.snapshot-interval-ms}")
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Optional<Long> lastMovementId = stockMovementRepository.findLastIdBefore(
+                    Instant.now().minusMillis(snapshotLagMs));
+            Optional<long[]> itemIds = stockMovementRepository.findItemIdRange();
+            if (lastMovementId.isEmpty() || itemIds.isEmpty()) {
+                return;
+            }
+            int snapshots = 0;
+            for (ItemIdRange range : ItemIdRange.split(itemIds.get()[0], itemIds.get()[1], rangeSize)) {
+                snapshots += stockMovementRepository.compact(range.from(), range.to(), lastMovementId.get());
+            }
+            log.info("Compacted stock movements up to id {} into {} snapshots", lastMovementId.get(), snapshots);
+        } catch (DataAccessException e) {
+            log.error("Error compacting stock movements, retrying with the next run", e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.service.stock.outbox;
+
+import com.service.avro.model.AvroOrder;
+import com.service.stock.model.OutboxMessage;
+import com.service.stock.repository.OrderOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Publishes the outbox to the {@code stock-orders} topic.
+ * <p>
+ * Each batch is sent in one Kafka transaction and deleted from the outbox in the database transaction that locked it,
+ * so {@code read_committed} consumers see a batch completely or not at all. A crash between the Kafka and the
+ * database commit publishes the batch again; results are keyed by order id so consumers can drop such duplicates.
+ * <p>
+ * The relay uses its own transactional producer, so the rest of the application keeps the plain producer and the JPA
+ * transaction manager.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "kafka.orders.exactly-once.enabled", havingValue = "true")
+public class OrderOutboxRelay {
+
+    private final OrderOutboxRepository orderOutboxRepository;
+
+    private final KafkaProperties kafkaProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private DefaultKafkaProducerFactory<String, AvroOrder> producerFactory;
+
+    private KafkaTemplate<String, AvroOrder> template;
+
+    @Value("${kafka.payment-orders.topic}")
+    private String topic;
+
+    @Value("${kafka.orders.exactly-once.relay-batch-size}")
+    private int batchSize;
+
+    @Value("${kafka.orders.exactly-once.transaction-id-prefix}")
+    private String transactionIdPrefix;
+
+    @PostConstruct
+    public void init() {
+        producerFactory = new DefaultKafkaProducerFactory<>(kafkaProperties.buildProducerProperties(null));
+        producerFactory.setTransactionIdPrefix(transactionIdPrefix);
+        template = new KafkaTemplate<>(producerFactory);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        producerFactory.destroy();
+    }
+
+    /**
+     * Publishes batches until the outbox is drained or publishing fails; failed batches stay in the outbox.
+     */
+    @Scheduled(fixedDelayString = "${kafka.orders.exactly-once.relay-interval-ms}")
+    public void relay() {
+        try {
+            Integer published;
+            do {
+                published = transactionTemplate.execute(status -> publishBatch());
+            } while (published != null && published == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Error publishing outbox to Kafka, retrying with the next relay run", e);
+        }
+    }
+
+    private int publishBatch() {
+        List<OutboxMessage> messages = orderOutboxRepository.findMessagesForUpdate(batchSize);
+        if (messages.isEmpty()) {
+            return 0;
+        }
+        template.executeInTransaction(operations -> {
+            for (OutboxMessage message : messages) {
+                operations.send(topic, message.getKey(), decode(message.getPayload()));
+            }
+            return null;
+        });
+        orderOutboxRepository.deleteMessages(messages);
+        log.debug("Published {} outbox messages", messages.size());
+        return messages.size();
+    }
+
+    private static AvroOrder decode(byte[] payload) {
+        try {
+            return AvroOrder.fromByteBuffer(ByteBuffer.wrap(payload));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
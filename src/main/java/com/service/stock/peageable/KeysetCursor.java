@@ -0,0 +1,65 @@
+package com.service.stock.peageable;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of a keyset (seek) page: the sort property and direction, and the sort value and id of the last item of
+ * the previous page. Clients only see it as an opaque URL-safe token.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class KeysetCursor {
+
+    private static final char SEPARATOR = '\n';
+
+    private final String property;
+
+    private final Sort.Direction direction;
+
+    private final long id;
+
+    private final String value;
+
+    public KeysetCursor(@NonNull String property, @NonNull Sort.Direction direction, long id, @NonNull String value) {
+        this.property = property;
+        this.direction = direction;
+        this.id = id;
+        this.value = value;
+    }
+
+    public static KeysetCursor decode(@NonNull String token) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+        // The value goes last, so it may contain the separator itself
+        String[] parts = decoded.split(String.valueOf(SEPARATOR), 4);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+        try {
+            return new KeysetCursor(parts[0], Sort.Direction.fromString(parts[1]), Long.parseLong(parts[2]), parts[3]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    public String encode() {
+        String decoded = property + SEPARATOR + direction + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(decoded.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean matches(@NonNull Sort.Order order) {
+        return property.equals(order.getProperty()) && direction == order.getDirection();
+    }
+}
@@ -0,0 +1,110 @@
+package com.service.stock.repository;
+
+import com.service.stock.entity.Item;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bulk writes of items. Every method sends a single JDBC batch or query for the whole collection, so callers control
+ * the round trips by the size of the chunks they pass in.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ItemBatchRepository {
+
+    private static final String ALLOCATE_IDS_SQL = "SELECT nextval('item_seq') FROM generate_series(1, ?)";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO item (id, name, stock_available, stock_reserved) VALUES (?, ?, ?, ?) " +
+                    "ON CONFLICT (id) DO NOTHING";
+
+    private static final String FIND_FOR_UPDATE_SQL =
+            "SELECT id, name, stock_available, stock_reserved FROM item WHERE id = ANY (?) ORDER BY id FOR UPDATE";
+
+    private static final String UPDATE_SQL =
+            "UPDATE item SET name = ?, stock_available = ?, stock_reserved = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Takes a block of ids from {@code item_seq} in one round trip instead of one per item.
+     */
+    public List<Long> allocateIds(int count) {
+        if (count == 0) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList(ALLOCATE_IDS_SQL, Long.class, count);
+    }
+
+    /**
+     * Inserts items that already have an id.
+     *
+     * @return update count per item, {@code 0} when an item with the same id already exists
+     */
+    public int[] insert(List<Item> items) {
+        return jdbcTemplate.batchUpdate(INSERT_SQL, new ItemStatementSetter(items) {
+            @Override
+            void setValues(PreparedStatement ps, Item item) throws SQLException {
+                ps.setLong(1, item.getId());
+                ps.setString(2, item.getName());
+                ps.setLong(3, item.getStockAvailable());
+                ps.setLong(4, item.getStockReserved());
+            }
+        });
+    }
+
+    /**
+     * Loads and locks the items in id order, so concurrent batches can not deadlock each other.
+     */
+    public List<Item> findAllForUpdate(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(FIND_FOR_UPDATE_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())),
+                (rs, rowNum) -> new Item(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getLong(4)));
+    }
+
+    /**
+     * @return update count per item, {@code 0} when the item does not exist
+     */
+    public int[] update(List<Item> items) {
+        return jdbcTemplate.batchUpdate(UPDATE_SQL, new ItemStatementSetter(items) {
+            @Override
+            void setValues(PreparedStatement ps, Item item) throws SQLException {
+                ps.setString(1, item.getName());
+                ps.setLong(2, item.getStockAvailable());
+                ps.setLong(3, item.getStockReserved());
+                ps.setLong(4, item.getId());
+            }
+        });
+    }
+
+    private abstract static class ItemStatementSetter implements BatchPreparedStatementSetter {
+
+        private final List<Item> items;
+
+        ItemStatementSetter(List<Item> items) {
+            this.items = items;
+        }
+
+        abstract void setValues(PreparedStatement ps, Item item) throws SQLException;
+
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+            setValues(ps, items.get(i));
+        }
+
+        @Override
+        public int getBatchSize() {
+            return items.size();
+        }
+    }
+}
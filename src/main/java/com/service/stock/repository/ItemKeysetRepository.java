@@ -0,0 +1,19 @@
+package com.service.stock.repository;
+
+import com.service.stock.entity.Item;
+import com.service.stock.peageable.KeysetCursor;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+public interface ItemKeysetRepository {
+
+    /**
+     * Returns the items following the cursor, ordered by the sort column and id, as
+     * {@code WHERE (sort_col, id) > (?, ?) ORDER BY sort_col, id LIMIT ?}. The cost does not depend on how deep the
+     * page is, provided there is an index on {@code (sort_col, id)}.
+     *
+     * @param after position of the last item of the previous page, {@code null} for the first page
+     */
+    List<Item> findPageAfter(ItemSortColumn sortColumn, Sort.Direction direction, KeysetCursor after, int limit);
+}
@@ -0,0 +1,49 @@
+package com.service.stock.repository;
+
+import com.service.stock.entity.Item;
+import com.service.stock.peageable.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+class ItemKeysetRepositoryImpl implements ItemKeysetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Item> findPageAfter(ItemSortColumn sortColumn, Sort.Direction direction, KeysetCursor after,
+                                    int limit) {
+        String column = sortColumn.getColumn();
+        String order = direction.isAscending() ? " ASC" : " DESC";
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM item");
+        if (after != null) {
+            String comparison = direction.isAscending() ? " > " : " < ";
+            if (sortColumn == ItemSortColumn.ID) {
+                sql.append(" WHERE id").append(comparison).append(":id");
+            } else {
+                sql.append(" WHERE (").append(column).append(", id)").append(comparison).append("(:value, :id)");
+            }
+        }
+        sql.append(" ORDER BY ").append(column).append(order);
+        if (sortColumn != ItemSortColumn.ID) {
+            sql.append(", id").append(order);
+        }
+        sql.append(" LIMIT :limit");
+
+        Query query = entityManager.createNativeQuery(sql.toString(), Item.class);
+        if (after != null) {
+            query.setParameter("id", after.getId());
+            if (sortColumn != ItemSortColumn.ID) {
+                query.setParameter("value", sortColumn.parse(after.getValue()));
+            }
+        }
+        query.setParameter("limit", limit);
+        return query.getResultList();
+    }
+}
@@ -2,6 +2,54 @@ package com.service.stock.repository;
 
 import com.service.stock.entity.Item;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
-}
\ No newline at end of file
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemKeysetRepository, ItemStreamRepository {
+
+    /**
+     * Row estimate of the planner statistics, {@code -1} (or {@code 0} before PostgreSQL 14) if the table has never
+     * been vacuumed or analyzed.
+     */
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = CAST('item' AS regclass)",
+            nativeQuery = true)
+    long estimateCount();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Item i SET i.stockAvailable = i.stockAvailable - :quantity, " +
+            "i.stockReserved = i.stockReserved + :quantity WHERE i.id = :id AND i.stockAvailable >= :quantity")
+    int reserveStock(@Param("id") Long id, @Param("quantity") long quantity);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Item i SET i.stockAvailable = i.stockAvailable + :quantity, " +
+            "i.stockReserved = i.stockReserved - :quantity WHERE i.id = :id AND i.stockReserved >= :quantity")
+    int releaseStock(@Param("id") Long id, @Param("quantity") long quantity);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Item i SET i.stockReserved = i.stockReserved - :quantity " +
+            "WHERE i.id = :id AND i.stockReserved >= :quantity")
+    int confirmStock(@Param("id") Long id, @Param("quantity") long quantity);
+
+    /**
+     * Locks the item rows in ascending id order until the end of the current transaction.
+     *
+     * @return ids of the locked items
+     */
+    @Query(value = "SELECT id FROM item WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockAllById(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Available stock of the item row, locked until the end of the current transaction.
+     */
+    @Query(value = "SELECT stock_available FROM item WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Long> findStockAvailableForUpdate(@Param("id") Long id);
+}
@@ -0,0 +1,60 @@
+package com.service.stock.repository;
+
+import com.service.stock.entity.Item;
+
+import java.util.function.Function;
+
+/**
+ * Item properties a keyset page can be sorted by, with their column and the way their cursor value is read back.
+ */
+public enum ItemSortColumn {
+
+    ID("id", "id", Item::getId, Long::valueOf),
+    NAME("name", "name", Item::getName, value -> value),
+    STOCK_AVAILABLE("stockAvailable", "stock_available", Item::getStockAvailable, Long::valueOf),
+    STOCK_RESERVED("stockReserved", "stock_reserved", Item::getStockReserved, Long::valueOf);
+
+    private final String property;
+
+    private final String column;
+
+    private final Function<Item, Object> getter;
+
+    private final Function<String, Object> parser;
+
+    ItemSortColumn(String property, String column, Function<Item, Object> getter, Function<String, Object> parser) {
+        this.property = property;
+        this.column = column;
+        this.getter = getter;
+        this.parser = parser;
+    }
+
+    public static ItemSortColumn fromProperty(String property) {
+        for (ItemSortColumn sortColumn : values()) {
+            if (sortColumn.property.equals(property)) {
+                return sortColumn;
+            }
+        }
+        throw new IllegalArgumentException("Items can not be sorted by " + property);
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    String getColumn() {
+        return column;
+    }
+
+    public String valueOf(Item item) {
+        return String.valueOf(getter.apply(item));
+    }
+
+    Object parse(String value) {
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + property + " value: " + value, e);
+        }
+    }
+}
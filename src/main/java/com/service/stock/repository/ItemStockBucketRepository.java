@@ -0,0 +1,185 @@
+package com.service.stock.repository;
+
+import com.service.stock.reservation.StockDelta;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Bucket rows of striped items, see {@link com.service.stock.reservation.StockStriping}.
+ * <p>
+ * Every method restructuring the buckets of an item locks the item row before its buckets, so it can neither
+ * deadlock with another one nor interleave with a direct write of the item row.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ItemStockBucketRepository {
+
+    private static final String APPLY_SQL =
+            "UPDATE item_stock_bucket SET stock_available = stock_available + ?, stock_reserved = stock_reserved + ? " +
+                    "WHERE item_id = ? AND bucket = ? AND stock_available + ? >= 0 AND stock_reserved + ? >= 0 " +
+                    "RETURNING stock_available";
+
+    private static final String FIND_BUCKET_COUNTS_SQL =
+            "SELECT item_id, COUNT(*) FROM item_stock_bucket GROUP BY item_id";
+
+    private static final String COUNT_BUCKETS_SQL = "SELECT COUNT(*) FROM item_stock_bucket WHERE item_id = ?";
+
+    private static final String FIND_STOCK_SQL =
+            "SELECT item_id, SUM(stock_available), SUM(stock_reserved) FROM item_stock_bucket " +
+                    "WHERE item_id = ANY (?) GROUP BY item_id";
+
+    private static final String FIND_ALL_STOCK_SQL =
+            "SELECT item_id, SUM(stock_available), SUM(stock_reserved) FROM item_stock_bucket GROUP BY item_id";
+
+    private static final String LOCK_ITEM_SQL = "SELECT stock_available FROM item WHERE id = ? FOR UPDATE";
+
+    private static final String LOCK_ITEMS_SQL = "SELECT id FROM item WHERE id = ANY (?) ORDER BY id FOR UPDATE";
+
+    private static final String LOCK_BUCKETS_SQL =
+            "SELECT bucket, stock_available, stock_reserved FROM item_stock_bucket WHERE item_id = ? " +
+                    "ORDER BY bucket FOR UPDATE";
+
+    private static final String LOCK_ALL_BUCKETS_SQL =
+            "SELECT item_id FROM item_stock_bucket WHERE item_id = ANY (?) ORDER BY item_id, bucket FOR UPDATE";
+
+    private static final String SAVE_BUCKET_SQL =
+            "INSERT INTO item_stock_bucket (item_id, bucket, stock_available, stock_reserved) VALUES (?, ?, ?, 0) " +
+                    "ON CONFLICT (item_id, bucket) DO UPDATE SET stock_available = EXCLUDED.stock_available";
+
+    private static final String SAVE_ITEM_REST_SQL =
+            "UPDATE item SET stock_available = ?, stock_reserved = stock_reserved + ? WHERE id = ?";
+
+    private static final String DELETE_EXTRA_BUCKETS_SQL =
+            "DELETE FROM item_stock_bucket WHERE item_id = ? AND bucket >= ?";
+
+    private static final String FOLD_SQL =
+            "UPDATE item i SET stock_available = i.stock_available + b.available, " +
+                    "stock_reserved = i.stock_reserved + b.reserved " +
+                    "FROM (SELECT item_id, SUM(stock_available) AS available, SUM(stock_reserved) AS reserved " +
+                    "FROM item_stock_bucket WHERE item_id = ANY (?) GROUP BY item_id) b WHERE i.id = b.item_id";
+
+    private static final String DELETE_BUCKETS_SQL = "DELETE FROM item_stock_bucket WHERE item_id = ANY (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Changes the stock of one bucket if it stays non-negative.
+     *
+     * @return available stock left in the bucket, {@code -1} if the bucket does not exist or does not allow the change
+     */
+    public long apply(Long itemId, int bucket, long availableDelta, long reservedDelta) {
+        List<Long> remaining = jdbcTemplate.queryForList(APPLY_SQL, Long.class, availableDelta, reservedDelta, itemId,
+                bucket, availableDelta, reservedDelta);
+        return remaining.isEmpty() ? -1 : remaining.get(0);
+    }
+
+    /**
+     * @return number of buckets by striped item id
+     */
+    public Map<Long, Integer> findBucketCounts() {
+        Map<Long, Integer> counts = new HashMap<>();
+        jdbcTemplate.query(FIND_BUCKET_COUNTS_SQL, rs -> {
+            counts.put(rs.getLong(1), rs.getInt(2));
+        });
+        return counts;
+    }
+
+    public int countBuckets(Long itemId) {
+        Integer count = jdbcTemplate.queryForObject(COUNT_BUCKETS_SQL, Integer.class, itemId);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * @return stock held in buckets by item id, to be added to the item rows; items without buckets are left out
+     */
+    public Map<Long, StockDelta> findStripedStock(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, StockDelta> stock = new HashMap<>();
+        jdbcTemplate.query(FIND_STOCK_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", itemIds.toArray())),
+                rs -> {
+                    stock.put(rs.getLong(1), new StockDelta(rs.getLong(1), rs.getLong(2), rs.getLong(3)));
+                });
+        return stock;
+    }
+
+    /**
+     * Same as {@link #findStripedStock(Collection)} for all striped items.
+     */
+    public Map<Long, StockDelta> findAllStripedStock() {
+        Map<Long, StockDelta> stock = new HashMap<>();
+        jdbcTemplate.query(FIND_ALL_STOCK_SQL, rs -> {
+            stock.put(rs.getLong(1), new StockDelta(rs.getLong(1), rs.getLong(2), rs.getLong(3)));
+        });
+        return stock;
+    }
+
+    /**
+     * Spreads the available stock of the item row and all its buckets evenly over {@code buckets} buckets, the
+     * remainder of the division stays in the item row. Reserved stock is left where it is, except for buckets beyond
+     * the new count, which are folded into the item row.
+     * <p>
+     * If every bucket would get less than {@code minBucketStock}, the buckets are collapsed instead.
+     *
+     * @return number of buckets of the item afterwards, {@code 0} if it was collapsed or does not exist
+     */
+    @Transactional
+    public int rebalance(Long itemId, int buckets, long minBucketStock) {
+        List<Long> itemAvailable = jdbcTemplate.queryForList(LOCK_ITEM_SQL, Long.class, itemId);
+        if (itemAvailable.isEmpty()) {
+            return 0;
+        }
+        long available = itemAvailable.get(0);
+        long extraReserved = 0;
+        for (Map<String, Object> bucket : jdbcTemplate.queryForList(LOCK_BUCKETS_SQL, itemId)) {
+            available += ((Number) bucket.get("stock_available")).longValue();
+            if (((Number) bucket.get("bucket")).intValue() >= buckets) {
+                extraReserved += ((Number) bucket.get("stock_reserved")).longValue();
+            }
+        }
+        if (buckets < 2 || available < buckets * minBucketStock) {
+            collapse(List.of(itemId));
+            return 0;
+        }
+
+        long share = available / buckets;
+        List<Object[]> bucketArgs = new ArrayList<>(buckets);
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            bucketArgs.add(new Object[]{itemId, bucket, share});
+        }
+        jdbcTemplate.batchUpdate(SAVE_BUCKET_SQL, bucketArgs);
+        jdbcTemplate.update(SAVE_ITEM_REST_SQL, available - share * buckets, extraReserved, itemId);
+        jdbcTemplate.update(DELETE_EXTRA_BUCKETS_SQL, itemId, buckets);
+        return buckets;
+    }
+
+    /**
+     * Folds the buckets of the items into their item rows and deletes them.
+     *
+     * @return ids of the items that had buckets
+     */
+    @Transactional
+    public Set<Long> collapse(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Set.of();
+        }
+        Object[] ids = itemIds.toArray();
+        jdbcTemplate.query(LOCK_ITEMS_SQL, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)),
+                rs -> {
+                });
+        Set<Long> stripedIds = new HashSet<>(jdbcTemplate.query(LOCK_ALL_BUCKETS_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)), (rs, rowNum) -> rs.getLong(1)));
+        if (stripedIds.isEmpty()) {
+            return stripedIds;
+        }
+        jdbcTemplate.update(FOLD_SQL, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)));
+        jdbcTemplate.update(DELETE_BUCKETS_SQL, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)));
+        return stripedIds;
+    }
+}
@@ -0,0 +1,55 @@
+package com.service.stock.repository;
+
+import com.service.stock.model.ItemStockLevel;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Stock levels of items: the stock of the item row plus all its buckets and the sum of their versions, read with one
+ * statement so the stock and the version are of the same snapshot.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ItemStockLevelRepository {
+
+    private static final String SELECT_SQL =
+            "SELECT i.id, i.stock_available + COALESCE(SUM(b.stock_available), 0), " +
+                    "i.stock_reserved + COALESCE(SUM(b.stock_reserved), 0), " +
+                    "i.stock_version + COALESCE(SUM(b.stock_version), 0) " +
+                    "FROM item i LEFT JOIN item_stock_bucket b ON b.item_id = i.id ";
+
+    private static final String FIND_ALL_BY_ID_SQL = SELECT_SQL + "WHERE i.id = ANY (?) GROUP BY i.id";
+
+    private static final String FIND_PAGE_AFTER_SQL = SELECT_SQL + "WHERE i.id > ? GROUP BY i.id ORDER BY i.id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return stock levels of the existing items among {@code itemIds}
+     */
+    public List<ItemStockLevel> findAllById(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(FIND_ALL_BY_ID_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", itemIds.toArray())),
+                (rs, rowNum) -> mapStockLevel(rs));
+    }
+
+    /**
+     * @return stock levels of the first {@code limit} items with an id greater than {@code itemId}, by id
+     */
+    public List<ItemStockLevel> findPageAfter(long itemId, int limit) {
+        return jdbcTemplate.query(FIND_PAGE_AFTER_SQL, (rs, rowNum) -> mapStockLevel(rs), itemId, limit);
+    }
+
+    private static ItemStockLevel mapStockLevel(ResultSet rs) throws SQLException {
+        return new ItemStockLevel(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4));
+    }
+}
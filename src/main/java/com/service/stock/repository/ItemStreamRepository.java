@@ -0,0 +1,17 @@
+package com.service.stock.repository;
+
+import com.service.stock.entity.Item;
+
+import java.util.stream.Stream;
+
+public interface ItemStreamRepository {
+
+    /**
+     * Streams all items ordered by id through a forward-only JDBC cursor. Items are detached as soon as they are read,
+     * so memory use does not depend on the size of the table.
+     * <p>
+     * Must be called inside a (read-only) transaction, PostgreSQL only uses a cursor when autocommit is off, and the
+     * returned stream must be closed.
+     */
+    Stream<Item> streamAll();
+}
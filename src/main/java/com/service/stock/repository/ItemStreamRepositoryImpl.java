@@ -0,0 +1,28 @@
+package com.service.stock.repository;
+
+import com.service.stock.entity.Item;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.stream.Stream;
+
+class ItemStreamRepositoryImpl implements ItemStreamRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${items.export.fetch-size}")
+    private int fetchSize;
+
+    @Override
+    public Stream<Item> streamAll() {
+        return entityManager.createQuery("SELECT i FROM Item i ORDER BY i.id", Item.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_CACHEABLE, false)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+}
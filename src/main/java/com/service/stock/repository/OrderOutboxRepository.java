@@ -0,0 +1,69 @@
+package com.service.stock.repository;
+
+import com.service.stock.model.OutboxMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Storage of the exactly-once mode: ids of already processed orders and the results waiting to be published to
+ * Kafka. Both are written in the transaction of the stock update they belong to.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderOutboxRepository {
+
+    private static final String MARK_PROCESSED_SQL =
+            "INSERT INTO processed_order (order_id, status) VALUES (?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String DELETE_PROCESSED_SQL = "DELETE FROM processed_order WHERE processed_at < ?";
+
+    private static final String ADD_MESSAGE_SQL = "INSERT INTO order_outbox (message_key, payload) VALUES (?, ?)";
+
+    private static final String FIND_MESSAGES_SQL =
+            "SELECT id, message_key, payload FROM order_outbox ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String DELETE_MESSAGE_SQL = "DELETE FROM order_outbox WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Records the order as processed, using the primary key index as the duplicate check.
+     *
+     * @return {@code false} if the order was processed before
+     */
+    public boolean markProcessed(UUID orderId, String status) {
+        return jdbcTemplate.update(MARK_PROCESSED_SQL, orderId, status) > 0;
+    }
+
+    public int deleteProcessedBefore(Instant instant) {
+        return jdbcTemplate.update(DELETE_PROCESSED_SQL, Timestamp.from(instant));
+    }
+
+    public void addMessage(String key, byte[] payload) {
+        jdbcTemplate.update(ADD_MESSAGE_SQL, key, payload);
+    }
+
+    /**
+     * Locks the oldest messages for publishing. Rows locked by another relay are skipped, so several instances can
+     * relay concurrently.
+     */
+    public List<OutboxMessage> findMessagesForUpdate(int limit) {
+        return jdbcTemplate.query(FIND_MESSAGES_SQL,
+                (rs, rowNum) -> new OutboxMessage(rs.getLong(1), rs.getString(2), rs.getBytes(3)), limit);
+    }
+
+    public void deleteMessages(Collection<OutboxMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(DELETE_MESSAGE_SQL, messages, messages.size(),
+                (ps, message) -> ps.setLong(1, message.getId()));
+    }
+}
@@ -0,0 +1,246 @@
+package com.service.stock.repository;
+
+import com.service.stock.model.Reservation;
+import com.service.stock.model.ReservationState;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Rows of the {@code reservation} table, one per reserved product of an order.
+ * <p>
+ * The table is partitioned by month of {@code created_at}. Lookups by order id probe the primary key index of every
+ * partition, which stays cheap as long as old partitions are dropped, see
+ * {@link com.service.stock.reservation.ReservationPartitionMaintainer}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReservationRepository {
+
+    private static final String COLUMNS =
+            "order_id, customer_id, item_id, quantity, price, state, created_at, expires_at";
+
+    private static final String SAVE_SQL =
+            "INSERT INTO reservation (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SETTLE_SQL =
+            "UPDATE reservation SET state = ?, settled_at = now() WHERE order_id = ? AND state = 'RESERVED' " +
+                    "RETURNING " + COLUMNS;
+
+    private static final String FIND_LATEST_STATE_SQL =
+            "SELECT state FROM reservation WHERE order_id = ? ORDER BY created_at DESC LIMIT 1";
+
+    private static final String FIND_RESERVED_ITEM_IDS_SQL =
+            "SELECT item_id FROM reservation WHERE order_id = ? AND state = 'RESERVED'";
+
+    private static final String FIND_FOR_UPDATE_SQL =
+            "SELECT " + COLUMNS + " FROM reservation WHERE order_id = ANY (?) ORDER BY order_id, item_id, created_at " +
+                    "FOR UPDATE";
+
+    private static final String UPDATE_STATE_SQL =
+            "UPDATE reservation SET state = ?, settled_at = now() " +
+                    "WHERE order_id = ? AND item_id = ? AND created_at = ? AND state = 'RESERVED'";
+
+    private static final String MARK_EXPIRED_SQL =
+            "UPDATE reservation SET state = 'EXPIRED', settled_at = now() " +
+                    "WHERE order_id = ANY (?) AND state = 'RESERVED' AND expires_at <= ? RETURNING " + COLUMNS;
+
+    private static final String FIND_OVERDUE_SQL =
+            "SELECT DISTINCT order_id, expires_at FROM reservation WHERE state = 'RESERVED' AND expires_at < ? " +
+                    "ORDER BY expires_at LIMIT ?";
+
+    private static final String FIND_OUTSTANDING_SQL =
+            "SELECT order_id, expires_at FROM reservation WHERE state = 'RESERVED' AND expires_at IS NOT NULL";
+
+    private static final String CURRENT_MONTH_SQL = "SELECT CAST(date_trunc('month', now()) AS DATE)";
+
+    private static final String FIND_PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                    "WHERE i.inhparent = CAST('reservation' AS regclass) AND c.relname LIKE 'reservation\\_p%'";
+
+    private static final int OUTSTANDING_FETCH_SIZE = 10000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void save(Reservation reservation) {
+        jdbcTemplate.update(SAVE_SQL, ps -> setReservation(ps, reservation));
+    }
+
+    /**
+     * Inserts the reservations with one JDBC batch.
+     */
+    public void saveAll(Collection<Reservation> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(SAVE_SQL, reservations, reservations.size(), this::setReservation);
+    }
+
+    /**
+     * Moves the RESERVED rows of the order to {@code state}; rows already settled are left alone.
+     *
+     * @return the settled reservations, empty if the order has no outstanding reservation
+     */
+    public List<Reservation> settle(UUID orderId, ReservationState state) {
+        return jdbcTemplate.query(SETTLE_SQL, (rs, rowNum) -> mapReservation(rs), state.name(), orderId);
+    }
+
+    /**
+     * @return state of the latest reservation of the order, empty if the order never reserved anything
+     */
+    public Optional<ReservationState> findLatestState(UUID orderId) {
+        return jdbcTemplate.queryForList(FIND_LATEST_STATE_SQL, String.class, orderId).stream()
+                .map(ReservationState::valueOf).findFirst();
+    }
+
+    /**
+     * @return ids of the items the order has outstanding reservations of
+     */
+    public Set<Long> findReservedItemIds(UUID orderId) {
+        return new HashSet<>(jdbcTemplate.queryForList(FIND_RESERVED_ITEM_IDS_SQL, Long.class, orderId));
+    }
+
+    /**
+     * Reservations of the orders in any state, locked until the end of the current transaction.
+     */
+    public List<Reservation> findAllForUpdate(Collection<UUID> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(FIND_FOR_UPDATE_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", orderIds.toArray())),
+                (rs, rowNum) -> mapReservation(rs));
+    }
+
+    /**
+     * Writes the state of RESERVED rows with one JDBC batch.
+     */
+    public void updateStates(Collection<Reservation> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_STATE_SQL, reservations, reservations.size(), (ps, reservation) -> {
+            ps.setString(1, reservation.getState().name());
+            ps.setObject(2, reservation.getOrderId());
+            ps.setLong(3, reservation.getItemId());
+            ps.setTimestamp(4, Timestamp.from(reservation.getCreatedAt()));
+        });
+    }
+
+    /**
+     * Moves the RESERVED rows of the orders whose deadline is not after {@code now} to EXPIRED, with a single
+     * statement. Reservations settled in the meantime are left out.
+     *
+     * @return the expired reservations
+     */
+    public List<Reservation> markExpired(Collection<UUID> orderIds, Instant now) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(MARK_EXPIRED_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("uuid", orderIds.toArray()));
+            ps.setTimestamp(2, Timestamp.from(now));
+        }, (rs, rowNum) -> mapReservation(rs));
+    }
+
+    /**
+     * @return ids of the orders with the oldest outstanding reservations whose deadline is before {@code instant}
+     */
+    public List<UUID> findOverdue(Instant instant, int limit) {
+        return jdbcTemplate.query(FIND_OVERDUE_SQL, (rs, rowNum) -> rs.getObject(1, UUID.class),
+                Timestamp.from(instant), limit);
+    }
+
+    /**
+     * Streams the order id and deadline of every outstanding reservation with a deadline through a cursor.
+     */
+    @Transactional(readOnly = true)
+    public void forEachOutstanding(BiConsumer<UUID, Instant> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(FIND_OUTSTANDING_SQL);
+            ps.setFetchSize(OUTSTANDING_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            consumer.accept(rs.getObject(1, UUID.class), rs.getTimestamp(2).toInstant());
+        });
+    }
+
+    /**
+     * @return first day of the current month in the time zone of the database session
+     */
+    public LocalDate currentMonth() {
+        return jdbcTemplate.queryForObject(CURRENT_MONTH_SQL, LocalDate.class);
+    }
+
+    /**
+     * @return first days of the months that have a partition
+     */
+    public List<LocalDate> findPartitionMonths() {
+        return jdbcTemplate.queryForList(FIND_PARTITIONS_SQL, String.class).stream()
+                .map(name -> LocalDate.of(Integer.parseInt(name.substring(13, 17)),
+                        Integer.parseInt(name.substring(17, 19)), 1))
+                .toList();
+    }
+
+    public void createPartition(LocalDate month) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month) +
+                " PARTITION OF reservation FOR VALUES FROM ('" + month + "') TO ('" + month.plusMonths(1) + "')");
+    }
+
+    /**
+     * Drops the partition of the month unless it still holds RESERVED rows.
+     *
+     * @return whether the partition was dropped
+     */
+    @Transactional
+    public boolean dropPartitionIfSettled(LocalDate month) {
+        String partition = partitionName(month);
+        jdbcTemplate.execute("LOCK TABLE " + partition + " IN SHARE MODE");
+        Boolean outstanding = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + partition + " WHERE state = 'RESERVED')", Boolean.class);
+        if (Boolean.TRUE.equals(outstanding)) {
+            return false;
+        }
+        jdbcTemplate.execute("DROP TABLE " + partition);
+        return true;
+    }
+
+    static String partitionName(LocalDate month) {
+        return String.format("reservation_p%04d%02d", month.getYear(), month.getMonthValue());
+    }
+
+    private void setReservation(PreparedStatement ps, Reservation reservation) throws SQLException {
+        ps.setObject(1, reservation.getOrderId());
+        ps.setObject(2, reservation.getCustomerId(), Types.BIGINT);
+        ps.setLong(3, reservation.getItemId());
+        ps.setInt(4, reservation.getQuantity());
+        ps.setObject(5, reservation.getPrice(), Types.BIGINT);
+        ps.setString(6, reservation.getState().name());
+        ps.setTimestamp(7, Timestamp.from(reservation.getCreatedAt()));
+        ps.setTimestamp(8, reservation.getExpiresAt() == null ? null : Timestamp.from(reservation.getExpiresAt()));
+    }
+
+    private static Reservation mapReservation(ResultSet rs) throws SQLException {
+        Timestamp expiresAt = rs.getTimestamp("expires_at");
+        return new Reservation(rs.getObject("order_id", UUID.class), rs.getObject("customer_id", Long.class),
+                rs.getLong("item_id"), rs.getInt("quantity"), rs.getObject("price", Long.class),
+                ReservationState.valueOf(rs.getString("state")), rs.getTimestamp("created_at").toInstant(),
+                expiresAt == null ? null : expiresAt.toInstant());
+    }
+}
@@ -0,0 +1,55 @@
+package com.service.stock.repository;
+
+import com.service.stock.reservation.StockDelta;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Write-back storage of the in-memory stock ledger: coalesced stock deltas and, in the same transaction, the Kafka
+ * offsets up to which those deltas are durable.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockLedgerRepository {
+
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE item SET stock_available = stock_available + ?, stock_reserved = stock_reserved + ? WHERE id = ?";
+
+    private static final String SAVE_OFFSET_SQL =
+            "INSERT INTO stock_ledger_offset (topic, partition_id, flushed_offset) VALUES (?, ?, ?) " +
+                    "ON CONFLICT (topic, partition_id) DO UPDATE SET flushed_offset = EXCLUDED.flushed_offset";
+
+    private static final String FIND_OFFSET_SQL =
+            "SELECT flushed_offset FROM stock_ledger_offset WHERE topic = ? AND partition_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public void saveChanges(Collection<StockDelta> deltas, Map<TopicPartition, Long> offsets, int batchSize) {
+        jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, new ArrayList<>(deltas), batchSize, (ps, delta) -> {
+            ps.setLong(1, delta.getAvailableDelta());
+            ps.setLong(2, delta.getReservedDelta());
+            ps.setLong(3, delta.getItemId());
+        });
+        jdbcTemplate.batchUpdate(SAVE_OFFSET_SQL, new ArrayList<>(offsets.entrySet()), batchSize, (ps, offset) -> {
+            ps.setString(1, offset.getKey().topic());
+            ps.setInt(2, offset.getKey().partition());
+            ps.setLong(3, offset.getValue());
+        });
+    }
+
+    public Map<TopicPartition, Long> findOffsets(Collection<TopicPartition> partitions) {
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            jdbcTemplate.query(FIND_OFFSET_SQL, rs -> {
+                offsets.put(partition, rs.getLong(1));
+            }, partition.topic(), partition.partition());
+        }
+        return offsets;
+    }
+}
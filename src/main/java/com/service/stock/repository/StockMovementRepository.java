@@ -0,0 +1,167 @@
+package com.service.stock.repository;
+
+import com.service.stock.model.StockMovement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The append-only {@code stock_movement} log, the {@code stock_snapshot} compacted from it and the
+ * {@code stock_movement_log_state} marking the log as written without a gap.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockMovementRepository {
+
+    private static final String SAVE_SQL =
+            "INSERT INTO stock_movement (item_id, available_delta, reserved_delta, reason, order_id) " +
+                    "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String FIND_LAST_ID_BEFORE_SQL =
+            "SELECT id FROM stock_movement WHERE created_at < ? ORDER BY id DESC LIMIT 1";
+
+    private static final String FIND_ITEM_ID_RANGE_SQL = "SELECT MIN(id), MAX(id) FROM item";
+
+    private static final String COMPACT_SQL =
+            "INSERT INTO stock_snapshot (item_id, stock_available, stock_reserved, movement_id, created_at) " +
+                    "SELECT m.item_id, COALESCE(s.stock_available, 0) + SUM(m.available_delta), " +
+                    "COALESCE(s.stock_reserved, 0) + SUM(m.reserved_delta), MAX(m.id), now() " +
+                    "FROM stock_movement m LEFT JOIN stock_snapshot s ON s.item_id = m.item_id " +
+                    "WHERE m.item_id BETWEEN ? AND ? AND m.id > COALESCE(s.movement_id, 0) AND m.id <= ? " +
+                    "GROUP BY m.item_id, s.stock_available, s.stock_reserved " +
+                    "ON CONFLICT (item_id) DO UPDATE SET stock_available = EXCLUDED.stock_available, " +
+                    "stock_reserved = EXCLUDED.stock_reserved, movement_id = EXCLUDED.movement_id, " +
+                    "created_at = EXCLUDED.created_at WHERE stock_snapshot.movement_id < EXCLUDED.movement_id";
+
+    private static final String LOCK_ITEMS_SQL = "SELECT id FROM item WHERE id BETWEEN ? AND ? ORDER BY id FOR UPDATE";
+
+    private static final String DELETE_BUCKETS_SQL = "DELETE FROM item_stock_bucket WHERE item_id BETWEEN ? AND ?";
+
+    private static final String REBUILD_SQL =
+            "UPDATE item i SET stock_available = r.stock_available, stock_reserved = r.stock_reserved " +
+                    "FROM (SELECT it.id, COALESCE(s.stock_available, 0) + COALESCE(SUM(m.available_delta), 0) " +
+                    "AS stock_available, COALESCE(s.stock_reserved, 0) + COALESCE(SUM(m.reserved_delta), 0) " +
+                    "AS stock_reserved FROM item it LEFT JOIN stock_snapshot s ON s.item_id = it.id " +
+                    "LEFT JOIN stock_movement m ON m.item_id = it.id AND m.id > COALESCE(s.movement_id, 0) " +
+                    "WHERE it.id BETWEEN ? AND ? GROUP BY it.id, s.stock_available, s.stock_reserved) r " +
+                    "WHERE i.id = r.id AND (i.stock_available <> r.stock_available " +
+                    "OR i.stock_reserved <> r.stock_reserved) RETURNING i.id";
+
+    private static final String FIND_LOG_ENABLED_SINCE_SQL = "SELECT enabled_since FROM stock_movement_log_state";
+
+    private static final String MARK_LOG_ENABLED_SQL =
+            "INSERT INTO stock_movement_log_state (id, enabled_since) VALUES (1, now()) ON CONFLICT (id) DO NOTHING";
+
+    private static final String MARK_LOG_DISABLED_SQL = "DELETE FROM stock_movement_log_state";
+
+    private static final String SEED_SQL =
+            "INSERT INTO stock_snapshot (item_id, stock_available, stock_reserved, movement_id, created_at) " +
+                    "SELECT i.id, i.stock_available + COALESCE(SUM(b.stock_available), 0), " +
+                    "i.stock_reserved + COALESCE(SUM(b.stock_reserved), 0), " +
+                    "(SELECT COALESCE(MAX(id), 0) FROM stock_movement), now() " +
+                    "FROM item i LEFT JOIN item_stock_bucket b ON b.item_id = i.id WHERE i.id BETWEEN ? AND ? " +
+                    "GROUP BY i.id, i.stock_available, i.stock_reserved " +
+                    "ON CONFLICT (item_id) DO UPDATE SET stock_available = EXCLUDED.stock_available, " +
+                    "stock_reserved = EXCLUDED.stock_reserved, movement_id = EXCLUDED.movement_id, " +
+                    "created_at = EXCLUDED.created_at";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Appends the movements with one JDBC batch.
+     */
+    public void saveAll(Collection<StockMovement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(SAVE_SQL, movements, movements.size(), (ps, movement) -> {
+            ps.setLong(1, movement.getItemId());
+            ps.setLong(2, movement.getAvailableDelta());
+            ps.setLong(3, movement.getReservedDelta());
+            ps.setString(4, movement.getReason().name());
+            ps.setObject(5, movement.getOrderId());
+        });
+    }
+
+    /**
+     * @return id of the last movement appended before {@code instant}, empty if there is none
+     */
+    public Optional<Long> findLastIdBefore(Instant instant) {
+        return jdbcTemplate.queryForList(FIND_LAST_ID_BEFORE_SQL, Long.class, Timestamp.from(instant)).stream()
+                .findFirst();
+    }
+
+    /**
+     * @return lowest and highest item id, empty if there are no items
+     */
+    public Optional<long[]> findItemIdRange() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(FIND_ITEM_ID_RANGE_SQL, (rs, rowNum) -> {
+            long min = rs.getLong(1);
+            return rs.wasNull() ? null : new long[]{min, rs.getLong(2)};
+        }));
+    }
+
+    /**
+     * Folds the movements of the items in the range up to {@code lastMovementId} into their snapshots, with a single
+     * statement. A snapshot is never replaced by an older one.
+     *
+     * @return number of snapshots written
+     */
+    public int compact(long fromItemId, long toItemId, long lastMovementId) {
+        return jdbcTemplate.update(COMPACT_SQL, fromItemId, toItemId, lastMovementId);
+    }
+
+    /**
+     * @return since when the log has been written without a gap, empty if it was off since its snapshots were seeded
+     */
+    public Optional<Instant> findLogEnabledSince() {
+        return jdbcTemplate.queryForList(FIND_LOG_ENABLED_SINCE_SQL, Timestamp.class).stream()
+                .findFirst().map(Timestamp::toInstant);
+    }
+
+    /**
+     * Records that the log is written from now on, unless it already is.
+     */
+    public void markLogEnabled() {
+        jdbcTemplate.update(MARK_LOG_ENABLED_SQL);
+    }
+
+    /**
+     * @return {@code true} if the log was marked as written until now
+     */
+    public boolean markLogDisabled() {
+        return jdbcTemplate.update(MARK_LOG_DISABLED_SQL) > 0;
+    }
+
+    /**
+     * Replaces the snapshots of the items in the range by their current stock, including their buckets, as of the
+     * latest movement. The item rows are locked first, so no movement of them is pending while the snapshot is taken.
+     *
+     * @return number of snapshots written
+     */
+    @Transactional
+    public int seed(long fromItemId, long toItemId) {
+        jdbcTemplate.queryForList(LOCK_ITEMS_SQL, Long.class, fromItemId, toItemId);
+        return jdbcTemplate.update(SEED_SQL, fromItemId, toItemId);
+    }
+
+    /**
+     * Sets the stock of the items in the range to their snapshot plus all movements after it. The item rows are
+     * locked first and the buckets of striped items are folded away, since the log holds their total stock.
+     *
+     * @return ids of the items whose stock differed
+     */
+    @Transactional
+    public List<Long> rebuild(long fromItemId, long toItemId) {
+        jdbcTemplate.queryForList(LOCK_ITEMS_SQL, Long.class, fromItemId, toItemId);
+        jdbcTemplate.update(DELETE_BUCKETS_SQL, fromItemId, toItemId);
+        return jdbcTemplate.queryForList(REBUILD_SQL, Long.class, fromItemId, toItemId);
+    }
+}
@@ -0,0 +1,71 @@
+package com.service.stock.reservation;
+
+import com.service.stock.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.function.IntSupplier;
+
+/**
+ * Applies every change with a single conditional update of the item row, or of one bucket row of items striped by
+ * {@link StockStriping}. Reservations of the item row are grouped by the {@link ReservationCoalescer} if enabled.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "stock.ledger.enabled", havingValue = "false", matchIfMissing = true)
+public class DatabaseStockReservationEngine implements StockReservationEngine {
+
+    private final ItemRepository itemRepository;
+
+    private final StockStriping stockStriping;
+
+    private final ReservationCoalescer reservationCoalescer;
+
+    @Override
+    public boolean reserve(Long itemId, long quantity) {
+        stockStriping.recordReservation(itemId);
+        return apply(itemId, -quantity, quantity, () -> reserveItemRow(itemId, quantity));
+    }
+
+    @Override
+    public boolean release(Long itemId, long quantity) {
+        return apply(itemId, quantity, -quantity, () -> itemRepository.releaseStock(itemId, quantity));
+    }
+
+    @Override
+    public boolean confirm(Long itemId, long quantity) {
+        return apply(itemId, 0, -quantity, () -> itemRepository.confirmStock(itemId, quantity));
+    }
+
+    @Override
+    public boolean isCoalescing() {
+        return reservationCoalescer.isEnabled();
+    }
+
+    @Override
+    public void consolidate(Collection<Long> itemIds) {
+        stockStriping.collapse(itemIds);
+    }
+
+    private int reserveItemRow(Long itemId, long quantity) {
+        if (reservationCoalescer.isEnabled() && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return reservationCoalescer.reserve(itemId, quantity) ? 1 : 0;
+        }
+        return itemRepository.reserveStock(itemId, quantity);
+    }
+
+    /**
+     * The item row is tried after the buckets, it holds the rest of a striped item's stock. A change neither of them
+     * allows is retried once on the item row after collapsing the buckets, since the stock of a striped item may be
+     * spread too thin for it (or the item was striped by another node).
+     */
+    private boolean apply(Long itemId, long availableDelta, long reservedDelta, IntSupplier itemRowChange) {
+        if (stockStriping.apply(itemId, availableDelta, reservedDelta) || itemRowChange.getAsInt() > 0) {
+            return true;
+        }
+        return stockStriping.collapseIfStriped(itemId) && itemRowChange.getAsInt() > 0;
+    }
+}
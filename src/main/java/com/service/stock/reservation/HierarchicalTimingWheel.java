@@ -0,0 +1,157 @@
+package com.service.stock.reservation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel holding deadlines of any number of values.
+ * <p>
+ * The first level has one slot per tick. A deadline beyond it goes to the next level, whose slots span a full rotation
+ * of the level below, and so on; levels are added on demand. When the clock reaches the slot of a higher level, its
+ * values cascade down to the finer levels, so every value is moved at most once per level. Scheduling is a lock-free
+ * enqueue, the values are put into their slots by the thread advancing the clock.
+ * <p>
+ * Values never expire before their deadline and at most one tick after it (plus the delay of the advancing thread).
+ * Only one thread may advance the clock, any number may schedule.
+ */
+class HierarchicalTimingWheel<T> {
+
+    private final long tickMs;
+
+    private final int wheelSize;
+
+    private final Queue<Entry<T>> scheduled = new ConcurrentLinkedQueue<>();
+
+    private final List<Level<T>> levels = new ArrayList<>();
+
+    private long currentTick;
+
+    private long size;
+
+    /**
+     * @param startMs time the clock starts at
+     */
+    HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs < 1 || wheelSize < 2) {
+            throw new IllegalArgumentException("Tick must be at least 1 ms and the wheel must have at least 2 slots");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.currentTick = startMs / tickMs;
+        levels.add(new Level<>(1, wheelSize));
+    }
+
+    void schedule(T value, long deadlineMs) {
+        scheduled.add(new Entry<>(value, Math.floorDiv(deadlineMs + tickMs - 1, tickMs)));
+    }
+
+    /**
+     * Moves the clock to {@code nowMs}, one tick at a time.
+     *
+     * @param expired receives every value whose deadline has passed
+     */
+    void advance(long nowMs, Consumer<T> expired) {
+        drainScheduled(expired);
+        long targetTick = nowMs / tickMs;
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int i = levels.size() - 1; i >= 0; i--) {
+                Level<T> level = levels.get(i);
+                if (currentTick % level.ticksPerSlot == 0) {
+                    Entry<T> entry = level.take(currentTick);
+                    while (entry != null) {
+                        Entry<T> next = entry.next;
+                        entry.next = null;
+                        size--;
+                        add(entry, expired);
+                        entry = next;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return number of values waiting for their deadline, not counting those scheduled since the last advance
+     */
+    long size() {
+        return size;
+    }
+
+    private void drainScheduled(Consumer<T> expired) {
+        Entry<T> entry;
+        while ((entry = scheduled.poll()) != null) {
+            add(entry, expired);
+        }
+    }
+
+    private void add(Entry<T> entry, Consumer<T> expired) {
+        if (entry.deadlineTick <= currentTick) {
+            expired.accept(entry.value);
+            return;
+        }
+        for (int i = 0; ; i++) {
+            if (i == levels.size()) {
+                Level<T> below = levels.get(i - 1);
+                levels.add(new Level<>(below.ticksPerSlot * wheelSize, wheelSize));
+            }
+            Level<T> level = levels.get(i);
+            long startTick = currentTick - currentTick % level.ticksPerSlot;
+            if (entry.deadlineTick < startTick + level.ticksPerSlot * wheelSize) {
+                level.put(entry);
+                size++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Slots of one level, each an intrusive list of the entries expiring within the slot.
+     */
+    private static final class Level<T> {
+
+        private final long ticksPerSlot;
+
+        private final Entry<T>[] slots;
+
+        @SuppressWarnings("unchecked")
+        private Level(long ticksPerSlot, int wheelSize) {
+            this.ticksPerSlot = ticksPerSlot;
+            this.slots = new Entry[wheelSize];
+        }
+
+        private void put(Entry<T> entry) {
+            int slot = slot(entry.deadlineTick);
+            entry.next = slots[slot];
+            slots[slot] = entry;
+        }
+
+        private Entry<T> take(long tick) {
+            int slot = slot(tick);
+            Entry<T> head = slots[slot];
+            slots[slot] = null;
+            return head;
+        }
+
+        private int slot(long tick) {
+            return (int) ((tick / ticksPerSlot) % slots.length);
+        }
+    }
+
+    private static final class Entry<T> {
+
+        private final T value;
+
+        private final long deadlineTick;
+
+        private Entry<T> next;
+
+        private Entry(T value, long deadlineTick) {
+            this.value = value;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.service.stock.reservation;
+
+import com.service.stock.repository.ItemRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit of concurrent reservations of the same item.
+ * <p>
+ * The first reservation of an item opens a group. If another reservation of the item is in flight, it waits up to
+ * {@code stock.coalescing.window-ms} (or until {@code stock.coalescing.max-group-size} reservations joined) for
+ * others, otherwise the group is applied right away, so an uncontended item never pays for the window. The whole group
+ * is applied in one transaction with a single locking read and a single {@code UPDATE} of the item row. Reservations
+ * are accepted in arrival order, exactly as if they were applied one at a time, and every caller gets its own result.
+ * Group sizes are published as {@value #GROUP_SIZE_SUMMARY_NAME}.
+ * <p>
+ * Only reservations made outside a transaction are handed to the coalescer, a reservation inside a transaction must
+ * commit or roll back with it and goes straight to the item row (see {@link DatabaseStockReservationEngine}).
+ * {@code ItemService} therefore reserves orders with several lines in a transaction without coalescing.
+ * <p>
+ * Reservations of one item only run concurrently with {@code spring.kafka.listener.concurrency} above 1 and orders of
+ * the item on several partitions. That is the only setup that forms groups: a single listener thread, the batch
+ * listener and the parallel consumer, which runs the orders of an item one at a time on its lane, never do.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "stock.ledger.enabled", havingValue = "false", matchIfMissing = true)
+public class ReservationCoalescer {
+
+    static final String GROUP_SIZE_SUMMARY_NAME = "stock.reservation.group.size";
+
+    private final ItemRepository itemRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, ReservationGroup> openGroups = new ConcurrentHashMap<>();
+
+    private final Map<Long, Integer> inFlight = new ConcurrentHashMap<>();
+
+    private DistributionSummary groupSizes;
+
+    @Value("${stock.coalescing.enabled}")
+    private boolean enabled;
+
+    @Value("${stock.coalescing.window-ms}")
+    private long windowMs;
+
+    @Value("${stock.coalescing.max-group-size}")
+    private int maxGroupSize;
+
+    @Value("${kafka.orders.exactly-once.enabled}")
+    private boolean exactlyOnceEnabled;
+
+    @PostConstruct
+    public void init() {
+        if (enabled && exactlyOnceEnabled) {
+            throw new IllegalStateException(
+                    "Reservation coalescing can not be used together with exactly-once processing");
+        }
+        groupSizes = DistributionSummary.builder(GROUP_SIZE_SUMMARY_NAME).publishPercentileHistogram()
+                .register(meterRegistry);
+        if (enabled) {
+            log.info("Reservation coalescing started with a {} ms window and groups of up to {}", windowMs,
+                    maxGroupSize);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return whether the stock of the item allowed the reservation
+     */
+    public boolean reserve(Long itemId, long quantity) {
+        Reservation reservation = new Reservation(quantity);
+        boolean contended = inFlight.merge(itemId, 1, Integer::sum) > 1;
+        try {
+            ReservationGroup group = openGroups.compute(itemId, (id, open) ->
+                    open != null && open.add(reservation) ? open : new ReservationGroup(reservation, maxGroupSize));
+            if (group.isLeader(reservation)) {
+                if (contended) {
+                    group.awaitFull(windowMs);
+                }
+                List<Reservation> reservations = group.close();
+                openGroups.remove(itemId, group);
+                apply(itemId, reservations);
+            }
+            return reservation.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            inFlight.computeIfPresent(itemId, (id, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    private void apply(Long itemId, List<Reservation> reservations) {
+        groupSizes.record(reservations.size());
+        try {
+            List<Boolean> results = transactionTemplate.execute(status -> {
+                long available = itemRepository.findStockAvailableForUpdate(itemId).orElse(0L);
+                List<Boolean> accepted = new ArrayList<>(reservations.size());
+                long total = 0;
+                for (Reservation reservation : reservations) {
+                    boolean fits = total + reservation.quantity <= available;
+                    if (fits) {
+                        total += reservation.quantity;
+                    }
+                    accepted.add(fits);
+                }
+                if (total > 0) {
+                    itemRepository.reserveStock(itemId, total);
+                }
+                return accepted;
+            });
+            for (int i = 0; i < reservations.size(); i++) {
+                reservations.get(i).result.complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            reservations.forEach(reservation -> reservation.result.completeExceptionally(e));
+        }
+    }
+
+    private static final class Reservation {
+
+        private final long quantity;
+
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        private Reservation(long quantity) {
+            this.quantity = quantity;
+        }
+    }
+
+    /**
+     * Reservations of one item waiting to be applied together. The first one is applied by its own caller, the leader.
+     */
+    private static final class ReservationGroup {
+
+        private final List<Reservation> reservations = new ArrayList<>();
+
+        private final CountDownLatch full = new CountDownLatch(1);
+
+        private final int maxSize;
+
+        private boolean closed;
+
+        private ReservationGroup(Reservation leader, int maxSize) {
+            this.maxSize = maxSize;
+            add(leader);
+        }
+
+        synchronized boolean add(Reservation reservation) {
+            if (closed) {
+                return false;
+            }
+            reservations.add(reservation);
+            if (reservations.size() >= maxSize) {
+                closed = true;
+                full.countDown();
+            }
+            return true;
+        }
+
+        synchronized boolean isLeader(Reservation reservation) {
+            return reservations.get(0) == reservation;
+        }
+
+        void awaitFull(long timeoutMs) {
+            try {
+                full.await(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        synchronized List<Reservation> close() {
+            closed = true;
+            return List.copyOf(reservations);
+        }
+    }
+}
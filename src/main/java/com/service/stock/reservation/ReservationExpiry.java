@@ -0,0 +1,260 @@
+package com.service.stock.reservation;
+
+import com.service.stock.cache.ItemCache;
+import com.service.stock.model.Order;
+import com.service.stock.model.OrderStatus;
+import com.service.stock.model.Reservation;
+import com.service.stock.model.StockMovement;
+import com.service.stock.model.StockMovementReason;
+import com.service.stock.movement.StockMovementLog;
+import com.service.stock.repository.ReservationRepository;
+import com.service.stock.service.KafkaStockOrderProducerService;
+import com.service.stock.stocklevel.StockLevelPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Releases reservations that are neither confirmed nor rolled back within {@code stock.reservation-expiry.ttl-ms}.
+ * <p>
+ * Every reservation is stored with its deadline in the {@code reservation} table and scheduled in a
+ * {@link HierarchicalTimingWheel}; the wheel is rebuilt from the table on startup. Each tick moves the expired
+ * reservations to EXPIRED with one statement per {@code stock.reservation-expiry.batch-size}, releases their quantity
+ * with one change per item, all in one transaction, and publishes a ROLLBACK result for every order once it committed.
+ * With exactly-once processing the results are written to the outbox in that transaction instead. A ROLLBACK Kafka
+ * did not acknowledge is sent again with the next tick.
+ * <p>
+ * The table decides, the wheel only tells when to ask it: reservations settled in the meantime, or expired by another
+ * node, are skipped by the update, so the wheel never has to cancel anything. A reservation scheduled on a node that
+ * went away is picked up by the sweep every {@code stock.reservation-expiry.sweep-interval-ms}.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ReservationExpiry {
+
+    static final String OUTSTANDING_GAUGE_NAME = "stock.reservation.expiry.outstanding";
+
+    static final String EXPIRED_COUNTER_NAME = "stock.reservation.expired";
+
+    private final ReservationRepository reservationRepository;
+
+    private final StockReservationEngine stockReservationEngine;
+
+    private final StockMovementLog stockMovementLog;
+
+    private final KafkaStockOrderProducerService kafkaStockOrderProducerService;
+
+    private final ItemCache itemCache;
+
+    private final StockLevelPublisher stockLevelPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Queue<Order> unsentRollbacks = new ConcurrentLinkedQueue<>();
+
+    private HierarchicalTimingWheel<UUID> wheel;
+
+    private Counter expiredCounter;
+
+    @Value("${stock.reservation-expiry.enabled}")
+    private boolean enabled;
+
+    @Value("${stock.reservation-expiry.ttl-ms}")
+    private long ttlMs;
+
+    @Value("${stock.reservation-expiry.tick-ms}")
+    private long tickMs;
+
+    @Value("${stock.reservation-expiry.wheel-size}")
+    private int wheelSize;
+
+    @Value("${stock.reservation-expiry.batch-size}")
+    private int batchSize;
+
+    @Value("${stock.reservation-expiry.sweep-interval-ms}")
+    private long sweepIntervalMs;
+
+    @Value("${kafka.orders.batch.enabled}")
+    private boolean batchListenerEnabled;
+
+    @Value("${spring.application.name}")
+    private String applicationName;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        if (batchListenerEnabled) {
+            throw new IllegalStateException(
+                    "Reservation expiry can not be used together with the batch orders listener");
+        }
+        wheel = new HierarchicalTimingWheel<>(tickMs, wheelSize, System.currentTimeMillis());
+        expiredCounter = meterRegistry.counter(EXPIRED_COUNTER_NAME);
+        Gauge.builder(OUTSTANDING_GAUGE_NAME, this, expiry -> expiry.wheel.size()).register(meterRegistry);
+
+        long[] count = new long[1];
+        reservationRepository.forEachOutstanding((orderId, expiresAt) -> {
+            wheel.schedule(orderId, expiresAt.toEpochMilli());
+            count[0]++;
+        });
+        log.info("Reservation expiry started with a ttl of {} ms, rebuilt {} outstanding reservations", ttlMs,
+                count[0]);
+    }
+
+    /**
+     * @return deadline of a reservation made now, {@code null} if reservations do not expire
+     */
+    public Instant deadline() {
+        return enabled ? Instant.now().plusMillis(ttlMs) : null;
+    }
+
+    /**
+     * Schedules the expiry of a reservation already stored with its deadline.
+     */
+    public void schedule(UUID orderId, Instant deadline) {
+        if (enabled && deadline != null) {
+            wheel.schedule(orderId, deadline.toEpochMilli());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stock.reservation-expiry.tick-ms}")
+    public void tick() {
+        if (enabled) {
+            advance(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Expires the reservations the wheels of all nodes missed.
+     */
+    @Scheduled(fixedDelayString = "${stock.reservation-expiry.sweep-interval-ms}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        Instant now = Instant.now();
+        try {
+            List<UUID> overdue;
+            do {
+                overdue = reservationRepository.findOverdue(now.minusMillis(sweepIntervalMs), batchSize);
+                expire(overdue, now);
+            } while (overdue.size() == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Error sweeping expired reservations, retrying with the next sweep", e);
+        }
+    }
+
+    void advance(long nowMs) {
+        resendRollbacks();
+        List<UUID> due = new ArrayList<>();
+        wheel.advance(nowMs, due::add);
+        Instant now = Instant.ofEpochMilli(nowMs);
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<UUID> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            try {
+                expire(batch, now);
+            } catch (RuntimeException e) {
+                log.error("Error expiring {} reservations, retrying with the next tick", batch.size(), e);
+                batch.forEach(orderId -> wheel.schedule(orderId, nowMs));
+            }
+        }
+    }
+
+    private void expire(List<UUID> orderIds, Instant now) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        List<Reservation> expired = transactionTemplate.execute(status -> release(orderIds, now));
+        if (expired == null || expired.isEmpty()) {
+            return;
+        }
+        if (!kafkaStockOrderProducerService.isTransactional()) {
+            expired.forEach(reservation -> sendRollback(rollback(reservation)));
+        }
+        List<Long> itemIds = expired.stream().map(Reservation::getItemId).distinct().toList();
+        itemCache.invalidateAll(itemIds);
+        stockLevelPublisher.changed(itemIds);
+        expiredCounter.increment(expired.size());
+        log.info("Expired {} reservations", expired.size());
+    }
+
+    /**
+     * Releases the expired reservations item by item, in ascending item id order.
+     */
+    private List<Reservation> release(List<UUID> orderIds, Instant now) {
+        List<Reservation> expired = reservationRepository.markExpired(orderIds, now);
+        if (expired.isEmpty()) {
+            return expired;
+        }
+        Map<Long, Long> quantities = new TreeMap<>();
+        for (Reservation reservation : expired) {
+            quantities.merge(reservation.getItemId(), (long) reservation.getQuantity(), Long::sum);
+        }
+        Set<Long> unreleasedItemIds = new HashSet<>();
+        quantities.forEach((itemId, quantity) -> {
+            if (!stockReservationEngine.release(itemId, quantity)) {
+                log.warn("Item with id = {} has less than {} reserved stock to release on expiry", itemId, quantity);
+                unreleasedItemIds.add(itemId);
+            }
+        });
+        stockMovementLog.record(expired.stream()
+                .filter(reservation -> !unreleasedItemIds.contains(reservation.getItemId()))
+                .map(reservation -> StockMovement.release(reservation.getItemId(), reservation.getQuantity(),
+                        reservation.getOrderId(), StockMovementReason.EXPIRE))
+                .toList());
+        if (kafkaStockOrderProducerService.isTransactional()) {
+            expired.forEach(reservation -> kafkaStockOrderProducerService.sendOrder(rollback(reservation)));
+        }
+        return expired;
+    }
+
+    private Order rollback(Reservation reservation) {
+        Order order = reservation.toOrder();
+        order.setStatus(OrderStatus.ROLLBACK);
+        order.setSource(applicationName);
+        return order;
+    }
+
+    private void resendRollbacks() {
+        int count = unsentRollbacks.size();
+        for (int i = 0; i < count; i++) {
+            Order order = unsentRollbacks.poll();
+            if (order == null) {
+                return;
+            }
+            sendRollback(order);
+        }
+    }
+
+    private void sendRollback(Order order) {
+        try {
+            kafkaStockOrderProducerService.sendOrderAcknowledged(order).whenComplete((result, e) -> {
+                if (e != null) {
+                    retryRollback(order, e);
+                }
+            });
+        } catch (RuntimeException e) {
+            retryRollback(order, e);
+        }
+    }
+
+    private void retryRollback(Order order, Throwable e) {
+        log.warn("Error sending ROLLBACK of expired order with id = {}, retrying with the next tick", order.getId(), e);
+        unsentRollbacks.add(order);
+    }
+}
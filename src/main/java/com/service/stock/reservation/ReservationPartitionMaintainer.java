@@ -0,0 +1,63 @@
+package com.service.stock.reservation;
+
+import com.service.stock.repository.ReservationRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Keeps the monthly partitions of the {@code reservation} table: the partitions of the current and the next
+ * {@code stock.reservations.partitions-ahead} months are created in advance, partitions older than
+ * {@code stock.reservations.retention-months} are dropped once none of their reservations is outstanding.
+ * <p>
+ * Every node maintains the partitions; a partition created or dropped concurrently by another node only fails the
+ * current run.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ReservationPartitionMaintainer {
+
+    private final ReservationRepository reservationRepository;
+
+    @Value("${stock.reservations.partitions-ahead}")
+    private int partitionsAhead;
+
+    @Value("${stock.reservations.retention-months}")
+    private int retentionMonths;
+
+    @PostConstruct
+    public void init() {
+        maintain();
+    }
+
+    @Scheduled(fixedDelayString = "${stock.reservations.partition-maintenance-interval-ms}",
+            initialDelayString = "${stock.reservations.partition-maintenance-interval-ms}")
+    public void maintain() {
+        try {
+            LocalDate currentMonth = reservationRepository.currentMonth();
+            for (int i = 0; i <= partitionsAhead; i++) {
+                reservationRepository.createPartition(currentMonth.plusMonths(i));
+            }
+            LocalDate oldestKept = currentMonth.minusMonths(retentionMonths);
+            for (LocalDate month : reservationRepository.findPartitionMonths()) {
+                if (month.isBefore(oldestKept)) {
+                    if (reservationRepository.dropPartitionIfSettled(month)) {
+                        log.info("Dropped reservation partition of {}", month);
+                    } else {
+                        log.warn("Reservation partition of {} is past retention but has outstanding reservations",
+                                month);
+                    }
+                }
+            }
+        } catch (DataAccessException e) {
+            log.error("Error maintaining reservation partitions, retrying with the next run", e);
+        }
+    }
+}
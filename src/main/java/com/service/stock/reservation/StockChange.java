@@ -0,0 +1,36 @@
+package com.service.stock.reservation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Map;
+
+/**
+ * A stock change applied by the {@link StockLedger}, together with the position of the Kafka record that caused it.
+ * Changes made outside a listener have no position.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+class StockChange {
+
+    private final Long itemId;
+
+    private final long availableDelta;
+
+    private final long reservedDelta;
+
+    private final TopicPartition partition;
+
+    private final long offset;
+
+    boolean isCoveredBy(Map<TopicPartition, Long> flushableOffsets) {
+        if (partition == null) {
+            return true;
+        }
+        Long flushableOffset = flushableOffsets.get(partition);
+        return flushableOffset != null && offset <= flushableOffset;
+    }
+}
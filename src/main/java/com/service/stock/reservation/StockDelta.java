@@ -0,0 +1,25 @@
+package com.service.stock.reservation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Net stock change of one item, coalesced from any number of {@link StockChange}s.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class StockDelta {
+
+    private final Long itemId;
+
+    private long availableDelta;
+
+    private long reservedDelta;
+
+    void add(long availableDelta, long reservedDelta) {
+        this.availableDelta += availableDelta;
+        this.reservedDelta += reservedDelta;
+    }
+}
@@ -0,0 +1,213 @@
+package com.service.stock.reservation;
+
+import com.service.stock.cache.ItemCache;
+import com.service.stock.exception.ServiceException;
+import com.service.stock.repository.ItemRepository;
+import com.service.stock.repository.StockLedgerRepository;
+import com.service.stock.stocklevel.StockLevelPublisher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * In-memory owner of {@code stockAvailable}/{@code stockReserved} of the items touched by the orders this node
+ * consumes.
+ * <p>
+ * Items are spread over shards by id and every shard has exactly one writer thread, so reservations are checked and
+ * applied without any locking or database round trip. Changes are written back to the {@code item} table as coalesced
+ * deltas by {@link #flush()}, in the same transaction as the Kafka offsets they cover. When partitions are reassigned,
+ * the state is rebuilt from the database and the listener is sought back to the first record whose changes were not
+ * flushed yet (see {@link StockLedgerOffsetTracker}).
+ * <p>
+ * The ledger assumes that all orders of an item are consumed by this node, i.e. that the {@code orders} topic is keyed
+ * by product id or consumed by a single instance.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "stock.ledger.enabled", havingValue = "true")
+public class StockLedger implements StockReservationEngine {
+
+    private final ItemRepository itemRepository;
+
+    private final StockLedgerRepository stockLedgerRepository;
+
+    private final ItemCache itemCache;
+
+    private final StockLevelPublisher stockLevelPublisher;
+
+    private final ThreadLocal<ConsumerRecord<?, ?>> currentRecord = new ThreadLocal<>();
+
+    private final Map<TopicPartition, Long> processedOffsets = new ConcurrentHashMap<>();
+
+    private final List<ExecutorService> executors = new ArrayList<>();
+
+    private final List<StockLedgerShard> shards = new ArrayList<>();
+
+    private Map<TopicPartition, Long> flushedOffsets = Map.of();
+
+    @Value("${stock.ledger.shards}")
+    private int shardCount;
+
+    @Value("${stock.ledger.flush-batch-size}")
+    private int flushBatchSize;
+
+    @Value("${stock.ledger.operation-timeout-ms}")
+    private long operationTimeoutMs;
+
+    @Value("${kafka.orders.batch.enabled}")
+    private boolean batchListenerEnabled;
+
+    @PostConstruct
+    public void init() {
+        if (batchListenerEnabled) {
+            throw new IllegalStateException("Stock ledger can not be used together with the batch orders listener");
+        }
+        for (int i = 0; i < shardCount; i++) {
+            int index = i;
+            ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "stock-ledger-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+            executors.add(executor);
+            shards.add(new StockLedgerShard(executor, itemRepository::findById));
+        }
+        log.info("Stock ledger started with {} shards", shardCount);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        executors.forEach(ExecutorService::shutdown);
+    }
+
+    @Override
+    public boolean reserve(Long itemId, long quantity) {
+        return apply(itemId, -quantity, quantity);
+    }
+
+    @Override
+    public boolean release(Long itemId, long quantity) {
+        return apply(itemId, quantity, -quantity);
+    }
+
+    @Override
+    public boolean confirm(Long itemId, long quantity) {
+        return apply(itemId, 0, -quantity);
+    }
+
+    /**
+     * Changes are applied in memory and flushed later, independently of the caller's transaction.
+     */
+    @Override
+    public boolean isTransactional() {
+        return false;
+    }
+
+    /**
+     * Records are only replayed when their changes were not flushed, so their stock changes have to be made again
+     * even if their reservation rows were stored.
+     */
+    @Override
+    public boolean isDurable() {
+        return false;
+    }
+
+    @Override
+    public void evict(Long itemId) {
+        StockLedgerShard shard = shardFor(itemId);
+        await(shard.submit(() -> shard.evict(itemId)));
+    }
+
+    /**
+     * Writes every change caused by fully processed records back to the database.
+     * <p>
+     * The processed offsets are captured before the shards are drained, so each shard only hands over changes of
+     * records whose processing has completed; later changes stay pending for the next flush.
+     */
+    @Scheduled(fixedDelayString = "${stock.ledger.flush-interval-ms}")
+    public synchronized void flush() {
+        Map<TopicPartition, Long> flushableOffsets = Map.copyOf(processedOffsets);
+
+        Map<Long, StockDelta> deltas = new HashMap<>();
+        for (StockLedgerShard shard : shards) {
+            for (StockChange change : await(shard.submit(() -> shard.drain(flushableOffsets)))) {
+                deltas.computeIfAbsent(change.getItemId(), id -> new StockDelta(id, 0, 0))
+                        .add(change.getAvailableDelta(), change.getReservedDelta());
+            }
+        }
+        if (deltas.isEmpty() && flushableOffsets.equals(flushedOffsets)) {
+            return;
+        }
+
+        try {
+            stockLedgerRepository.saveChanges(deltas.values(), flushableOffsets, flushBatchSize);
+        } catch (RuntimeException e) {
+            log.error("Stock ledger flush failed, changes are kept for the next flush", e);
+            shards.forEach(shard -> await(shard.submit(shard::abortFlush)));
+            return;
+        }
+        shards.forEach(shard -> await(shard.submit(shard::completeFlush)));
+        itemCache.invalidateAll(deltas.keySet());
+        stockLevelPublisher.changed(deltas.keySet());
+        flushedOffsets = flushableOffsets;
+        log.debug("Stock ledger flushed {} item deltas up to offsets {}", deltas.size(), flushableOffsets);
+    }
+
+    /**
+     * Drops the whole in-memory state, items are lazily reloaded from the database afterwards. Unflushed changes are
+     * lost and must be replayed from Kafka.
+     */
+    public synchronized void reset() {
+        shards.forEach(shard -> await(shard.submit(shard::clear)));
+        processedOffsets.clear();
+        flushedOffsets = Map.of();
+    }
+
+    void beginRecord(ConsumerRecord<?, ?> record) {
+        currentRecord.set(record);
+    }
+
+    void recordProcessed(ConsumerRecord<?, ?> record) {
+        processedOffsets.put(new TopicPartition(record.topic(), record.partition()), record.offset());
+    }
+
+    void endRecord() {
+        currentRecord.remove();
+    }
+
+    private boolean apply(Long itemId, long availableDelta, long reservedDelta) {
+        ConsumerRecord<?, ?> record = currentRecord.get();
+        TopicPartition partition = record == null ? null : new TopicPartition(record.topic(), record.partition());
+        long offset = record == null ? -1 : record.offset();
+
+        StockLedgerShard shard = shardFor(itemId);
+        return await(shard.submit(() -> shard.apply(itemId, availableDelta, reservedDelta, partition, offset)));
+    }
+
+    private StockLedgerShard shardFor(Long itemId) {
+        return shards.get(Math.floorMod(itemId.hashCode(), shards.size()));
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(operationTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("Interrupted while waiting for the stock ledger", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new ServiceException("Stock ledger operation failed", e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.service.stock.reservation;
+
+import com.service.stock.repository.StockLedgerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Connects the {@link StockLedger} to the listener container: tells it which record is being processed, which records
+ * are done, and flushes or rebuilds its state around partition reassignments.
+ * <p>
+ * Picked up by Spring Boot as the record interceptor and rebalance listener of the default container factory.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "stock.ledger.enabled", havingValue = "true")
+public class StockLedgerOffsetTracker implements RecordInterceptor<Object, Object>, ConsumerAwareRebalanceListener {
+
+    private final StockLedger stockLedger;
+
+    private final StockLedgerRepository stockLedgerRepository;
+
+    @Override
+    public ConsumerRecord<Object, Object> intercept(ConsumerRecord<Object, Object> record,
+                                                    Consumer<Object, Object> consumer) {
+        stockLedger.beginRecord(record);
+        return record;
+    }
+
+    @Override
+    public void success(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        stockLedger.recordProcessed(record);
+    }
+
+    @Override
+    public void afterRecord(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        stockLedger.endRecord();
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        stockLedger.flush();
+        stockLedger.reset();
+        log.info("Stock ledger flushed and cleared on revocation of {}", partitions);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        stockLedger.reset();
+        log.warn("Stock ledger cleared without flush on loss of {}", partitions);
+    }
+
+    /**
+     * The committed Kafka offsets may run ahead of the changes written back by the ledger, so the listener is sought
+     * back to the first record after the last flushed offset and the unflushed records are replayed against the
+     * state reloaded from the database.
+     */
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        stockLedger.reset();
+        Map<TopicPartition, Long> flushedOffsets = stockLedgerRepository.findOffsets(partitions);
+        flushedOffsets.forEach((partition, offset) -> consumer.seek(partition, offset + 1));
+        log.info("Stock ledger rebuilt for {}, resuming from flushed offsets {}", partitions, flushedOffsets);
+    }
+}
@@ -0,0 +1,121 @@
+package com.service.stock.reservation;
+
+import com.service.stock.entity.Item;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * One shard of the {@link StockLedger}.
+ * <p>
+ * All state is confined to the single writer thread of the shard, so the methods below must only be called through
+ * {@code submit} and need no locking.
+ */
+class StockLedgerShard {
+
+    private final Executor executor;
+
+    private final Function<Long, Optional<Item>> itemLoader;
+
+    private final Map<Long, StockLevel> levels = new HashMap<>();
+
+    private final List<StockChange> pendingChanges = new ArrayList<>();
+
+    private final List<StockChange> flushingChanges = new ArrayList<>();
+
+    /**
+     * @param executor   single threaded executor owning the shard state
+     * @param itemLoader loads the stored stock of an item the shard has not seen yet
+     */
+    StockLedgerShard(Executor executor, Function<Long, Optional<Item>> itemLoader) {
+        this.executor = executor;
+        this.itemLoader = itemLoader;
+    }
+
+    <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    CompletableFuture<Void> submit(Runnable task) {
+        return CompletableFuture.runAsync(task, executor);
+    }
+
+    boolean apply(Long itemId, long availableDelta, long reservedDelta, TopicPartition partition, long offset) {
+        StockLevel level = levels.get(itemId);
+        if (level == null) {
+            Optional<Item> item = itemLoader.apply(itemId);
+            if (item.isEmpty()) {
+                return false;
+            }
+            level = new StockLevel(item.get().getStockAvailable(), item.get().getStockReserved());
+            levels.put(itemId, level);
+        }
+        if (!level.canApply(availableDelta, reservedDelta)) {
+            return false;
+        }
+        level.apply(availableDelta, reservedDelta);
+        pendingChanges.add(new StockChange(itemId, availableDelta, reservedDelta, partition, offset));
+        return true;
+    }
+
+    /**
+     * Hands over every pending change caused by a record at or below the flushable offset of its partition. The
+     * changes stay reserved for the flush until {@link #completeFlush()} or {@link #abortFlush()} is called.
+     */
+    List<StockChange> drain(Map<TopicPartition, Long> flushableOffsets) {
+        Iterator<StockChange> iterator = pendingChanges.iterator();
+        while (iterator.hasNext()) {
+            StockChange change = iterator.next();
+            if (change.isCoveredBy(flushableOffsets)) {
+                flushingChanges.add(change);
+                iterator.remove();
+            }
+        }
+        return List.copyOf(flushingChanges);
+    }
+
+    void completeFlush() {
+        for (StockChange change : flushingChanges) {
+            StockLevel level = levels.get(change.getItemId());
+            if (level != null) {
+                level.flushed();
+                if (level.isEvictable()) {
+                    levels.remove(change.getItemId());
+                }
+            }
+        }
+        flushingChanges.clear();
+    }
+
+    void abortFlush() {
+        pendingChanges.addAll(0, flushingChanges);
+        flushingChanges.clear();
+    }
+
+    /**
+     * Items with unflushed changes are only marked, they are reloaded once their changes reached the database.
+     */
+    void evict(Long itemId) {
+        StockLevel level = levels.get(itemId);
+        if (level != null) {
+            level.markStale();
+            if (level.isEvictable()) {
+                levels.remove(itemId);
+            }
+        }
+    }
+
+    void clear() {
+        levels.clear();
+        pendingChanges.clear();
+        flushingChanges.clear();
+    }
+
+    Optional<StockLevel> getLevel(Long itemId) {
+        return Optional.ofNullable(levels.get(itemId));
+    }
+}
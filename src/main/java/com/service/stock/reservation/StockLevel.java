@@ -0,0 +1,47 @@
+package com.service.stock.reservation;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * In-memory stock of one item. Only ever touched by the thread of the shard that owns the item.
+ */
+@Getter
+@ToString
+class StockLevel {
+
+    private long available;
+
+    private long reserved;
+
+    private int unflushedChanges;
+
+    private boolean stale;
+
+    StockLevel(long available, long reserved) {
+        this.available = available;
+        this.reserved = reserved;
+    }
+
+    boolean canApply(long availableDelta, long reservedDelta) {
+        return available + availableDelta >= 0 && reserved + reservedDelta >= 0;
+    }
+
+    void apply(long availableDelta, long reservedDelta) {
+        available += availableDelta;
+        reserved += reservedDelta;
+        unflushedChanges++;
+    }
+
+    void flushed() {
+        unflushedChanges--;
+    }
+
+    void markStale() {
+        stale = true;
+    }
+
+    boolean isEvictable() {
+        return stale && unflushedChanges == 0;
+    }
+}
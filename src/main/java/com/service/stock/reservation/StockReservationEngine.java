@@ -0,0 +1,55 @@
+package com.service.stock.reservation;
+
+import java.util.Collection;
+
+/**
+ * Applies stock reservation changes of a single item.
+ * <p>
+ * Every method returns {@code false} when the item is unknown or when its stock does not allow the change; the caller
+ * decides how to report that.
+ */
+public interface StockReservationEngine {
+
+    boolean reserve(Long itemId, long quantity);
+
+    boolean release(Long itemId, long quantity);
+
+    boolean confirm(Long itemId, long quantity);
+
+    /**
+     * Whether a change made in a transaction commits or rolls back with it, so changes of several items can be made
+     * atomically by the caller.
+     */
+    default boolean isTransactional() {
+        return true;
+    }
+
+    /**
+     * Whether a change is stored together with the reservation rows of the order, so an order redelivered after they
+     * were stored must not change the stock again.
+     */
+    default boolean isDurable() {
+        return true;
+    }
+
+    /**
+     * Whether a reservation made outside of a transaction is grouped with concurrent reservations of the item and
+     * applied in a transaction of that group.
+     */
+    default boolean isCoalescing() {
+        return false;
+    }
+
+    /**
+     * Drops any state held for the item, so that the next change sees the stock currently stored in the database.
+     */
+    default void evict(Long itemId) {
+    }
+
+    /**
+     * Moves any stock the engine keeps outside of the item rows back into them. Must be called in the transaction
+     * that writes the stock columns of the items directly, before their rows are read.
+     */
+    default void consolidate(Collection<Long> itemIds) {
+    }
+}
@@ -0,0 +1,213 @@
+package com.service.stock.reservation;
+
+import com.service.stock.repository.ItemStockBucketRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Spreads the stock of hot items over bucket rows, so concurrent reservations of one item lock different rows instead
+ * of serializing on its {@code item} row.
+ * <p>
+ * Reservations are counted per item and evaluated every {@code stock.striping.detection-interval-ms}: items reserved
+ * at least {@code stock.striping.hot-threshold-per-second} times per second get {@code stock.striping.buckets}
+ * buckets, striped items that cooled down below {@code stock.striping.cool-threshold-per-second} are collapsed back
+ * into their item row. A change of a striped item starts at a random bucket and moves on until one allows it; a bucket
+ * running below {@code stock.striping.min-bucket-stock} triggers a rebalance in the background.
+ * <p>
+ * Which items are striped is stored only in the bucket table and reloaded on every evaluation, so the buckets created
+ * by other nodes are used as well. With striping disabled, remaining buckets are collapsed by the next evaluation.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "stock.ledger.enabled", havingValue = "false", matchIfMissing = true)
+public class StockStriping {
+
+    private final ItemStockBucketRepository itemStockBucketRepository;
+
+    private final Map<Long, Integer> stripedItems = new ConcurrentHashMap<>();
+
+    private final Set<Long> pendingRebalances = ConcurrentHashMap.newKeySet();
+
+    private volatile Map<Long, LongAdder> reservationCounts = new ConcurrentHashMap<>();
+
+    private long windowStartNanos = System.nanoTime();
+
+    private ExecutorService rebalancer;
+
+    @Value("${stock.striping.enabled}")
+    private boolean enabled;
+
+    @Value("${stock.striping.buckets}")
+    private int buckets;
+
+    @Value("${stock.striping.hot-threshold-per-second}")
+    private double hotThresholdPerSecond;
+
+    @Value("${stock.striping.cool-threshold-per-second}")
+    private double coolThresholdPerSecond;
+
+    @Value("${stock.striping.min-bucket-stock}")
+    private long minBucketStock;
+
+    @Value("${kafka.orders.batch.enabled}")
+    private boolean batchListenerEnabled;
+
+    @PostConstruct
+    public void init() {
+        if (enabled && batchListenerEnabled) {
+            throw new IllegalStateException("Stock striping can not be used together with the batch orders listener");
+        }
+        rebalancer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-striping-rebalancer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            log.info("Stock striping started with {} buckets for items above {} reservations per second", buckets,
+                    hotThresholdPerSecond);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebalancer.shutdown();
+    }
+
+    public void recordReservation(Long itemId) {
+        if (enabled) {
+            reservationCounts.computeIfAbsent(itemId, id -> new LongAdder()).increment();
+        }
+    }
+
+    public boolean isStriped(Long itemId) {
+        return stripedItems.containsKey(itemId);
+    }
+
+    /**
+     * Applies the change to one bucket of a striped item.
+     *
+     * @return {@code false} if the item is not striped or none of its buckets allows the change
+     */
+    public boolean apply(Long itemId, long availableDelta, long reservedDelta) {
+        Integer bucketCount = stripedItems.get(itemId);
+        if (bucketCount == null) {
+            return false;
+        }
+        int first = ThreadLocalRandom.current().nextInt(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            long remaining = itemStockBucketRepository.apply(itemId, (first + i) % bucketCount, availableDelta,
+                    reservedDelta);
+            if (remaining >= 0) {
+                if (availableDelta < 0 && remaining < minBucketStock) {
+                    rebalanceLater(itemId);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collapses the item if it has buckets, so a change its buckets did not allow can be retried on the item row.
+     * Items striped by other nodes are only looked up while striping is enabled.
+     *
+     * @return whether the item had buckets
+     */
+    public boolean collapseIfStriped(Long itemId) {
+        if (!isStriped(itemId) && !(enabled && itemStockBucketRepository.countBuckets(itemId) > 0)) {
+            return false;
+        }
+        return !collapse(List.of(itemId)).isEmpty();
+    }
+
+    /**
+     * Folds the buckets of the items back into their item rows, joining the current transaction.
+     *
+     * @return ids of the items that had buckets
+     */
+    public Set<Long> collapse(Collection<Long> itemIds) {
+        Set<Long> collapsed = itemStockBucketRepository.collapse(itemIds);
+        itemIds.forEach(stripedItems::remove);
+        if (!collapsed.isEmpty()) {
+            log.info("Collapsed stock buckets of Items {}", collapsed);
+        }
+        return collapsed;
+    }
+
+    @Scheduled(fixedDelayString = "${stock.striping.detection-interval-ms}")
+    public void detect() {
+        Map<Long, LongAdder> counts = reservationCounts;
+        reservationCounts = new ConcurrentHashMap<>();
+        long now = System.nanoTime();
+        double seconds = Math.max(now - windowStartNanos, 1) / 1e9;
+        windowStartNanos = now;
+
+        Map<Long, Integer> storedItems = itemStockBucketRepository.findBucketCounts();
+        stripedItems.keySet().retainAll(storedItems.keySet());
+        stripedItems.putAll(storedItems);
+        if (!enabled) {
+            if (!storedItems.isEmpty()) {
+                collapse(storedItems.keySet());
+            }
+            return;
+        }
+
+        for (Long itemId : storedItems.keySet()) {
+            LongAdder count = counts.get(itemId);
+            if ((count == null ? 0 : count.sum()) / seconds < coolThresholdPerSecond) {
+                collapse(List.of(itemId));
+            }
+        }
+        counts.forEach((itemId, count) -> {
+            double rate = count.sum() / seconds;
+            if (rate >= hotThresholdPerSecond && !isStriped(itemId)) {
+                log.info("Item {} is hot with {} reservations per second, striping its stock", itemId, rate);
+                rebalance(itemId);
+            }
+        });
+    }
+
+    /**
+     * @return number of buckets of the item afterwards
+     */
+    int rebalance(Long itemId) {
+        int bucketCount = itemStockBucketRepository.rebalance(itemId, buckets, minBucketStock);
+        if (bucketCount > 0) {
+            stripedItems.put(itemId, bucketCount);
+        } else {
+            stripedItems.remove(itemId);
+        }
+        return bucketCount;
+    }
+
+    private void rebalanceLater(Long itemId) {
+        if (!pendingRebalances.add(itemId)) {
+            return;
+        }
+        rebalancer.execute(() -> {
+            try {
+                if (isStriped(itemId)) {
+                    rebalance(itemId);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Rebalance of stock buckets of Item {} failed", itemId, e);
+            } finally {
+                pendingRebalances.remove(itemId);
+            }
+        });
+    }
+}
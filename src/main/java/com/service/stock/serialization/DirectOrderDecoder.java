@@ -0,0 +1,221 @@
+package com.service.stock.serialization;
+
+import com.service.avro.model.AvroOrder;
+import com.service.avro.model.AvroOrderStatus;
+import com.service.stock.model.Order;
+import com.service.stock.model.OrderStatus;
+import com.service.stock.model.Product;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Decodes the binary encoding of {@code Schema.avsc} field by field straight into an {@link Order} and its
+ * {@link Product}s, which with the order id and the boxed numbers of the model are the only objects allocated per
+ * order.
+ * <p>
+ * The id is parsed from the UTF-8 bytes of its canonical form without an intermediate String, other forms
+ * {@link UUID#fromString} accepts take the slow path. The few distinct sources are interned in a small cache.
+ */
+class DirectOrderDecoder implements OrderDecoder {
+
+    private static final long SCHEMA_FINGERPRINT =
+            SchemaNormalization.parsingFingerprint64(AvroOrder.getClassSchema());
+
+    private static final OrderStatus[] STATUSES = Arrays.stream(AvroOrderStatus.values())
+            .map(status -> OrderStatus.valueOf(status.name()))
+            .toArray(OrderStatus[]::new);
+
+    private static final int UUID_LENGTH = 36;
+
+    private static final int SOURCE_CACHE_SIZE = 16;
+
+    private static final int MAX_CACHED_SOURCE_LENGTH = 64;
+
+    private final CachedString[] sources = new CachedString[SOURCE_CACHE_SIZE];
+
+    private byte[] data;
+
+    private int position;
+
+    private int end;
+
+    /**
+     * @return whether the writer schema has the same binary encoding as {@code Schema.avsc}, that is the same parsing
+     * canonical form
+     */
+    static boolean supports(Schema writerSchema) {
+        return SchemaNormalization.parsingFingerprint64(writerSchema) == SCHEMA_FINGERPRINT;
+    }
+
+    @Override
+    public Order decode(byte[] data, int offset, int length) {
+        this.data = data;
+        this.position = offset;
+        this.end = offset + length;
+        try {
+            Order order = new Order();
+            order.setId(readNull() ? null : readUuid());
+            order.setCustomerId(readNull() ? null : readLong());
+            order.setProduct(readNull() ? null : readProduct());
+            order.setStatus(readNull() ? null : readStatus());
+            order.setSource(readNull() ? null : readSource());
+            order.setProducts(readNull() ? null : readProducts());
+            return order;
+        } finally {
+            this.data = null;
+        }
+    }
+
+    private Product readProduct() {
+        Product product = new Product();
+        product.setId(readLong());
+        product.setQuantity(readInt());
+        product.setPrice(readLong());
+        return product;
+    }
+
+    /**
+     * Reads an array as a sequence of blocks, each a count followed by that many products, ended by an empty block.
+     * A negative count is followed by the byte size of the block.
+     */
+    private List<Product> readProducts() {
+        List<Product> products = new ArrayList<>();
+        for (long count = readLong(); count != 0; count = readLong()) {
+            if (count < 0) {
+                count = -count;
+                readLong();
+            }
+            if (count > end - position) {
+                throw new SerializationException("Invalid array block count: " + count);
+            }
+            for (long i = 0; i < count; i++) {
+                products.add(readProduct());
+            }
+        }
+        return products;
+    }
+
+    private OrderStatus readStatus() {
+        int index = readInt();
+        if (index < 0 || index >= STATUSES.length) {
+            throw new SerializationException("Invalid order status index: " + index);
+        }
+        return STATUSES[index];
+    }
+
+    private UUID readUuid() {
+        int length = readLength();
+        int start = position;
+        position += length;
+        if (length != UUID_LENGTH || !isCanonicalUuid(start)) {
+            return parseUuid(start, length);
+        }
+        long mostSignificantBits = hex(start, 8) << 32 | hex(start + 9, 4) << 16 | hex(start + 14, 4);
+        long leastSignificantBits = hex(start + 19, 4) << 48 | hex(start + 24, 12);
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    private boolean isCanonicalUuid(int start) {
+        for (int i = 0; i < UUID_LENGTH; i++) {
+            int b = data[start + i] & 0xFF;
+            boolean valid = i == 8 || i == 13 || i == 18 || i == 23 ? b == '-' : Character.digit(b, 16) >= 0;
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long hex(int from, int digits) {
+        long value = 0;
+        for (int i = from; i < from + digits; i++) {
+            value = value << 4 | Character.digit(data[i] & 0xFF, 16);
+        }
+        return value;
+    }
+
+    private UUID parseUuid(int start, int length) {
+        String id = new String(data, start, length, StandardCharsets.UTF_8);
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Invalid order id: " + id, e);
+        }
+    }
+
+    private String readSource() {
+        int length = readLength();
+        int start = position;
+        position += length;
+        if (length > MAX_CACHED_SOURCE_LENGTH) {
+            return new String(data, start, length, StandardCharsets.UTF_8);
+        }
+        int hash = 1;
+        for (int i = start; i < start + length; i++) {
+            hash = 31 * hash + data[i];
+        }
+        int slot = (hash ^ hash >>> 16) & (SOURCE_CACHE_SIZE - 1);
+        CachedString cached = sources[slot];
+        if (cached != null && Arrays.equals(cached.bytes, 0, cached.bytes.length, data, start, start + length)) {
+            return cached.value;
+        }
+        String value = new String(data, start, length, StandardCharsets.UTF_8);
+        sources[slot] = new CachedString(Arrays.copyOfRange(data, start, start + length), value);
+        return value;
+    }
+
+    /**
+     * @return whether the union index selects the {@code null} branch
+     */
+    private boolean readNull() {
+        long index = readLong();
+        if (index != 0 && index != 1) {
+            throw new SerializationException("Invalid union index: " + index);
+        }
+        return index == 0;
+    }
+
+    private int readLength() {
+        long length = readLong();
+        if (length < 0 || length > end - position) {
+            throw new SerializationException("Invalid string length: " + length);
+        }
+        return (int) length;
+    }
+
+    private int readInt() {
+        long value = readLong();
+        if (value != (int) value) {
+            throw new SerializationException("Invalid int: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads a zig-zag encoded variable-length long.
+     */
+    private long readLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position >= end) {
+                throw new SerializationException("Unexpected end of Avro order");
+            }
+            byte b = data[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return (value >>> 1) ^ -(value & 1);
+            }
+        }
+        throw new SerializationException("Invalid long encoding");
+    }
+
+    private record CachedString(byte[] bytes, String value) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.service.stock.serialization;
+
+import com.service.stock.model.Order;
+import org.apache.avro.Schema;
+
+/**
+ * Decodes the Avro binary encoding of an {@code AvroOrder}, written with one particular writer schema, into an
+ * {@link Order}.
+ * <p>
+ * Decoders are created per schema id by {@link OrderDeserializer} and, like it, used by the thread of a single
+ * consumer.
+ */
+public interface OrderDecoder {
+
+    Order decode(byte[] data, int offset, int length);
+
+    /**
+     * @return a {@link DirectOrderDecoder} if the writer schema encodes orders exactly like {@code Schema.avsc}, a
+     * {@link ResolvingOrderDecoder} resolving it against {@code Schema.avsc} otherwise
+     */
+    static OrderDecoder forWriterSchema(Schema writerSchema) {
+        return DirectOrderDecoder.supports(writerSchema)
+                ? new DirectOrderDecoder()
+                : new ResolvingOrderDecoder(writerSchema);
+    }
+}
@@ -0,0 +1,71 @@
+package com.service.stock.serialization;
+
+import com.service.stock.model.Order;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.AbstractKafkaAvroDeserializer;
+import io.confluent.kafka.serializers.KafkaAvroDeserializerConfig;
+import org.apache.avro.Schema;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Kafka deserializer reading orders in the Confluent wire format (magic byte, 4-byte schema id, Avro binary) straight
+ * into an {@link Order}, without the {@code AvroOrder} of {@code KafkaAvroDeserializer} and its conversion.
+ * <p>
+ * Writer schemas are looked up in the schema registry once per id, configured like {@code KafkaAvroDeserializer}
+ * ({@code schema.registry.url} and the client settings). The decoder of each id is cached; see {@link OrderDecoder}.
+ */
+public class OrderDeserializer extends AbstractKafkaAvroDeserializer implements Deserializer<Order> {
+
+    private static final byte MAGIC_BYTE = 0x0;
+
+    private static final int HEADER_SIZE = 5;
+
+    private final Map<Integer, OrderDecoder> decoders = new HashMap<>();
+
+    public OrderDeserializer() {
+    }
+
+    public OrderDeserializer(SchemaRegistryClient schemaRegistry) {
+        this.schemaRegistry = schemaRegistry;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        configure(new KafkaAvroDeserializerConfig(configs));
+    }
+
+    @Override
+    public Order deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length < HEADER_SIZE || data[0] != MAGIC_BYTE) {
+            throw new SerializationException("Unknown magic byte, the order is not in the Confluent wire format");
+        }
+        int schemaId = (data[1] & 0xFF) << 24 | (data[2] & 0xFF) << 16 | (data[3] & 0xFF) << 8 | data[4] & 0xFF;
+        return decoder(schemaId).decode(data, HEADER_SIZE, data.length - HEADER_SIZE);
+    }
+
+    private OrderDecoder decoder(int schemaId) {
+        OrderDecoder decoder = decoders.get(schemaId);
+        if (decoder == null) {
+            decoder = OrderDecoder.forWriterSchema(writerSchema(schemaId));
+            decoders.put(schemaId, decoder);
+        }
+        return decoder;
+    }
+
+    private Schema writerSchema(int schemaId) {
+        try {
+            return schemaRegistry.getById(schemaId);
+        } catch (IOException | RestClientException e) {
+            throw new SerializationException("Error retrieving Avro schema for id " + schemaId, e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.service.stock.serialization;
+
+import com.service.avro.model.AvroOrder;
+import com.service.stock.converter.AvroOrderToOrderConverter;
+import com.service.stock.model.Order;
+import org.apache.avro.Schema;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.io.IOException;
+
+/**
+ * Decodes orders written with another version of the schema through Avro schema resolution into an {@link AvroOrder},
+ * converted by {@link AvroOrderToOrderConverter}.
+ */
+class ResolvingOrderDecoder implements OrderDecoder {
+
+    private final DatumReader<AvroOrder> reader;
+
+    private final AvroOrderToOrderConverter converter = new AvroOrderToOrderConverter();
+
+    ResolvingOrderDecoder(Schema writerSchema) {
+        this.reader = new SpecificDatumReader<>(writerSchema, AvroOrder.getClassSchema());
+    }
+
+    @Override
+    public Order decode(byte[] data, int offset, int length) {
+        try {
+            AvroOrder avroOrder = reader.read(null, DecoderFactory.get().binaryDecoder(data, offset, length, null));
+            return converter.convert(avroOrder);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Error deserializing Avro order", e);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.service.stock.service;
+
+import com.service.avro.model.AvroOrder;
+import com.service.stock.converter.OrderToAvroOrderConverter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes order results without waiting for the broker.
+ * <p>
+ * Every result holds a slot of a bounded in-flight window until the broker acknowledged it. When the window is full
+ * the {@code orders} listener container is paused, and it is resumed once the window drained below the resume
+ * threshold, so the consumer thread is slowed down by the broker instead of blocked by it. Failed sends are retried
+ * with exponential backoff on a separate thread; results that still fail are parked and re-sent periodically. Parked
+ * results keep their window slot, so a broker outage eventually stops consumption instead of filling the heap.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "kafka.payment-orders.async.enabled", havingValue = "true")
+public class AsyncKafkaStockOrderProducerService extends KafkaStockOrderProducerService {
+
+    static final String ORDERS_LISTENER_ID = "orders";
+
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile boolean listenerPaused;
+
+    private final Queue<AvroOrder> parkedOrders = new ConcurrentLinkedQueue<>();
+
+    private ScheduledExecutorService retryExecutor;
+
+    @Value("${kafka.payment-orders.async.max-in-flight}")
+    private int maxInFlight;
+
+    @Value("${kafka.payment-orders.async.resume-in-flight}")
+    private int resumeInFlight;
+
+    @Value("${kafka.payment-orders.async.retry.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${kafka.payment-orders.async.retry.backoff-ms}")
+    private long backoffMs;
+
+    @Value("${kafka.payment-orders.async.retry.max-backoff-ms}")
+    private long maxBackoffMs;
+
+    public AsyncKafkaStockOrderProducerService(KafkaTemplate<String, AvroOrder> template,
+                                               OrderToAvroOrderConverter converter,
+                                               KafkaListenerEndpointRegistry listenerRegistry) {
+        super(template, converter);
+        this.listenerRegistry = listenerRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (resumeInFlight >= maxInFlight) {
+            throw new IllegalStateException("Resume threshold must be lower than the in-flight window");
+        }
+        retryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-orders-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryExecutor.shutdown();
+        if (!parkedOrders.isEmpty()) {
+            log.error("{} parked orders were not sent to Kafka: {}", parkedOrders.size(), parkedOrders);
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getParked() {
+        return parkedOrders.size();
+    }
+
+    @Override
+    protected void publish(AvroOrder avroOrder) {
+        if (inFlight.incrementAndGet() >= maxInFlight && !listenerPaused) {
+            pauseListener();
+        }
+        publish(avroOrder, 1);
+    }
+
+    /**
+     * Sends every parked order once more. Orders failing again are parked again.
+     */
+    @Scheduled(fixedDelayString = "${kafka.payment-orders.async.parked-retry-interval-ms}")
+    public void retryParked() {
+        List<AvroOrder> orders = new ArrayList<>();
+        AvroOrder parked;
+        while ((parked = parkedOrders.poll()) != null) {
+            orders.add(parked);
+        }
+        if (!orders.isEmpty()) {
+            log.info("Retrying {} parked orders", orders.size());
+            orders.forEach(avroOrder -> publish(avroOrder, maxAttempts));
+        }
+    }
+
+    private void publish(AvroOrder avroOrder, int attempt) {
+        try {
+            send(avroOrder).whenComplete((result, e) -> {
+                if (e == null) {
+                    release();
+                } else {
+                    onFailure(avroOrder, attempt, e);
+                }
+            });
+        } catch (RuntimeException e) {
+            onFailure(avroOrder, attempt, e);
+        }
+    }
+
+    private void onFailure(AvroOrder avroOrder, int attempt, Throwable e) {
+        if (isPermanent(e)) {
+            log.error("Order can never be sent to Kafka, dropping it: {}", avroOrder, e);
+            release();
+        } else if (attempt < maxAttempts) {
+            long backoff = Math.min(backoffMs << Math.min(attempt - 1, 30), maxBackoffMs);
+            log.warn("Error sending order to Kafka, retry {} of {} in {} ms: {}", attempt, maxAttempts - 1, backoff,
+                    avroOrder, e);
+            retryExecutor.schedule(() -> publish(avroOrder, attempt + 1), backoff, TimeUnit.MILLISECONDS);
+        } else {
+            log.error("Error sending order to Kafka, parking it: {}", avroOrder, e);
+            parkedOrders.add(avroOrder);
+        }
+    }
+
+    private void release() {
+        if (inFlight.decrementAndGet() <= resumeInFlight && listenerPaused) {
+            resumeListener();
+        }
+    }
+
+    private synchronized void pauseListener() {
+        if (listenerPaused || inFlight.get() < maxInFlight) {
+            return;
+        }
+        listenerPaused = true;
+        setListenerPaused(true);
+        // Results completing while pausing may have seen the listener running and skipped resuming it
+        if (inFlight.get() <= resumeInFlight) {
+            resumeListener();
+        }
+    }
+
+    private synchronized void resumeListener() {
+        if (!listenerPaused || inFlight.get() > resumeInFlight) {
+            return;
+        }
+        listenerPaused = false;
+        setListenerPaused(false);
+    }
+
+    private void setListenerPaused(boolean paused) {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(ORDERS_LISTENER_ID);
+        if (container == null) {
+            return;
+        }
+        if (paused) {
+            container.pause();
+        } else {
+            container.resume();
+        }
+        log.info("{} orders listener, {} results in flight", paused ? "Paused" : "Resumed", inFlight.get());
+    }
+
+    private static boolean isPermanent(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SerializationException || cause instanceof RecordTooLargeException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
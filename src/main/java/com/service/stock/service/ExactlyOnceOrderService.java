@@ -0,0 +1,159 @@
+package com.service.stock.service;
+
+import com.service.stock.metrics.OrderMetrics;
+import com.service.stock.model.Order;
+import com.service.stock.model.OrderStatus;
+import com.service.stock.repository.OrderOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Processes every order at most once, even when it is redelivered after a crash or rebalance.
+ * <p>
+ * The order id is recorded in the same transaction as the stock update and, through
+ * {@link OutboxStockOrderProducerService}, the result to publish. A redelivered order finds its id already recorded
+ * and is skipped without touching the stock.
+ * <p>
+ * A refused stock change throws through the transaction it joins, which makes the whole transaction roll back at
+ * commit. The order is then recorded once more in a transaction without the stock change: a NEW order with its
+ * REJECT result, a ROLLBACK or CONFIRMATION only as processed, like a failed one is acknowledged without exactly-once
+ * processing.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "kafka.orders.exactly-once.enabled", havingValue = "true")
+public class ExactlyOnceOrderService extends OrderService {
+
+    private final OrderOutboxRepository orderOutboxRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${kafka.orders.batch.enabled}")
+    private boolean batchListenerEnabled;
+
+    @Value("${stock.ledger.enabled}")
+    private boolean stockLedgerEnabled;
+
+    @Value("${kafka.orders.exactly-once.dedup-retention-hours}")
+    private long dedupRetentionHours;
+
+    public ExactlyOnceOrderService(ItemService itemService,
+                                   KafkaStockOrderProducerService kafkaStockOrderProducerService,
+                                   OrderMetrics orderMetrics,
+                                   OrderOutboxRepository orderOutboxRepository,
+                                   TransactionTemplate transactionTemplate) {
+        super(itemService, kafkaStockOrderProducerService, orderMetrics);
+        this.orderOutboxRepository = orderOutboxRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (batchListenerEnabled || stockLedgerEnabled) {
+            throw new IllegalStateException(
+                    "Exactly-once processing can not be used together with the batch orders listener or stock ledger");
+        }
+    }
+
+    /**
+     * @return the published result, {@code null} if the order was processed before
+     */
+    @Override
+    public Order processNewOrder(@NonNull Order order) {
+        return process(order, () -> super.processNewOrder(order));
+    }
+
+    @Override
+    public void processRollbackOrder(@NonNull Order order) {
+        process(order, () -> {
+            super.processRollbackOrder(order);
+            return order;
+        });
+    }
+
+    @Override
+    public void processConfirmationOrder(@NonNull Order order) {
+        process(order, () -> {
+            super.processConfirmationOrder(order);
+            return order;
+        });
+    }
+
+    /**
+     * Processes the orders one at a time, each in its own transaction with its processed id, so a batch redelivered
+     * after a failure skips the orders that already committed.
+     *
+     * @return the given orders, NEW ones with their ACCEPT/REJECT result as status
+     */
+    @Override
+    public List<Order> processOrders(@NonNull List<Order> orders) {
+        for (Order order : orders) {
+            switch (order.getStatus()) {
+                case NEW -> processNewOrder(order);
+                case ROLLBACK -> processRollbackOrder(order);
+                case CONFIRMATION -> processConfirmationOrder(order);
+                default -> log.warn("Unknown order status: {}", order.getStatus());
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * Forgets processed order ids once redeliveries of them are no longer expected.
+     */
+    @Scheduled(fixedDelayString = "${kafka.orders.exactly-once.dedup-cleanup-interval-ms}")
+    public void purgeProcessedOrders() {
+        int deleted = orderOutboxRepository.deleteProcessedBefore(
+                Instant.now().minus(Duration.ofHours(dedupRetentionHours)));
+        log.debug("Purged {} processed order ids", deleted);
+    }
+
+    /**
+     * @return result of the processing, {@code null} if the order was processed before
+     */
+    private Order process(Order order, Supplier<Order> processing) {
+        if (order.getId() == null || order.getStatus() == null) {
+            throw new IllegalArgumentException("Order id and status are required for exactly-once processing");
+        }
+        // Processing replaces the status of a NEW order by its result
+        OrderStatus status = order.getStatus();
+        try {
+            return transactionTemplate.execute(transaction -> markProcessed(order, status) ? processing.get() : null);
+        } catch (UnexpectedRollbackException e) {
+            if (status == OrderStatus.NEW && order.getStatus() != OrderStatus.REJECT) {
+                throw e;
+            }
+            log.warn("Stock change of {} order {} was rolled back, recording the order without it", status,
+                    order.getId());
+            return transactionTemplate.execute(transaction -> {
+                if (!markProcessed(order, status)) {
+                    return null;
+                }
+                if (status == OrderStatus.NEW) {
+                    sendResult(order, OrderStatus.REJECT);
+                }
+                return order;
+            });
+        }
+    }
+
+    private boolean markProcessed(Order order, OrderStatus status) {
+        if (!orderOutboxRepository.markProcessed(order.getId(), status.name())) {
+            log.info("Skipping already processed {} order: {}", status, order.getId());
+            return false;
+        }
+        return true;
+    }
+}
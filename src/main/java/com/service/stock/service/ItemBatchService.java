@@ -0,0 +1,255 @@
+package com.service.stock.service;
+
+import com.service.stock.cache.ItemCache;
+import com.service.stock.cache.ItemCountCache;
+import com.service.stock.converter.ConverterService;
+import com.service.stock.converter.ItemFromItemDtoUpdater;
+import com.service.stock.dto.DtoBatchResponse;
+import com.service.stock.dto.ItemBatchResult;
+import com.service.stock.dto.ItemDto;
+import com.service.stock.entity.Item;
+import com.service.stock.exception.EntityValidationException;
+import com.service.stock.model.StockMovement;
+import com.service.stock.model.StockMovementReason;
+import com.service.stock.movement.StockMovementLog;
+import com.service.stock.repository.ItemBatchRepository;
+import com.service.stock.reservation.StockReservationEngine;
+import com.service.stock.stocklevel.StockLevelPublisher;
+import com.service.stock.validation.ItemValidator;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Bulk variant of the {@link ItemService} create and update operations.
+ * <p>
+ * The whole payload is validated up front, then the valid items are written in chunks of
+ * {@code items.batch.chunk-size}, each chunk in its own transaction with a single JDBC batch. A failing chunk does not
+ * affect the others, every item gets its own result.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ItemBatchService {
+
+    private final ItemValidator itemValidator;
+
+    private final ItemBatchRepository itemBatchRepository;
+
+    private final ItemFromItemDtoUpdater itemFromItemDtoUpdater;
+
+    private final ConverterService converter;
+
+    private final StockReservationEngine stockReservationEngine;
+
+    private final ItemCache itemCache;
+
+    private final ItemCountCache itemCountCache;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final StockMovementLog stockMovementLog;
+
+    private final StockLevelPublisher stockLevelPublisher;
+
+    @Value("${items.batch.max-size}")
+    private int maxSize;
+
+    @Value("${items.batch.chunk-size}")
+    private int chunkSize;
+
+    /**
+     * Creates the items. Items without an id get one from a block allocated for their chunk, items with an id that
+     * already exists are reported as {@link ItemBatchResult.Status#ALREADY_EXISTS}.
+     */
+    public DtoBatchResponse createAll(@NonNull List<ItemDto> itemDtos) {
+        checkSize(itemDtos);
+        ItemBatchResult[] results = new ItemBatchResult[itemDtos.size()];
+        Set<Long> ids = new HashSet<>();
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < itemDtos.size(); i++) {
+            ItemDto itemDto = itemDtos.get(i);
+            if (itemDto == null) {
+                results[i] = invalid(i, null, "Item must be provided");
+                continue;
+            }
+            if (itemDto.getId() != null && !ids.add(itemDto.getId())) {
+                results[i] = invalid(i, itemDto.getId(), "Item id is not unique within the batch");
+                continue;
+            }
+            Item item = converter.convert(itemDto, Item.class);
+            try {
+                itemValidator.validate(item);
+            } catch (EntityValidationException e) {
+                results[i] = invalid(i, itemDto.getId(), e);
+                continue;
+            }
+            entries.add(new Entry(i, itemDto, item));
+        }
+
+        writeInChunks(entries, results, this::insertChunk);
+        return toResponse(results, "Created");
+    }
+
+    /**
+     * Updates the items identified by their ids, copying every non-null field like the single item update does.
+     */
+    public DtoBatchResponse updateAll(@NonNull List<ItemDto> itemDtos) {
+        checkSize(itemDtos);
+        ItemBatchResult[] results = new ItemBatchResult[itemDtos.size()];
+        Set<Long> ids = new HashSet<>();
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < itemDtos.size(); i++) {
+            ItemDto itemDto = itemDtos.get(i);
+            if (itemDto == null || itemDto.getId() == null) {
+                results[i] = invalid(i, null, "Item id must be provided");
+                continue;
+            }
+            if (!ids.add(itemDto.getId())) {
+                results[i] = invalid(i, itemDto.getId(), "Item id is not unique within the batch");
+                continue;
+            }
+            entries.add(new Entry(i, itemDto, null));
+        }
+
+        writeInChunks(entries, results, this::updateChunk);
+        return toResponse(results, "Updated");
+    }
+
+    private void checkSize(List<ItemDto> itemDtos) {
+        if (itemDtos.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one item");
+        }
+        if (itemDtos.size() > maxSize) {
+            throw new IllegalArgumentException("Batch must not contain more than " + maxSize + " items");
+        }
+    }
+
+    private void writeInChunks(List<Entry> entries, ItemBatchResult[] results,
+                               Function<List<Entry>, List<ItemBatchResult>> chunkWriter) {
+        for (int from = 0; from < entries.size(); from += chunkSize) {
+            List<Entry> chunk = entries.subList(from, Math.min(from + chunkSize, entries.size()));
+            List<ItemBatchResult> chunkResults;
+            try {
+                chunkResults = transactionTemplate.execute(status -> chunkWriter.apply(chunk));
+            } catch (DataAccessException | TransactionException e) {
+                log.error("Item batch chunk of {} items failed", chunk.size(), e);
+                chunkResults = chunk.stream().map(entry -> ItemBatchResult.builder().index(entry.index())
+                        .id(entry.itemDto().getId()).status(ItemBatchResult.Status.FAILED)
+                        .message(e.getMessage()).build()).toList();
+            }
+            int created = 0;
+            for (ItemBatchResult result : Objects.requireNonNull(chunkResults)) {
+                results[result.getIndex()] = result;
+                if (result.getStatus() == ItemBatchResult.Status.CREATED) {
+                    created++;
+                    stockLevelPublisher.changed(result.getId());
+                }
+                // The chunk transaction is committed at this point
+                if (result.getStatus() == ItemBatchResult.Status.UPDATED) {
+                    stockReservationEngine.evict(result.getId());
+                    itemCache.invalidate(result.getId());
+                    stockLevelPublisher.changed(result.getId());
+                }
+            }
+            itemCountCache.add(created);
+        }
+    }
+
+    private List<ItemBatchResult> insertChunk(List<Entry> chunk) {
+        List<Item> items = chunk.stream().map(Entry::item).toList();
+        Iterator<Long> allocatedIds = itemBatchRepository.allocateIds(
+                (int) items.stream().filter(item -> item.getId() == null).count()).iterator();
+        items.stream().filter(item -> item.getId() == null).forEach(item -> item.setId(allocatedIds.next()));
+
+        int[] counts = itemBatchRepository.insert(items);
+        List<ItemBatchResult> results = new ArrayList<>(chunk.size());
+        List<StockMovement> movements = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            Item item = items.get(i);
+            if (counts[i] != 0) {
+                movements.add(new StockMovement(item.getId(), item.getStockAvailable(), item.getStockReserved(),
+                        StockMovementReason.CREATE, null));
+            }
+            results.add(counts[i] == 0
+                    ? ItemBatchResult.builder().index(chunk.get(i).index()).id(item.getId())
+                    .status(ItemBatchResult.Status.ALREADY_EXISTS)
+                    .message("Item with id = " + item.getId() + " already exists").build()
+                    : ItemBatchResult.builder().index(chunk.get(i).index()).id(item.getId())
+                    .status(ItemBatchResult.Status.CREATED).build());
+        }
+        stockMovementLog.record(movements);
+        return results;
+    }
+
+    private List<ItemBatchResult> updateChunk(List<Entry> chunk) {
+        List<Long> ids = chunk.stream().map(entry -> entry.itemDto().getId()).toList();
+        stockReservationEngine.consolidate(ids);
+        Map<Long, Item> storedItems = new HashMap<>();
+        itemBatchRepository.findAllForUpdate(ids).forEach(item -> storedItems.put(item.getId(), item));
+
+        List<ItemBatchResult> results = new ArrayList<>(chunk.size());
+        List<Item> items = new ArrayList<>();
+        List<StockMovement> movements = new ArrayList<>();
+        for (Entry entry : chunk) {
+            Long id = entry.itemDto().getId();
+            Item item = storedItems.get(id);
+            if (item == null) {
+                results.add(ItemBatchResult.builder().index(entry.index()).id(id)
+                        .status(ItemBatchResult.Status.NOT_FOUND).message("There is no Item to update with id = " + id)
+                        .build());
+                continue;
+            }
+            long stockAvailable = item.getStockAvailable();
+            long stockReserved = item.getStockReserved();
+            itemFromItemDtoUpdater.update(entry.itemDto(), item);
+            try {
+                itemValidator.validate(item);
+            } catch (EntityValidationException e) {
+                results.add(invalid(entry.index(), id, e));
+                continue;
+            }
+            items.add(item);
+            if (item.getStockAvailable() != stockAvailable || item.getStockReserved() != stockReserved) {
+                movements.add(new StockMovement(id, item.getStockAvailable() - stockAvailable,
+                        item.getStockReserved() - stockReserved, StockMovementReason.ADJUST, null));
+            }
+            results.add(ItemBatchResult.builder().index(entry.index()).id(id).status(ItemBatchResult.Status.UPDATED)
+                    .build());
+        }
+
+        if (!items.isEmpty()) {
+            itemBatchRepository.update(items);
+        }
+        stockMovementLog.record(movements);
+        return results;
+    }
+
+    private DtoBatchResponse toResponse(ItemBatchResult[] results, String operation) {
+        int succeeded = (int) Arrays.stream(results).filter(result -> result.getStatus().isSuccessful()).count();
+        log.info("{} {} of {} Items in batch", operation, succeeded, results.length);
+        return DtoBatchResponse.builder().succeeded(succeeded).failed(results.length - succeeded)
+                .results(Arrays.asList(results)).build();
+    }
+
+    private ItemBatchResult invalid(int index, Long id, String message) {
+        return ItemBatchResult.builder().index(index).id(id).status(ItemBatchResult.Status.INVALID).message(message)
+                .build();
+    }
+
+    private ItemBatchResult invalid(int index, Long id, EntityValidationException e) {
+        return ItemBatchResult.builder().index(index).id(id).status(ItemBatchResult.Status.INVALID)
+                .message(e.getMessage()).violations(e.getViolations()).build();
+    }
+
+    private record Entry(int index, ItemDto itemDto, Item item) {
+    }
+}
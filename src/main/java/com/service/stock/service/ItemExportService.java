@@ -0,0 +1,166 @@
+package com.service.stock.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.service.stock.entity.Item;
+import com.service.stock.exception.ServiceException;
+import com.service.stock.model.ExportFormat;
+import com.service.stock.repository.ItemRepository;
+import com.service.stock.repository.ItemStockBucketRepository;
+import com.service.stock.reservation.StockDelta;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Writes the whole item catalog to an output stream, one item at a time, straight from a database cursor.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ItemExportService {
+
+    private static final String CSV_HEADER = "id,name,stockAvailable,stockReserved";
+
+    private final ItemRepository itemRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final ItemStockBucketRepository itemStockBucketRepository;
+
+    @Value("${items.export.chunk-size}")
+    private int chunkSize;
+
+    /**
+     * Exports all items ordered by id. The output is flushed after every {@code items.export.chunk-size} items, so
+     * the client receives data while the rest of the table is still being read. The bucket stock of striped items,
+     * which are few, is loaded up front and added to their totals.
+     *
+     * @return number of exported items
+     */
+    @Transactional(readOnly = true)
+    public long export(@NonNull ExportFormat format, @NonNull OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        ItemWriter itemWriter = format == ExportFormat.CSV ? new CsvItemWriter(writer) : new NdjsonItemWriter(writer);
+
+        Map<Long, StockDelta> stripedStock = findAllStripedStock();
+        long count = 0;
+        try (Stream<Item> items = streamAll()) {
+            Iterator<Item> iterator = items.iterator();
+            while (iterator.hasNext()) {
+                Item item = iterator.next();
+                StockDelta bucketStock = stripedStock.get(item.getId());
+                if (bucketStock != null) {
+                    // Streamed items are detached, the totals are never written back
+                    item.setStockAvailable(item.getStockAvailable() + bucketStock.getAvailableDelta());
+                    item.setStockReserved(item.getStockReserved() + bucketStock.getReservedDelta());
+                }
+                itemWriter.write(item);
+                if (++count % chunkSize == 0) {
+                    itemWriter.flush();
+                }
+            }
+        }
+        itemWriter.flush();
+        log.info("Exported {} Items as {}", count, format);
+        return count;
+    }
+
+    private Map<Long, StockDelta> findAllStripedStock() {
+        try {
+            return itemStockBucketRepository.findAllStripedStock();
+        } catch (DataAccessException e) {
+            throw new ServiceException("DAO operation failed", e);
+        }
+    }
+
+    private Stream<Item> streamAll() {
+        try {
+            return itemRepository.streamAll();
+        } catch (DataAccessException e) {
+            throw new ServiceException("DAO operation failed", e);
+        }
+    }
+
+    private interface ItemWriter {
+
+        void write(Item item) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private class NdjsonItemWriter implements ItemWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonItemWriter(Writer writer) throws IOException {
+            generator = objectMapper.getFactory().createGenerator(writer);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(Item item) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", item.getId());
+            generator.writeStringField("name", item.getName());
+            generator.writeNumberField("stockAvailable", item.getStockAvailable());
+            generator.writeNumberField("stockReserved", item.getStockReserved());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static class CsvItemWriter implements ItemWriter {
+
+        private final Writer writer;
+
+        CsvItemWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(Item item) throws IOException {
+            writer.write(String.valueOf(item.getId()));
+            writer.write(',');
+            writeEscaped(item.getName());
+            writer.write(',');
+            writer.write(String.valueOf(item.getStockAvailable()));
+            writer.write(',');
+            writer.write(String.valueOf(item.getStockReserved()));
+            writer.write('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        private void writeEscaped(String value) throws IOException {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 &&
+                    value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
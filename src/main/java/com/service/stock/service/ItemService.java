@@ -1,5 +1,7 @@
 package com.service.stock.service;
 
+import com.service.stock.cache.ItemCache;
+import com.service.stock.cache.ItemCountCache;
 import com.service.stock.converter.ConverterService;
 import com.service.stock.converter.ItemFromItemDtoUpdater;
 import com.service.stock.dto.ItemDto;
@@ -7,9 +9,30 @@ import com.service.stock.dto.DtoSearchResponse;
 import com.service.stock.entity.Item;
 import com.service.stock.exception.EntityAlreadyExistsException;
 import com.service.stock.exception.EntityNotFoundException;
+import com.service.stock.exception.InsufficientAvailableStockException;
+import com.service.stock.exception.InsufficientReserveStockException;
+import com.service.stock.exception.ReservationExpiredException;
+import com.service.stock.exception.ReservationStateException;
+import com.service.stock.exception.ValidationException;
+import com.service.stock.model.CountMode;
 import com.service.stock.model.Order;
+import com.service.stock.model.OrderStatus;
 import com.service.stock.model.Product;
+import com.service.stock.model.Reservation;
+import com.service.stock.model.ReservationResult;
+import com.service.stock.model.ReservationState;
+import com.service.stock.model.StockMovement;
+import com.service.stock.model.StockMovementReason;
+import com.service.stock.movement.StockMovementLog;
+import com.service.stock.peageable.KeysetCursor;
 import com.service.stock.repository.ItemRepository;
+import com.service.stock.repository.ItemStockBucketRepository;
+import com.service.stock.repository.ItemSortColumn;
+import com.service.stock.repository.ReservationRepository;
+import com.service.stock.reservation.ReservationExpiry;
+import com.service.stock.reservation.StockDelta;
+import com.service.stock.reservation.StockReservationEngine;
+import com.service.stock.stocklevel.StockLevelPublisher;
 import com.service.stock.validation.ItemStockValidator;
 import com.service.stock.validation.ItemValidator;
 import com.service.stock.exception.ServiceException;
@@ -18,10 +41,19 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -38,6 +70,24 @@ public class ItemService {
 
     private final ConverterService converter;
 
+    private final StockReservationEngine stockReservationEngine;
+
+    private final ItemCache itemCache;
+
+    private final ItemCountCache itemCountCache;
+
+    private final ItemStockBucketRepository itemStockBucketRepository;
+
+    private final ReservationRepository reservationRepository;
+
+    private final ReservationExpiry reservationExpiry;
+
+    private final StockMovementLog stockMovementLog;
+
+    private final StockLevelPublisher stockLevelPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
     @Transactional
     public Long create(@NonNull ItemDto itemDto) {
         Item item = convertToEntity(itemDto);
@@ -46,7 +96,14 @@ public class ItemService {
             if (item.getId() != null && itemRepository.existsById(item.getId())) {
                 throw new EntityAlreadyExistsException("Item with id = " + item.getId() + " already exists");
             }
-            return itemRepository.save(item);
+            Item saved = itemRepository.save(item);
+            stockMovementLog.record(new StockMovement(saved.getId(), saved.getStockAvailable(),
+                    saved.getStockReserved(), StockMovementReason.CREATE, null));
+            return saved;
+        });
+        afterCommit(() -> {
+            itemCountCache.add(1);
+            stockLevelPublisher.changed(savedItem.getId());
         });
         log.info("Created Item {}", savedItem);
         return savedItem.getId();
@@ -55,18 +112,30 @@ public class ItemService {
     @Transactional
     public ItemDto update(@NonNull ItemDto itemDto, @NonNull Long id) {
         Item itemToUpdate = execute(() -> {
+            stockReservationEngine.consolidate(List.of(id));
             Item item = itemRepository.findById(id)
                     .orElseThrow(() -> new EntityNotFoundException("There is no Item to update with id = " + id));
 
+            long stockAvailable = item.getStockAvailable();
+            long stockReserved = item.getStockReserved();
             itemFromItemDtoUpdater.update(itemDto, item);
             itemValidator.validate(item);
 
-            return itemRepository.save(item);
+            Item saved = itemRepository.save(item);
+            if (saved.getStockAvailable() != stockAvailable || saved.getStockReserved() != stockReserved) {
+                stockMovementLog.record(new StockMovement(id, saved.getStockAvailable() - stockAvailable,
+                        saved.getStockReserved() - stockReserved, StockMovementReason.ADJUST, null));
+            }
+            return saved;
         });
+        afterCommit(() -> evict(id));
         log.info("Updated Item {}", itemToUpdate);
         return convertToDto(itemToUpdate);
     }
 
+    /**
+     * @return the stored item row, without the stock a striped item holds in its buckets
+     */
     public Item findById(@NonNull Long id) {
         Item item = execute(() -> itemRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("There is no Item with id = " + id)));
@@ -75,10 +144,14 @@ public class ItemService {
     }
 
     public ItemDto findByIdAsDto(@NonNull Long id) {
-        Item item = execute(() -> itemRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("There is no Item with id = " + id)));
-        log.debug("Retrieved Item by id = {}", id);
-        return convertToDto(item);
+        return itemCache.get(id, this::loadDto);
+    }
+
+    /**
+     * Same as {@link #findByIdAsDto(Long)}, already serialized to JSON.
+     */
+    public byte[] findByIdAsJson(@NonNull Long id) {
+        return itemCache.getJson(id, this::loadDto);
     }
 
     @Transactional
@@ -89,76 +162,481 @@ public class ItemService {
             }
             itemRepository.deleteById(id);
         });
+        afterCommit(() -> {
+            evict(id);
+            itemCountCache.add(-1);
+        });
         log.info("Deleted Item id = {}", id);
     }
 
-    public DtoSearchResponse findAll(@NonNull Pageable pageable) {
-        List<ItemDto> carDTOList =
-                execute(() -> itemRepository.findAll(pageable)).stream().map(this::convertToDto).toList();
+    /**
+     * @param countMode how the {@code total} of the response is computed
+     */
+    public DtoSearchResponse findAll(@NonNull Pageable pageable, @NonNull CountMode countMode) {
+        List<Item> items = execute(() -> itemRepository.findAll(pageable)).getContent();
+        List<ItemDto> carDTOList = convertToDtos(items);
         log.debug("Retrieved All {} Cars", carDTOList.size());
         return DtoSearchResponse.builder().offset(pageable.getOffset()).limit(pageable.getPageSize())
-                .total(carDTOList.size()).sort(pageable.getSort().toString()).data(carDTOList).build();
+                .total(itemCountCache.getTotal(countMode)).sort(pageable.getSort().toString()).data(carDTOList)
+                .nextCursor(nextCursor(items, pageable.getPageSize(), pageable.getSort())).build();
 
     }
 
-    @Transactional
-    public void createReservation(@NonNull Order order) {
-        Product product = order.getProduct();
-        if (product == null) {
-            throw new IllegalArgumentException("Product must be provided");
+    /**
+     * Keyset variant of {@link #findAll(Pageable)}: returns up to {@code limit} items following the position encoded
+     * in {@code after}, or the first page when {@code after} is empty. Unlike offsets, the cost of a page does not
+     * grow with its depth and concurrent inserts or deletes do not shift items between pages.
+     *
+     * @param after cursor returned as {@code nextCursor} of the previous page
+     * @param sort  single property sort, must be the same as the one the cursor was created with
+     * @param countMode how the {@code total} of the response is computed
+     */
+    public DtoSearchResponse findAllAfter(String after, int limit, @NonNull Sort sort, @NonNull CountMode countMode) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        Sort.Order order = getSingleOrder(sort);
+        ItemSortColumn sortColumn = ItemSortColumn.fromProperty(order.getProperty());
+        KeysetCursor cursor = after == null || after.isEmpty() ? null : KeysetCursor.decode(after);
+        if (cursor != null && !cursor.matches(order)) {
+            throw new IllegalArgumentException("Cursor was created for a different sort than " + sort);
         }
-        Item item = findById(product.getId());
 
-        itemStockReservationValidator.validateReservationCreation(item, order);
+        List<Item> items = execute(() -> itemRepository.findPageAfter(sortColumn, order.getDirection(), cursor, limit));
+        List<ItemDto> itemDtoList = convertToDtos(items);
+        log.debug("Retrieved {} Items after cursor {}", itemDtoList.size(), cursor);
+        return DtoSearchResponse.builder().limit(limit).total(itemCountCache.getTotal(countMode)).sort(sort.toString())
+                .data(itemDtoList).nextCursor(nextCursor(items, limit, sort)).build();
+    }
 
-        item.setStockReserved(item.getStockReserved() + product.getQuantity());
-        item.setStockAvailable(item.getStockAvailable() - product.getQuantity());
+    /**
+     * Reserves the stock of every line of the order or, if one of them is refused, of none.
+     * <p>
+     * With an engine changing the stock in the current transaction, the lines, the reservation rows and the stock
+     * movements are written in one transaction. The item rows of an order with several lines are locked first by one
+     * read in ascending id order, so concurrent orders sharing items wait for each other instead of deadlocking and no
+     * other order sees the stock of this one partly reserved; a refused line rolls the whole transaction back.
+     * <p>
+     * The stock ledger and coalesced reservations of single lines change the stock on their own. Their lines are
+     * reserved one at a time, then the reservation rows and the stock movements are written in one transaction; the
+     * lines are released again if a later line is refused or that transaction fails.
+     * <p>
+     * Lines the order already has a RESERVED row of, because it was redelivered, are not stored again. Their stock is
+     * only reserved again when the engine lost the change, like the stock ledger replaying unflushed records.
+     */
+    public void createReservation(@NonNull Order order) {
+        SortedMap<Long, Product> lines = getReservationLines(order);
+        UUID orderId = getReservationOrderId(order);
+
+        SortedMap<Long, Product> newLines = new TreeMap<>(lines);
+        newLines.keySet().removeAll(execute(() -> reservationRepository.findReservedItemIds(orderId)));
+        SortedMap<Long, Product> stockLines = stockReservationEngine.isDurable() ? newLines : lines;
+        if (stockLines.isEmpty()) {
+            log.info("Item reservation already created: Item ids = {} for Order: {}", lines.keySet(), order);
+            return;
+        }
+
+        Instant deadline;
+        if (isReservedInTransaction(stockLines)) {
+            deadline = execute(() -> transactionTemplate.execute(status -> {
+                if (stockLines.size() > 1) {
+                    execute(() -> itemRepository.lockAllById(stockLines.keySet()));
+                }
+                reserveLines(stockLines, orderId, new ArrayList<>(stockLines.size()));
+                return saveReservations(order, newLines, orderId);
+            }));
+        } else {
+            List<Product> reserved = new ArrayList<>(stockLines.size());
+            try {
+                reserveLines(stockLines, orderId, reserved);
+                deadline = execute(() -> transactionTemplate.execute(status -> saveReservations(order, newLines,
+                        orderId)));
+            } catch (ServiceException e) {
+                releaseReserved(reserved, orderId);
+                throw e;
+            }
+        }
+        afterCommit(() -> {
+            stockLines.keySet().forEach(this::invalidate);
+            if (!newLines.isEmpty()) {
+                reservationExpiry.schedule(orderId, deadline);
+            }
+        });
 
-        execute(() -> itemRepository.save(item));
-        log.info("Item reservation created: {} for Order: {}", item, order);
+        log.info("Item reservation created: Item ids = {} for Order: {}", stockLines.keySet(), order);
     }
 
+    /**
+     * Releases the stock reserved for the order, the quantity of the order itself is not trusted. A rollback of an
+     * already rolled back or expired reservation does nothing.
+     */
     @Transactional
     public void rollbackReservation(@NonNull Order order) {
-        Product product = order.getProduct();
-        if (product == null) {
-            throw new IllegalArgumentException("Product must be provided");
+        SortedMap<Long, Product> lines = getReservationLines(order);
+        UUID orderId = getReservationOrderId(order);
+
+        List<Reservation> reservations = execute(() -> reservationRepository.settle(orderId,
+                ReservationState.ROLLED_BACK));
+        if (reservations.isEmpty()) {
+            checkUnsettled(order, execute(() -> reservationRepository.findLatestState(orderId)),
+                    ReservationState.ROLLED_BACK);
+            return;
+        }
+        for (Reservation reservation : reservations) {
+            checkMatches(order, lines, reservation);
+            Long itemId = reservation.getItemId();
+            boolean applied = execute(() -> stockReservationEngine.release(itemId, reservation.getQuantity()));
+            if (applied) {
+                afterCommit(() -> invalidate(itemId));
+            }
+            checkApplied(applied, itemId, () -> new InsufficientReserveStockException(
+                    "Item with id = " + itemId + " has not enough reserved stock to fulfill order with id = " +
+                            orderId));
+            stockMovementLog.record(StockMovement.release(itemId, reservation.getQuantity(), orderId,
+                    StockMovementReason.RELEASE));
         }
-        Item item = findById(product.getId());
 
-        itemStockReservationValidator.validateReservationRollback(item, order);
+        log.info("Item reservation rollbacked: {} for Order: {}", reservations, order);
+    }
 
-        item.setStockReserved(item.getStockReserved() - product.getQuantity());
-        item.setStockAvailable(item.getStockAvailable() + product.getQuantity());
+    /**
+     * Removes the stock reserved for the order from the reserved stock, the quantity of the order itself is not
+     * trusted. A confirmation of an already confirmed reservation does nothing.
+     */
+    @Transactional
+    public void confirmReservation(@NonNull Order order) {
+        SortedMap<Long, Product> lines = getReservationLines(order);
+        UUID orderId = getReservationOrderId(order);
+
+        List<Reservation> reservations = execute(() -> reservationRepository.settle(orderId,
+                ReservationState.CONFIRMED));
+        if (reservations.isEmpty()) {
+            checkUnsettled(order, execute(() -> reservationRepository.findLatestState(orderId)),
+                    ReservationState.CONFIRMED);
+            return;
+        }
+        for (Reservation reservation : reservations) {
+            checkMatches(order, lines, reservation);
+            Long itemId = reservation.getItemId();
+            boolean applied = execute(() -> stockReservationEngine.confirm(itemId, reservation.getQuantity()));
+            if (applied) {
+                afterCommit(() -> invalidate(itemId));
+            }
+            checkApplied(applied, itemId, () -> new InsufficientReserveStockException(
+                    "Item with id = " + itemId + " has not enough reserved stock to fulfill for order with id = " +
+                            orderId));
+            stockMovementLog.record(StockMovement.confirm(itemId, reservation.getQuantity(), orderId));
+        }
 
-        execute(() -> itemRepository.save(item));
-        log.info("Item reservation rollbacked: {} for Order: {}", item, order);
+        log.info("Item reservation confirmed: {} for Order: {}", reservations, order);
     }
 
+    /**
+     * Applies reservation changes of a whole batch of orders in one transaction.
+     * <p>
+     * All touched items and the reservations of the settled orders are loaded with one query each, the items locked in
+     * ascending id order before, so concurrent writers wait instead of being overwritten. Orders are applied
+     * in memory in arrival order (so every order sees the stock left by the previous ones, exactly as if they were
+     * processed one at a time) and the changed items, new reservations, settled reservations and stock movements are
+     * flushed as one JDBC batch each.
+     *
+     * @param orders orders with NEW, ROLLBACK or CONFIRMATION status
+     * @return one result per order, in the same order as the input
+     */
     @Transactional
-    public void confirmReservation(@NonNull Order order) {
-        Product product = order.getProduct();
-        if (product == null) {
-            throw new IllegalArgumentException("Product must be provided");
+    public List<ReservationResult> applyReservations(@NonNull List<Order> orders) {
+        Set<UUID> settledOrderIds = orders.stream()
+                .filter(order -> order.getStatus() == OrderStatus.ROLLBACK ||
+                        order.getStatus() == OrderStatus.CONFIRMATION)
+                .map(Order::getId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<UUID, List<Reservation>> reservations = new HashMap<>();
+        execute(() -> reservationRepository.findAllForUpdate(settledOrderIds)).forEach(reservation ->
+                reservations.computeIfAbsent(reservation.getOrderId(), id -> new ArrayList<>()).add(reservation));
+
+        Set<Long> itemIds = orders.stream().flatMap(order -> order.getLines().stream()).filter(Objects::nonNull)
+                .map(Product::getId).filter(Objects::nonNull).collect(Collectors.toSet());
+        reservations.values().forEach(list -> list.forEach(reservation -> itemIds.add(reservation.getItemId())));
+        // The absolute stock values written back below must not overwrite changes committed by other writers
+        if (!itemIds.isEmpty()) {
+            execute(() -> itemRepository.lockAllById(itemIds));
+        }
+        Map<Long, Item> items = execute(() -> itemRepository.findAllById(itemIds)).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        ReservationBatch batch = new ReservationBatch(items, reservations, Instant.now(), reservationExpiry.deadline());
+        List<ReservationResult> results = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            try {
+                batch.apply(order);
+                results.add(new ReservationResult(order, true));
+            } catch (ServiceException | IllegalArgumentException e) {
+                log.info("Item reservation change rejected for Order: {}", order, e);
+                results.add(new ReservationResult(order, false));
+            }
         }
-        Item item = findById(product.getId());
 
-        itemStockReservationValidator.validateReservationConfirmation(item, order);
+        execute(() -> {
+            itemRepository.saveAll(new ArrayList<>(batch.changedItems.values()));
+            reservationRepository.saveAll(batch.created);
+            reservationRepository.updateStates(batch.settled);
+        });
+        Set<Long> changedItemIds = Set.copyOf(batch.changedItems.keySet());
+        afterCommit(() -> {
+            itemCache.invalidateAll(changedItemIds);
+            stockLevelPublisher.changed(changedItemIds);
+            batch.created.stream().filter(reservation -> reservation.getState() == ReservationState.RESERVED)
+                    .forEach(reservation -> reservationExpiry.schedule(reservation.getOrderId(),
+                            reservation.getExpiresAt()));
+        });
+        log.info("Applied reservation changes of {} Orders to {} Items", orders.size(), batch.changedItems.size());
+        return results;
+    }
+
+    private ItemDto loadDto(Long id) {
+        Item item = execute(() -> itemRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("There is no Item with id = " + id)));
+        log.debug("Retrieved Item by id = {}", id);
+        return convertToDtos(List.of(item)).get(0);
+    }
+
+    private void evict(Long id) {
+        stockReservationEngine.evict(id);
+        invalidate(id);
+    }
+
+    private void invalidate(Long id) {
+        itemCache.invalidate(id);
+        stockLevelPublisher.changed(id);
+    }
+
+    /**
+     * @return the lines of the order by item id in ascending order, lines of the same item merged into one with the
+     * summed quantity and the price of the first of them
+     */
+    private SortedMap<Long, Product> getReservationLines(Order order) {
+        List<Product> products = order.getLines();
+        if (products.isEmpty()) {
+            throw new ValidationException("Product must be provided");
+        }
+        SortedMap<Long, Product> lines = new TreeMap<>();
+        for (Product product : products) {
+            if (product == null) {
+                throw new ValidationException("Product must be provided");
+            }
+            if (product.getId() == null) {
+                throw new ValidationException("Product id must be provided");
+            }
+            if (product.getQuantity() == null || product.getQuantity() <= 0) {
+                throw new ValidationException("Product quantity must be greater than 0");
+            }
+            lines.merge(product.getId(), product, (first, second) -> {
+                Product merged = new Product();
+                merged.setId(first.getId());
+                merged.setQuantity(first.getQuantity() + second.getQuantity());
+                merged.setPrice(first.getPrice());
+                return merged;
+            });
+        }
+        return lines;
+    }
+
+    /**
+     * The reservation engine refuses a change either when the item does not exist or when its stock does not allow
+     * it; the cheap existence check is only paid on that failure path.
+     */
+    private void checkApplied(boolean applied, Long itemId, Supplier<ServiceException> insufficientStockException) {
+        if (applied) {
+            return;
+        }
+        if (!execute(() -> itemRepository.existsById(itemId))) {
+            throw new EntityNotFoundException("There is no Item with id = " + itemId);
+        }
+        throw insufficientStockException.get();
+    }
+
+    private UUID getReservationOrderId(Order order) {
+        if (order.getId() == null) {
+            throw new ValidationException("Order id must be provided");
+        }
+        return order.getId();
+    }
+
+    /**
+     * Coalesced reservations are applied in a transaction of their own per group, so only orders with several lines
+     * are reserved in a transaction of the order when coalescing.
+     */
+    private boolean isReservedInTransaction(SortedMap<Long, Product> lines) {
+        return stockReservationEngine.isTransactional() && (lines.size() > 1 || !stockReservationEngine.isCoalescing());
+    }
+
+    /**
+     * Reserves the lines in ascending item id order, the reserved ones are added to {@code reserved}.
+     */
+    private void reserveLines(SortedMap<Long, Product> lines, UUID orderId, List<Product> reserved) {
+        for (Product line : lines.values()) {
+            boolean applied = execute(() -> stockReservationEngine.reserve(line.getId(), line.getQuantity()));
+            if (applied) {
+                reserved.add(line);
+            }
+            checkApplied(applied, line.getId(), () -> new InsufficientAvailableStockException(
+                    "Item with id = " + line.getId() + " has not enough stock to fulfill for order with id = " +
+                            orderId));
+        }
+    }
+
+    /**
+     * Stores the reservations of a reserved order with one JDBC batch, and their stock movements.
+     *
+     * @return the expiry deadline of the reservations
+     */
+    private Instant saveReservations(Order order, SortedMap<Long, Product> lines, UUID orderId) {
+        Instant now = Instant.now();
+        Instant deadline = reservationExpiry.deadline();
+        List<Reservation> reservations = lines.values().stream()
+                .map(line -> Reservation.of(order, line, now, deadline)).toList();
+        execute(() -> reservationRepository.saveAll(reservations));
+        execute(() -> stockMovementLog.record(reservations.stream()
+                .map(reservation -> StockMovement.reserve(reservation.getItemId(), reservation.getQuantity(), orderId))
+                .toList()));
+        return deadline;
+    }
+
+    /**
+     * Releases the lines of a partially reserved order in reverse order. A release that fails is only logged, so the
+     * original failure reaches the caller.
+     */
+    private void releaseReserved(List<Product> reserved, UUID orderId) {
+        for (int i = reserved.size() - 1; i >= 0; i--) {
+            Product line = reserved.get(i);
+            try {
+                if (!execute(() -> stockReservationEngine.release(line.getId(), line.getQuantity()))) {
+                    log.error("Could not release {} of Item with id = {} reserved for Order with id = {}",
+                            line.getQuantity(), line.getId(), orderId);
+                }
+            } catch (ServiceException e) {
+                log.error("Could not release {} of Item with id = {} reserved for Order with id = {}",
+                        line.getQuantity(), line.getId(), orderId, e);
+            }
+        }
+    }
+
+    private void checkMatches(Order order, Map<Long, Product> lines, Reservation reservation) {
+        Product line = lines.get(reservation.getItemId());
+        if (line == null || !reservation.getQuantity().equals(line.getQuantity())) {
+            log.warn("Order {} differs from its reservation {}, settling the reservation", order, reservation);
+        }
+    }
+
+    /**
+     * Decides what a settlement finding no outstanding reservation means: a repeated settlement (or a rollback of an
+     * expired reservation) does nothing, anything else is refused.
+     *
+     * @param latestState state of the latest reservation of the order, empty if there is none
+     */
+    private void checkUnsettled(Order order, Optional<ReservationState> latestState, ReservationState targetState) {
+        if (latestState.isEmpty()) {
+            throw new ReservationStateException("There is no reservation for order with id = " + order.getId());
+        }
+        ReservationState state = latestState.get();
+        if (state == targetState || state == ReservationState.EXPIRED && targetState == ReservationState.ROLLED_BACK) {
+            log.info("Reservation for Order with id = {} is already {}, ignoring {}", order.getId(), state,
+                    order.getStatus());
+            return;
+        }
+        if (state == ReservationState.EXPIRED) {
+            throw new ReservationExpiredException(
+                    "Reservation for order with id = " + order.getId() + " has expired and was released");
+        }
+        throw new ReservationStateException(
+                "Reservation for order with id = " + order.getId() + " is already " + state);
+    }
+
+    private void reserve(Item item, Order order) {
+        itemStockReservationValidator.validateReservationCreation(item, order);
 
-        item.setStockReserved(item.getStockReserved() - product.getQuantity());
+        item.setStockReserved(item.getStockReserved() + order.getProduct().getQuantity());
+        item.setStockAvailable(item.getStockAvailable() - order.getProduct().getQuantity());
+    }
 
-        execute(() -> itemRepository.save(item));
-        log.info("Item reservation confirmed: {} for Order: {}", item, order);
+    private void release(Item item, Order order) {
+        itemStockReservationValidator.validateReservationRollback(item, order);
+
+        item.setStockReserved(item.getStockReserved() - order.getProduct().getQuantity());
+        item.setStockAvailable(item.getStockAvailable() + order.getProduct().getQuantity());
+    }
+
+    private void confirm(Item item, Order order) {
+        itemStockReservationValidator.validateReservationConfirmation(item, order);
+
+        item.setStockReserved(item.getStockReserved() - order.getProduct().getQuantity());
     }
 
     private ItemDto convertToDto(Item item) {
         return converter.convert(item, ItemDto.class);
     }
 
+    /**
+     * Adds the stock of striped items held in their buckets, so the DTOs carry the totals of the items.
+     */
+    private List<ItemDto> convertToDtos(List<Item> items) {
+        Map<Long, StockDelta> stripedStock = execute(() -> itemStockBucketRepository.findStripedStock(
+                items.stream().map(Item::getId).toList()));
+        return items.stream().map(item -> {
+            ItemDto itemDto = convertToDto(item);
+            StockDelta bucketStock = stripedStock.get(item.getId());
+            if (bucketStock != null) {
+                itemDto.setStockAvailable(itemDto.getStockAvailable() + bucketStock.getAvailableDelta());
+                itemDto.setStockReserved(itemDto.getStockReserved() + bucketStock.getReservedDelta());
+            }
+            return itemDto;
+        }).toList();
+    }
+
     private Item convertToEntity(ItemDto itemDto) {
         return converter.convert(itemDto, Item.class);
     }
 
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Cursor of the last item of a full page, {@code null} when there are no more items or the sort is not supported
+     * by the keyset mode.
+     */
+    private String nextCursor(List<Item> page, int limit, Sort sort) {
+        if (page.isEmpty() || page.size() < limit || sort.stream().count() != 1) {
+            return null;
+        }
+        Sort.Order order = sort.iterator().next();
+        ItemSortColumn sortColumn;
+        try {
+            sortColumn = ItemSortColumn.fromProperty(order.getProperty());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        Item last = page.get(page.size() - 1);
+        return new KeysetCursor(sortColumn.getProperty(), order.getDirection(), last.getId(), sortColumn.valueOf(last))
+                .encode();
+    }
+
+    private Sort.Order getSingleOrder(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() != 1) {
+            throw new IllegalArgumentException("Cursor pagination requires exactly one sort property");
+        }
+        return orders.get(0);
+    }
+
     private <T> T execute(DaoSupplier<T> supplier) {
         try {
             return supplier.get();
@@ -175,6 +653,129 @@ public class ItemService {
         }
     }
 
+    /**
+     * In-memory state of {@link #applyReservations(List)}: the loaded items and reservations, and what has to be
+     * written back.
+     */
+    private class ReservationBatch {
+
+        private final Map<Long, Item> items;
+
+        private final Map<UUID, List<Reservation>> reservations;
+
+        private final Instant now;
+
+        private final Instant deadline;
+
+        private final Map<Long, Item> changedItems = new TreeMap<>();
+
+        private final List<Reservation> created = new ArrayList<>();
+
+        private final List<Reservation> settled = new ArrayList<>();
+
+        private final Set<Reservation> loaded = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private ReservationBatch(Map<Long, Item> items, Map<UUID, List<Reservation>> reservations, Instant now,
+                                 Instant deadline) {
+            this.items = items;
+            this.reservations = reservations;
+            this.now = now;
+            this.deadline = deadline;
+            reservations.values().forEach(loaded::addAll);
+        }
+
+        private void apply(Order order) {
+            SortedMap<Long, Product> lines = getReservationLines(order);
+            if (order.getStatus() == null) {
+                throw new ValidationException("Order status must be provided");
+            }
+            UUID orderId = getReservationOrderId(order);
+            switch (order.getStatus()) {
+                case NEW -> reserveOrder(order, orderId, lines);
+                case ROLLBACK -> settleOrder(order, orderId, lines, ReservationState.ROLLED_BACK);
+                case CONFIRMATION -> settleOrder(order, orderId, lines, ReservationState.CONFIRMED);
+                default -> throw new ValidationException("Unsupported order status: " + order.getStatus());
+            }
+        }
+
+        /**
+         * Reserves all lines of the order or, if one of them is refused, none.
+         */
+        private void reserveOrder(Order order, UUID orderId, SortedMap<Long, Product> lines) {
+            List<Reservation> orderReservations = lines.values().stream()
+                    .map(line -> Reservation.of(order, line, now, deadline)).toList();
+            applyAll(orderReservations, ItemService.this::reserve);
+
+            for (Reservation reservation : orderReservations) {
+                changedItems.put(reservation.getItemId(), items.get(reservation.getItemId()));
+                stockMovementLog.record(StockMovement.reserve(reservation.getItemId(), reservation.getQuantity(),
+                        orderId));
+                created.add(reservation);
+                reservations.computeIfAbsent(orderId, id -> new ArrayList<>()).add(reservation);
+            }
+        }
+
+        /**
+         * Settles all outstanding reservations of the order or, if one of them is refused, none.
+         */
+        private void settleOrder(Order order, UUID orderId, Map<Long, Product> lines, ReservationState targetState) {
+            List<Reservation> orderReservations = reservations.getOrDefault(orderId, List.of());
+            List<Reservation> outstanding = orderReservations.stream()
+                    .filter(reservation -> reservation.getState() == ReservationState.RESERVED).toList();
+            if (outstanding.isEmpty()) {
+                checkUnsettled(order, orderReservations.stream().max(Comparator.comparing(Reservation::getCreatedAt))
+                        .map(Reservation::getState), targetState);
+                return;
+            }
+
+            outstanding.forEach(reservation -> checkMatches(order, lines, reservation));
+            applyAll(outstanding, targetState == ReservationState.ROLLED_BACK
+                    ? ItemService.this::release : ItemService.this::confirm);
+
+            for (Reservation reservation : outstanding) {
+                reservation.setState(targetState);
+                changedItems.put(reservation.getItemId(), items.get(reservation.getItemId()));
+                stockMovementLog.record(targetState == ReservationState.ROLLED_BACK
+                        ? StockMovement.release(reservation.getItemId(), reservation.getQuantity(), orderId,
+                        StockMovementReason.RELEASE)
+                        : StockMovement.confirm(reservation.getItemId(), reservation.getQuantity(), orderId));
+                if (loaded.contains(reservation)) {
+                    settled.add(reservation);
+                }
+            }
+        }
+
+        /**
+         * Applies the change of every reservation to its item or, if one of them is refused, restores the stock of
+         * all of them.
+         */
+        private void applyAll(List<Reservation> orderReservations, BiConsumer<Item, Order> change) {
+            Map<Long, long[]> stockBefore = new HashMap<>();
+            try {
+                for (Reservation reservation : orderReservations) {
+                    Item item = getItem(reservation.getItemId());
+                    stockBefore.putIfAbsent(item.getId(),
+                            new long[]{item.getStockAvailable(), item.getStockReserved()});
+                    change.accept(item, reservation.toOrder());
+                }
+            } catch (ServiceException | IllegalArgumentException e) {
+                stockBefore.forEach((itemId, stock) -> {
+                    items.get(itemId).setStockAvailable(stock[0]);
+                    items.get(itemId).setStockReserved(stock[1]);
+                });
+                throw e;
+            }
+        }
+
+        private Item getItem(Long itemId) {
+            Item item = items.get(itemId);
+            if (item == null) {
+                throw new EntityNotFoundException("There is no Item with id = " + itemId);
+            }
+            return item;
+        }
+    }
+
     @FunctionalInterface
     public interface DaoSupplier<T> {
         T get();
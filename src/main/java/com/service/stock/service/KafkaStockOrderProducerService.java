@@ -8,13 +8,19 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @Slf4j
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = {"kafka.payment-orders.async.enabled", "kafka.orders.exactly-once.enabled"},
+        havingValue = "false", matchIfMissing = true)
 public class KafkaStockOrderProducerService {
 
     private final KafkaTemplate<String, AvroOrder> template;
@@ -26,13 +32,43 @@ public class KafkaStockOrderProducerService {
 
     public void sendOrder(@NonNull Order order) {
         AvroOrder avroOrder = converter.convert(order);
+        publish(avroOrder);
+    }
+
+    /**
+     * Sends the order outside of any transaction, the returned future completes once Kafka acknowledged it.
+     */
+    public CompletableFuture<?> sendOrderAcknowledged(@NonNull Order order) {
+        AvroOrder avroOrder = converter.convert(order);
+        try {
+            return send(avroOrder);
+        } catch (KafkaException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * @return {@code true} if results are written in the transaction of the caller and published once it committed
+     */
+    public boolean isTransactional() {
+        return false;
+    }
+
+    protected void publish(AvroOrder avroOrder) {
         try {
-            this.template.send(topic, String.valueOf(avroOrder.getId()), avroOrder);
+            send(avroOrder).whenComplete((result, e) -> {
+                if (e != null) {
+                    log.error("Error sending order to Kafka: {}", avroOrder, e);
+                }
+            });
             log.info("Produced to Kafka: {}", avroOrder);
         } catch (KafkaException e) {
             throw new ServiceException("Error sending order to Kafka", e);
         }
     }
 
+    protected CompletableFuture<SendResult<String, AvroOrder>> send(AvroOrder avroOrder) {
+        return this.template.send(topic, String.valueOf(avroOrder.getId()), avroOrder);
+    }
 
 }
@@ -1,11 +1,17 @@
 package com.service.stock.service;
 
-import com.service.avro.model.AvroOrder;
+import com.service.stock.cache.OrderIdempotencyCache;
+import com.service.stock.model.Order;
+import com.service.stock.model.OrderStatus;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
 @Service
 @Slf4j
 @RequiredArgsConstructor
@@ -13,23 +19,81 @@ public class OrderProcessingService {
 
     private final OrderService orderService;
 
-    public void process(@NonNull AvroOrder avroOrder) {
-        if (avroOrder.getStatus() == null) {
-            log.warn("Order status is null for order: {}", avroOrder);
+    private final OrderIdempotencyCache orderIdempotencyCache;
+
+    public void process(@NonNull Order order) {
+        OrderStatus status = order.getStatus();
+        if (status == null) {
+            log.warn("Order status is null for order: {}", order);
+            return;
+        }
+        if (isDuplicate(order)) {
             return;
         }
-        switch (avroOrder.getStatus()) {
+        switch (status) {
             case NEW:
-                orderService.processNewOrder(avroOrder);
+                Order result = orderService.processNewOrder(order);
+                if (result != null) {
+                    orderIdempotencyCache.putResult(order.getId(), status, result.getStatus());
+                }
                 break;
             case ROLLBACK:
-                orderService.processRollbackOrder(avroOrder);
+                orderService.processRollbackOrder(order);
+                orderIdempotencyCache.putResult(order.getId(), status, OrderStatus.ROLLBACK);
                 break;
             case CONFIRMATION:
-                orderService.processConfirmationOrder(avroOrder);
+                orderService.processConfirmationOrder(order);
+                orderIdempotencyCache.putResult(order.getId(), status, OrderStatus.CONFIRMATION);
                 break;
             default:
-                log.warn("Unknown order status: {}", avroOrder.getStatus());
+                log.warn("Unknown order status: {}", status);
+        }
+    }
+
+    public void processBatch(@NonNull List<Order> orders) {
+        List<Order> ordersToProcess = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            if (order == null) {
+                log.warn("Skipping order that could not be deserialized");
+            } else if (order.getStatus() == null) {
+                log.warn("Order status is null for order: {}", order);
+            } else if (!isProcessable(order.getStatus())) {
+                log.warn("Unknown order status: {}", order.getStatus());
+            } else if (!isDuplicate(order)) {
+                ordersToProcess.add(order);
+            }
+        }
+        if (ordersToProcess.isEmpty()) {
+            return;
+        }
+        // Processing replaces the status of NEW orders by their result
+        List<OrderStatus> statuses = ordersToProcess.stream().map(Order::getStatus).toList();
+        List<Order> results = orderService.processOrders(ordersToProcess);
+        if (results != null && results.size() == ordersToProcess.size()) {
+            for (int i = 0; i < results.size(); i++) {
+                orderIdempotencyCache.putResult(ordersToProcess.get(i).getId(), statuses.get(i),
+                        results.get(i).getStatus());
+            }
+        }
+    }
+
+    /**
+     * Answers an order processed recently from the idempotency cache: NEW orders get their previous result published
+     * again, ROLLBACK and CONFIRMATION orders are skipped.
+     */
+    private boolean isDuplicate(Order order) {
+        Optional<OrderStatus> result = orderIdempotencyCache.getResult(order.getId(), order.getStatus());
+        if (result.isEmpty()) {
+            return false;
+        }
+        log.info("Skipping redelivered {} order: {}", order.getStatus(), order.getId());
+        if (order.getStatus() == OrderStatus.NEW) {
+            orderService.sendResult(order, result.get());
         }
+        return true;
+    }
+
+    private boolean isProcessable(OrderStatus status) {
+        return status == OrderStatus.NEW || status == OrderStatus.ROLLBACK || status == OrderStatus.CONFIRMATION;
     }
 }
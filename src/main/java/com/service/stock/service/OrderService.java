@@ -1,61 +1,123 @@
 package com.service.stock.service;
 
-import com.service.avro.model.AvroOrder;
-import com.service.stock.converter.ConverterService;
 import com.service.stock.exception.ServiceException;
+import com.service.stock.metrics.OrderMetrics;
 import com.service.stock.model.Order;
 import com.service.stock.model.OrderStatus;
+import com.service.stock.model.ReservationResult;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Service
 @Slf4j
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "kafka.orders.exactly-once.enabled", havingValue = "false", matchIfMissing = true)
 public class OrderService {
 
     private final ItemService itemService;
 
     private final KafkaStockOrderProducerService kafkaStockOrderProducerService;
 
-    private final ConverterService converter;
-
-    public void processNewOrder(@NonNull AvroOrder avroOrder) {
-        Order order = convertToEntity(avroOrder);
+    private final OrderMetrics orderMetrics;
 
+    /**
+     * @return the published result
+     */
+    public Order processNewOrder(@NonNull Order order) {
         try {
-            itemService.createReservation(order);
+            orderMetrics.recordReservation("create", () -> itemService.createReservation(order));
             order.setStatus(OrderStatus.ACCEPT);
+            orderMetrics.countResult(OrderStatus.ACCEPT, OrderMetrics.NO_REASON);
         } catch (ServiceException e) {
             order.setStatus(OrderStatus.REJECT);
+            orderMetrics.countResult(OrderStatus.REJECT, OrderMetrics.reason(e));
             log.info("Error during reservation creation", e);
         }
 
-        kafkaStockOrderProducerService.sendOrder(order);
+        sendOrder(order);
+        return order;
+    }
+
+    /**
+     * Publishes an already known result of the order again, without touching the stock.
+     */
+    public void sendResult(@NonNull Order order, @NonNull OrderStatus result) {
+        order.setStatus(result);
+        sendOrder(order);
     }
 
-    public void processRollbackOrder(@NonNull AvroOrder avroOrder) {
-        Order order = convertToEntity(avroOrder);
+    public void processRollbackOrder(@NonNull Order order) {
         try {
-            itemService.rollbackReservation(order);
+            orderMetrics.recordReservation("rollback", () -> itemService.rollbackReservation(order));
         } catch (ServiceException e) {
+            orderMetrics.countError("rollback", e);
             log.error("Error during rollback reservation", e);
         }
 
     }
 
-    public void processConfirmationOrder(@NonNull AvroOrder avroOrder) {
-        Order order = convertToEntity(avroOrder);
+    public void processConfirmationOrder(@NonNull Order order) {
         try {
-            itemService.confirmReservation(order);
+            orderMetrics.recordReservation("confirm", () -> itemService.confirmReservation(order));
         } catch (ServiceException e) {
+            orderMetrics.countError("confirm", e);
             log.error("Error during confirmation reservation", e);
         }
     }
 
-    private Order convertToEntity(AvroOrder avroOrder) {
-        return converter.convert(avroOrder, Order.class);
+    /**
+     * Processes a batch of orders with a single reservation transaction and publishes one result per NEW order.
+     * <p>
+     * If the batch transaction fails as a whole, the orders are processed again one at a time, so a single failing
+     * order can not make the others REJECT.
+     *
+     * @return the given orders, NEW ones with their ACCEPT/REJECT result as status
+     */
+    public List<Order> processOrders(@NonNull List<Order> orders) {
+        List<ReservationResult> results;
+        try {
+            results = orderMetrics.recordReservation("batch", () -> itemService.applyReservations(orders));
+        } catch (ServiceException e) {
+            orderMetrics.countError("batch", e);
+            log.warn("Error during batch reservation, falling back to processing orders one at a time", e);
+            return processOneByOne(orders);
+        }
+
+        for (ReservationResult result : results) {
+            Order order = result.getOrder();
+            if (order.getStatus() == OrderStatus.NEW) {
+                order.setStatus(result.isApplied() ? OrderStatus.ACCEPT : OrderStatus.REJECT);
+                orderMetrics.countResult(order.getStatus(),
+                        result.isApplied() ? OrderMetrics.NO_REASON : OrderMetrics.NOT_APPLIED_REASON);
+                sendOrder(order);
+            } else if (!result.isApplied()) {
+                orderMetrics.countError("batch", OrderMetrics.NOT_APPLIED_REASON);
+                log.error("Error during {} reservation for order: {}", order.getStatus(), order);
+            }
+        }
+        return orders;
+    }
+
+    private List<Order> processOneByOne(List<Order> orders) {
+        for (Order order : orders) {
+            switch (order.getStatus()) {
+                case NEW -> processNewOrder(order);
+                case ROLLBACK -> processRollbackOrder(order);
+                case CONFIRMATION -> processConfirmationOrder(order);
+                default -> log.warn("Unknown order status: {}", order.getStatus());
+            }
+        }
+        return orders;
+    }
+
+    private void sendOrder(Order order) {
+        orderMetrics.recordPublish(() -> kafkaStockOrderProducerService.sendOrder(order));
     }
 
 }
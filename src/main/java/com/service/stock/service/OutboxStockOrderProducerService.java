@@ -0,0 +1,63 @@
+package com.service.stock.service;
+
+import com.service.avro.model.AvroOrder;
+import com.service.stock.converter.OrderToAvroOrderConverter;
+import com.service.stock.exception.ServiceException;
+import com.service.stock.repository.OrderOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes order results to the outbox table instead of Kafka, joining the transaction of the stock update. The
+ * results are published by {@link com.service.stock.outbox.OrderOutboxRelay}.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "kafka.orders.exactly-once.enabled", havingValue = "true")
+public class OutboxStockOrderProducerService extends KafkaStockOrderProducerService {
+
+    private final OrderOutboxRepository orderOutboxRepository;
+
+    @Value("${kafka.payment-orders.async.enabled}")
+    private boolean asyncPublishingEnabled;
+
+    public OutboxStockOrderProducerService(KafkaTemplate<String, AvroOrder> template,
+                                           OrderToAvroOrderConverter converter,
+                                           OrderOutboxRepository orderOutboxRepository) {
+        super(template, converter);
+        this.orderOutboxRepository = orderOutboxRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (asyncPublishingEnabled) {
+            throw new IllegalStateException("Exactly-once processing can not be used together with async publishing");
+        }
+    }
+
+    @Override
+    public boolean isTransactional() {
+        return true;
+    }
+
+    @Override
+    protected void publish(AvroOrder avroOrder) {
+        try {
+            ByteBuffer buffer = avroOrder.toByteBuffer();
+            byte[] payload = new byte[buffer.remaining()];
+            buffer.get(payload);
+            orderOutboxRepository.addMessage(String.valueOf(avroOrder.getId()), payload);
+            log.info("Added to outbox: {}", avroOrder);
+        } catch (IOException | DataAccessException e) {
+            throw new ServiceException("Error adding order to outbox", e);
+        }
+    }
+}
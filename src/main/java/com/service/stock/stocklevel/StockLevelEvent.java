@@ -0,0 +1,27 @@
+package com.service.stock.stocklevel;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.service.stock.model.ItemStockLevel;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Change of an item sent to the stream subscribers, {@code stockLevel} is {@code null} if the item was deleted.
+ */
+record StockLevelEvent(Long itemId, ItemStockLevel stockLevel) {
+
+    static final String STOCK_EVENT_NAME = "stock";
+
+    static final String DELETED_EVENT_NAME = "deleted";
+
+    /**
+     * @return the event in the {@code text/event-stream} format, its level as JSON
+     */
+    byte[] toBytes(ObjectMapper objectMapper) throws JsonProcessingException {
+        String event = stockLevel == null
+                ? "event:" + DELETED_EVENT_NAME + "\ndata:" + itemId + "\n\n"
+                : "event:" + STOCK_EVENT_NAME + "\ndata:" + objectMapper.writeValueAsString(stockLevel) + "\n\n";
+        return event.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,153 @@
+package com.service.stock.stocklevel;
+
+import com.service.avro.model.AvroStockLevel;
+import com.service.stock.exception.ServiceException;
+import com.service.stock.model.ItemStockLevel;
+import com.service.stock.repository.ItemStockLevelRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Publishes the stock level of changed items to the log-compacted {@code kafka.stock-levels.topic}, keyed by item id,
+ * when {@code kafka.stock-levels.enabled} is set. Consumers, including the {@link StockLevelStream} of every node,
+ * keep a replica of the stock from the topic instead of polling the REST API.
+ * <p>
+ * Committed changes only mark their items; every {@code kafka.stock-levels.coalesce-window-ms} the marked items are
+ * read with their current stock and published, so all changes of an item within a window become one record. Items
+ * that no longer exist are published as tombstones. Every node publishes the items it changed, so records of an item
+ * may arrive out of order; consumers keep the level with the highest {@code version}. Failed reads and sends mark the
+ * items again for the next window.
+ * <p>
+ * With {@code kafka.stock-levels.bootstrap-on-startup} the level of every item is published on startup, e.g. to fill
+ * a new topic.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class StockLevelPublisher implements ApplicationRunner {
+
+    private final ItemStockLevelRepository itemStockLevelRepository;
+
+    private final KafkaTemplate<String, AvroStockLevel> template;
+
+    private final Set<Long> changedItemIds = ConcurrentHashMap.newKeySet();
+
+    @Value("${kafka.stock-levels.enabled}")
+    private boolean enabled;
+
+    @Value("${kafka.stock-levels.topic}")
+    private String topic;
+
+    @Value("${kafka.stock-levels.batch-size}")
+    private int batchSize;
+
+    @Value("${kafka.stock-levels.bootstrap-on-startup}")
+    private boolean bootstrapOnStartup;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled && bootstrapOnStartup) {
+            publishAll();
+        }
+    }
+
+    /**
+     * Marks the item for the next window. Must be called once the change is committed.
+     */
+    public void changed(Long itemId) {
+        if (enabled) {
+            changedItemIds.add(itemId);
+        }
+    }
+
+    public void changed(Collection<Long> itemIds) {
+        if (enabled) {
+            changedItemIds.addAll(itemIds);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${kafka.stock-levels.coalesce-window-ms}")
+    public void publishChanged() {
+        if (!enabled || changedItemIds.isEmpty()) {
+            return;
+        }
+        List<Long> itemIds = new ArrayList<>(changedItemIds.size());
+        for (Iterator<Long> iterator = changedItemIds.iterator(); iterator.hasNext(); ) {
+            itemIds.add(iterator.next());
+            iterator.remove();
+        }
+
+        for (int from = 0; from < itemIds.size(); from += batchSize) {
+            List<Long> chunk = itemIds.subList(from, Math.min(from + batchSize, itemIds.size()));
+            try {
+                Set<Long> deletedItemIds = new HashSet<>(chunk);
+                for (ItemStockLevel stockLevel : itemStockLevelRepository.findAllById(chunk)) {
+                    deletedItemIds.remove(stockLevel.getItemId());
+                    send(stockLevel.getItemId(), convert(stockLevel));
+                }
+                deletedItemIds.forEach(itemId -> send(itemId, null));
+            } catch (DataAccessException | KafkaException e) {
+                log.error("Error publishing stock levels, retrying with the next window", e);
+                changedItemIds.addAll(itemIds.subList(from, itemIds.size()));
+                return;
+            }
+        }
+        log.debug("Published stock levels of {} items", itemIds.size());
+    }
+
+    /**
+     * Publishes the stock level of every item, in pages of {@code kafka.stock-levels.batch-size} items by id.
+     *
+     * @return number of published items
+     */
+    public long publishAll() {
+        long published = 0;
+        long lastItemId = Long.MIN_VALUE;
+        try {
+            List<ItemStockLevel> page;
+            do {
+                page = itemStockLevelRepository.findPageAfter(lastItemId, batchSize);
+                for (ItemStockLevel stockLevel : page) {
+                    send(stockLevel.getItemId(), convert(stockLevel));
+                    lastItemId = stockLevel.getItemId();
+                }
+                published += page.size();
+            } while (page.size() == batchSize);
+            template.flush();
+        } catch (DataAccessException | KafkaException e) {
+            throw new ServiceException("Publishing the stock levels of all items failed after " + published, e);
+        }
+        log.info("Published stock levels of all {} items", published);
+        return published;
+    }
+
+    private void send(Long itemId, AvroStockLevel stockLevel) {
+        template.send(topic, String.valueOf(itemId), stockLevel).whenComplete((result, e) -> {
+            if (e != null) {
+                log.error("Error sending stock level of Item with id = {}, retrying with the next window", itemId, e);
+                changed(itemId);
+            }
+        });
+    }
+
+    private static AvroStockLevel convert(ItemStockLevel stockLevel) {
+        return new AvroStockLevel(stockLevel.getItemId(), stockLevel.getStockAvailable(),
+                stockLevel.getStockReserved(), stockLevel.getVersion());
+    }
+}
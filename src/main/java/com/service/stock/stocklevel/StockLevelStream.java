@@ -0,0 +1,311 @@
+package com.service.stock.stocklevel;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.service.stock.exception.ServiceException;
+import com.service.stock.model.ItemStockLevel;
+import com.service.stock.repository.ItemStockLevelRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events stream of stock levels (GET /api/v1/items/stream) for clients subscribed to a set of items or to
+ * all items.
+ * <p>
+ * Every node reads the levels the {@link StockLevelPublisher} of any node publishes to the stock levels topic (see
+ * {@link com.service.stock.consumer.StockLevelConsumer}) and hands each to the subscribers of its item, found through
+ * an index by item id, so the stream requires {@code kafka.stock-levels.enabled}. Handing over only replaces the
+ * pending event of the item of each subscriber, so it never blocks on a client. {@code items.stream.send-threads}
+ * threads write the pending events with non-blocking servlet writes: neither a waiting connection nor a slow client
+ * holds a thread, and a slow client gets the latest level of every item once it catches up. A client whose output
+ * stays not ready for {@code items.stream.send-timeout-ms} is dropped. Clients subscribed to items get their current
+ * levels first and, like the compacted topic, keep the level with the highest {@code version} of an item.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class StockLevelStream {
+
+    static final String SUBSCRIBERS_GAUGE_NAME = "items.stream.subscribers";
+
+    private final ItemStockLevelRepository itemStockLevelRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Set<StockLevelSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    private final Set<StockLevelSubscription> allItemsSubscriptions = ConcurrentHashMap.newKeySet();
+
+    private final Map<Long, Set<StockLevelSubscription>> itemSubscriptions = new ConcurrentHashMap<>();
+
+    private ExecutorService sender;
+
+    @Value("${kafka.stock-levels.enabled}")
+    private boolean stockLevelsEnabled;
+
+    @Value("${items.stream.max-subscribers}")
+    private int maxSubscribers;
+
+    @Value("${items.stream.max-item-ids}")
+    private int maxItemIds;
+
+    @Value("${items.stream.timeout-ms}")
+    private long timeoutMs;
+
+    @Value("${items.stream.send-threads}")
+    private int sendThreads;
+
+    @Value("${items.stream.send-timeout-ms}")
+    private long sendTimeoutMs;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        sender = Executors.newFixedThreadPool(sendThreads, runnable -> {
+            Thread thread = new Thread(runnable, "items-stream-sender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder(SUBSCRIBERS_GAUGE_NAME, subscriptions, Set::size).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    /**
+     * Starts asynchronous processing of the request and streams the levels to its response until the client goes
+     * away or {@code items.stream.timeout-ms} passed.
+     *
+     * @param itemIds subscribed items, empty for all items
+     */
+    public void subscribe(Set<Long> itemIds, HttpServletRequest request, HttpServletResponse response) {
+        if (itemIds == null) {
+            throw new IllegalArgumentException("Item ids is null");
+        }
+        if (!stockLevelsEnabled) {
+            throw new ServiceException("Items stream is fed from the stock levels topic, which is disabled");
+        }
+        if (itemIds.size() > maxItemIds) {
+            throw new IllegalArgumentException("At most " + maxItemIds + " item ids can be subscribed, got " +
+                    itemIds.size());
+        }
+        StockLevelSubscription subscription = new StockLevelSubscription(Set.copyOf(itemIds), objectMapper);
+        register(subscription);
+
+        try {
+            response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+            AsyncContext asyncContext = request.startAsync(request, response);
+            asyncContext.setTimeout(timeoutMs);
+            asyncContext.addListener(new SubscriptionAsyncListener(subscription));
+            ServletOutputStream outputStream = response.getOutputStream();
+            subscription.start(asyncContext, outputStream);
+            outputStream.setWriteListener(new SubscriptionWriteListener(subscription));
+        } catch (IOException | IllegalStateException e) {
+            close(subscription);
+            throw new ServiceException("Opening the items stream failed", e);
+        }
+    }
+
+    /**
+     * Adds the subscription to the index and offers the current levels of its items.
+     */
+    void register(StockLevelSubscription subscription) {
+        if (subscriptions.size() >= maxSubscribers) {
+            throw new ServiceException("Stream subscribers limit of " + maxSubscribers + " reached");
+        }
+        subscriptions.add(subscription);
+        if (subscription.isAllItems()) {
+            allItemsSubscriptions.add(subscription);
+            return;
+        }
+        for (Long itemId : subscription.getItemIds()) {
+            itemSubscriptions.compute(itemId, (id, existing) -> {
+                Set<StockLevelSubscription> itemIdSubscriptions =
+                        existing == null ? ConcurrentHashMap.newKeySet() : existing;
+                itemIdSubscriptions.add(subscription);
+                return itemIdSubscriptions;
+            });
+        }
+
+        // Registered before reading, so a change committed meanwhile is either read here or handed over later
+        Set<Long> deletedItemIds = new HashSet<>(subscription.getItemIds());
+        try {
+            for (ItemStockLevel stockLevel : itemStockLevelRepository.findAllById(subscription.getItemIds())) {
+                deletedItemIds.remove(stockLevel.getItemId());
+                offerIfAbsent(subscription, new StockLevelEvent(stockLevel.getItemId(), stockLevel));
+            }
+        } catch (DataAccessException e) {
+            unsubscribe(subscription);
+            throw new ServiceException(e);
+        }
+        deletedItemIds.forEach(itemId -> offerIfAbsent(subscription, new StockLevelEvent(itemId, null)));
+    }
+
+    public void publish(ItemStockLevel stockLevel) {
+        publish(new StockLevelEvent(stockLevel.getItemId(), stockLevel));
+    }
+
+    public void deleted(Long itemId) {
+        publish(new StockLevelEvent(itemId, null));
+    }
+
+    /**
+     * Keeps idle connections open through proxies, finds clients that went away and drops the stalled ones.
+     */
+    @Scheduled(fixedDelayString = "${items.stream.heartbeat-interval-ms}")
+    public void heartbeat() {
+        long nowNanos = System.nanoTime();
+        long sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        subscriptions.forEach(subscription -> {
+            if (subscription.isStalled(nowNanos, sendTimeoutNanos)) {
+                log.debug("Stream client stopped reading, dropping it");
+                close(subscription);
+            } else if (subscription.heartbeat()) {
+                schedule(subscription);
+            }
+        });
+    }
+
+    private void publish(StockLevelEvent event) {
+        allItemsSubscriptions.forEach(subscription -> offer(subscription, event));
+        Set<StockLevelSubscription> itemIdSubscriptions = itemSubscriptions.get(event.itemId());
+        if (itemIdSubscriptions != null) {
+            itemIdSubscriptions.forEach(subscription -> offer(subscription, event));
+        }
+    }
+
+    private void offer(StockLevelSubscription subscription, StockLevelEvent event) {
+        if (subscription.offer(event)) {
+            schedule(subscription);
+        }
+    }
+
+    private void offerIfAbsent(StockLevelSubscription subscription, StockLevelEvent event) {
+        if (subscription.offerIfAbsent(event)) {
+            schedule(subscription);
+        }
+    }
+
+    private void schedule(StockLevelSubscription subscription) {
+        sender.execute(() -> {
+            if (!subscription.drain()) {
+                log.debug("Stream client went away, unsubscribing");
+                close(subscription);
+            }
+        });
+    }
+
+    private void close(StockLevelSubscription subscription) {
+        if (unsubscribe(subscription)) {
+            subscription.complete();
+        }
+    }
+
+    /**
+     * @return {@code false} if the subscription was already removed
+     */
+    private boolean unsubscribe(StockLevelSubscription subscription) {
+        if (!subscriptions.remove(subscription)) {
+            return false;
+        }
+        if (subscription.isAllItems()) {
+            allItemsSubscriptions.remove(subscription);
+            return true;
+        }
+        for (Long itemId : subscription.getItemIds()) {
+            itemSubscriptions.computeIfPresent(itemId, (id, itemIdSubscriptions) -> {
+                itemIdSubscriptions.remove(subscription);
+                return itemIdSubscriptions.isEmpty() ? null : itemIdSubscriptions;
+            });
+        }
+        return true;
+    }
+
+    private class SubscriptionWriteListener implements WriteListener {
+
+        private final StockLevelSubscription subscription;
+
+        private SubscriptionWriteListener(StockLevelSubscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onWritePossible() {
+            if (subscription.writePossible()) {
+                schedule(subscription);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            log.debug("Stream client went away, unsubscribing", t);
+            close(subscription);
+        }
+    }
+
+    private class SubscriptionAsyncListener implements AsyncListener {
+
+        private final StockLevelSubscription subscription;
+
+        private SubscriptionAsyncListener(StockLevelSubscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            unsubscribe(subscription);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            close(subscription);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            close(subscription);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.service.stock.stocklevel;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stream client with the events not yet sent to it, at most one per item: a newer event of an item replaces the
+ * pending one, so a slow client skips intermediate levels instead of queueing them.
+ * <p>
+ * The events are written without blocking: once the output is not ready, {@link #drain()} returns and the container
+ * calls the write listener of the stream when the client has read enough, which resumes it. Until the subscription is
+ * started its events only pile up; the first write listener call after {@link #start} sends them.
+ */
+@RequiredArgsConstructor
+class StockLevelSubscription {
+
+    private static final byte[] HEARTBEAT = ":heartbeat\n\n".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Subscribed items, empty for all items.
+     */
+    @Getter
+    private final Set<Long> itemIds;
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<Long, StockLevelEvent> pendingEvents = new ConcurrentHashMap<>();
+
+    /**
+     * Set while a drain is scheduled or running, or waiting for the output to be ready.
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean(true);
+
+    private final AtomicBoolean waitingForWrite = new AtomicBoolean(true);
+
+    private volatile long waitingSinceNanos = System.nanoTime();
+
+    private volatile boolean heartbeatDue;
+
+    private volatile AsyncContext asyncContext;
+
+    private volatile ServletOutputStream outputStream;
+
+    boolean isAllItems() {
+        return itemIds.isEmpty();
+    }
+
+    void start(AsyncContext asyncContext, ServletOutputStream outputStream) {
+        this.asyncContext = asyncContext;
+        this.outputStream = outputStream;
+    }
+
+    /**
+     * @return {@code true} if the caller has to schedule {@link #drain()}
+     */
+    boolean offer(StockLevelEvent event) {
+        pendingEvents.put(event.itemId(), event);
+        return scheduled.compareAndSet(false, true);
+    }
+
+    /**
+     * Offers the event unless a newer one of the item is already pending.
+     */
+    boolean offerIfAbsent(StockLevelEvent event) {
+        pendingEvents.putIfAbsent(event.itemId(), event);
+        return scheduled.compareAndSet(false, true);
+    }
+
+    boolean heartbeat() {
+        heartbeatDue = true;
+        return scheduled.compareAndSet(false, true);
+    }
+
+    /**
+     * Called when the container reports the output ready again.
+     *
+     * @return {@code true} if the caller has to schedule {@link #drain()}
+     */
+    boolean writePossible() {
+        return waitingForWrite.compareAndSet(true, false);
+    }
+
+    /**
+     * @return {@code true} if the output has not been ready for longer than the timeout
+     */
+    boolean isStalled(long nowNanos, long timeoutNanos) {
+        return waitingForWrite.get() && nowNanos - waitingSinceNanos >= timeoutNanos;
+    }
+
+    /**
+     * Sends the pending events until none is left or the output is not ready. Only one drain of a subscription runs
+     * at a time.
+     *
+     * @return {@code false} if the client is gone
+     */
+    boolean drain() {
+        try {
+            do {
+                for (Long itemId : pendingEvents.keySet()) {
+                    if (!isReady()) {
+                        return true;
+                    }
+                    StockLevelEvent event = pendingEvents.remove(itemId);
+                    if (event != null) {
+                        outputStream.write(event.toBytes(objectMapper));
+                    }
+                }
+                if (heartbeatDue) {
+                    if (!isReady()) {
+                        return true;
+                    }
+                    heartbeatDue = false;
+                    outputStream.write(HEARTBEAT);
+                }
+                if (!isReady()) {
+                    return true;
+                }
+                outputStream.flush();
+                if (!isReady()) {
+                    return true;
+                }
+                scheduled.set(false);
+            } while ((!pendingEvents.isEmpty() || heartbeatDue) && scheduled.compareAndSet(false, true));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Ends the response, unless it already ended.
+     */
+    void complete() {
+        AsyncContext context = asyncContext;
+        if (context == null) {
+            return;
+        }
+        try {
+            context.complete();
+        } catch (IllegalStateException e) {
+            // Completed by the container already
+        }
+    }
+
+    /**
+     * Marks the subscription as waiting before asking, since the container may call the write listener as soon as
+     * the output reported not ready.
+     */
+    private boolean isReady() {
+        waitingSinceNanos = System.nanoTime();
+        waitingForWrite.set(true);
+        if (outputStream.isReady()) {
+            waitingForWrite.set(false);
+            return true;
+        }
+        return false;
+    }
+}
@@ -7,6 +7,10 @@ import org.springframework.data.domain.Sort;
 public class PaginationSortingUtils {
 
     public static Pageable getPageable(int limit, int offset, String[] sort) {
+        return OffsetBasedPageRequest.of(limit, offset, getSort(sort));
+    }
+
+    public static Sort getSort(String[] sort) {
         if (sort == null || sort.length < 2) {
             throw new IllegalArgumentException("Sort array must contain at least two elements.");
         }
@@ -21,6 +25,6 @@ public class PaginationSortingUtils {
         Sort.Direction direction = sortDirection.equals("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
         Sort.Order order = new Sort.Order(direction, sortField);
 
-        return OffsetBasedPageRequest.of(limit, offset, Sort.by(order));
+        return Sort.by(order);
     }
 }
@@ -0,0 +1,10 @@
+-- Marks since when the stock movement log has been written without a gap. The snapshots seeded by V8 are only a
+-- valid starting point while the log was on ever since, so an instance started with the log off deletes the row, and
+-- the first instance started with the log on without a row re-seeds every snapshot from the item rows and inserts it.
+CREATE TABLE stock_movement_log_state
+(
+    id            SMALLINT  NOT NULL DEFAULT 1,
+    enabled_since TIMESTAMP NOT NULL DEFAULT now(),
+    CONSTRAINT pk_stock_movement_log_state PRIMARY KEY (id),
+    CONSTRAINT ck_stock_movement_log_state_single_row CHECK (id = 1)
+);
@@ -0,0 +1,7 @@
+CREATE TABLE stock_ledger_offset
+(
+    topic          VARCHAR(255) NOT NULL,
+    partition_id   INTEGER      NOT NULL,
+    flushed_offset BIGINT       NOT NULL,
+    CONSTRAINT pk_stock_ledger_offset PRIMARY KEY (topic, partition_id)
+);
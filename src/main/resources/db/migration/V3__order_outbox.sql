@@ -0,0 +1,18 @@
+CREATE TABLE processed_order
+(
+    order_id     UUID        NOT NULL,
+    status       VARCHAR(32) NOT NULL,
+    processed_at TIMESTAMP   NOT NULL DEFAULT now(),
+    CONSTRAINT pk_processed_order PRIMARY KEY (order_id, status)
+);
+
+CREATE INDEX idx_processed_order_processed_at ON processed_order (processed_at);
+
+CREATE TABLE order_outbox
+(
+    id          BIGSERIAL    NOT NULL,
+    message_key VARCHAR(255) NOT NULL,
+    payload     BYTEA        NOT NULL,
+    created_at  TIMESTAMP    NOT NULL DEFAULT now(),
+    CONSTRAINT pk_order_outbox PRIMARY KEY (id)
+);
@@ -0,0 +1,3 @@
+-- Keyset pagination by name seeks on (name, id). The stock columns are deliberately not indexed, an index on them
+-- would turn every reservation update into a non-HOT update.
+CREATE INDEX idx_item_name_id ON item (name, id);
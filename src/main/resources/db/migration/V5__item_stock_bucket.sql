@@ -0,0 +1,11 @@
+-- Available stock of hot items is spread over bucket rows, so concurrent reservations lock different rows. The item
+-- row keeps the rest of the stock; the totals of an item are its row plus all its buckets.
+CREATE TABLE item_stock_bucket
+(
+    item_id         BIGINT  NOT NULL,
+    bucket          INTEGER NOT NULL,
+    stock_available BIGINT  NOT NULL,
+    stock_reserved  BIGINT  NOT NULL,
+    CONSTRAINT pk_item_stock_bucket PRIMARY KEY (item_id, bucket),
+    CONSTRAINT fk_item_stock_bucket_item FOREIGN KEY (item_id) REFERENCES item (id) ON DELETE CASCADE
+);
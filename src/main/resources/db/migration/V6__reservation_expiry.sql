@@ -0,0 +1,17 @@
+-- Deadline of every outstanding reservation. Confirmation and rollback delete the row, an expired reservation is
+-- released and its row kept with expired = true, so a confirmation or rollback arriving later does not apply twice.
+CREATE TABLE reservation_expiry
+(
+    order_id    UUID      NOT NULL,
+    customer_id BIGINT,
+    item_id     BIGINT    NOT NULL,
+    quantity    INTEGER   NOT NULL,
+    price       BIGINT,
+    expires_at  TIMESTAMP NOT NULL,
+    expired     BOOLEAN   NOT NULL DEFAULT FALSE,
+    CONSTRAINT pk_reservation_expiry PRIMARY KEY (order_id)
+);
+
+CREATE INDEX idx_reservation_expiry_outstanding ON reservation_expiry (expires_at) WHERE NOT expired;
+
+CREATE INDEX idx_reservation_expiry_expired ON reservation_expiry (expires_at) WHERE expired;
@@ -0,0 +1,50 @@
+-- One row per reserved product of an order. Confirmation, rollback and expiry move a RESERVED row to its final
+-- state in the transaction of the stock change, so a settled reservation is never applied twice.
+-- Rows are partitioned by month of creation; partitions are created ahead and dropped after retention by
+-- ReservationPartitionMaintainer, the default partition only catches rows outside of them.
+CREATE TABLE reservation
+(
+    order_id    UUID        NOT NULL,
+    customer_id BIGINT,
+    item_id     BIGINT      NOT NULL,
+    quantity    INTEGER     NOT NULL,
+    price       BIGINT,
+    state       VARCHAR(16) NOT NULL,
+    created_at  TIMESTAMP   NOT NULL,
+    expires_at  TIMESTAMP,
+    settled_at  TIMESTAMP,
+    CONSTRAINT pk_reservation PRIMARY KEY (order_id, item_id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE reservation_default PARTITION OF reservation DEFAULT;
+
+CREATE INDEX idx_reservation_outstanding ON reservation (expires_at) WHERE state = 'RESERVED';
+
+DO
+$$
+    DECLARE
+        partition_start DATE := date_trunc('month', now());
+    BEGIN
+        FOR i IN 0..1
+            LOOP
+                EXECUTE format('CREATE TABLE reservation_p%s PARTITION OF reservation FOR VALUES FROM (%L) TO (%L)',
+                               to_char(partition_start, 'YYYYMM'), partition_start,
+                               partition_start + INTERVAL '1 month');
+                partition_start := partition_start + INTERVAL '1 month';
+            END LOOP;
+    END
+$$;
+
+INSERT INTO reservation (order_id, customer_id, item_id, quantity, price, state, created_at, expires_at, settled_at)
+SELECT order_id,
+       customer_id,
+       item_id,
+       quantity,
+       price,
+       CASE WHEN expired THEN 'EXPIRED' ELSE 'RESERVED' END,
+       now(),
+       expires_at,
+       CASE WHEN expired THEN expires_at END
+FROM reservation_expiry;
+
+DROP TABLE reservation_expiry;
@@ -0,0 +1,38 @@
+-- Append-only log of every change of the stock of an item. The item row stays the live stock reservations are
+-- checked against; stock_snapshot holds the stock of every item as of its last compacted movement, so the stock can
+-- be rebuilt from the snapshot plus the movements after it.
+CREATE TABLE stock_movement
+(
+    id              BIGSERIAL   NOT NULL,
+    item_id         BIGINT      NOT NULL,
+    available_delta BIGINT      NOT NULL,
+    reserved_delta  BIGINT      NOT NULL,
+    reason          VARCHAR(16) NOT NULL,
+    order_id        UUID,
+    created_at      TIMESTAMP   NOT NULL DEFAULT now(),
+    CONSTRAINT pk_stock_movement PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_stock_movement_item ON stock_movement (item_id, id);
+
+CREATE INDEX idx_stock_movement_created_at ON stock_movement USING BRIN (created_at);
+
+CREATE TABLE stock_snapshot
+(
+    item_id         BIGINT    NOT NULL,
+    stock_available BIGINT    NOT NULL,
+    stock_reserved  BIGINT    NOT NULL,
+    movement_id     BIGINT    NOT NULL,
+    created_at      TIMESTAMP NOT NULL DEFAULT now(),
+    CONSTRAINT pk_stock_snapshot PRIMARY KEY (item_id)
+);
+
+-- Stock from before the log, including what striped items hold in their buckets
+INSERT INTO stock_snapshot (item_id, stock_available, stock_reserved, movement_id)
+SELECT i.id,
+       i.stock_available + COALESCE(SUM(b.stock_available), 0),
+       i.stock_reserved + COALESCE(SUM(b.stock_reserved), 0),
+       0
+FROM item i
+         LEFT JOIN item_stock_bucket b ON b.item_id = i.id
+GROUP BY i.id, i.stock_available, i.stock_reserved;
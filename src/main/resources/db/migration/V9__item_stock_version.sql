@@ -0,0 +1,46 @@
+-- Version of the stock of an item, published with its stock level so consumers can drop levels older than the one
+-- they have. Every change of the stock columns of an item or of one of its buckets increases the version of the row;
+-- the version of an item is the sum over its row and buckets. A deleted bucket adds its version to the item row, so
+-- the sum never decreases when buckets are collapsed.
+ALTER TABLE item
+    ADD COLUMN stock_version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE item_stock_bucket
+    ADD COLUMN stock_version BIGINT NOT NULL DEFAULT 0;
+
+CREATE FUNCTION increment_stock_version() RETURNS TRIGGER AS
+$$
+BEGIN
+    IF NEW.stock_available IS DISTINCT FROM OLD.stock_available OR
+       NEW.stock_reserved IS DISTINCT FROM OLD.stock_reserved THEN
+        NEW.stock_version := OLD.stock_version + 1;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER item_stock_version
+    BEFORE UPDATE OF stock_available, stock_reserved
+    ON item
+    FOR EACH ROW
+EXECUTE FUNCTION increment_stock_version();
+
+CREATE TRIGGER item_stock_bucket_stock_version
+    BEFORE UPDATE OF stock_available, stock_reserved
+    ON item_stock_bucket
+    FOR EACH ROW
+EXECUTE FUNCTION increment_stock_version();
+
+CREATE FUNCTION keep_bucket_stock_version() RETURNS TRIGGER AS
+$$
+BEGIN
+    UPDATE item SET stock_version = stock_version + OLD.stock_version + 1 WHERE id = OLD.item_id;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER item_stock_bucket_delete_stock_version
+    AFTER DELETE
+    ON item_stock_bucket
+    FOR EACH ROW
+EXECUTE FUNCTION keep_bucket_stock_version();
@@ -0,0 +1,125 @@
+package com.service.stock.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.service.stock.dto.ItemDto;
+import com.service.stock.exception.EntityNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ItemCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private MeterRegistry meterRegistry;
+
+    private AtomicInteger loads;
+
+    private Function<Long, ItemDto> loader;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        loads = new AtomicInteger();
+        loader = id -> {
+            loads.incrementAndGet();
+            ItemDto itemDto = new ItemDto();
+            itemDto.setId(id);
+            itemDto.setName("name");
+            itemDto.setStockAvailable(10L);
+            itemDto.setStockReserved(0L);
+            return itemDto;
+        };
+    }
+
+    @Test
+    public void get_whenItemIsCached_returnCopyWithoutLoading() {
+        ItemCache cache = createCache(true, false);
+
+        ItemDto first = cache.get(1L, loader);
+        first.setName("changed");
+        ItemDto second = cache.get(1L, loader);
+
+        assertEquals("name", second.getName());
+        assertEquals(1, loads.get());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1, meterRegistry.get(ItemCache.LOAD_TIMER_NAME).timer().count());
+    }
+
+    @Test
+    public void get_whenItemWasInvalidated_loadItemAgain() {
+        ItemCache cache = createCache(true, false);
+
+        cache.get(1L, loader);
+        cache.invalidate(1L);
+        cache.get(1L, loader);
+        cache.invalidateAll(List.of(1L, 2L));
+        cache.get(1L, loader);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void get_whenLoaderThrowsException_doNotCacheIt() {
+        ItemCache cache = createCache(true, false);
+        Function<Long, ItemDto> failingLoader = id -> {
+            loads.incrementAndGet();
+            throw new EntityNotFoundException("There is no Item with id = " + id);
+        };
+
+        assertThrows(EntityNotFoundException.class, () -> cache.get(1L, failingLoader));
+        assertThrows(EntityNotFoundException.class, () -> cache.get(1L, failingLoader));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void get_whenCacheIsDisabled_alwaysLoad() {
+        ItemCache cache = createCache(false, false);
+
+        cache.get(1L, loader);
+        cache.get(1L, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void getJson_whenSerializedJsonIsEnabled_returnCachedBytes() throws Exception {
+        ItemCache cache = createCache(true, true);
+
+        byte[] first = cache.getJson(1L, loader);
+        byte[] second = cache.getJson(1L, loader);
+
+        assertSame(first, second);
+        assertEquals(loader.apply(1L), objectMapper.readValue(first, ItemDto.class));
+    }
+
+    @Test
+    public void getJson_whenSerializedJsonIsDisabled_serializeCachedItem() throws Exception {
+        ItemCache cache = createCache(true, false);
+
+        byte[] json = cache.getJson(1L, loader);
+        cache.getJson(1L, loader);
+
+        assertEquals(1, loads.get());
+        assertEquals("name", objectMapper.readValue(json, ItemDto.class).getName());
+    }
+
+    private ItemCache createCache(boolean enabled, boolean serializedJson) {
+        ItemCache cache = new ItemCache(meterRegistry, objectMapper);
+        ReflectionTestUtils.setField(cache, "enabled", enabled);
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        ReflectionTestUtils.setField(cache, "ttlMs", 60_000L);
+        ReflectionTestUtils.setField(cache, "serializedJson", serializedJson);
+        cache.init();
+        return cache;
+    }
+}
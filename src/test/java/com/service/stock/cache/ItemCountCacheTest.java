@@ -0,0 +1,90 @@
+package com.service.stock.cache;
+
+import com.service.stock.exception.ServiceException;
+import com.service.stock.model.CountMode;
+import com.service.stock.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class ItemCountCacheTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemCountCache itemCountCache;
+
+    @BeforeEach
+    public void setUp() {
+        itemCountCache = new ItemCountCache(itemRepository);
+    }
+
+    @Test
+    public void getTotal_whenCountModeIsExact_countOnceAndApplyChanges() {
+        when(itemRepository.count()).thenReturn(10L);
+
+        assertEquals(10L, itemCountCache.getTotal(CountMode.EXACT));
+        itemCountCache.add(3);
+        itemCountCache.add(-1);
+        assertEquals(12L, itemCountCache.getTotal(CountMode.EXACT));
+
+        verify(itemRepository, times(1)).count();
+    }
+
+    @Test
+    public void add_whenCountIsNotLoaded_ignoreChange() {
+        itemCountCache.add(5);
+        when(itemRepository.count()).thenReturn(10L);
+
+        assertEquals(10L, itemCountCache.getCount());
+    }
+
+    @Test
+    public void refresh_whenCountDrifted_replaceWithRecount() {
+        when(itemRepository.count()).thenReturn(10L, 20L);
+
+        itemCountCache.getCount();
+        itemCountCache.add(1);
+        itemCountCache.refresh();
+
+        assertEquals(20L, itemCountCache.getCount());
+    }
+
+    @Test
+    public void getTotal_whenCountModeIsApproximate_returnStatisticsEstimate() {
+        when(itemRepository.estimateCount()).thenReturn(1_000_000L);
+
+        assertEquals(1_000_000L, itemCountCache.getTotal(CountMode.APPROXIMATE));
+
+        verify(itemRepository, never()).count();
+    }
+
+    @Test
+    public void getTotal_whenTableWasNeverAnalyzed_returnCachedCount() {
+        when(itemRepository.estimateCount()).thenReturn(-1L);
+        when(itemRepository.count()).thenReturn(10L);
+
+        assertEquals(10L, itemCountCache.getTotal(CountMode.APPROXIMATE));
+    }
+
+    @Test
+    public void getTotal_whenCountModeIsNone_returnNull() {
+        assertNull(itemCountCache.getTotal(CountMode.NONE));
+
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    public void getCount_whenRepositoryThrowsExceptionExtendsDataAccessException_throwServiceException() {
+        when(itemRepository.count()).thenThrow(DataAccessResourceFailureException.class);
+
+        assertThrows(ServiceException.class, () -> itemCountCache.getCount());
+    }
+}
@@ -0,0 +1,90 @@
+package com.service.stock.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.service.stock.model.OrderStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderIdempotencyCacheTest {
+
+    private OrderIdempotencyCache cache;
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = createCache(true, 100);
+    }
+
+    @Test
+    public void getResult_whenOrderIdIsNull_returnEmpty() {
+        cache.putResult(null, OrderStatus.NEW, OrderStatus.ACCEPT);
+
+        assertEquals(Optional.empty(), cache.getResult(null, OrderStatus.NEW));
+    }
+
+    @Test
+    public void getResult_whenOrderWasNotProcessed_returnEmptyAndCountBloomNegative() {
+        assertEquals(Optional.empty(), cache.getResult(UUID.randomUUID(), OrderStatus.NEW));
+
+        assertEquals(1, meterRegistry.counter("orders.idempotency.bloom.negative").count());
+    }
+
+    @Test
+    public void getResult_whenOrderWasProcessed_returnResultAndCountHit() {
+        UUID orderId = UUID.randomUUID();
+        cache.putResult(orderId, OrderStatus.NEW, OrderStatus.REJECT);
+
+        assertEquals(Optional.of(OrderStatus.REJECT), cache.getResult(orderId, OrderStatus.NEW));
+
+        assertEquals(1, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    public void getResult_whenSameOrderHasOtherStatus_returnEmpty() {
+        UUID orderId = UUID.randomUUID();
+        cache.putResult(orderId, OrderStatus.NEW, OrderStatus.ACCEPT);
+
+        assertEquals(Optional.empty(), cache.getResult(orderId, OrderStatus.ROLLBACK));
+    }
+
+    @Test
+    public void getResult_whenCacheIsDisabled_returnEmpty() {
+        OrderIdempotencyCache disabledCache = createCache(false, 100);
+        UUID orderId = UUID.randomUUID();
+        disabledCache.putResult(orderId, OrderStatus.NEW, OrderStatus.ACCEPT);
+
+        assertEquals(Optional.empty(), disabledCache.getResult(orderId, OrderStatus.NEW));
+    }
+
+    @Test
+    public void putResult_whenMaxSizeIsExceeded_evictEntries() {
+        OrderIdempotencyCache smallCache = createCache(true, 10);
+        for (int i = 0; i < 100; i++) {
+            smallCache.putResult(UUID.randomUUID(), OrderStatus.NEW, OrderStatus.ACCEPT);
+        }
+        ((Cache<?, ?>) ReflectionTestUtils.getField(smallCache, "cache")).cleanUp();
+
+        assertTrue(meterRegistry.get("cache.evictions").tag("cache", OrderIdempotencyCache.CACHE_NAME)
+                .functionCounter().count() >= 90);
+    }
+
+    private OrderIdempotencyCache createCache(boolean enabled, long maxSize) {
+        meterRegistry = new SimpleMeterRegistry();
+        OrderIdempotencyCache orderIdempotencyCache = new OrderIdempotencyCache(meterRegistry);
+        ReflectionTestUtils.setField(orderIdempotencyCache, "enabled", enabled);
+        ReflectionTestUtils.setField(orderIdempotencyCache, "maxSize", maxSize);
+        ReflectionTestUtils.setField(orderIdempotencyCache, "ttlMs", 60_000L);
+        orderIdempotencyCache.init();
+        return orderIdempotencyCache;
+    }
+}
@@ -0,0 +1,53 @@
+package com.service.stock.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RotatingBloomFilterTest {
+
+    @Test
+    public void mightContain_whenHashWasAdded_returnTrue() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(1000, 0.01, TimeUnit.HOURS.toNanos(1));
+
+        for (long hash = 0; hash < 1000; hash++) {
+            filter.put(hash * 0x9E3779B97F4A7C15L);
+        }
+
+        for (long hash = 0; hash < 1000; hash++) {
+            assertTrue(filter.mightContain(hash * 0x9E3779B97F4A7C15L));
+        }
+    }
+
+    @Test
+    public void mightContain_whenFilterIsFilledToExpectedInsertions_keepFalsePositiveRateLow() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(10_000, 0.01, TimeUnit.HOURS.toNanos(1));
+        for (long hash = 0; hash < 10_000; hash++) {
+            filter.put(hash * 0x9E3779B97F4A7C15L);
+        }
+
+        int falsePositives = 0;
+        for (long hash = 10_000; hash < 20_000; hash++) {
+            if (filter.mightContain(hash * 0x9E3779B97F4A7C15L)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 300, "False positives: " + falsePositives);
+    }
+
+    @Test
+    public void mightContain_whenTwoPeriodsPassed_forgetHash() throws InterruptedException {
+        RotatingBloomFilter filter = new RotatingBloomFilter(1000, 0.01, TimeUnit.MILLISECONDS.toNanos(20));
+        long hash = 0x9E3779B97F4A7C15L;
+        filter.put(hash);
+
+        Thread.sleep(30);
+        assertTrue(filter.mightContain(hash));
+
+        Thread.sleep(30);
+        assertFalse(filter.mightContain(hash));
+    }
+}
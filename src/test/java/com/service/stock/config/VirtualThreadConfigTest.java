@@ -0,0 +1,20 @@
+package com.service.stock.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class VirtualThreadConfigTest {
+
+    @Test
+    public void checkJavaVersion_whenJavaIsOlderThan21_throwIllegalStateException() {
+        assertThrows(IllegalStateException.class, () -> VirtualThreadConfig.checkJavaVersion(17));
+    }
+
+    @Test
+    public void checkJavaVersion_whenJavaIs21OrNewer_success() {
+        assertDoesNotThrow(() -> VirtualThreadConfig.checkJavaVersion(21));
+        assertDoesNotThrow(() -> VirtualThreadConfig.checkJavaVersion(25));
+    }
+}
@@ -4,8 +4,9 @@ import com.service.avro.model.AvroOrder;
 import com.service.avro.model.AvroOrderStatus;
 import com.service.avro.model.AvroProduct;
 import com.service.stock.container.SchemaRegistryContainer;
+import com.service.stock.model.Order;
+import com.service.stock.serialization.OrderDeserializer;
 import com.service.stock.service.OrderProcessingService;
-import io.confluent.kafka.serializers.KafkaAvroDeserializer;
 import io.confluent.kafka.serializers.KafkaAvroSerializer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.KafkaProducer;
@@ -37,7 +38,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -109,7 +110,8 @@ public class KafkaConsumerTest {
         producer.send(new ProducerRecord<>(topicName, avroOrder.getId().toString(), avroOrder));
 
         Thread.sleep(3000);
-        verify(orderProcessingService, times(1)).process(any());
+        verify(orderProcessingService, times(1)).process(
+                argThat(order -> order.getId().toString().equals(avroOrder.getId().toString())));
     }
 
     @TestConfiguration
@@ -122,8 +124,7 @@ public class KafkaConsumerTest {
             props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
             props.put(ConsumerConfig.GROUP_ID_CONFIG, "groupId");
             props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-            props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, KafkaAvroDeserializer.class);
-            props.put("specific.avro.reader", true);
+            props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, OrderDeserializer.class);
             props.put("schema.registry.url",
                     "http://" + SCHEMA_REGISTRY.getHost() + ":" + SCHEMA_REGISTRY.getFirstMappedPort());
             return props;
@@ -141,7 +142,7 @@ public class KafkaConsumerTest {
         }
 
         @Bean
-        public ConsumerFactory<String, AvroOrder> consumerFactory() {
+        public ConsumerFactory<String, Order> consumerFactory() {
             return new DefaultKafkaConsumerFactory<>(consumerConfigs());
         }
 
@@ -156,9 +157,9 @@ public class KafkaConsumerTest {
         }
 
         @Bean
-        public ConcurrentKafkaListenerContainerFactory<String, AvroOrder> kafkaListenerContainerFactory() {
+        public ConcurrentKafkaListenerContainerFactory<String, Order> kafkaListenerContainerFactory() {
 
-            ConcurrentKafkaListenerContainerFactory<String, AvroOrder> factory =
+            ConcurrentKafkaListenerContainerFactory<String, Order> factory =
                     new ConcurrentKafkaListenerContainerFactory<>();
             factory.setConsumerFactory(consumerFactory());
 
@@ -0,0 +1,115 @@
+package com.service.stock.consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeyOrderedDispatcherTest {
+
+    private KeyOrderedDispatcher dispatcher;
+
+    @AfterEach
+    public void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown(1_000);
+        }
+    }
+
+    @Test
+    public void dispatch_whenKeysAreEqual_runInSubmissionOrder() {
+        dispatcher = new KeyOrderedDispatcher(4, "test-");
+        List<Integer> completed = new CopyOnWriteArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            int index = i;
+            dispatcher.dispatch(7L, () -> completed.add(index));
+        }
+
+        assertTrue(dispatcher.awaitSubmitted(5_000));
+        assertEquals(100, completed.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, completed.get(i));
+        }
+    }
+
+    @Test
+    public void dispatch_whenKeysDiffer_doNotWaitForBlockedKey() throws InterruptedException {
+        dispatcher = new KeyOrderedDispatcher(2, "test-");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherKeyDone = new CountDownLatch(1);
+
+        // 0 and 1 land on different lanes
+        dispatcher.dispatch(0, () -> await(release));
+        dispatcher.dispatch(1, otherKeyDone::countDown);
+
+        assertTrue(otherKeyDone.await(5, TimeUnit.SECONDS));
+        assertFalse(dispatcher.awaitSubmitted(50));
+        release.countDown();
+        assertTrue(dispatcher.awaitSubmitted(5_000));
+    }
+
+    @Test
+    public void dispatchAll_whenTaskHasSeveralKeys_runAfterEarlierAndBeforeLaterTasksOfEveryKey()
+            throws InterruptedException {
+        dispatcher = new KeyOrderedDispatcher(2, "test-");
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> completed = new CopyOnWriteArrayList<>();
+
+        // 0 and 1 land on different lanes
+        dispatcher.dispatch(1, () -> {
+            await(release);
+            completed.add("earlier");
+        });
+        dispatcher.dispatchAll(List.of(1, 0), () -> completed.add("both"));
+        dispatcher.dispatch(0, () -> completed.add("later"));
+
+        assertFalse(dispatcher.awaitSubmitted(50));
+        assertTrue(completed.isEmpty());
+        release.countDown();
+        assertTrue(dispatcher.awaitSubmitted(5_000));
+        assertEquals(List.of("earlier", "both", "later"), completed);
+    }
+
+    @Test
+    public void dispatchAll_whenKeysShareLane_runOnThatLane() {
+        dispatcher = new KeyOrderedDispatcher(2, "test-");
+        List<String> threads = new CopyOnWriteArrayList<>();
+
+        dispatcher.dispatchAll(List.of(1, 3), () -> threads.add(Thread.currentThread().getName()));
+        assertTrue(dispatcher.awaitSubmitted(5_000));
+        dispatcher.dispatchAll(List.of(), () -> threads.add(Thread.currentThread().getName()));
+
+        assertTrue(dispatcher.awaitSubmitted(5_000));
+        assertEquals(List.of("test-1", "test-0"), threads);
+    }
+
+    @Test
+    public void dispatch_whenKeyIsNull_runOnFirstLane() {
+        dispatcher = new KeyOrderedDispatcher(2, "test-");
+        List<String> threads = new CopyOnWriteArrayList<>();
+
+        dispatcher.dispatch(null, () -> threads.add(Thread.currentThread().getName()));
+
+        assertTrue(dispatcher.awaitSubmitted(5_000));
+        assertEquals(List.of("test-0"), threads);
+    }
+
+    @Test
+    public void constructor_whenLaneCountIsNotPositive_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new KeyOrderedDispatcher(0, "test-"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.service.stock.consumer;
+
+import com.service.stock.model.Order;
+import com.service.stock.model.OrderStatus;
+import com.service.stock.model.Product;
+import com.service.stock.service.OrderProcessingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class ParallelKafkaConsumerTest {
+
+    @Mock
+    private OrderProcessingService orderProcessingService;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private ParallelKafkaConsumer consumer;
+
+    @BeforeEach
+    public void setUp() {
+        consumer = new ParallelKafkaConsumer(orderProcessingService);
+        ReflectionTestUtils.setField(consumer, "workers", 4);
+        ReflectionTestUtils.setField(consumer, "maxAttempts", 3);
+        ReflectionTestUtils.setField(consumer, "retryBackoffMs", 1L);
+        ReflectionTestUtils.setField(consumer, "drainTimeoutMs", 5_000L);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (ReflectionTestUtils.getField(consumer, "dispatcher") != null) {
+            consumer.shutdown();
+        }
+    }
+
+    @Test
+    public void onOrderReceive_whenOrdersShareProduct_processInOrderAndAcknowledge() {
+        consumer.init();
+        Order first = order(OrderStatus.NEW, 1L);
+        Order second = order(OrderStatus.CONFIRMATION, 1L);
+
+        consumer.onOrderReceive(first, acknowledgment);
+        consumer.onOrderReceive(second, acknowledgment);
+        consumer.onPartitionsRevokedBeforeCommit(null, List.of());
+
+        InOrder inOrder = inOrder(orderProcessingService);
+        inOrder.verify(orderProcessingService).process(first);
+        inOrder.verify(orderProcessingService).process(second);
+        verify(acknowledgment, times(2)).acknowledge();
+    }
+
+    @Test
+    public void onOrderReceive_whenOrderHasSeveralItems_processInOrderWithOrdersOfEachItem() {
+        ReflectionTestUtils.setField(consumer, "workers", 2);
+        consumer.init();
+        Order first = order(OrderStatus.NEW, 2L);
+        Order both = order(OrderStatus.NEW, 1L);
+        Product product = new Product();
+        product.setId(2L);
+        product.setQuantity(1);
+        both.setProducts(List.of(both.getProduct(), product));
+        Order last = order(OrderStatus.NEW, 1L);
+        doAnswer(invocation -> {
+            Thread.sleep(100);
+            return null;
+        }).when(orderProcessingService).process(first);
+
+        consumer.onOrderReceive(first, acknowledgment);
+        consumer.onOrderReceive(both, acknowledgment);
+        consumer.onOrderReceive(last, acknowledgment);
+        consumer.onPartitionsRevokedBeforeCommit(null, List.of());
+
+        InOrder inOrder = inOrder(orderProcessingService);
+        inOrder.verify(orderProcessingService).process(first);
+        inOrder.verify(orderProcessingService).process(both);
+        inOrder.verify(orderProcessingService).process(last);
+        verify(acknowledgment, times(3)).acknowledge();
+    }
+
+    @Test
+    public void onOrderReceive_whenInterruptedWhileRetrying_doNotAcknowledge() {
+        ReflectionTestUtils.setField(consumer, "retryBackoffMs", 60_000L);
+        ReflectionTestUtils.setField(consumer, "drainTimeoutMs", 10L);
+        consumer.init();
+        Order order = order(OrderStatus.NEW, 1L);
+        doThrow(new IllegalStateException("Temporary")).when(orderProcessingService).process(order);
+
+        consumer.onOrderReceive(order, acknowledgment);
+        verify(orderProcessingService, timeout(5_000)).process(order);
+        consumer.shutdown();
+
+        verify(orderProcessingService, after(100).times(1)).process(order);
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    public void onOrderReceive_whenProcessingFailsTemporarily_retryAndAcknowledgeOnce() {
+        consumer.init();
+        Order order = order(OrderStatus.NEW, 1L);
+        doAnswer(invocation -> {
+            order.setStatus(OrderStatus.ACCEPT);
+            throw new RuntimeException();
+        }).doNothing().when(orderProcessingService).process(order);
+
+        consumer.onOrderReceive(order, acknowledgment);
+        consumer.onPartitionsRevokedBeforeCommit(null, List.of());
+
+        verify(orderProcessingService, times(2)).process(order);
+        verify(acknowledgment).acknowledge();
+        assertEquals(OrderStatus.NEW, order.getStatus());
+    }
+
+    @Test
+    public void onOrderReceive_whenProcessingKeepsFailing_skipOrderAfterLastAttempt() {
+        consumer.init();
+        Order order = order(OrderStatus.NEW, null);
+        doThrow(RuntimeException.class).when(orderProcessingService).process(order);
+
+        consumer.onOrderReceive(order, acknowledgment);
+        consumer.onPartitionsRevokedBeforeCommit(null, List.of());
+
+        verify(orderProcessingService, times(3)).process(order);
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    public void init_whenBatchListenerIsEnabled_throwIllegalStateException() {
+        ReflectionTestUtils.setField(consumer, "batchListenerEnabled", true);
+
+        assertThrows(IllegalStateException.class, () -> consumer.init());
+    }
+
+    @Test
+    public void init_whenStockLedgerIsEnabled_throwIllegalStateException() {
+        ReflectionTestUtils.setField(consumer, "stockLedgerEnabled", true);
+
+        assertThrows(IllegalStateException.class, () -> consumer.init());
+    }
+
+    private static Order order(OrderStatus status, Long productId) {
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setStatus(status);
+        if (productId != null) {
+            Product product = new Product();
+            product.setId(productId);
+            product.setQuantity(1);
+            order.setProduct(product);
+        }
+        return order;
+    }
+}
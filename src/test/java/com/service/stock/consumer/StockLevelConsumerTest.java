@@ -0,0 +1,45 @@
+package com.service.stock.consumer;
+
+import com.service.avro.model.AvroStockLevel;
+import com.service.stock.model.ItemStockLevel;
+import com.service.stock.stocklevel.StockLevelStream;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class StockLevelConsumerTest {
+
+    private static final String TOPIC = "stock-levels";
+
+    @Mock
+    private StockLevelStream stockLevelStream;
+
+    private StockLevelConsumer consumer;
+
+    @BeforeEach
+    public void setUp() {
+        consumer = new StockLevelConsumer(stockLevelStream);
+    }
+
+    @Test
+    public void onStockLevelReceive_whenLevel_publishToStream() {
+        consumer.onStockLevelReceive(new ConsumerRecord<>(TOPIC, 0, 0L, "1", new AvroStockLevel(1L, 7L, 3L, 4L)));
+
+        verify(stockLevelStream).publish(new ItemStockLevel(1L, 7L, 3L, 4L));
+        verifyNoMoreInteractions(stockLevelStream);
+    }
+
+    @Test
+    public void onStockLevelReceive_whenTombstone_publishDeletedItem() {
+        consumer.onStockLevelReceive(new ConsumerRecord<>(TOPIC, 0, 0L, "1", null));
+
+        verify(stockLevelStream).deleted(1L);
+        verifyNoMoreInteractions(stockLevelStream);
+    }
+}
@@ -1,25 +1,40 @@
 package com.service.stock.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.service.stock.dto.DtoBatchResponse;
+import com.service.stock.dto.ItemBatchResult;
 import com.service.stock.dto.ItemDto;
 import com.service.stock.dto.DtoSearchResponse;
+import com.service.stock.model.CountMode;
+import com.service.stock.model.ExportFormat;
+import com.service.stock.service.ItemBatchService;
+import com.service.stock.service.ItemExportService;
 import com.service.stock.service.ItemService;
+import com.service.stock.stocklevel.StockLevelStream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest({ItemController.class})
 public class ItemControllerTest {
@@ -27,9 +42,21 @@ public class ItemControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ItemController itemController;
+
     @MockBean
     private ItemService itemService;
 
+    @MockBean
+    private ItemExportService itemExportService;
+
+    @MockBean
+    private ItemBatchService itemBatchService;
+
+    @MockBean
+    private StockLevelStream stockLevelStream;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Test
@@ -132,6 +159,24 @@ public class ItemControllerTest {
         verifyNoMoreInteractions(itemService);
     }
 
+    @Test
+    public void getById_whenSerializedJsonIsEnabled_writeCachedJson() throws Exception {
+        ReflectionTestUtils.setField(itemController, "serializedJson", true);
+        try {
+            String json = "{\"id\":1,\"name\":\"name\",\"stockAvailable\":1000,\"stockReserved\":1000}";
+            when(itemService.findByIdAsJson(1L)).thenReturn(json.getBytes(StandardCharsets.UTF_8));
+
+            mockMvc.perform(get("/api/v1/items/1")).andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(content().json(json));
+
+            verify(itemService).findByIdAsJson(1L);
+            verifyNoMoreInteractions(itemService);
+        } finally {
+            ReflectionTestUtils.setField(itemController, "serializedJson", false);
+        }
+    }
+
     @Test
     public void getById_whenItemIdIsInvalid_statusIsBadRequest() throws Exception {
         mockMvc.perform(get("/api/v1/items/invalid")).andExpect(status().isBadRequest());
@@ -148,15 +193,97 @@ public class ItemControllerTest {
         List<ItemDto> itemDTOList = List.of(itemDto);
         DtoSearchResponse dtoSearchResponse = DtoSearchResponse.builder().data(itemDTOList).build();
 
-        when(itemService.findAll(any())).thenReturn(dtoSearchResponse);
+        when(itemService.findAll(any(), any())).thenReturn(dtoSearchResponse);
 
         mockMvc.perform(get("/api/v1/items")).andExpect(status().isOk())
                 .andExpect(content().json(objectMapper.writeValueAsString(dtoSearchResponse)));
 
-        verify(itemService).findAll(any());
+        verify(itemService).findAll(any(), eq(CountMode.EXACT));
+        verifyNoMoreInteractions(itemService);
+    }
+
+    @Test
+    public void getAll_whenCursorIsGiven_findAllAfter() throws Exception {
+        DtoSearchResponse dtoSearchResponse = DtoSearchResponse.builder().data(List.of()).nextCursor("next").build();
+
+        when(itemService.findAllAfter(eq("cursor"), eq(10), any(), any())).thenReturn(dtoSearchResponse);
+
+        mockMvc.perform(get("/api/v1/items?after=cursor&limit=10&sort=name,desc&count=none"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(dtoSearchResponse)));
+
+        verify(itemService).findAllAfter("cursor", 10, Sort.by(Sort.Direction.DESC, "name"), CountMode.NONE);
         verifyNoMoreInteractions(itemService);
     }
 
+    @Test
+    public void getAll_whenCursorIsCombinedWithOffset_statusIsBadGateway() throws Exception {
+        mockMvc.perform(get("/api/v1/items?after=cursor&offset=10")).andExpect(status().isBadGateway());
+
+        verifyNoInteractions(itemService);
+    }
+
+    @Test
+    public void createAll_success() throws Exception {
+        DtoBatchResponse dtoBatchResponse = DtoBatchResponse.builder().succeeded(1).failed(0).results(List.of(
+                ItemBatchResult.builder().index(0).id(1L).status(ItemBatchResult.Status.CREATED).build())).build();
+        when(itemBatchService.createAll(any())).thenReturn(dtoBatchResponse);
+
+        mockMvc.perform(post("/api/v1/items/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\":\"name\",\"stockAvailable\":1,\"stockReserved\":0}]"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(dtoBatchResponse)));
+
+        verify(itemBatchService).createAll(argThat(itemDtos -> itemDtos.size() == 1));
+    }
+
+    @Test
+    public void updateAll_success() throws Exception {
+        DtoBatchResponse dtoBatchResponse = DtoBatchResponse.builder().succeeded(0).failed(1).results(List.of(
+                ItemBatchResult.builder().index(0).id(1L).status(ItemBatchResult.Status.NOT_FOUND).build())).build();
+        when(itemBatchService.updateAll(any())).thenReturn(dtoBatchResponse);
+
+        mockMvc.perform(patch("/api/v1/items/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":1,\"stockAvailable\":5}]"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(dtoBatchResponse)));
+
+        verify(itemBatchService).updateAll(argThat(itemDtos -> itemDtos.get(0).getId() == 1L));
+        verifyNoInteractions(itemService);
+    }
+
+    @Test
+    public void export_whenFormatIsCsv_streamCsvAttachment() throws Exception {
+        when(itemExportService.export(eq(ExportFormat.CSV), any())).thenAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write("id\n".getBytes());
+            return 0L;
+        });
+
+        MvcResult mvcResult = mockMvc.perform(get("/api/v1/items/export?format=csv"))
+                .andExpect(request().asyncStarted()).andReturn();
+        assertEquals(3_600_000L, mvcResult.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(mvcResult)).andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"items.csv\""))
+                .andExpect(content().string("id\n"));
+
+        verify(itemExportService).export(eq(ExportFormat.CSV), any());
+    }
+
+    @Test
+    public void export_whenFormatIsUnsupported_statusIsBadGateway() throws Exception {
+        mockMvc.perform(get("/api/v1/items/export?format=xml")).andExpect(status().isBadGateway());
+
+        verifyNoInteractions(itemExportService);
+    }
+
+    @Test
+    public void getAll_whenCountModeIsUnsupported_statusIsBadGateway() throws Exception {
+        mockMvc.perform(get("/api/v1/items?count=sometimes")).andExpect(status().isBadGateway());
+
+        verifyNoInteractions(itemService);
+    }
+
     // It is not depends on the parameter selection.
     @Test
     public void getAll_whenLimitIsInvalid_statusIsBadRequest() throws Exception {
@@ -165,4 +292,20 @@ public class ItemControllerTest {
         verifyNoInteractions(itemService);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void stream_whenItemIdsAreGiven_subscribeToItems() throws Exception {
+        mockMvc.perform(get("/api/v1/items/stream?itemIds=1,2").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk());
+
+        verify(stockLevelStream).subscribe(eq(Set.of(1L, 2L)), any(), any());
+        verifyNoInteractions(itemService);
+    }
+
+    @Test
+    public void stream_whenNoItemIdsAreGiven_subscribeToAllItems() throws Exception {
+        mockMvc.perform(get("/api/v1/items/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk());
+
+        verify(stockLevelStream).subscribe(eq(Set.of()), any(), any());
+    }
+}
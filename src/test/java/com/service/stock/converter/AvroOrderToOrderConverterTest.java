@@ -5,9 +5,11 @@ import com.service.avro.model.AvroOrderStatus;
 import com.service.avro.model.AvroProduct;
 import com.service.stock.model.Order;
 import com.service.stock.model.Product;
+import org.apache.avro.util.Utf8;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.NullSource;
 
 import java.util.UUID;
@@ -81,5 +83,33 @@ public class AvroOrderToOrderConverterTest {
         assertEquals(product.getQuantity(), productQuantity);
     }
 
-}
+    @Test
+    public void convert_whenIdIsUtf8_parseUuid() {
+        UUID uuid = UUID.randomUUID();
+        AvroOrder avroOrder = new AvroOrder();
+        avroOrder.setId(new Utf8(uuid.toString()));
+        avroOrder.setSource(new Utf8("Source"));
+
+        Order order = converter.convert(avroOrder);
+
+        assertEquals(uuid, order.getId());
+        assertEquals("Source", order.getSource());
+    }
+
+    @Test
+    public void convert_whenIdIsNotUuid_throwIllegalArgumentException() {
+        AvroOrder avroOrder = new AvroOrder();
+        avroOrder.setId("not-a-uuid");
 
+        assertThrows(IllegalArgumentException.class, () -> converter.convert(avroOrder));
+    }
+
+    @ParameterizedTest
+    @EnumSource(AvroOrderStatus.class)
+    public void convert_mapEveryStatusByName(AvroOrderStatus status) {
+        AvroOrder avroOrder = new AvroOrder();
+        avroOrder.setStatus(status);
+
+        assertEquals(status.name(), converter.convert(avroOrder).getStatus().name());
+    }
+}
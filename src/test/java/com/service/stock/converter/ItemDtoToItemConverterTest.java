@@ -34,6 +34,7 @@ public class ItemDtoToItemConverterTest {
         assertEquals(item.getId(), itemDto.getId());
         assertEquals(item.getName(), itemDto.getName());
         assertEquals(item.getStockAvailable(), itemDto.getStockAvailable());
+        assertEquals(item.getStockReserved(), itemDto.getStockReserved());
     }
 
     @Test
@@ -43,4 +43,48 @@ public class ItemFromItemDtoUpdaterTest {
         assertThrows(IllegalArgumentException.class,
                 () -> itemFromItemDtoUpdater.update(new ItemDto(), nullItem));
     }
+
+    @Test
+    public void update_whenItemDtoFieldsAreNull_keepItemFields() {
+        Item item = new Item(1L, "Name", 10L, 5L);
+
+        itemFromItemDtoUpdater.update(new ItemDto(), item);
+
+        assertEquals(1L, item.getId());
+        assertEquals("Name", item.getName());
+        assertEquals(10L, item.getStockAvailable());
+        assertEquals(5L, item.getStockReserved());
+    }
+
+    @Test
+    public void update_whenSomeItemDtoFieldsAreSet_copyOnlyThoseFields() {
+        Item item = new Item(1L, "Name", 10L, 5L);
+        ItemDto itemDto = new ItemDto();
+        itemDto.setName("New Name");
+        itemDto.setStockReserved(0L);
+
+        itemFromItemDtoUpdater.update(itemDto, item);
+
+        assertEquals(1L, item.getId());
+        assertEquals("New Name", item.getName());
+        assertEquals(10L, item.getStockAvailable());
+        assertEquals(0L, item.getStockReserved());
+    }
+
+    @Test
+    public void update_whenAllItemDtoFieldsAreSet_copyAllFields() {
+        Item item = new Item(1L, "Name", 10L, 5L);
+        ItemDto itemDto = new ItemDto();
+        itemDto.setId(2L);
+        itemDto.setName("New Name");
+        itemDto.setStockAvailable(20L);
+        itemDto.setStockReserved(0L);
+
+        itemFromItemDtoUpdater.update(itemDto, item);
+
+        assertEquals(2L, item.getId());
+        assertEquals("New Name", item.getName());
+        assertEquals(20L, item.getStockAvailable());
+        assertEquals(0L, item.getStockReserved());
+    }
 }
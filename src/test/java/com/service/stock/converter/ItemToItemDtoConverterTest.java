@@ -34,6 +34,7 @@ public class ItemToItemDtoConverterTest {
         assertEquals(itemDto.getId(), item.getId());
         assertEquals(itemDto.getName(), item.getName());
         assertEquals(itemDto.getStockAvailable(), item.getStockAvailable());
+        assertEquals(itemDto.getStockReserved(), item.getStockReserved());
     }
 
     @Test
@@ -8,8 +8,10 @@ import com.service.stock.model.Product;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.NullSource;
 
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -81,4 +83,53 @@ public class OrderToAvroOrderConverterTest {
         assertEquals(avroProduct.getQuantity(), productQuantity);
     }
 
+    @ParameterizedTest
+    @EnumSource(OrderStatus.class)
+    public void convert_mapEveryStatusByName(OrderStatus status) {
+        Order order = new Order();
+        order.setStatus(status);
+
+        assertEquals(status.name(), converter.convert(order).getStatus().name());
+    }
+
+    @Test
+    public void convert_whenConvertedBack_keepAllFields() {
+        Product product = new Product();
+        product.setId(1L);
+        product.setQuantity(2);
+        product.setPrice(300L);
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setCustomerId(4L);
+        order.setProduct(product);
+        order.setStatus(OrderStatus.ACCEPT);
+        order.setSource("Source");
+
+        Order convertedBack = new AvroOrderToOrderConverter().convert(converter.convert(order));
+
+        assertEquals(order, convertedBack);
+    }
+
+    @Test
+    public void convert_whenOrderHasProducts_keepAllProductsInOrder() {
+        Product first = new Product();
+        first.setId(2L);
+        first.setQuantity(1);
+        first.setPrice(10L);
+        Product second = new Product();
+        second.setId(1L);
+        second.setQuantity(3);
+        second.setPrice(20L);
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setProducts(List.of(first, second));
+        order.setStatus(OrderStatus.NEW);
+
+        AvroOrder avroOrder = converter.convert(order);
+        Order convertedBack = new AvroOrderToOrderConverter().convert(avroOrder);
+
+        assertNull(avroOrder.getProduct());
+        assertEquals(List.of(2L, 1L), avroOrder.getProducts().stream().map(AvroProduct::getId).toList());
+        assertEquals(order, convertedBack);
+    }
 }
@@ -0,0 +1,75 @@
+package com.service.stock.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+public class TimedDeserializerTest {
+
+    private static final String TOPIC = "orders";
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @Mock
+    private Deserializer<String> delegate;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    public void configure_whenDelegateClassIsConfigured_instantiateDelegate() {
+        TimedDeserializer<Object> deserializer = new TimedDeserializer<>(meterRegistry, null);
+        deserializer.configure(Map.of(TimedDeserializer.DELEGATE_CLASS_CONFIG, StringDeserializer.class.getName()),
+                false);
+
+        assertEquals("value", deserializer.deserialize(TOPIC, "value".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void configure_whenDelegateClassIsMissing_throwIllegalStateException() {
+        TimedDeserializer<Object> deserializer = new TimedDeserializer<>(meterRegistry, null);
+
+        assertThrows(IllegalStateException.class, () -> deserializer.configure(Map.of(), false));
+    }
+
+    @Test
+    public void deserialize_whenDelegateSucceeds_recordSuccess() {
+        TimedDeserializer<String> deserializer = new TimedDeserializer<>(meterRegistry, delegate);
+        when(delegate.deserialize(TOPIC, new byte[0])).thenReturn("value");
+
+        assertEquals("value", deserializer.deserialize(TOPIC, new byte[0]));
+
+        assertEquals(1, meterRegistry.get(OrderMetrics.DESERIALIZATION_TIMER_NAME).tag("topic", TOPIC)
+                .tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    public void deserialize_whenDelegateFails_recordFailureAndRethrow() {
+        TimedDeserializer<String> deserializer = new TimedDeserializer<>(meterRegistry, delegate);
+        when(delegate.deserialize(any(), any(byte[].class)))
+                .thenThrow(new SerializationException("Unknown magic byte"));
+
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPIC, new byte[0]));
+
+        assertEquals(1, meterRegistry.get(OrderMetrics.DESERIALIZATION_TIMER_NAME).tag("outcome", "failure")
+                .timer().count());
+        assertEquals(1, meterRegistry.get(OrderMetrics.ERROR_COUNTER_NAME).tag("operation", "deserialization")
+                .tag("reason", "SerializationException").counter().count());
+    }
+}
@@ -0,0 +1,92 @@
+package com.service.stock.movement;
+
+import com.service.stock.model.StockMovement;
+import com.service.stock.repository.StockMovementRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class StockMovementLogTest {
+
+    private StockMovementLog stockMovementLog;
+
+    @Mock
+    private StockMovementRepository stockMovementRepository;
+
+    @BeforeEach
+    public void setUp() {
+        stockMovementLog = new StockMovementLog(stockMovementRepository);
+        ReflectionTestUtils.setField(stockMovementLog, "enabled", true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(stockMovementLog);
+    }
+
+    @Test
+    public void record_whenDisabled_doNothing() {
+        ReflectionTestUtils.setField(stockMovementLog, "enabled", false);
+
+        stockMovementLog.record(StockMovement.reserve(1L, 1, UUID.randomUUID()));
+
+        verifyNoInteractions(stockMovementRepository);
+    }
+
+    @Test
+    public void record_whenNoTransactionIsActive_saveImmediately() {
+        StockMovement movement = StockMovement.reserve(1L, 1, UUID.randomUUID());
+
+        stockMovementLog.record(movement);
+
+        verify(stockMovementRepository).saveAll(List.of(movement));
+    }
+
+    @Test
+    public void record_whenTransactionIsActive_saveAllMovementsWithOneBatchBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        StockMovement first = StockMovement.reserve(1L, 1, UUID.randomUUID());
+        StockMovement second = StockMovement.confirm(2L, 3, UUID.randomUUID());
+
+        stockMovementLog.record(first);
+        stockMovementLog.record(List.of(second));
+
+        verify(stockMovementRepository, never()).saveAll(any());
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        synchronizations.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        verify(stockMovementRepository).saveAll(List.of(first, second));
+        assertNull(TransactionSynchronizationManager.getResource(stockMovementLog));
+    }
+
+    @Test
+    public void record_whenTransactionRollsBack_doNotSave() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        stockMovementLog.record(StockMovement.reserve(1L, 1, UUID.randomUUID()));
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verifyNoInteractions(stockMovementRepository);
+        assertNull(TransactionSynchronizationManager.getResource(stockMovementLog));
+    }
+}
@@ -0,0 +1,128 @@
+package com.service.stock.movement;
+
+import com.service.stock.cache.ItemCache;
+import com.service.stock.exception.ServiceException;
+import com.service.stock.repository.StockMovementRepository;
+import com.service.stock.stocklevel.StockLevelPublisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class StockRebuilderTest {
+
+    private StockRebuilder stockRebuilder;
+
+    @Mock
+    private StockMovementRepository stockMovementRepository;
+
+    @Mock
+    private ItemCache itemCache;
+
+    @Mock
+    private StockLevelPublisher stockLevelPublisher;
+
+    @BeforeEach
+    public void setUp() {
+        stockRebuilder = new StockRebuilder(stockMovementRepository, itemCache, stockLevelPublisher);
+        ReflectionTestUtils.setField(stockRebuilder, "enabled", true);
+        ReflectionTestUtils.setField(stockRebuilder, "rebuildThreads", 2);
+        ReflectionTestUtils.setField(stockRebuilder, "rangeSize", 10L);
+        when(stockMovementRepository.findLogEnabledSince()).thenReturn(Optional.of(Instant.EPOCH));
+    }
+
+    @Test
+    public void rebuild_whenDisabled_throwIllegalStateException() {
+        ReflectionTestUtils.setField(stockRebuilder, "enabled", false);
+
+        assertThrows(IllegalStateException.class, () -> stockRebuilder.rebuild());
+
+        verifyNoInteractions(stockMovementRepository);
+    }
+
+    @Test
+    public void rebuild_always_rebuildEveryRangeAndInvalidateCorrectedItems() {
+        when(stockMovementRepository.findItemIdRange()).thenReturn(Optional.of(new long[]{5L, 30L}));
+        when(stockMovementRepository.rebuild(5L, 14L)).thenReturn(List.of(7L));
+        when(stockMovementRepository.rebuild(15L, 24L)).thenReturn(List.of());
+        when(stockMovementRepository.rebuild(25L, 30L)).thenReturn(List.of(25L, 30L));
+
+        assertEquals(3, stockRebuilder.rebuild());
+
+        verify(itemCache).invalidateAll(List.of(7L));
+        verify(itemCache).invalidateAll(List.of(25L, 30L));
+        verify(stockLevelPublisher).changed(List.of(7L));
+        verify(stockLevelPublisher).changed(List.of(25L, 30L));
+    }
+
+    @Test
+    public void rebuild_whenThereAreNoItems_returnZero() {
+        when(stockMovementRepository.findItemIdRange()).thenReturn(Optional.empty());
+
+        assertEquals(0, stockRebuilder.rebuild());
+
+        verify(stockMovementRepository, never()).rebuild(anyLong(), anyLong());
+    }
+
+    @Test
+    public void rebuild_whenRangeFails_throwServiceException() {
+        when(stockMovementRepository.findItemIdRange()).thenReturn(Optional.of(new long[]{1L, 1L}));
+        when(stockMovementRepository.rebuild(1L, 1L)).thenThrow(new QueryTimeoutException("Timeout"));
+
+        assertThrows(ServiceException.class, () -> stockRebuilder.rebuild());
+    }
+
+    @Test
+    public void rebuild_whenLogWasOffSinceSnapshot_throwIllegalStateException() {
+        when(stockMovementRepository.findLogEnabledSince()).thenReturn(Optional.empty());
+
+        assertThrows(IllegalStateException.class, () -> stockRebuilder.rebuild());
+
+        verify(stockMovementRepository, never()).rebuild(anyLong(), anyLong());
+    }
+
+    @Test
+    public void startLog_whenLogIsSwitchedOn_seedEveryRangeAndMarkLog() {
+        when(stockMovementRepository.findLogEnabledSince()).thenReturn(Optional.empty());
+        when(stockMovementRepository.findItemIdRange()).thenReturn(Optional.of(new long[]{5L, 20L}));
+        when(stockMovementRepository.seed(anyLong(), anyLong())).thenReturn(1);
+
+        stockRebuilder.startLog();
+
+        InOrder inOrder = inOrder(stockMovementRepository);
+        inOrder.verify(stockMovementRepository).seed(5L, 14L);
+        inOrder.verify(stockMovementRepository).seed(15L, 20L);
+        inOrder.verify(stockMovementRepository).markLogEnabled();
+    }
+
+    @Test
+    public void startLog_whenLogWasAlreadyOn_doNotSeed() {
+        stockRebuilder.startLog();
+
+        verify(stockMovementRepository, never()).seed(anyLong(), anyLong());
+        verify(stockMovementRepository, never()).markLogEnabled();
+    }
+
+    @Test
+    public void startLog_whenLogIsOff_removeMarker() {
+        ReflectionTestUtils.setField(stockRebuilder, "enabled", false);
+
+        stockRebuilder.startLog();
+
+        verify(stockMovementRepository).markLogDisabled();
+        verifyNoMoreInteractions(stockMovementRepository);
+    }
+}
@@ -0,0 +1,73 @@
+package com.service.stock.movement;
+
+import com.service.stock.repository.StockMovementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class StockSnapshotCompactorTest {
+
+    private StockSnapshotCompactor compactor;
+
+    @Mock
+    private StockMovementRepository stockMovementRepository;
+
+    @BeforeEach
+    public void setUp() {
+        compactor = new StockSnapshotCompactor(stockMovementRepository);
+        ReflectionTestUtils.setField(compactor, "enabled", true);
+        ReflectionTestUtils.setField(compactor, "snapshotLagMs", 60_000L);
+        ReflectionTestUtils.setField(compactor, "rangeSize", 100L);
+    }
+
+    @Test
+    public void compact_whenDisabled_doNothing() {
+        ReflectionTestUtils.setField(compactor, "enabled", false);
+
+        compactor.compact();
+
+        verifyNoInteractions(stockMovementRepository);
+    }
+
+    @Test
+    public void compact_always_compactEveryItemRangeUpToLastSettledMovement() {
+        when(stockMovementRepository.findLastIdBefore(any())).thenReturn(Optional.of(42L));
+        when(stockMovementRepository.findItemIdRange()).thenReturn(Optional.of(new long[]{1L, 250L}));
+
+        compactor.compact();
+
+        verify(stockMovementRepository).compact(1L, 100L, 42L);
+        verify(stockMovementRepository).compact(101L, 200L, 42L);
+        verify(stockMovementRepository).compact(201L, 250L, 42L);
+        verify(stockMovementRepository, times(3)).compact(anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void compact_whenThereAreNoMovements_doNotCompact() {
+        when(stockMovementRepository.findLastIdBefore(any())).thenReturn(Optional.empty());
+        when(stockMovementRepository.findItemIdRange()).thenReturn(Optional.of(new long[]{1L, 250L}));
+
+        compactor.compact();
+
+        verify(stockMovementRepository, never()).compact(anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void compact_whenRepositoryThrowsExceptionExtendsDataAccessException_doNotThrow() {
+        when(stockMovementRepository.findLastIdBefore(any())).thenThrow(new QueryTimeoutException("Timeout"));
+
+        assertDoesNotThrow(() -> compactor.compact());
+    }
+}
@@ -0,0 +1,44 @@
+package com.service.stock.peageable;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeysetCursorTest {
+
+    @Test
+    public void decode_whenTokenWasEncoded_returnSameCursor() {
+        KeysetCursor cursor = new KeysetCursor("name", Sort.Direction.DESC, 42L, "multi\nline name");
+
+        assertEquals(cursor, KeysetCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    public void decode_whenTokenIsNotBase64_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a cursor!"));
+    }
+
+    @Test
+    public void decode_whenTokenIsIncomplete_throwIllegalArgumentException() {
+        String token = new KeysetCursor("name", Sort.Direction.ASC, 1L, "a").encode().substring(0, 6);
+
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(token));
+    }
+
+    @Test
+    public void decode_whenIdIsNotNumber_throwIllegalArgumentException() {
+        String token = java.util.Base64.getUrlEncoder().encodeToString("name\nASC\nx\na".getBytes());
+
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(token));
+    }
+
+    @Test
+    public void matches_whenSortDiffers_returnFalse() {
+        KeysetCursor cursor = new KeysetCursor("name", Sort.Direction.ASC, 1L, "a");
+
+        assertTrue(cursor.matches(Sort.Order.asc("name")));
+        assertFalse(cursor.matches(Sort.Order.desc("name")));
+        assertFalse(cursor.matches(Sort.Order.asc("id")));
+    }
+}
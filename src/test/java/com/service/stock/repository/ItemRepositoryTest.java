@@ -1,6 +1,7 @@
 package com.service.stock.repository;
 
 import com.service.stock.entity.Item;
+import com.service.stock.peageable.KeysetCursor;
 import org.flywaydb.core.Flyway;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -10,10 +11,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
@@ -120,4 +125,123 @@ public class ItemRepositoryTest {
         assertNull(itemFromDb);
         assertEquals(0, itemRepository.findAll().size());
     }
+
+    @Test
+    public void reserveStock_whenEnoughStockAvailable_updateOneRow() {
+        Item item = persistItem(10L, 0L);
+
+        assertEquals(1, itemRepository.reserveStock(item.getId(), 4));
+
+        entityManager.clear();
+        Item itemFromDb = entityManager.find(Item.class, item.getId());
+        assertEquals(6L, itemFromDb.getStockAvailable());
+        assertEquals(4L, itemFromDb.getStockReserved());
+    }
+
+    @Test
+    public void reserveStock_whenNotEnoughStockAvailable_updateNoRows() {
+        Item item = persistItem(3L, 0L);
+
+        assertEquals(0, itemRepository.reserveStock(item.getId(), 4));
+
+        entityManager.clear();
+        Item itemFromDb = entityManager.find(Item.class, item.getId());
+        assertEquals(3L, itemFromDb.getStockAvailable());
+        assertEquals(0L, itemFromDb.getStockReserved());
+    }
+
+    @Test
+    public void releaseStock_whenEnoughStockReserved_updateOneRow() {
+        Item item = persistItem(6L, 4L);
+
+        assertEquals(1, itemRepository.releaseStock(item.getId(), 4));
+
+        entityManager.clear();
+        Item itemFromDb = entityManager.find(Item.class, item.getId());
+        assertEquals(10L, itemFromDb.getStockAvailable());
+        assertEquals(0L, itemFromDb.getStockReserved());
+    }
+
+    @Test
+    public void confirmStock_whenNotEnoughStockReserved_updateNoRows() {
+        Item item = persistItem(6L, 1L);
+
+        assertEquals(0, itemRepository.confirmStock(item.getId(), 4));
+        assertEquals(1, itemRepository.confirmStock(item.getId(), 1));
+
+        entityManager.clear();
+        Item itemFromDb = entityManager.find(Item.class, item.getId());
+        assertEquals(6L, itemFromDb.getStockAvailable());
+        assertEquals(0L, itemFromDb.getStockReserved());
+    }
+
+    @Test
+    public void findPageAfter_whenSortedByName_seekPastCursor() {
+        Item first = persistItem("a", 1L);
+        Item second = persistItem("b", 1L);
+        Item third = persistItem("b", 1L);
+        Item fourth = persistItem("c", 1L);
+
+        List<Item> firstPage = itemRepository.findPageAfter(ItemSortColumn.NAME, Sort.Direction.ASC, null, 2);
+        assertEquals(List.of(first.getId(), second.getId()), firstPage.stream().map(Item::getId).toList());
+
+        KeysetCursor cursor = new KeysetCursor("name", Sort.Direction.ASC, second.getId(), "b");
+        List<Item> secondPage = itemRepository.findPageAfter(ItemSortColumn.NAME, Sort.Direction.ASC, cursor, 2);
+        assertEquals(List.of(third.getId(), fourth.getId()), secondPage.stream().map(Item::getId).toList());
+    }
+
+    @Test
+    public void findPageAfter_whenSortedByStockDescending_seekPastCursor() {
+        persistItem("a", 3L);
+        Item second = persistItem("b", 2L);
+        Item third = persistItem("c", 2L);
+        persistItem("d", 1L);
+
+        KeysetCursor cursor = new KeysetCursor("stockAvailable", Sort.Direction.DESC, third.getId(), "2");
+        List<Item> page = itemRepository.findPageAfter(ItemSortColumn.STOCK_AVAILABLE, Sort.Direction.DESC, cursor, 1);
+
+        assertEquals(List.of(second.getId()), page.stream().map(Item::getId).toList());
+    }
+
+    @Test
+    public void findPageAfter_whenSortedById_seekPastCursor() {
+        Item first = persistItem(1L, 0L);
+        Item second = persistItem(1L, 0L);
+
+        KeysetCursor cursor = new KeysetCursor("id", Sort.Direction.ASC, first.getId(), first.getId().toString());
+        List<Item> page = itemRepository.findPageAfter(ItemSortColumn.ID, Sort.Direction.ASC, cursor, 10);
+
+        assertEquals(List.of(second.getId()), page.stream().map(Item::getId).toList());
+    }
+
+    @Test
+    public void streamAll_success() {
+        Item first = persistItem(1L, 0L);
+        Item second = persistItem(2L, 0L);
+
+        try (Stream<Item> items = itemRepository.streamAll()) {
+            assertEquals(List.of(first.getId(), second.getId()), items.map(Item::getId).toList());
+        }
+        assertFalse(entityManager.getEntityManager().contains(first));
+    }
+
+    private Item persistItem(String name, Long stockAvailable) {
+        Item item = new Item();
+        item.setName(name);
+        item.setStockAvailable(stockAvailable);
+        item.setStockReserved(0L);
+
+        entityManager.persistAndFlush(item);
+        return item;
+    }
+
+    private Item persistItem(Long stockAvailable, Long stockReserved) {
+        Item item = new Item();
+        item.setName("test");
+        item.setStockAvailable(stockAvailable);
+        item.setStockReserved(stockReserved);
+
+        entityManager.persistAndFlush(item);
+        return item;
+    }
 }
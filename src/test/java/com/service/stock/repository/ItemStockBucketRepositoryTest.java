@@ -0,0 +1,131 @@
+package com.service.stock.repository;
+
+import com.service.stock.entity.Item;
+import com.service.stock.reservation.StockDelta;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(ItemStockBucketRepository.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class ItemStockBucketRepositoryTest {
+
+    private static final String DATABASE_NAME = "databaseName";
+    private static final String DATABASE_USERNAME = "databaseName";
+    private static final String DATABASE_USER_PASSWORD = "databaseName";
+
+    public static PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:latest").withDatabaseName(DATABASE_NAME).withUsername(DATABASE_USERNAME)
+                    .withPassword(DATABASE_USER_PASSWORD).withReuse(true);
+
+    @Autowired
+    ItemStockBucketRepository itemStockBucketRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.flyway.cleanDisabled", () -> false);
+    }
+
+    @BeforeEach
+    void clearDatabase(@Autowired Flyway flyway) {
+        flyway.clean();
+        flyway.migrate();
+    }
+
+    @Test
+    public void rebalance_spreadAvailableStockAndKeepRemainderInItemRow() {
+        Long id = saveItem(103L, 5L);
+
+        assertEquals(4, itemStockBucketRepository.rebalance(id, 4, 10L));
+
+        assertEquals(Map.of(id, 4), itemStockBucketRepository.findBucketCounts());
+        assertEquals(3L, stockAvailableOfItemRow(id));
+        StockDelta bucketStock = itemStockBucketRepository.findStripedStock(List.of(id)).get(id);
+        assertEquals(100L, bucketStock.getAvailableDelta());
+        assertEquals(0L, bucketStock.getReservedDelta());
+    }
+
+    @Test
+    public void rebalance_whenStockIsTooLowForBuckets_collapse() {
+        Long id = saveItem(100L, 0L);
+        itemStockBucketRepository.rebalance(id, 4, 10L);
+        assertEquals(20L, itemStockBucketRepository.apply(id, 0, -5L, 5L));
+
+        assertEquals(0, itemStockBucketRepository.rebalance(id, 4, 30L));
+
+        assertTrue(itemStockBucketRepository.findBucketCounts().isEmpty());
+        assertEquals(95L, stockAvailableOfItemRow(id));
+    }
+
+    @Test
+    public void apply_whenBucketDoesNotAllowChange_returnMinusOne() {
+        Long id = saveItem(40L, 0L);
+        itemStockBucketRepository.rebalance(id, 4, 10L);
+
+        assertEquals(-1L, itemStockBucketRepository.apply(id, 1, -11L, 11L));
+        assertEquals(-1L, itemStockBucketRepository.apply(id, 7, -1L, 1L));
+        assertEquals(0L, itemStockBucketRepository.apply(id, 1, -10L, 10L));
+    }
+
+    @Test
+    public void collapse_foldBucketsIntoItemRow() {
+        Long id = saveItem(40L, 2L);
+        Long otherId = saveItem(1L, 0L);
+        itemStockBucketRepository.rebalance(id, 4, 10L);
+        itemStockBucketRepository.apply(id, 2, -3L, 3L);
+
+        assertEquals(Set.of(id), itemStockBucketRepository.collapse(List.of(id, otherId)));
+
+        Item item = itemRepository.findById(id).orElseThrow();
+        assertEquals(37L, item.getStockAvailable());
+        assertEquals(5L, item.getStockReserved());
+        assertTrue(itemStockBucketRepository.findAllStripedStock().isEmpty());
+    }
+
+    private Long saveItem(long stockAvailable, long stockReserved) {
+        Long id = jdbcTemplate.queryForObject("SELECT nextval('item_seq')", Long.class);
+        jdbcTemplate.update("INSERT INTO item (id, name, stock_available, stock_reserved) VALUES (?, 'hot', ?, ?)",
+                id, stockAvailable, stockReserved);
+        return id;
+    }
+
+    private long stockAvailableOfItemRow(Long id) {
+        return jdbcTemplate.queryForObject("SELECT stock_available FROM item WHERE id = ?", Long.class, id);
+    }
+}
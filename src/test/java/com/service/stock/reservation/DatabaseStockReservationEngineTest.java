@@ -0,0 +1,128 @@
+package com.service.stock.reservation;
+
+import com.service.stock.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class DatabaseStockReservationEngineTest {
+
+    private DatabaseStockReservationEngine engine;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private StockStriping stockStriping;
+
+    @Mock
+    private ReservationCoalescer reservationCoalescer;
+
+    @BeforeEach
+    public void setUp() {
+        this.engine = new DatabaseStockReservationEngine(itemRepository, stockStriping, reservationCoalescer);
+    }
+
+    @Test
+    public void reserve_whenRowUpdated_returnTrue() {
+        when(itemRepository.reserveStock(1L, 2L)).thenReturn(1);
+
+        assertTrue(engine.reserve(1L, 2L));
+
+        verify(itemRepository).reserveStock(1L, 2L);
+        verifyNoMoreInteractions(itemRepository);
+    }
+
+    @Test
+    public void reserve_whenNoRowUpdated_returnFalse() {
+        when(itemRepository.reserveStock(1L, 2L)).thenReturn(0);
+
+        assertFalse(engine.reserve(1L, 2L));
+
+        verify(stockStriping).recordReservation(1L);
+        verify(stockStriping).collapseIfStriped(1L);
+    }
+
+    @Test
+    public void reserve_whenBucketUpdated_doNotUpdateItemRow() {
+        when(stockStriping.apply(1L, -2L, 2L)).thenReturn(true);
+
+        assertTrue(engine.reserve(1L, 2L));
+
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    public void reserve_whenBucketsAndItemRowRefuse_retryItemRowAfterCollapse() {
+        when(itemRepository.reserveStock(1L, 2L)).thenReturn(0, 1);
+        when(stockStriping.collapseIfStriped(1L)).thenReturn(true);
+
+        assertTrue(engine.reserve(1L, 2L));
+
+        verify(stockStriping).apply(1L, -2L, 2L);
+        verify(itemRepository, times(2)).reserveStock(1L, 2L);
+    }
+
+    @Test
+    public void reserve_whenCoalescingIsEnabled_reserveThroughCoalescer() {
+        when(reservationCoalescer.isEnabled()).thenReturn(true);
+        when(reservationCoalescer.reserve(1L, 2L)).thenReturn(true);
+
+        assertTrue(engine.reserve(1L, 2L));
+
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    public void reserve_whenCoalescingIsEnabledInTransaction_reserveItemRowDirectly() {
+        when(reservationCoalescer.isEnabled()).thenReturn(true);
+        when(itemRepository.reserveStock(1L, 2L)).thenReturn(1);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertTrue(engine.reserve(1L, 2L));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        verify(reservationCoalescer, never()).reserve(any(), anyLong());
+    }
+
+    @Test
+    public void release_whenRowUpdated_returnTrue() {
+        when(itemRepository.releaseStock(1L, 2L)).thenReturn(1);
+
+        assertTrue(engine.release(1L, 2L));
+
+        verify(itemRepository).releaseStock(1L, 2L);
+        verifyNoMoreInteractions(itemRepository);
+    }
+
+    @Test
+    public void confirm_whenNoRowUpdated_returnFalse() {
+        when(itemRepository.confirmStock(1L, 2L)).thenReturn(0);
+
+        assertFalse(engine.confirm(1L, 2L));
+
+        verify(itemRepository).confirmStock(1L, 2L);
+        verifyNoMoreInteractions(itemRepository);
+    }
+
+    @Test
+    public void consolidate_collapseStripedItems() {
+        engine.consolidate(List.of(1L, 2L));
+
+        verify(stockStriping).collapse(List.of(1L, 2L));
+    }
+}
@@ -0,0 +1,91 @@
+package com.service.stock.reservation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HierarchicalTimingWheelTest {
+
+    @Test
+    public void constructor_whenWheelHasOneSlot_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new HierarchicalTimingWheel<>(10, 1, 0));
+    }
+
+    @Test
+    public void advance_whenDeadlineIsInFirstLevel_expireAtDeadline() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 1000);
+        wheel.schedule("a", 1030);
+
+        assertEquals(List.of(), advance(wheel, 1029));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("a"), advance(wheel, 1030));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void advance_whenDeadlineIsBetweenTicks_expireAtNextTick() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 1000);
+        wheel.schedule("a", 1031);
+
+        assertEquals(List.of(), advance(wheel, 1039));
+        assertEquals(List.of("a"), advance(wheel, 1040));
+    }
+
+    @Test
+    public void advance_whenDeadlineHasPassed_expireImmediately() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 1000);
+        wheel.schedule("a", 500);
+
+        assertEquals(List.of("a"), advance(wheel, 1000));
+    }
+
+    @Test
+    public void advance_whenDeadlineIsBeyondFirstLevels_cascadeDownAndExpireAtDeadline() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1, 4, 0);
+        wheel.schedule("a", 1000);
+        wheel.schedule("b", 70);
+
+        assertEquals(List.of(), advance(wheel, 69));
+        assertEquals(2, wheel.size());
+        assertEquals(List.of("b"), advance(wheel, 70));
+        assertEquals(List.of(), advance(wheel, 999));
+        assertEquals(List.of("a"), advance(wheel, 1000));
+    }
+
+    @Test
+    public void advance_whenManyRandomDeadlines_expireEachExactlyOnceAtItsTick() {
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(1, 8, 0);
+        Random random = new Random(42);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            long deadline = random.nextInt(5_000);
+            deadlines.put(i, deadline);
+            wheel.schedule(i, deadline);
+        }
+
+        Map<Integer, Long> expiredAt = new HashMap<>();
+        for (long now = 0; now <= 5_000; now += 1 + random.nextInt(3)) {
+            long tick = now;
+            wheel.advance(now, value -> assertNull(expiredAt.put(value, tick)));
+        }
+
+        assertEquals(deadlines.size(), expiredAt.size());
+        deadlines.forEach((value, deadline) -> {
+            assertTrue(expiredAt.get(value) >= deadline);
+            assertTrue(expiredAt.get(value) <= deadline + 3);
+        });
+        assertEquals(0, wheel.size());
+    }
+
+    private static <T> List<T> advance(HierarchicalTimingWheel<T> wheel, long nowMs) {
+        List<T> expired = new ArrayList<>();
+        wheel.advance(nowMs, expired::add);
+        return expired;
+    }
+}
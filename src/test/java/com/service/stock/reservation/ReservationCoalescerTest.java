@@ -0,0 +1,141 @@
+package com.service.stock.reservation;
+
+import com.service.stock.repository.ItemRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class ReservationCoalescerTest {
+
+    private ReservationCoalescer reservationCoalescer;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        reservationCoalescer = new ReservationCoalescer(itemRepository, transactionTemplate, meterRegistry);
+        ReflectionTestUtils.setField(reservationCoalescer, "enabled", true);
+        ReflectionTestUtils.setField(reservationCoalescer, "windowMs", 1L);
+        ReflectionTestUtils.setField(reservationCoalescer, "maxGroupSize", 3);
+        reservationCoalescer.init();
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+    }
+
+    @Test
+    public void init_whenExactlyOnceIsEnabled_throwIllegalStateException() {
+        ReflectionTestUtils.setField(reservationCoalescer, "exactlyOnceEnabled", true);
+
+        assertThrows(IllegalStateException.class, () -> reservationCoalescer.init());
+    }
+
+    @Test
+    public void reserve_whenAlone_applyGroupOfOne() {
+        when(itemRepository.findStockAvailableForUpdate(1L)).thenReturn(Optional.of(5L));
+
+        assertTrue(reservationCoalescer.reserve(1L, 2L));
+
+        verify(itemRepository).reserveStock(1L, 2L);
+        assertEquals(1, groupSizes().count());
+    }
+
+    @Test
+    public void reserve_whenStockIsInsufficient_returnFalseWithoutUpdate() {
+        when(itemRepository.findStockAvailableForUpdate(1L)).thenReturn(Optional.of(1L));
+
+        assertFalse(reservationCoalescer.reserve(1L, 2L));
+
+        verify(itemRepository, never()).reserveStock(anyLong(), anyLong());
+    }
+
+    @Test
+    public void reserve_whenAlone_doNotWaitForWindow() {
+        ReflectionTestUtils.setField(reservationCoalescer, "windowMs", 60_000L);
+        when(itemRepository.findStockAvailableForUpdate(1L)).thenReturn(Optional.of(5L));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertTrue(reservationCoalescer.reserve(1L, 2L)));
+    }
+
+    @Test
+    public void reserve_whenConcurrentWithAppliedGroup_applyNextGroupWithOneUpdateUntilStockRunsOut()
+            throws Exception {
+        ReflectionTestUtils.setField(reservationCoalescer, "windowMs", 10_000L);
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(itemRepository.findStockAvailableForUpdate(1L))
+                .thenAnswer(invocation -> {
+                    applying.countDown();
+                    release.await();
+                    return Optional.of(14L);
+                })
+                .thenReturn(Optional.of(10L));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<Boolean> first = executor.submit(() -> reservationCoalescer.reserve(1L, 4L));
+            assertTrue(applying.await(10, TimeUnit.SECONDS));
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                results.add(executor.submit(() -> reservationCoalescer.reserve(1L, 4L)));
+            }
+            // The three wait for each other, as the first reservation is still in flight
+            verify(itemRepository, timeout(10_000).times(2)).findStockAvailableForUpdate(1L);
+            release.countDown();
+
+            assertTrue(first.get());
+            int accepted = 0;
+            for (Future<Boolean> result : results) {
+                accepted += result.get() ? 1 : 0;
+            }
+            assertEquals(2, accepted);
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(itemRepository, times(2)).findStockAvailableForUpdate(1L);
+        verify(itemRepository).reserveStock(1L, 4L);
+        verify(itemRepository).reserveStock(1L, 8L);
+        assertEquals(2, groupSizes().count());
+        assertEquals(4.0, groupSizes().totalAmount());
+    }
+
+    @Test
+    public void reserve_whenGroupFails_throwFailure() {
+        when(itemRepository.findStockAvailableForUpdate(1L)).thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThrows(QueryTimeoutException.class, () -> reservationCoalescer.reserve(1L, 2L));
+    }
+
+    private DistributionSummary groupSizes() {
+        return meterRegistry.get(ReservationCoalescer.GROUP_SIZE_SUMMARY_NAME).summary();
+    }
+}
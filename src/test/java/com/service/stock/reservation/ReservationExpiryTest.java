@@ -0,0 +1,255 @@
+package com.service.stock.reservation;
+
+import com.service.stock.cache.ItemCache;
+import com.service.stock.model.Order;
+import com.service.stock.model.OrderStatus;
+import com.service.stock.model.Product;
+import com.service.stock.model.Reservation;
+import com.service.stock.model.StockMovement;
+import com.service.stock.model.StockMovementReason;
+import com.service.stock.movement.StockMovementLog;
+import com.service.stock.repository.ReservationRepository;
+import com.service.stock.service.KafkaStockOrderProducerService;
+import com.service.stock.stocklevel.StockLevelPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class ReservationExpiryTest {
+
+    private static final long TTL_MS = 60_000L;
+
+    private static final long TICK_MS = 100L;
+
+    private ReservationExpiry reservationExpiry;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private StockReservationEngine stockReservationEngine;
+
+    @Mock
+    private StockMovementLog stockMovementLog;
+
+    @Mock
+    private KafkaStockOrderProducerService kafkaStockOrderProducerService;
+
+    @Mock
+    private ItemCache itemCache;
+
+    @Mock
+    private StockLevelPublisher stockLevelPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        reservationExpiry = new ReservationExpiry(reservationRepository, stockReservationEngine, stockMovementLog,
+                kafkaStockOrderProducerService, itemCache, stockLevelPublisher, transactionTemplate, meterRegistry);
+        ReflectionTestUtils.setField(reservationExpiry, "enabled", true);
+        ReflectionTestUtils.setField(reservationExpiry, "ttlMs", TTL_MS);
+        ReflectionTestUtils.setField(reservationExpiry, "tickMs", TICK_MS);
+        ReflectionTestUtils.setField(reservationExpiry, "wheelSize", 64);
+        ReflectionTestUtils.setField(reservationExpiry, "batchSize", 500);
+        ReflectionTestUtils.setField(reservationExpiry, "applicationName", "StockService");
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+        doReturn(CompletableFuture.completedFuture(null)).when(kafkaStockOrderProducerService)
+                .sendOrderAcknowledged(any());
+    }
+
+    @Test
+    public void init_whenBatchListenerIsEnabled_throwIllegalStateException() {
+        ReflectionTestUtils.setField(reservationExpiry, "batchListenerEnabled", true);
+
+        assertThrows(IllegalStateException.class, () -> reservationExpiry.init());
+    }
+
+    @Test
+    public void deadline_whenDisabled_returnNull() {
+        ReflectionTestUtils.setField(reservationExpiry, "enabled", false);
+        reservationExpiry.init();
+
+        assertNull(reservationExpiry.deadline());
+        reservationExpiry.schedule(UUID.randomUUID(), Instant.now());
+
+        verifyNoInteractions(reservationRepository);
+    }
+
+    @Test
+    public void deadline_whenEnabled_returnTtlAhead() {
+        reservationExpiry.init();
+        Instant before = Instant.now();
+
+        Instant deadline = reservationExpiry.deadline();
+
+        assertFalse(deadline.isBefore(before.plusMillis(TTL_MS)));
+        assertFalse(deadline.isAfter(Instant.now().plusMillis(TTL_MS)));
+    }
+
+    @Test
+    public void advance_whenDeadlineIsNotReached_doNotExpire() {
+        reservationExpiry.init();
+        schedule(createReservation(1L, 1));
+
+        reservationExpiry.advance(System.currentTimeMillis() + TTL_MS / 2);
+
+        verify(reservationRepository, never()).markExpired(any(), any());
+    }
+
+    @Test
+    public void advance_whenReservationsExpired_releasePerItemAndPublishRollbacks() {
+        reservationExpiry.init();
+        Reservation first = createReservation(2L, 1);
+        Reservation second = createReservation(1L, 2);
+        Reservation third = createReservation(2L, 3);
+        List.of(first, second, third).forEach(this::schedule);
+        when(reservationRepository.markExpired(any(), any())).thenReturn(List.of(first, second, third));
+        when(stockReservationEngine.release(any(), anyLong())).thenReturn(true);
+
+        reservationExpiry.advance(System.currentTimeMillis() + TTL_MS + TICK_MS);
+
+        verify(reservationRepository).markExpired(argThat(ids -> ids.size() == 3 &&
+                ids.containsAll(List.of(first.getOrderId(), second.getOrderId(), third.getOrderId()))), any());
+        var inOrder = inOrder(stockReservationEngine);
+        inOrder.verify(stockReservationEngine).release(1L, 2L);
+        inOrder.verify(stockReservationEngine).release(2L, 4L);
+        ArgumentCaptor<Order> published = ArgumentCaptor.forClass(Order.class);
+        verify(kafkaStockOrderProducerService, times(3)).sendOrderAcknowledged(published.capture());
+        published.getAllValues().forEach(order -> assertEquals(OrderStatus.ROLLBACK, order.getStatus()));
+        verify(kafkaStockOrderProducerService, never()).sendOrder(any());
+        verify(itemCache).invalidateAll(argThat(ids -> ids.size() == 2 && ids.containsAll(List.of(1L, 2L))));
+        verify(stockLevelPublisher).changed(
+                ArgumentMatchers.<Collection<Long>>argThat(ids -> ids.size() == 2 && ids.containsAll(List.of(1L, 2L))));
+        verify(stockMovementLog).record(argThat((List<StockMovement> movements) -> movements.size() == 3 &&
+                movements.stream().allMatch(movement -> movement.getReason() == StockMovementReason.EXPIRE)));
+        assertEquals(3, meterRegistry.get(ReservationExpiry.EXPIRED_COUNTER_NAME).counter().count());
+        assertEquals(0, meterRegistry.get(ReservationExpiry.OUTSTANDING_GAUGE_NAME).gauge().value());
+    }
+
+    @Test
+    public void advance_whenProducerIsTransactional_publishRollbacksInTransaction() {
+        reservationExpiry.init();
+        Reservation reservation = createReservation(1L, 1);
+        schedule(reservation);
+        when(kafkaStockOrderProducerService.isTransactional()).thenReturn(true);
+        when(reservationRepository.markExpired(any(), any())).thenReturn(List.of(reservation));
+        when(stockReservationEngine.release(any(), anyLong())).thenReturn(true);
+        doAnswer(invocation -> {
+            Object expired = invocation.getArgument(0, TransactionCallback.class).doInTransaction(null);
+            verify(kafkaStockOrderProducerService).sendOrder(argThat(order ->
+                    order.getId().equals(reservation.getOrderId()) && order.getStatus() == OrderStatus.ROLLBACK));
+            return expired;
+        }).when(transactionTemplate).execute(any());
+
+        reservationExpiry.advance(System.currentTimeMillis() + TTL_MS + TICK_MS);
+
+        verify(transactionTemplate).execute(any());
+        verify(kafkaStockOrderProducerService, never()).sendOrderAcknowledged(any());
+    }
+
+    @Test
+    public void advance_whenRollbackIsNotAcknowledged_resendWithNextTick() {
+        reservationExpiry.init();
+        Reservation reservation = createReservation(1L, 1);
+        schedule(reservation);
+        when(reservationRepository.markExpired(any(), any())).thenReturn(List.of(reservation));
+        when(stockReservationEngine.release(any(), anyLong())).thenReturn(true);
+        doReturn(CompletableFuture.failedFuture(new TimeoutException("Timeout")),
+                CompletableFuture.completedFuture(null)).when(kafkaStockOrderProducerService)
+                .sendOrderAcknowledged(any());
+        long now = System.currentTimeMillis() + TTL_MS + TICK_MS;
+
+        reservationExpiry.advance(now);
+        reservationExpiry.advance(now + TICK_MS);
+        reservationExpiry.advance(now + 2 * TICK_MS);
+
+        verify(reservationRepository).markExpired(any(), any());
+        verify(kafkaStockOrderProducerService, times(2)).sendOrderAcknowledged(argThat(order ->
+                order.getId().equals(reservation.getOrderId()) && order.getStatus() == OrderStatus.ROLLBACK));
+    }
+
+    @Test
+    public void advance_whenReservationWasSettled_doNotReleaseOrPublish() {
+        reservationExpiry.init();
+        schedule(createReservation(1L, 1));
+        when(reservationRepository.markExpired(any(), any())).thenReturn(List.of());
+
+        reservationExpiry.advance(System.currentTimeMillis() + TTL_MS + TICK_MS);
+
+        verifyNoInteractions(stockReservationEngine, kafkaStockOrderProducerService, itemCache);
+    }
+
+    @Test
+    public void advance_whenExpiringFails_retryWithNextTick() {
+        reservationExpiry.init();
+        schedule(createReservation(1L, 1));
+        when(reservationRepository.markExpired(any(), any()))
+                .thenThrow(new QueryTimeoutException("Timeout"))
+                .thenReturn(List.of());
+        long now = System.currentTimeMillis() + TTL_MS + TICK_MS;
+
+        reservationExpiry.advance(now);
+        reservationExpiry.advance(now + TICK_MS);
+
+        verify(reservationRepository, times(2)).markExpired(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void init_whenOutstandingReservationsAreStored_rebuildWheel() {
+        UUID orderId = UUID.randomUUID();
+        doAnswer(invocation -> {
+            invocation.getArgument(0, BiConsumer.class).accept(orderId, Instant.now().minusSeconds(1));
+            return null;
+        }).when(reservationRepository).forEachOutstanding(any());
+
+        reservationExpiry.init();
+        reservationExpiry.advance(System.currentTimeMillis() + TICK_MS);
+
+        verify(reservationRepository).markExpired(eq(List.of(orderId)), any());
+    }
+
+    private void schedule(Reservation reservation) {
+        reservationExpiry.schedule(reservation.getOrderId(), reservation.getExpiresAt());
+    }
+
+    private static Reservation createReservation(long itemId, int quantity) {
+        Product product = new Product();
+        product.setId(itemId);
+        product.setQuantity(quantity);
+
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setProduct(product);
+        order.setStatus(OrderStatus.NEW);
+        return Reservation.of(order, order.getProduct(), Instant.now(), Instant.now().plusMillis(TTL_MS));
+    }
+}
@@ -0,0 +1,66 @@
+package com.service.stock.reservation;
+
+import com.service.stock.repository.ReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class ReservationPartitionMaintainerTest {
+
+    private static final LocalDate CURRENT_MONTH = LocalDate.of(2024, 3, 1);
+
+    private ReservationPartitionMaintainer maintainer;
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @BeforeEach
+    public void setUp() {
+        maintainer = new ReservationPartitionMaintainer(reservationRepository);
+        ReflectionTestUtils.setField(maintainer, "partitionsAhead", 2);
+        ReflectionTestUtils.setField(maintainer, "retentionMonths", 12);
+        when(reservationRepository.currentMonth()).thenReturn(CURRENT_MONTH);
+    }
+
+    @Test
+    public void maintain_always_createCurrentAndUpcomingPartitions() {
+        maintainer.maintain();
+
+        verify(reservationRepository).createPartition(LocalDate.of(2024, 3, 1));
+        verify(reservationRepository).createPartition(LocalDate.of(2024, 4, 1));
+        verify(reservationRepository).createPartition(LocalDate.of(2024, 5, 1));
+        verify(reservationRepository, times(3)).createPartition(any());
+    }
+
+    @Test
+    public void maintain_whenPartitionIsPastRetention_dropOnlyThatPartition() {
+        when(reservationRepository.findPartitionMonths()).thenReturn(List.of(LocalDate.of(2023, 2, 1),
+                LocalDate.of(2023, 3, 1), LocalDate.of(2024, 3, 1)));
+
+        maintainer.maintain();
+
+        verify(reservationRepository).dropPartitionIfSettled(LocalDate.of(2023, 2, 1));
+        verify(reservationRepository, times(1)).dropPartitionIfSettled(any());
+    }
+
+    @Test
+    public void maintain_whenRepositoryThrowsExceptionExtendsDataAccessException_doNotThrow() {
+        doThrow(new QueryTimeoutException("Timeout")).when(reservationRepository).createPartition(any());
+
+        assertDoesNotThrow(() -> maintainer.maintain());
+
+        verify(reservationRepository, never()).findPartitionMonths();
+    }
+}
@@ -0,0 +1,102 @@
+package com.service.stock.reservation;
+
+import com.service.stock.entity.Item;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockLedgerShardTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("orders", 0);
+
+    private final Map<Long, Item> storedItems = new HashMap<>();
+
+    private StockLedgerShard shard;
+
+    @BeforeEach
+    public void setUp() {
+        storedItems.put(1L, Item.builder().id(1L).name("item").stockAvailable(5L).stockReserved(0L).build());
+        shard = new StockLedgerShard(Runnable::run, id -> Optional.ofNullable(storedItems.get(id)));
+    }
+
+    @Test
+    public void apply_whenItemDoesNotExist_returnFalse() {
+        assertFalse(shard.apply(2L, -1, 1, PARTITION, 0));
+        assertTrue(shard.getLevel(2L).isEmpty());
+    }
+
+    @Test
+    public void apply_whenStockIsSufficient_updateLevelWithoutTouchingStoredItem() {
+        assertTrue(shard.apply(1L, -3, 3, PARTITION, 0));
+        assertTrue(shard.apply(1L, 0, -1, PARTITION, 1));
+
+        StockLevel level = shard.getLevel(1L).orElseThrow();
+        assertEquals(2L, level.getAvailable());
+        assertEquals(2L, level.getReserved());
+        assertEquals(5L, storedItems.get(1L).getStockAvailable());
+    }
+
+    @Test
+    public void apply_whenStockIsInsufficient_returnFalseAndKeepLevel() {
+        assertTrue(shard.apply(1L, -4, 4, PARTITION, 0));
+        assertFalse(shard.apply(1L, -2, 2, PARTITION, 1));
+
+        StockLevel level = shard.getLevel(1L).orElseThrow();
+        assertEquals(1L, level.getAvailable());
+        assertEquals(4L, level.getReserved());
+    }
+
+    @Test
+    public void drain_returnOnlyChangesOfProcessedRecords() {
+        shard.apply(1L, -1, 1, PARTITION, 0);
+        shard.apply(1L, -1, 1, PARTITION, 1);
+        shard.apply(1L, -1, 1, null, -1);
+
+        List<StockChange> changes = shard.drain(Map.of(PARTITION, 0L));
+
+        assertEquals(2, changes.size());
+        assertEquals(List.of(0L, -1L), changes.stream().map(StockChange::getOffset).toList());
+
+        shard.completeFlush();
+        assertEquals(1, shard.drain(Map.of(PARTITION, 1L)).size());
+    }
+
+    @Test
+    public void abortFlush_keepChangesForNextDrain() {
+        shard.apply(1L, -1, 1, PARTITION, 0);
+
+        assertEquals(1, shard.drain(Map.of(PARTITION, 0L)).size());
+        shard.abortFlush();
+
+        assertEquals(1, shard.drain(Map.of(PARTITION, 0L)).size());
+    }
+
+    @Test
+    public void evict_whenItemHasUnflushedChanges_reloadOnlyAfterFlush() {
+        shard.apply(1L, -1, 1, PARTITION, 0);
+
+        shard.evict(1L);
+        assertTrue(shard.getLevel(1L).isPresent());
+
+        shard.drain(Map.of(PARTITION, 0L));
+        shard.completeFlush();
+        assertTrue(shard.getLevel(1L).isEmpty());
+    }
+
+    @Test
+    public void clear_dropLevelsAndPendingChanges() {
+        shard.apply(1L, -1, 1, PARTITION, 0);
+
+        shard.clear();
+
+        assertTrue(shard.getLevel(1L).isEmpty());
+        assertTrue(shard.drain(Map.of(PARTITION, 0L)).isEmpty());
+    }
+}
@@ -0,0 +1,142 @@
+package com.service.stock.reservation;
+
+import com.service.stock.repository.ItemStockBucketRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class StockStripingTest {
+
+    private StockStriping stockStriping;
+
+    @Mock
+    private ItemStockBucketRepository itemStockBucketRepository;
+
+    @BeforeEach
+    public void setUp() {
+        stockStriping = new StockStriping(itemStockBucketRepository);
+        ReflectionTestUtils.setField(stockStriping, "enabled", true);
+        ReflectionTestUtils.setField(stockStriping, "buckets", 4);
+        ReflectionTestUtils.setField(stockStriping, "hotThresholdPerSecond", 1.0);
+        ReflectionTestUtils.setField(stockStriping, "coolThresholdPerSecond", 0.5);
+        ReflectionTestUtils.setField(stockStriping, "minBucketStock", 10L);
+        stockStriping.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        stockStriping.shutdown();
+    }
+
+    @Test
+    public void init_whenBatchListenerIsEnabled_throwIllegalStateException() {
+        ReflectionTestUtils.setField(stockStriping, "batchListenerEnabled", true);
+
+        assertThrows(IllegalStateException.class, () -> stockStriping.init());
+    }
+
+    @Test
+    public void apply_whenItemIsNotStriped_returnFalseWithoutQuery() {
+        assertFalse(stockStriping.apply(1L, -1L, 1L));
+
+        verifyNoInteractions(itemStockBucketRepository);
+    }
+
+    @Test
+    public void apply_whenFirstBucketRefuses_tryNextBuckets() {
+        when(itemStockBucketRepository.rebalance(1L, 4, 10L)).thenReturn(4);
+        stockStriping.rebalance(1L);
+        when(itemStockBucketRepository.apply(eq(1L), anyInt(), eq(-1L), eq(1L))).thenReturn(-1L, -1L, 50L);
+
+        assertTrue(stockStriping.apply(1L, -1L, 1L));
+
+        verify(itemStockBucketRepository, times(3)).apply(eq(1L), anyInt(), eq(-1L), eq(1L));
+    }
+
+    @Test
+    public void apply_whenNoBucketAllowsChange_returnFalse() {
+        when(itemStockBucketRepository.rebalance(1L, 4, 10L)).thenReturn(4);
+        stockStriping.rebalance(1L);
+        when(itemStockBucketRepository.apply(eq(1L), anyInt(), anyLong(), anyLong())).thenReturn(-1L);
+
+        assertFalse(stockStriping.apply(1L, -1L, 1L));
+
+        verify(itemStockBucketRepository, times(4)).apply(eq(1L), anyInt(), eq(-1L), eq(1L));
+    }
+
+    @Test
+    public void apply_whenBucketRunsLow_rebalanceInBackground() {
+        when(itemStockBucketRepository.rebalance(1L, 4, 10L)).thenReturn(4);
+        stockStriping.rebalance(1L);
+        when(itemStockBucketRepository.apply(eq(1L), anyInt(), anyLong(), anyLong())).thenReturn(3L);
+
+        assertTrue(stockStriping.apply(1L, -1L, 1L));
+
+        verify(itemStockBucketRepository, timeout(1000).times(2)).rebalance(1L, 4, 10L);
+    }
+
+    @Test
+    public void detect_whenItemIsHot_stripeIt() {
+        when(itemStockBucketRepository.rebalance(1L, 4, 10L)).thenReturn(4);
+        for (int i = 0; i < 1000; i++) {
+            stockStriping.recordReservation(1L);
+        }
+
+        stockStriping.detect();
+
+        verify(itemStockBucketRepository).rebalance(1L, 4, 10L);
+        assertTrue(stockStriping.isStriped(1L));
+    }
+
+    @Test
+    public void detect_whenStripedItemCooledDown_collapseIt() {
+        when(itemStockBucketRepository.findBucketCounts()).thenReturn(Map.of(1L, 4));
+        when(itemStockBucketRepository.collapse(List.of(1L))).thenReturn(Set.of(1L));
+
+        stockStriping.detect();
+
+        verify(itemStockBucketRepository).collapse(List.of(1L));
+        assertFalse(stockStriping.isStriped(1L));
+    }
+
+    @Test
+    public void detect_whenStripingIsDisabled_collapseRemainingBuckets() {
+        ReflectionTestUtils.setField(stockStriping, "enabled", false);
+        when(itemStockBucketRepository.findBucketCounts()).thenReturn(Map.of(1L, 4));
+
+        stockStriping.detect();
+
+        verify(itemStockBucketRepository).collapse(Set.of(1L));
+        verify(itemStockBucketRepository, never()).rebalance(anyLong(), anyInt(), anyLong());
+    }
+
+    @Test
+    public void collapseIfStriped_whenItemHasNoBuckets_returnFalse() {
+        when(itemStockBucketRepository.countBuckets(1L)).thenReturn(0);
+
+        assertFalse(stockStriping.collapseIfStriped(1L));
+
+        verify(itemStockBucketRepository, never()).collapse(any());
+    }
+
+    @Test
+    public void collapseIfStriped_whenStripedByAnotherNode_collapse() {
+        when(itemStockBucketRepository.countBuckets(1L)).thenReturn(4);
+        when(itemStockBucketRepository.collapse(List.of(1L))).thenReturn(Set.of(1L));
+
+        assertTrue(stockStriping.collapseIfStriped(1L));
+    }
+}
@@ -0,0 +1,192 @@
+package com.service.stock.serialization;
+
+import com.service.avro.model.AvroOrder;
+import com.service.avro.model.AvroOrderStatus;
+import com.service.avro.model.AvroProduct;
+import com.service.stock.converter.AvroOrderToOrderConverter;
+import com.service.stock.model.Order;
+import com.service.stock.model.OrderStatus;
+import com.service.stock.model.Product;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderDecoderTest {
+
+    private static final String OLD_WRITER_SCHEMA = """
+            {"type": "record", "name": "AvroOrder", "namespace": "com.service.avro.model", "fields": [
+              {"name": "id", "type": ["null", "string"], "default": null},
+              {"name": "status", "type": ["null", {"type": "enum", "name": "AvroOrderStatus",
+                "symbols": ["NEW", "ACCEPT", "REJECT", "CONFIRMATION", "ROLLBACK"]}], "default": null}
+            ]}""";
+
+    @Test
+    public void forWriterSchema_whenSchemaIsOrderSchema_decodeDirectlyLikeConverter() throws IOException {
+        AvroOrder avroOrder = createAvroOrder(UUID.randomUUID().toString());
+        byte[] data = encode(avroOrder);
+
+        OrderDecoder decoder = OrderDecoder.forWriterSchema(AvroOrder.getClassSchema());
+
+        assertInstanceOf(DirectOrderDecoder.class, decoder);
+        assertEquals(new AvroOrderToOrderConverter().convert(avroOrder), decoder.decode(data, 0, data.length));
+    }
+
+    @Test
+    public void decode_whenFieldsAreNull_returnOrderWithNullFields() throws IOException {
+        byte[] data = encode(new AvroOrder());
+
+        Order order = new DirectOrderDecoder().decode(data, 0, data.length);
+
+        assertEquals(new Order(), order);
+    }
+
+    @Test
+    public void decode_whenDataHasOffset_decodeOnlyGivenRange() throws IOException {
+        AvroOrder avroOrder = createAvroOrder(UUID.randomUUID().toString());
+        byte[] encoded = encode(avroOrder);
+        byte[] data = new byte[encoded.length + 5];
+        System.arraycopy(encoded, 0, data, 5, encoded.length);
+
+        Order order = new DirectOrderDecoder().decode(data, 5, encoded.length);
+
+        assertEquals(UUID.fromString(avroOrder.getId().toString()), order.getId());
+        assertEquals(avroOrder.getSource().toString(), order.getSource());
+    }
+
+    @Test
+    public void decode_whenOrderHasProducts_decodeAllProductsLikeConverter() throws IOException {
+        AvroOrder avroOrder = createAvroOrder(UUID.randomUUID().toString());
+        avroOrder.setProducts(List.of(createAvroProduct(1L), createAvroProduct(2L), createAvroProduct(3L)));
+        byte[] data = encode(avroOrder);
+
+        Order order = new DirectOrderDecoder().decode(data, 0, data.length);
+
+        assertEquals(new AvroOrderToOrderConverter().convert(avroOrder), order);
+        assertEquals(List.of(1L, 2L, 3L), order.getLines().stream().map(Product::getId).toList());
+    }
+
+    @Test
+    public void decode_whenProductsAreWrittenInSizedBlocks_decodeAllProducts() throws IOException {
+        AvroOrder avroOrder = createAvroOrder(UUID.randomUUID().toString());
+        avroOrder.setProducts(List.of(createAvroProduct(1L), createAvroProduct(2L)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryEncoder encoder = EncoderFactory.get().blockingBinaryEncoder(out, null);
+        new SpecificDatumWriter<>(AvroOrder.class).write(avroOrder, encoder);
+        encoder.flush();
+        byte[] data = out.toByteArray();
+
+        Order order = new DirectOrderDecoder().decode(data, 0, data.length);
+
+        assertEquals(new AvroOrderToOrderConverter().convert(avroOrder), order);
+    }
+
+    @Test
+    public void decode_whenIdIsNotCanonical_parseLikeUuidFromString() throws IOException {
+        byte[] data = encode(createAvroOrder("1-2-3-4-5"));
+
+        Order order = new DirectOrderDecoder().decode(data, 0, data.length);
+
+        assertEquals(UUID.fromString("1-2-3-4-5"), order.getId());
+    }
+
+    @Test
+    public void decode_whenIdHasUpperCaseDigits_parseLikeUuidFromString() throws IOException {
+        String id = UUID.randomUUID().toString().toUpperCase();
+        byte[] data = encode(createAvroOrder(id));
+
+        Order order = new DirectOrderDecoder().decode(data, 0, data.length);
+
+        assertEquals(UUID.fromString(id), order.getId());
+    }
+
+    @Test
+    public void decode_whenIdIsInvalid_throwSerializationException() throws IOException {
+        byte[] data = encode(createAvroOrder("not-a-uuid"));
+
+        assertThrows(SerializationException.class, () -> new DirectOrderDecoder().decode(data, 0, data.length));
+    }
+
+    @Test
+    public void decode_whenDataIsTruncated_throwSerializationException() throws IOException {
+        byte[] data = encode(createAvroOrder(UUID.randomUUID().toString()));
+        byte[] truncated = Arrays.copyOf(data, data.length - 3);
+
+        assertThrows(SerializationException.class,
+                () -> new DirectOrderDecoder().decode(truncated, 0, truncated.length));
+    }
+
+    @Test
+    public void decode_whenSourceRepeats_returnSameString() throws IOException {
+        DirectOrderDecoder decoder = new DirectOrderDecoder();
+        byte[] first = encode(createAvroOrder(UUID.randomUUID().toString()));
+        byte[] second = encode(createAvroOrder(UUID.randomUUID().toString()));
+
+        assertSame(decoder.decode(first, 0, first.length).getSource(),
+                decoder.decode(second, 0, second.length).getSource());
+    }
+
+    @Test
+    public void forWriterSchema_whenWriterSchemaDiffers_resolveAgainstOrderSchema() throws IOException {
+        Schema writerSchema = new Schema.Parser().parse(OLD_WRITER_SCHEMA);
+        GenericRecord record = new GenericData.Record(writerSchema);
+        String id = UUID.randomUUID().toString();
+        record.put("id", id);
+        record.put("status", new GenericData.EnumSymbol(writerSchema.getField("status").schema().getTypes().get(1),
+                "ROLLBACK"));
+        byte[] data = encode(new GenericDatumWriter<>(writerSchema), record);
+
+        OrderDecoder decoder = OrderDecoder.forWriterSchema(writerSchema);
+        Order order = decoder.decode(data, 0, data.length);
+
+        assertInstanceOf(ResolvingOrderDecoder.class, decoder);
+        assertEquals(UUID.fromString(id), order.getId());
+        assertEquals(OrderStatus.ROLLBACK, order.getStatus());
+        assertNull(order.getProduct());
+        assertNull(order.getProducts());
+    }
+
+    private static AvroOrder createAvroOrder(String id) {
+        AvroOrder avroOrder = new AvroOrder();
+        avroOrder.setId(id);
+        avroOrder.setCustomerId(Long.MAX_VALUE);
+        avroOrder.setProduct(createAvroProduct(300L));
+        avroOrder.setStatus(AvroOrderStatus.CONFIRMATION);
+        avroOrder.setSource("Payment");
+        return avroOrder;
+    }
+
+    private static AvroProduct createAvroProduct(Long id) {
+        AvroProduct avroProduct = new AvroProduct();
+        avroProduct.setId(id);
+        avroProduct.setQuantity(2);
+        avroProduct.setPrice(-5L);
+        return avroProduct;
+    }
+
+    private static byte[] encode(AvroOrder avroOrder) throws IOException {
+        return encode(new SpecificDatumWriter<>(AvroOrder.class), avroOrder);
+    }
+
+    private static <T> byte[] encode(DatumWriter<T> writer, T datum) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+        writer.write(datum, encoder);
+        encoder.flush();
+        return out.toByteArray();
+    }
+}
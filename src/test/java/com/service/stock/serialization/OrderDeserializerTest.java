@@ -0,0 +1,89 @@
+package com.service.stock.serialization;
+
+import com.service.avro.model.AvroOrder;
+import com.service.avro.model.AvroOrderStatus;
+import com.service.avro.model.AvroProduct;
+import com.service.stock.model.Order;
+import com.service.stock.model.OrderStatus;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderDeserializerTest {
+
+    private static final String TOPIC = "orders";
+
+    private static final Map<String, Object> CONFIG = Map.of("schema.registry.url", "mock://test");
+
+    private SchemaRegistryClient schemaRegistry;
+
+    private OrderDeserializer deserializer;
+
+    @BeforeEach
+    public void setUp() {
+        schemaRegistry = new MockSchemaRegistryClient();
+        deserializer = new OrderDeserializer(schemaRegistry);
+        deserializer.configure(CONFIG, false);
+    }
+
+    @Test
+    public void deserialize_whenOrderIsInConfluentWireFormat_returnOrder() {
+        AvroOrder avroOrder = createAvroOrder();
+
+        Order order = deserializer.deserialize(TOPIC, serialize(avroOrder));
+
+        assertEquals(UUID.fromString(avroOrder.getId().toString()), order.getId());
+        assertEquals(OrderStatus.NEW, order.getStatus());
+        assertEquals(1L, order.getProduct().getId());
+        assertEquals(2, order.getProduct().getQuantity());
+    }
+
+    @Test
+    public void deserialize_whenDataIsNull_returnNull() {
+        assertNull(deserializer.deserialize(TOPIC, null));
+    }
+
+    @Test
+    public void deserialize_whenMagicByteIsUnknown_throwSerializationException() {
+        byte[] data = serialize(createAvroOrder());
+        data[0] = 1;
+
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPIC, data));
+    }
+
+    @Test
+    public void deserialize_whenSchemaIdIsUnknown_throwSerializationException() {
+        byte[] data = serialize(createAvroOrder());
+        data[4] = 100;
+
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPIC, data));
+    }
+
+    private byte[] serialize(AvroOrder avroOrder) {
+        try (KafkaAvroSerializer serializer = new KafkaAvroSerializer(schemaRegistry, CONFIG)) {
+            return serializer.serialize(TOPIC, avroOrder);
+        }
+    }
+
+    private static AvroOrder createAvroOrder() {
+        AvroProduct avroProduct = new AvroProduct();
+        avroProduct.setId(1L);
+        avroProduct.setQuantity(2);
+        avroProduct.setPrice(100L);
+
+        AvroOrder avroOrder = new AvroOrder();
+        avroOrder.setId(UUID.randomUUID().toString());
+        avroOrder.setStatus(AvroOrderStatus.NEW);
+        avroOrder.setProduct(avroProduct);
+        avroOrder.setSource("Source");
+        return avroOrder;
+    }
+}
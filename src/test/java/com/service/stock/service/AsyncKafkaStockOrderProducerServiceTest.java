@@ -0,0 +1,167 @@
+package com.service.stock.service;
+
+import com.service.avro.model.AvroOrder;
+import com.service.stock.converter.OrderToAvroOrderConverter;
+import com.service.stock.model.Order;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.mockito.Mock;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class AsyncKafkaStockOrderProducerServiceTest {
+
+    private static final String TOPIC = "stock-orders";
+
+    private AsyncKafkaStockOrderProducerService producerService;
+
+    @Mock
+    private KafkaTemplate<String, AvroOrder> template;
+
+    @Mock
+    private OrderToAvroOrderConverter converter;
+
+    @Mock
+    private KafkaListenerEndpointRegistry listenerRegistry;
+
+    @Mock
+    private MessageListenerContainer listenerContainer;
+
+    private Order order;
+
+    private AvroOrder avroOrder;
+
+    @BeforeEach
+    public void setUp() {
+        producerService = new AsyncKafkaStockOrderProducerService(template, converter, listenerRegistry);
+        ReflectionTestUtils.setField(producerService, "topic", TOPIC);
+        ReflectionTestUtils.setField(producerService, "maxInFlight", 2);
+        ReflectionTestUtils.setField(producerService, "resumeInFlight", 0);
+        ReflectionTestUtils.setField(producerService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(producerService, "backoffMs", 1L);
+        ReflectionTestUtils.setField(producerService, "maxBackoffMs", 1L);
+        producerService.init();
+
+        order = new Order();
+        avroOrder = new AvroOrder();
+        avroOrder.setId(UUID.randomUUID().toString());
+        when(converter.convert(order)).thenReturn(avroOrder);
+        when(listenerRegistry.getListenerContainer(AsyncKafkaStockOrderProducerService.ORDERS_LISTENER_ID))
+                .thenReturn(listenerContainer);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        producerService.shutdown();
+    }
+
+    @ParameterizedTest
+    @NullSource
+    public void sendOrder_whenOrderIsNull_throwIllegalArgumentException(Order nullOrder) {
+        assertThrows(IllegalArgumentException.class, () -> producerService.sendOrder(nullOrder));
+    }
+
+    @Test
+    public void sendOrder_whenSendSucceeds_releaseInFlightSlot() {
+        when(template.send(TOPIC, avroOrder.getId().toString(), avroOrder))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        producerService.sendOrder(order);
+
+        assertEquals(0, producerService.getInFlight());
+        verifyNoInteractions(listenerContainer);
+    }
+
+    @Test
+    public void sendOrder_whenWindowIsFull_pauseListenerUntilWindowDrained() {
+        CompletableFuture<SendResult<String, AvroOrder>> first = new CompletableFuture<>();
+        CompletableFuture<SendResult<String, AvroOrder>> second = new CompletableFuture<>();
+        when(template.send(anyString(), anyString(), any(AvroOrder.class))).thenReturn(first, second);
+
+        producerService.sendOrder(order);
+        verify(listenerContainer, never()).pause();
+
+        producerService.sendOrder(order);
+        verify(listenerContainer).pause();
+        assertEquals(2, producerService.getInFlight());
+
+        first.complete(null);
+        verify(listenerContainer, never()).resume();
+
+        second.complete(null);
+        verify(listenerContainer).resume();
+        assertEquals(0, producerService.getInFlight());
+    }
+
+    @Test
+    public void sendOrder_whenSendFails_retryWithoutBlocking() {
+        when(template.send(TOPIC, avroOrder.getId().toString(), avroOrder))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        producerService.sendOrder(order);
+
+        verify(template, timeout(1000).times(2)).send(TOPIC, avroOrder.getId().toString(), avroOrder);
+        verify(listenerContainer, never()).pause();
+    }
+
+    @Test
+    public void sendOrder_whenRetriesAreExhausted_parkOrderAndKeepSlot() {
+        when(template.send(TOPIC, avroOrder.getId().toString(), avroOrder))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException()));
+
+        producerService.sendOrder(order);
+
+        verify(template, timeout(1000).times(3)).send(TOPIC, avroOrder.getId().toString(), avroOrder);
+        verify(template, after(50).times(3)).send(TOPIC, avroOrder.getId().toString(), avroOrder);
+        assertEquals(1, producerService.getParked());
+        assertEquals(1, producerService.getInFlight());
+    }
+
+    @Test
+    public void retryParked_whenParkedOrderIsSent_releaseInFlightSlot() {
+        when(template.send(TOPIC, avroOrder.getId().toString(), avroOrder))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException()));
+        producerService.sendOrder(order);
+        verify(template, timeout(1000).times(3)).send(TOPIC, avroOrder.getId().toString(), avroOrder);
+        verify(template, after(50).times(3)).send(TOPIC, avroOrder.getId().toString(), avroOrder);
+
+        when(template.send(TOPIC, avroOrder.getId().toString(), avroOrder))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        producerService.retryParked();
+
+        assertEquals(0, producerService.getParked());
+        assertEquals(0, producerService.getInFlight());
+    }
+
+    @Test
+    public void sendOrder_whenOrderCanNotBeSerialized_dropOrderWithoutRetry() {
+        when(template.send(TOPIC, avroOrder.getId().toString(), avroOrder)).thenThrow(SerializationException.class);
+
+        producerService.sendOrder(order);
+
+        verify(template, after(50).times(1)).send(TOPIC, avroOrder.getId().toString(), avroOrder);
+        assertEquals(0, producerService.getParked());
+        assertEquals(0, producerService.getInFlight());
+    }
+}
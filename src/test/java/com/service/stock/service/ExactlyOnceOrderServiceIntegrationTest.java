@@ -0,0 +1,265 @@
+package com.service.stock.service;
+
+import com.service.avro.model.AvroOrder;
+import com.service.avro.model.AvroOrderStatus;
+import com.service.stock.cache.ItemCache;
+import com.service.stock.cache.ItemCountCache;
+import com.service.stock.converter.ConverterService;
+import com.service.stock.converter.ItemFromItemDtoUpdater;
+import com.service.stock.converter.OrderToAvroOrderConverter;
+import com.service.stock.entity.Item;
+import com.service.stock.metrics.OrderMetrics;
+import com.service.stock.model.Order;
+import com.service.stock.model.OrderStatus;
+import com.service.stock.model.Product;
+import com.service.stock.movement.StockMovementLog;
+import com.service.stock.repository.ItemRepository;
+import com.service.stock.repository.ItemStockBucketRepository;
+import com.service.stock.repository.OrderOutboxRepository;
+import com.service.stock.repository.ReservationRepository;
+import com.service.stock.reservation.DatabaseStockReservationEngine;
+import com.service.stock.reservation.ReservationCoalescer;
+import com.service.stock.reservation.ReservationExpiry;
+import com.service.stock.reservation.StockStriping;
+import com.service.stock.stocklevel.StockLevelPublisher;
+import com.service.stock.validation.ItemStockValidator;
+import com.service.stock.validation.ItemValidator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest(properties = "kafka.orders.exactly-once.enabled=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ExactlyOnceOrderService.class, ItemService.class, DatabaseStockReservationEngine.class,
+        OutboxStockOrderProducerService.class, OrderToAvroOrderConverter.class, OrderOutboxRepository.class,
+        ReservationRepository.class, OrderMetrics.class})
+public class ExactlyOnceOrderServiceIntegrationTest {
+
+    private static final String DATABASE_NAME = "databaseName";
+    private static final String DATABASE_USERNAME = "databaseName";
+    private static final String DATABASE_USER_PASSWORD = "databaseName";
+
+    public static PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:latest").withDatabaseName(DATABASE_NAME).withUsername(DATABASE_USERNAME)
+                    .withPassword(DATABASE_USER_PASSWORD).withReuse(true);
+
+    @Autowired
+    private ExactlyOnceOrderService orderService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private ItemValidator itemValidator;
+
+    @MockBean
+    private ItemStockValidator itemStockValidator;
+
+    @MockBean
+    private ItemFromItemDtoUpdater itemFromItemDtoUpdater;
+
+    @MockBean
+    private ConverterService converterService;
+
+    @MockBean
+    private ItemCache itemCache;
+
+    @MockBean
+    private ItemCountCache itemCountCache;
+
+    @MockBean
+    private ItemStockBucketRepository itemStockBucketRepository;
+
+    @MockBean
+    private ReservationExpiry reservationExpiry;
+
+    @MockBean
+    private StockMovementLog stockMovementLog;
+
+    @MockBean
+    private StockLevelPublisher stockLevelPublisher;
+
+    @MockBean
+    private StockStriping stockStriping;
+
+    @MockBean
+    private ReservationCoalescer reservationCoalescer;
+
+    @MockBean
+    private KafkaTemplate<String, AvroOrder> kafkaTemplate;
+
+    @TestConfiguration
+    static class MeterRegistryConfiguration {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        // Postgresql
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+
+        // Flyway
+        registry.add("spring.flyway.cleanDisabled", () -> false);
+    }
+
+    @BeforeEach
+    void clearDatabase(@Autowired Flyway flyway) {
+        flyway.clean();
+        flyway.migrate();
+    }
+
+    @Test
+    public void processNewOrder_whenStockIsTooLow_addRejectToOutboxAndMarkProcessed() throws IOException {
+        Long itemId = saveItem(1L);
+        Order order = createOrder(createProduct(itemId, 5));
+
+        Order result = orderService.processNewOrder(order);
+
+        assertEquals(OrderStatus.REJECT, result.getStatus());
+        assertEquals(List.of(AvroOrderStatus.REJECT), findOutboxStatuses(order.getId()));
+        assertEquals(1, countProcessed(order.getId()));
+        assertEquals(1L, findStockAvailable(itemId));
+    }
+
+    @Test
+    public void processNewOrder_whenLaterProductIsRefused_addRejectAndKeepStockOfEarlierProducts() throws IOException {
+        Long reservableItemId = saveItem(10L);
+        Long refusedItemId = saveItem(1L);
+        Order order = createOrder(createProduct(reservableItemId, 2), createProduct(refusedItemId, 5));
+
+        orderService.processNewOrder(order);
+
+        assertEquals(List.of(AvroOrderStatus.REJECT), findOutboxStatuses(order.getId()));
+        assertEquals(10L, findStockAvailable(reservableItemId));
+        assertEquals(1L, findStockAvailable(refusedItemId));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM reservation WHERE order_id = ?",
+                Integer.class, order.getId()));
+    }
+
+    @Test
+    public void processNewOrder_whenOrderIsRedeliveredAfterReject_skipOrder() throws IOException {
+        Long itemId = saveItem(1L);
+        Order order = createOrder(createProduct(itemId, 5));
+        orderService.processNewOrder(order);
+        order.setStatus(OrderStatus.NEW);
+
+        Order result = orderService.processNewOrder(order);
+
+        assertNull(result);
+        assertEquals(List.of(AvroOrderStatus.REJECT), findOutboxStatuses(order.getId()));
+    }
+
+    @Test
+    public void processRollbackOrder_whenOrderHasNoReservation_markProcessed() throws IOException {
+        Order order = createOrder(createProduct(saveItem(1L), 1));
+        order.setStatus(OrderStatus.ROLLBACK);
+
+        orderService.processRollbackOrder(order);
+
+        assertEquals(1, countProcessed(order.getId()));
+        assertEquals(List.of(), findOutboxStatuses(order.getId()));
+    }
+
+    @Test
+    public void processNewOrder_whenStockIsEnough_addAcceptToOutbox() throws IOException {
+        Long itemId = saveItem(5L);
+        Order order = createOrder(createProduct(itemId, 5));
+
+        orderService.processNewOrder(order);
+
+        assertEquals(List.of(AvroOrderStatus.ACCEPT), findOutboxStatuses(order.getId()));
+        assertEquals(0L, findStockAvailable(itemId));
+    }
+
+    private Long saveItem(Long stockAvailable) {
+        Item item = new Item();
+        item.setName("test");
+        item.setStockAvailable(stockAvailable);
+        item.setStockReserved(0L);
+        return itemRepository.save(item).getId();
+    }
+
+    private List<AvroOrderStatus> findOutboxStatuses(UUID orderId) throws IOException {
+        List<byte[]> payloads = jdbcTemplate.queryForList("SELECT payload FROM order_outbox WHERE message_key = ?",
+                byte[].class, orderId.toString());
+        List<AvroOrderStatus> statuses = new ArrayList<>();
+        for (byte[] payload : payloads) {
+            statuses.add(AvroOrder.fromByteBuffer(ByteBuffer.wrap(payload)).getStatus());
+        }
+        return statuses;
+    }
+
+    private int countProcessed(UUID orderId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM processed_order WHERE order_id = ?", Integer.class,
+                orderId);
+    }
+
+    private long findStockAvailable(Long itemId) {
+        return jdbcTemplate.queryForObject("SELECT stock_available FROM item WHERE id = ?", Long.class, itemId);
+    }
+
+    private Order createOrder(Product... products) {
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setCustomerId(1L);
+        order.setSource("Source");
+        order.setStatus(OrderStatus.NEW);
+        order.setProducts(List.of(products));
+        return order;
+    }
+
+    private Product createProduct(Long id, Integer quantity) {
+        Product product = new Product();
+        product.setId(id);
+        product.setQuantity(quantity);
+        product.setPrice(100L);
+        return product;
+    }
+}
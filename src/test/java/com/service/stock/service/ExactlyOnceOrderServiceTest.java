@@ -0,0 +1,225 @@
+package com.service.stock.service;
+
+import com.service.stock.exception.InsufficientAvailableStockException;
+import com.service.stock.exception.ReservationStateException;
+import com.service.stock.metrics.OrderMetrics;
+import com.service.stock.model.Order;
+import com.service.stock.model.OrderStatus;
+import com.service.stock.repository.OrderOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class ExactlyOnceOrderServiceTest {
+
+    private ExactlyOnceOrderService orderService;
+
+    @Mock
+    private ItemService itemService;
+
+    @Mock
+    private KafkaStockOrderProducerService kafkaStockOrderProducerService;
+
+    @Mock
+    private OrderOutboxRepository orderOutboxRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        this.orderService = new ExactlyOnceOrderService(itemService, kafkaStockOrderProducerService,
+                new OrderMetrics(new SimpleMeterRegistry()), orderOutboxRepository, transactionTemplate);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+    }
+
+    @Test
+    public void init_whenBatchListenerIsEnabled_throwIllegalStateException() {
+        ReflectionTestUtils.setField(orderService, "batchListenerEnabled", true);
+
+        assertThrows(IllegalStateException.class, () -> orderService.init());
+    }
+
+    @Test
+    public void processNewOrder_whenOrderIsNotProcessedYet_reserveAndSendResult() {
+        Order order = createOrder(OrderStatus.NEW);
+
+        when(orderOutboxRepository.markProcessed(order.getId(), "NEW")).thenReturn(true);
+
+        orderService.processNewOrder(order);
+
+        assertEquals(OrderStatus.ACCEPT, order.getStatus());
+        verify(itemService).createReservation(order);
+        verify(kafkaStockOrderProducerService).sendOrder(order);
+    }
+
+    @Test
+    public void processNewOrder_whenOrderIsRedelivered_skipOrder() {
+        Order order = createOrder(OrderStatus.NEW);
+
+        when(orderOutboxRepository.markProcessed(order.getId(), "NEW")).thenReturn(false);
+
+        orderService.processNewOrder(order);
+
+        assertEquals(OrderStatus.NEW, order.getStatus());
+        verifyNoInteractions(itemService, kafkaStockOrderProducerService);
+    }
+
+    @Test
+    public void processNewOrder_whenRefusedReservationRollsBackTransaction_recordRejectInNewTransaction() {
+        Order order = createOrder(OrderStatus.NEW);
+
+        when(orderOutboxRepository.markProcessed(order.getId(), "NEW")).thenReturn(true);
+        doThrow(new InsufficientAvailableStockException("Not enough stock")).when(itemService).createReservation(order);
+        rollBackFirstTransaction();
+
+        Order result = orderService.processNewOrder(order);
+
+        assertEquals(order, result);
+        assertEquals(OrderStatus.REJECT, order.getStatus());
+        verify(orderOutboxRepository, times(2)).markProcessed(order.getId(), "NEW");
+        verify(itemService).createReservation(order);
+        verify(kafkaStockOrderProducerService, times(2)).sendOrder(order);
+    }
+
+    @Test
+    public void processRollbackOrder_whenFailedRollbackRollsBackTransaction_markProcessedInNewTransaction() {
+        Order order = createOrder(OrderStatus.ROLLBACK);
+
+        when(orderOutboxRepository.markProcessed(order.getId(), "ROLLBACK")).thenReturn(true);
+        doThrow(new ReservationStateException("No reservation")).when(itemService).rollbackReservation(order);
+        rollBackFirstTransaction();
+
+        orderService.processRollbackOrder(order);
+
+        verify(orderOutboxRepository, times(2)).markProcessed(order.getId(), "ROLLBACK");
+        verify(itemService).rollbackReservation(order);
+        verifyNoInteractions(kafkaStockOrderProducerService);
+    }
+
+    @Test
+    public void processNewOrder_whenAcceptedOrderRollsBackTransaction_throwUnexpectedRollbackException() {
+        Order order = createOrder(OrderStatus.NEW);
+
+        when(orderOutboxRepository.markProcessed(order.getId(), "NEW")).thenReturn(true);
+        rollBackFirstTransaction();
+
+        assertThrows(UnexpectedRollbackException.class, () -> orderService.processNewOrder(order));
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
+    @Test
+    public void processRollbackOrder_whenOrderIsRedelivered_skipOrder() {
+        Order order = createOrder(OrderStatus.ROLLBACK);
+
+        when(orderOutboxRepository.markProcessed(any(UUID.class), eq("ROLLBACK"))).thenReturn(false);
+
+        orderService.processRollbackOrder(order);
+
+        verifyNoInteractions(itemService);
+    }
+
+    @Test
+    public void processConfirmationOrder_whenOrderIsNotProcessedYet_confirmReservation() {
+        Order order = createOrder(OrderStatus.CONFIRMATION);
+
+        when(orderOutboxRepository.markProcessed(any(UUID.class), eq("CONFIRMATION"))).thenReturn(true);
+
+        orderService.processConfirmationOrder(order);
+
+        verify(itemService).confirmReservation(order);
+    }
+
+    @Test
+    public void processNewOrder_whenOrderIdIsMissing_throwIllegalArgumentException() {
+        Order order = createOrder(OrderStatus.NEW);
+        order.setId(null);
+
+        assertThrows(IllegalArgumentException.class, () -> orderService.processNewOrder(order));
+        verifyNoInteractions(orderOutboxRepository, itemService);
+    }
+
+    @Test
+    public void processOrders_always_processEachOrderInItsOwnTransaction() {
+        Order newOrder = createOrder(OrderStatus.NEW);
+        Order redelivered = createOrder(OrderStatus.NEW);
+        Order rollbackOrder = createOrder(OrderStatus.ROLLBACK);
+        when(orderOutboxRepository.markProcessed(any(UUID.class), any())).thenReturn(true);
+        when(orderOutboxRepository.markProcessed(redelivered.getId(), "NEW")).thenReturn(false);
+
+        List<Order> results = orderService.processOrders(List.of(newOrder, redelivered, rollbackOrder));
+
+        assertEquals(List.of(newOrder, redelivered, rollbackOrder), results);
+        assertEquals(OrderStatus.ACCEPT, newOrder.getStatus());
+        assertEquals(OrderStatus.NEW, redelivered.getStatus());
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(itemService).createReservation(newOrder);
+        verify(itemService, never()).createReservation(redelivered);
+        verify(itemService).rollbackReservation(rollbackOrder);
+        verify(kafkaStockOrderProducerService).sendOrder(newOrder);
+        verify(itemService, never()).applyReservations(any());
+    }
+
+    @Test
+    public void processOrders_whenTransactionOfOrderRollsBack_processRemainingOrders() {
+        Order rejected = createOrder(OrderStatus.NEW);
+        Order accepted = createOrder(OrderStatus.NEW);
+        when(orderOutboxRepository.markProcessed(any(UUID.class), any())).thenReturn(true);
+        doThrow(new InsufficientAvailableStockException("Not enough stock")).when(itemService)
+                .createReservation(rejected);
+        rollBackFirstTransaction();
+
+        orderService.processOrders(List.of(rejected, accepted));
+
+        assertEquals(OrderStatus.REJECT, rejected.getStatus());
+        assertEquals(OrderStatus.ACCEPT, accepted.getStatus());
+        verify(itemService).createReservation(accepted);
+        verify(kafkaStockOrderProducerService).sendOrder(accepted);
+    }
+
+    @Test
+    public void purgeProcessedOrders_always_deleteIdsOlderThanRetention() {
+        ReflectionTestUtils.setField(orderService, "dedupRetentionHours", 24L);
+
+        orderService.purgeProcessedOrders();
+
+        verify(orderOutboxRepository).deleteProcessedBefore(argThat(
+                instant -> instant.isBefore(Instant.now().minusSeconds(23 * 3600))));
+    }
+
+    /**
+     * The first transaction fails at commit like one marked rollback-only by a refused stock change.
+     */
+    private void rollBackFirstTransaction() {
+        doAnswer(invocation -> {
+            invocation.getArgument(0, TransactionCallback.class).doInTransaction(null);
+            throw new UnexpectedRollbackException("Transaction silently rolled back");
+        }).doAnswer(invocation -> invocation.getArgument(0, TransactionCallback.class).doInTransaction(null))
+                .when(transactionTemplate).execute(any());
+    }
+
+    private Order createOrder(OrderStatus status) {
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setStatus(status);
+        return order;
+    }
+}
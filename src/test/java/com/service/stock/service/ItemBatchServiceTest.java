@@ -0,0 +1,217 @@
+package com.service.stock.service;
+
+import com.service.stock.cache.ItemCache;
+import com.service.stock.cache.ItemCountCache;
+import com.service.stock.converter.ConverterService;
+import com.service.stock.converter.ItemDtoToItemConverter;
+import com.service.stock.converter.ItemFromItemDtoUpdater;
+import com.service.stock.dto.DtoBatchResponse;
+import com.service.stock.dto.ItemBatchResult;
+import com.service.stock.dto.ItemDto;
+import com.service.stock.entity.Item;
+import com.service.stock.exception.EntityValidationException;
+import com.service.stock.model.StockMovement;
+import com.service.stock.model.StockMovementReason;
+import com.service.stock.movement.StockMovementLog;
+import com.service.stock.repository.ItemBatchRepository;
+import com.service.stock.reservation.StockReservationEngine;
+import com.service.stock.stocklevel.StockLevelPublisher;
+import com.service.stock.validation.ItemValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class ItemBatchServiceTest {
+
+    @Mock
+    private ItemValidator itemValidator;
+
+    @Mock
+    private ItemBatchRepository itemBatchRepository;
+
+    @Mock
+    private StockReservationEngine stockReservationEngine;
+
+    @Mock
+    private ItemCache itemCache;
+
+    @Mock
+    private ItemCountCache itemCountCache;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private StockMovementLog stockMovementLog;
+
+    @Mock
+    private StockLevelPublisher stockLevelPublisher;
+
+    private ItemBatchService itemBatchService;
+
+    @BeforeEach
+    public void setUp() {
+        ConverterService converter = new ConverterService(List.of(new ItemDtoToItemConverter()));
+        converter.init();
+        itemBatchService = new ItemBatchService(itemValidator, itemBatchRepository, new ItemFromItemDtoUpdater(),
+                converter, stockReservationEngine, itemCache, itemCountCache, transactionTemplate,
+                stockMovementLog, stockLevelPublisher);
+        ReflectionTestUtils.setField(itemBatchService, "maxSize", 5);
+        ReflectionTestUtils.setField(itemBatchService, "chunkSize", 2);
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+    }
+
+    @Test
+    public void createAll_whenItemsHaveNoId_allocateIdsPerChunk() {
+        when(itemBatchRepository.allocateIds(anyInt())).thenReturn(List.of(10L, 11L), List.of(12L));
+        when(itemBatchRepository.insert(any())).thenAnswer(invocation -> countsOf(invocation.getArgument(0), 1));
+
+        DtoBatchResponse response = itemBatchService.createAll(List.of(itemDto(null), itemDto(null), itemDto(null)));
+
+        assertEquals(3, response.getSucceeded());
+        assertEquals(0, response.getFailed());
+        assertEquals(List.of(10L, 11L, 12L), response.getResults().stream().map(ItemBatchResult::getId).toList());
+        assertTrue(response.getResults().stream().allMatch(r -> r.getStatus() == ItemBatchResult.Status.CREATED));
+        verify(itemBatchRepository).allocateIds(2);
+        verify(itemBatchRepository).allocateIds(1);
+        verify(itemBatchRepository, times(2)).insert(any());
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(itemCountCache).add(2);
+        verify(itemCountCache).add(1);
+    }
+
+    @Test
+    public void createAll_whenIdAlreadyExists_reportAlreadyExists() {
+        when(itemBatchRepository.allocateIds(anyInt())).thenReturn(List.of());
+        when(itemBatchRepository.insert(any())).thenReturn(new int[]{0});
+
+        DtoBatchResponse response = itemBatchService.createAll(List.of(itemDto(1L)));
+
+        assertEquals(ItemBatchResult.Status.ALREADY_EXISTS, response.getResults().get(0).getStatus());
+        assertEquals(1, response.getFailed());
+        verify(stockMovementLog).record(List.of());
+    }
+
+    @Test
+    public void createAll_whenPayloadHasInvalidItems_writeOnlyValidOnes() {
+        ItemDto invalid = itemDto(3L);
+        doThrow(new EntityValidationException("Item is not valid")).when(itemValidator)
+                .validate(argThat(item -> item.getId() != null && item.getId() == 3L));
+        when(itemBatchRepository.allocateIds(anyInt())).thenReturn(List.of());
+        when(itemBatchRepository.insert(any())).thenAnswer(invocation -> countsOf(invocation.getArgument(0), 1));
+
+        List<ItemDto> itemDtos = new ArrayList<>(Arrays.asList(itemDto(1L), itemDto(1L), null, invalid));
+        DtoBatchResponse response = itemBatchService.createAll(itemDtos);
+
+        assertEquals(List.of(ItemBatchResult.Status.CREATED, ItemBatchResult.Status.INVALID,
+                        ItemBatchResult.Status.INVALID, ItemBatchResult.Status.INVALID),
+                response.getResults().stream().map(ItemBatchResult::getStatus).toList());
+        assertEquals(List.of(0, 1, 2, 3), response.getResults().stream().map(ItemBatchResult::getIndex).toList());
+        verify(itemBatchRepository).insert(argThat(items -> items.size() == 1));
+        verify(stockMovementLog).record(List.of(
+                new StockMovement(1L, 10L, 0L, StockMovementReason.CREATE, null)));
+    }
+
+    @Test
+    public void createAll_whenChunkFails_reportFailedAndContinue() {
+        when(itemBatchRepository.allocateIds(anyInt())).thenReturn(List.of());
+        when(itemBatchRepository.insert(any())).thenThrow(DataAccessResourceFailureException.class)
+                .thenReturn(new int[]{1});
+
+        DtoBatchResponse response = itemBatchService.createAll(List.of(itemDto(1L), itemDto(2L), itemDto(3L)));
+
+        assertEquals(List.of(ItemBatchResult.Status.FAILED, ItemBatchResult.Status.FAILED,
+                        ItemBatchResult.Status.CREATED),
+                response.getResults().stream().map(ItemBatchResult::getStatus).toList());
+    }
+
+    @Test
+    public void createAll_whenBatchIsTooLarge_throwIllegalArgumentException() {
+        List<ItemDto> itemDtos = List.of(itemDto(1L), itemDto(2L), itemDto(3L), itemDto(4L), itemDto(5L), itemDto(6L));
+
+        assertThrows(IllegalArgumentException.class, () -> itemBatchService.createAll(itemDtos));
+        assertThrows(IllegalArgumentException.class, () -> itemBatchService.createAll(List.of()));
+
+        verifyNoInteractions(itemBatchRepository);
+    }
+
+    @Test
+    public void updateAll_whenItemsExist_updateNonNullFieldsAndEvict() {
+        when(itemBatchRepository.findAllForUpdate(List.of(1L, 2L)))
+                .thenReturn(List.of(new Item(1L, "first", 10L, 1L)));
+        when(itemBatchRepository.update(any())).thenReturn(new int[]{1});
+        ItemDto itemDto = new ItemDto();
+        itemDto.setId(1L);
+        itemDto.setStockAvailable(20L);
+
+        DtoBatchResponse response = itemBatchService.updateAll(List.of(itemDto, itemDto(2L)));
+
+        assertEquals(List.of(ItemBatchResult.Status.UPDATED, ItemBatchResult.Status.NOT_FOUND),
+                response.getResults().stream().map(ItemBatchResult::getStatus).toList());
+        verify(itemBatchRepository).update(argThat(items -> items.size() == 1 &&
+                items.get(0).getName().equals("first") && items.get(0).getStockAvailable() == 20L));
+        verify(stockReservationEngine).consolidate(List.of(1L, 2L));
+        verify(stockReservationEngine).evict(1L);
+        verify(itemCache).invalidate(1L);
+        verifyNoMoreInteractions(stockReservationEngine, itemCache);
+        verify(stockMovementLog).record(List.of(new StockMovement(1L, 10L, 0L, StockMovementReason.ADJUST, null)));
+    }
+
+    @Test
+    public void updateAll_whenIdIsMissingOrDuplicated_reportInvalid() {
+        when(itemBatchRepository.findAllForUpdate(List.of(1L))).thenReturn(List.of());
+
+        DtoBatchResponse response = itemBatchService.updateAll(List.of(new ItemDto(), itemDto(1L), itemDto(1L)));
+
+        assertEquals(List.of(ItemBatchResult.Status.INVALID, ItemBatchResult.Status.NOT_FOUND,
+                        ItemBatchResult.Status.INVALID),
+                response.getResults().stream().map(ItemBatchResult::getStatus).toList());
+        verify(itemBatchRepository).findAllForUpdate(List.of(1L));
+    }
+
+    @Test
+    public void updateAll_whenMergedItemIsInvalid_doNotUpdateIt() {
+        when(itemBatchRepository.findAllForUpdate(List.of(1L))).thenReturn(List.of(new Item(1L, "first", 10L, 1L)));
+        doThrow(new EntityValidationException("Item is not valid")).when(itemValidator).validate(any());
+
+        DtoBatchResponse response = itemBatchService.updateAll(List.of(itemDto(1L)));
+
+        assertEquals(ItemBatchResult.Status.INVALID, response.getResults().get(0).getStatus());
+        verify(itemBatchRepository, never()).update(any());
+        verify(stockReservationEngine).consolidate(List.of(1L));
+        verifyNoMoreInteractions(stockReservationEngine);
+        verifyNoInteractions(itemCache);
+    }
+
+    private static int[] countsOf(List<Item> items, int count) {
+        int[] counts = new int[items.size()];
+        Arrays.fill(counts, count);
+        return counts;
+    }
+
+    private static ItemDto itemDto(Long id) {
+        ItemDto itemDto = new ItemDto();
+        itemDto.setId(id);
+        itemDto.setName("name");
+        itemDto.setStockAvailable(10L);
+        itemDto.setStockReserved(0L);
+        return itemDto;
+    }
+}
@@ -0,0 +1,114 @@
+package com.service.stock.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.service.stock.entity.Item;
+import com.service.stock.exception.ServiceException;
+import com.service.stock.model.ExportFormat;
+import com.service.stock.repository.ItemRepository;
+import com.service.stock.repository.ItemStockBucketRepository;
+import com.service.stock.reservation.StockDelta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class ItemExportServiceTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private ItemStockBucketRepository itemStockBucketRepository;
+
+    private ItemExportService itemExportService;
+
+    @BeforeEach
+    public void setUp() {
+        itemExportService = new ItemExportService(itemRepository, new ObjectMapper(), itemStockBucketRepository);
+        ReflectionTestUtils.setField(itemExportService, "chunkSize", 2);
+    }
+
+    @Test
+    public void export_whenFormatIsNdjson_writeOneJsonObjectPerLine() throws IOException {
+        when(itemRepository.streamAll()).thenReturn(Stream.of(new Item(1L, "first", 10L, 0L),
+                new Item(2L, "second \"quoted\"", 5L, 1L)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        long count = itemExportService.export(ExportFormat.NDJSON, outputStream);
+
+        assertEquals(2, count);
+        assertEquals("""
+                {"id":1,"name":"first","stockAvailable":10,"stockReserved":0}
+                {"id":2,"name":"second \\"quoted\\"","stockAvailable":5,"stockReserved":1}
+                """, outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void export_whenItemIsStriped_writeTotals() throws IOException {
+        when(itemRepository.streamAll()).thenReturn(Stream.of(new Item(1L, "hot", 2L, 1L)));
+        when(itemStockBucketRepository.findAllStripedStock()).thenReturn(Map.of(1L, new StockDelta(1L, 40L, 3L)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        itemExportService.export(ExportFormat.NDJSON, outputStream);
+
+        assertEquals("{\"id\":1,\"name\":\"hot\",\"stockAvailable\":42,\"stockReserved\":4}\n",
+                outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void export_whenFormatIsCsv_writeHeaderAndEscapedRows() throws IOException {
+        when(itemRepository.streamAll()).thenReturn(Stream.of(new Item(1L, "plain", 10L, 0L),
+                new Item(2L, "with, \"quotes\"", 5L, 1L)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        itemExportService.export(ExportFormat.CSV, outputStream);
+
+        assertEquals("id,name,stockAvailable,stockReserved\n" +
+                "1,plain,10,0\n" +
+                "2,\"with, \"\"quotes\"\"\",5,1\n", outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void export_whenChunkIsComplete_flushOutputAndCloseStream() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(itemRepository.streamAll()).thenReturn(Stream.of(new Item(1L, "a", 1L, 0L), new Item(2L, "b", 1L, 0L),
+                new Item(3L, "c", 1L, 0L)).onClose(() -> closed.set(true)));
+        OutputStream outputStream = spy(new ByteArrayOutputStream());
+
+        itemExportService.export(ExportFormat.CSV, outputStream);
+
+        // After the first chunk and at the end
+        verify(outputStream, times(2)).flush();
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void export_whenRepositoryThrowsExceptionExtendsDataAccessException_throwServiceException() {
+        when(itemRepository.streamAll()).thenThrow(DataAccessResourceFailureException.class);
+
+        assertThrows(ServiceException.class,
+                () -> itemExportService.export(ExportFormat.NDJSON, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void export_whenFormatIsNull_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> itemExportService.export(null, new ByteArrayOutputStream()));
+
+        verifyNoInteractions(itemRepository);
+    }
+}
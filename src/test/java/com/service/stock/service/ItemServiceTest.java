@@ -1,28 +1,60 @@
 package com.service.stock.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.service.stock.cache.ItemCache;
+import com.service.stock.cache.ItemCountCache;
 import com.service.stock.converter.ConverterService;
 import com.service.stock.converter.ItemFromItemDtoUpdater;
+import com.service.stock.dto.DtoSearchResponse;
 import com.service.stock.dto.ItemDto;
 import com.service.stock.entity.Item;
 import com.service.stock.exception.*;
+import com.service.stock.model.CountMode;
 import com.service.stock.model.Order;
+import com.service.stock.model.OrderStatus;
 import com.service.stock.model.Product;
+import com.service.stock.model.Reservation;
+import com.service.stock.model.ReservationResult;
+import com.service.stock.model.ReservationState;
+import com.service.stock.model.StockMovement;
+import com.service.stock.model.StockMovementReason;
+import com.service.stock.movement.StockMovementLog;
+import com.service.stock.peageable.KeysetCursor;
+import com.service.stock.peageable.OffsetBasedPageRequest;
 import com.service.stock.repository.ItemRepository;
+import com.service.stock.repository.ItemSortColumn;
+import com.service.stock.repository.ItemStockBucketRepository;
+import com.service.stock.repository.ReservationRepository;
+import com.service.stock.reservation.ReservationExpiry;
+import com.service.stock.reservation.StockDelta;
+import com.service.stock.reservation.StockReservationEngine;
+import com.service.stock.stocklevel.StockLevelPublisher;
 import com.service.stock.validation.ItemStockValidator;
 import com.service.stock.validation.ItemValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullSource;
+import org.mockito.InOrder;
 import org.mockito.Mock;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.query.BadJpqlGrammarException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -48,10 +80,47 @@ public class ItemServiceTest {
     @Mock
     private ConverterService converter;
 
+    @Mock
+    private StockReservationEngine stockReservationEngine;
+
+    @Mock
+    private ItemCountCache itemCountCache;
+
+    @Mock
+    private ItemStockBucketRepository itemStockBucketRepository;
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private ReservationExpiry reservationExpiry;
+
+    @Mock
+    private StockMovementLog stockMovementLog;
+
+    @Mock
+    private StockLevelPublisher stockLevelPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ItemCache itemCache;
+
     @BeforeEach
     public void setUp() {
+        ItemCache cache = new ItemCache(new SimpleMeterRegistry(), new ObjectMapper());
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        ReflectionTestUtils.setField(cache, "ttlMs", 60_000L);
+        cache.init();
+        this.itemCache = spy(cache);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+        when(stockReservationEngine.isDurable()).thenReturn(true);
         this.itemService = new ItemService(itemValidator, itemRepository, itemStockValidator,
-                itemFromItemDtoUpdater, converter);
+                itemFromItemDtoUpdater, converter, stockReservationEngine, itemCache, itemCountCache,
+                itemStockBucketRepository, reservationRepository, reservationExpiry, stockMovementLog,
+                stockLevelPublisher, transactionTemplate);
     }
 
     @ParameterizedTest
@@ -107,8 +176,7 @@ public class ItemServiceTest {
     public void create_success() {
         ItemDto itemDto = new ItemDto();
         itemDto.setId(1L);
-        Item item = new Item();
-        item.setId(1L);
+        Item item = new Item(1L, "Name", 10L, 0L);
 
         when(converter.convert(itemDto, Item.class)).thenReturn(item);
         when(itemRepository.save(any())).thenReturn(item);
@@ -119,12 +187,15 @@ public class ItemServiceTest {
         verify(itemRepository).save(item);
         verify(itemRepository).existsById(any());
         verifyNoMoreInteractions(itemRepository);
+        verify(itemCountCache).add(1);
 
         verify(itemValidator).validate(item);
         verifyNoMoreInteractions(itemStockValidator);
 
         verify(converter).convert(itemDto, Item.class);
         verifyNoMoreInteractions(converter);
+
+        verify(stockMovementLog).record(new StockMovement(1L, 10L, 0L, StockMovementReason.CREATE, null));
     }
 
     @ParameterizedTest
@@ -153,8 +224,7 @@ public class ItemServiceTest {
     public void update_whenValidatorThrowsEntityValidationException_throwValidationException() {
         ItemDto itemDto = new ItemDto();
         itemDto.setId(1L);
-        Item item = new Item();
-        item.setId(1L);
+        Item item = new Item(1L, "Name", 10L, 0L);
 
         when(itemRepository.findById(any())).thenReturn(Optional.of(item));
 
@@ -191,8 +261,7 @@ public class ItemServiceTest {
     public void update_success() {
         ItemDto itemDto = new ItemDto();
         itemDto.setId(1L);
-        Item item = new Item();
-        item.setId(1L);
+        Item item = new Item(1L, "Name", 10L, 0L);
 
         when(itemRepository.findById(any())).thenReturn(Optional.ofNullable(item));
         when(itemRepository.save(any())).thenReturn(item);
@@ -212,6 +281,43 @@ public class ItemServiceTest {
 
         verify(converter).convert(item, ItemDto.class);
         verifyNoMoreInteractions(converter);
+
+        verify(stockReservationEngine).evict(1L);
+        verify(itemCache).invalidate(1L);
+        verifyNoInteractions(stockMovementLog);
+    }
+
+    @Test
+    public void update_whenStockChanges_recordAdjustment() {
+        ItemDto itemDto = new ItemDto();
+        itemDto.setStockAvailable(25L);
+        Item item = new Item(1L, "Name", 10L, 3L);
+
+        when(itemRepository.findById(any())).thenReturn(Optional.of(item));
+        when(itemRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        doAnswer(invocation -> {
+            item.setStockAvailable(25L);
+            return null;
+        }).when(itemFromItemDtoUpdater).update(itemDto, item);
+
+        itemService.update(itemDto, 1L);
+
+        verify(stockMovementLog).record(new StockMovement(1L, 15L, 0L, StockMovementReason.ADJUST, null));
+    }
+
+    @Test
+    public void update_consolidateStockBeforeReadingItem() {
+        ItemDto itemDto = new ItemDto();
+        Item item = new Item(1L, "Name", 10L, 0L);
+
+        when(itemRepository.findById(any())).thenReturn(Optional.of(item));
+        when(itemRepository.save(any())).thenReturn(item);
+
+        itemService.update(itemDto, 1L);
+
+        InOrder inOrder = inOrder(stockReservationEngine, itemRepository);
+        inOrder.verify(stockReservationEngine).consolidate(List.of(1L));
+        inOrder.verify(itemRepository).findById(1L);
     }
 
     @Test
@@ -247,6 +353,9 @@ public class ItemServiceTest {
         itemService.deleteById(1L);
 
         verify(itemRepository).deleteById(any());
+        verify(stockReservationEngine).evict(1L);
+        verify(itemCache).invalidate(1L);
+        verify(itemCountCache).add(-1);
     }
 
     @ParameterizedTest
@@ -283,7 +392,7 @@ public class ItemServiceTest {
     public void findAll_whenRepositoryThrowsExceptionExtendsDataAccessException_throwServiceException() {
         when(itemRepository.findAll(any(Pageable.class))).thenThrow(BadJpqlGrammarException.class);
 
-        assertThrows(ServiceException.class, () -> itemService.findAll(Pageable.unpaged()));
+        assertThrows(ServiceException.class, () -> itemService.findAll(Pageable.unpaged(), CountMode.EXACT));
 
         verify(itemRepository).findAll(any(Pageable.class));
     }
@@ -291,7 +400,7 @@ public class ItemServiceTest {
     @ParameterizedTest
     @NullSource
     public void findAll_whenPageableIsNull_throwIllegalArgumentException(Pageable nullPageable) {
-        assertThrows(IllegalArgumentException.class, () -> itemService.findAll(nullPageable));
+        assertThrows(IllegalArgumentException.class, () -> itemService.findAll(nullPageable, CountMode.EXACT));
 
         verifyNoInteractions(itemRepository);
     }
@@ -301,13 +410,100 @@ public class ItemServiceTest {
         when(itemRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
 
         Pageable pageable = mock(Pageable.class);
-        when(pageable.getSort()).thenReturn(mock(org.springframework.data.domain.Sort.class));
+        when(pageable.getSort()).thenReturn(mock(Sort.class));
 
-        assertDoesNotThrow(() -> itemService.findAll(pageable));
+        assertDoesNotThrow(() -> itemService.findAll(pageable, CountMode.NONE));
 
         verify(itemRepository).findAll(any(Pageable.class));
     }
 
+    @Test
+    public void findAll_whenPageIsFull_returnNextCursor() {
+        Item item = new Item(7L, "name", 10L, 0L);
+        when(itemRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(item)));
+
+        DtoSearchResponse response =
+                itemService.findAll(OffsetBasedPageRequest.of(1, 0, Sort.by("name")), CountMode.NONE);
+
+        assertEquals(new KeysetCursor("name", Sort.Direction.ASC, 7L, "name"),
+                KeysetCursor.decode(response.getNextCursor()));
+    }
+
+    @Test
+    public void findAll_whenCountModeIsApproximate_returnTotalOfItemCountCache() {
+        when(itemRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+        when(itemCountCache.getTotal(CountMode.APPROXIMATE)).thenReturn(1_000_000L);
+
+        DtoSearchResponse response = itemService.findAll(OffsetBasedPageRequest.of(10, 0), CountMode.APPROXIMATE);
+
+        assertEquals(1_000_000L, response.getTotal());
+        verify(itemCountCache).getTotal(CountMode.APPROXIMATE);
+    }
+
+    @Test
+    public void findAll_whenPageIsNotFull_returnNoNextCursor() {
+        Item item = new Item(7L, "name", 10L, 0L);
+        when(itemRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(item)));
+
+        DtoSearchResponse response =
+                itemService.findAll(OffsetBasedPageRequest.of(2, 0, Sort.by("name")), CountMode.NONE);
+
+        assertNull(response.getNextCursor());
+    }
+
+    @Test
+    public void findAllAfter_whenCursorIsEmpty_returnFirstPage() {
+        Item item = new Item(7L, "name", 10L, 0L);
+        when(itemRepository.findPageAfter(ItemSortColumn.STOCK_AVAILABLE, Sort.Direction.DESC, null, 1))
+                .thenReturn(List.of(item));
+        when(itemCountCache.getTotal(CountMode.EXACT)).thenReturn(42L);
+
+        DtoSearchResponse response = itemService.findAllAfter(null, 1, Sort.by(Sort.Direction.DESC, "stockAvailable"),
+                CountMode.EXACT);
+
+        assertNull(response.getOffset());
+        assertEquals(42L, response.getTotal());
+        assertEquals(new KeysetCursor("stockAvailable", Sort.Direction.DESC, 7L, "10"),
+                KeysetCursor.decode(response.getNextCursor()));
+    }
+
+    @Test
+    public void findAllAfter_whenCursorIsGiven_seekPastCursor() {
+        KeysetCursor cursor = new KeysetCursor("id", Sort.Direction.ASC, 7L, "7");
+        when(itemRepository.findPageAfter(ItemSortColumn.ID, Sort.Direction.ASC, cursor, 10)).thenReturn(List.of());
+
+        DtoSearchResponse response = itemService.findAllAfter(cursor.encode(), 10, Sort.by("id"), CountMode.NONE);
+
+        assertNull(response.getNextCursor());
+        verify(itemRepository).findPageAfter(ItemSortColumn.ID, Sort.Direction.ASC, cursor, 10);
+    }
+
+    @Test
+    public void findAllAfter_whenCursorWasCreatedForOtherSort_throwIllegalArgumentException() {
+        String after = new KeysetCursor("id", Sort.Direction.ASC, 7L, "7").encode();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> itemService.findAllAfter(after, 10, Sort.by("name"), CountMode.NONE));
+
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    public void findAllAfter_whenSortPropertyIsNotSupported_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> itemService.findAllAfter(null, 10, Sort.by("unknown"), CountMode.NONE));
+
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    public void findAllAfter_whenLimitIsNotPositive_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> itemService.findAllAfter(null, 0, Sort.by("id"), CountMode.NONE));
+
+        verifyNoInteractions(itemRepository);
+    }
+
     @ParameterizedTest
     @NullSource
     public void findByIdAsDto_whenIdIsNull_throwIllegalArgumentException(Long nullId) {
@@ -343,6 +539,59 @@ public class ItemServiceTest {
         verifyNoMoreInteractions(converter);
     }
 
+    @Test
+    public void findByIdAsDto_whenItemIsStriped_addBucketStock() {
+        Item item = new Item(1L, "name", 2L, 1L);
+        ItemDto itemDto = new ItemDto();
+        itemDto.setStockAvailable(2L);
+        itemDto.setStockReserved(1L);
+
+        when(itemRepository.findById(any())).thenReturn(Optional.of(item));
+        when(converter.convert(item, ItemDto.class)).thenReturn(itemDto);
+        when(itemStockBucketRepository.findStripedStock(List.of(1L)))
+                .thenReturn(Map.of(1L, new StockDelta(1L, 40L, 3L)));
+
+        ItemDto result = itemService.findByIdAsDto(1L);
+
+        assertEquals(42L, result.getStockAvailable());
+        assertEquals(4L, result.getStockReserved());
+    }
+
+    @Test
+    public void findByIdAsDto_whenCalledTwice_loadItemOnce() {
+        Item item = new Item();
+        item.setId(1L);
+        ItemDto itemDto = new ItemDto();
+        itemDto.setId(1L);
+
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(converter.convert(item, ItemDto.class)).thenReturn(itemDto);
+
+        assertEquals(itemDto, itemService.findByIdAsDto(1L));
+        assertEquals(itemDto, itemService.findByIdAsDto(1L));
+
+        verify(itemRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    public void findByIdAsDto_whenReservationWasCreatedInBetween_reloadItem() {
+        Item item = new Item();
+        item.setId(1L);
+        ItemDto itemDto = new ItemDto();
+        itemDto.setId(1L);
+        Order order = createOrder(createProduct(1L, 1));
+
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(converter.convert(item, ItemDto.class)).thenReturn(itemDto);
+        when(stockReservationEngine.reserve(1L, 1L)).thenReturn(true);
+
+        itemService.findByIdAsDto(1L);
+        itemService.createReservation(order);
+        itemService.findByIdAsDto(1L);
+
+        verify(itemRepository, times(2)).findById(1L);
+    }
+
     @ParameterizedTest
     @NullSource
     public void createReservation_whenOrderIsNull_throwIllegalArgumentException(Order nullOrder) {
@@ -350,94 +599,264 @@ public class ItemServiceTest {
     }
 
     @Test
-    public void createReservation_whenItemReservationValidatorThrowsValidationException_throwValidationException() {
-        Product product = new Product();
-        product.setId(1L);
-        product.setQuantity(1);
-        Order order = new Order();
-        order.setProduct(product);
+    public void createReservation_whenProductQuantityIsNotPositive_throwValidationException() {
+        Order order = createOrder(createProduct(1L, 0));
 
-        Item item = new Item();
-        item.setStockReserved(1L);
-        item.setStockAvailable(1L);
-        item.setId(1L);
+        assertThrows(ValidationException.class, () -> itemService.createReservation(order));
 
-        when(itemRepository.findById(any())).thenReturn(Optional.of(item));
+        verifyNoInteractions(itemRepository);
+    }
 
-        doThrow(ValidationException.class).when(itemStockValidator).validateReservationCreation(item, order);
+    @Test
+    public void createReservation_whenOrderIdIsNull_throwValidationException() {
+        Order order = createOrder(createProduct(1L, 1));
+        order.setId(null);
 
         assertThrows(ValidationException.class, () -> itemService.createReservation(order));
 
-        verify(itemStockValidator).validateReservationCreation(item, order);
+        verifyNoInteractions(stockReservationEngine, reservationRepository);
     }
 
     @Test
-    public void createReservation_whenItemDoesNotExists_throwEntityNotFoundException() {
-        Product product = new Product();
-        product.setId(1L);
-        product.setQuantity(1);
-        Order order = new Order();
-        order.setProduct(product);
+    public void createReservation_whenStockConditionIsNotMet_throwInsufficientAvailableStockException() {
+        Order order = createOrder(createProduct(1L, 1));
 
-        Item item = new Item();
-        item.setStockReserved(1L);
-        item.setStockAvailable(1L);
-        item.setId(1L);
+        when(stockReservationEngine.reserve(1L, 1L)).thenReturn(false);
+        when(itemRepository.existsById(1L)).thenReturn(true);
 
-        when(itemRepository.findById(any())).thenReturn(Optional.empty());
+        assertThrows(InsufficientAvailableStockException.class, () -> itemService.createReservation(order));
+
+        verify(stockReservationEngine).reserve(1L, 1L);
+        verify(itemRepository).existsById(1L);
+        verifyNoMoreInteractions(itemRepository);
+        verify(reservationRepository).findReservedItemIds(order.getId());
+        verifyNoMoreInteractions(reservationRepository);
+        verifyNoInteractions(reservationExpiry, stockMovementLog, stockLevelPublisher, transactionTemplate);
+    }
+
+    @Test
+    public void createReservation_whenItemDoesNotExists_throwEntityNotFoundException() {
+        Order order = createOrder(createProduct(1L, 1));
+
+        when(stockReservationEngine.reserve(1L, 1L)).thenReturn(false);
+        when(itemRepository.existsById(1L)).thenReturn(false);
 
         assertThrows(EntityNotFoundException.class, () -> itemService.createReservation(order));
 
-        verify(itemRepository).findById(any());
+        verify(stockReservationEngine).reserve(1L, 1L);
+        verify(itemRepository).existsById(1L);
     }
 
     @Test
     public void createReservation_whenItemRepositoryThrowsExceptionExtendsDataAccessException_throwServiceException() {
-        Product product = new Product();
-        product.setId(1L);
-        product.setQuantity(1);
-        Order order = new Order();
-        order.setProduct(product);
-
-        Item item = new Item();
-        item.setStockReserved(1L);
-        item.setStockAvailable(1L);
-        item.setId(1L);
+        Order order = createOrder(createProduct(1L, 1));
 
-        when(itemRepository.save(any())).thenThrow(BadJpqlGrammarException.class);
+        when(stockReservationEngine.reserve(1L, 1L)).thenThrow(BadJpqlGrammarException.class);
 
         assertThrows(ServiceException.class, () -> itemService.createReservation(order));
 
-        verify(itemRepository).findById(any());
+        verify(stockReservationEngine).reserve(1L, 1L);
     }
 
     @Test
     public void createReservation_success() {
-        Order order = new Order();
-        order.setCustomerId(1L);
+        Order order = createOrder(createProduct(1L, 1));
+        Instant deadline = Instant.now().plusSeconds(60);
 
-        Product product = new Product();
-        product.setId(1L);
-        product.setQuantity(1);
-        product.setPrice(100L);
+        when(stockReservationEngine.reserve(1L, 1L)).thenReturn(true);
+        when(reservationExpiry.deadline()).thenReturn(deadline);
 
-        order.setProduct(product);
+        itemService.createReservation(order);
 
-        Item item = new Item();
-        item.setId(1L);
-        item.setStockAvailable(1000L);
-        item.setStockReserved(0L);
+        verify(stockReservationEngine).reserve(1L, 1L);
+        verifyNoInteractions(itemRepository);
 
-        when(itemRepository.findById(any())).thenReturn(Optional.of(item));
+        verifyNoInteractions(itemStockValidator);
+        verify(itemCache).invalidate(1L);
+        verify(reservationRepository).saveAll(argThat(reservations -> reservations.size() == 1 &&
+                reservations.stream().allMatch(reservation -> order.getId().equals(reservation.getOrderId()) &&
+                        reservation.getItemId() == 1L && reservation.getQuantity() == 1 &&
+                        reservation.getState() == ReservationState.RESERVED &&
+                        deadline.equals(reservation.getExpiresAt()))));
+        verify(reservationExpiry).schedule(order.getId(), deadline);
+        verify(stockMovementLog).record(List.of(StockMovement.reserve(1L, 1L, order.getId())));
+    }
+
+    @Test
+    public void createReservation_whenOrderHasSeveralProducts_reserveInAscendingItemIdOrderAndSaveOneBatch() {
+        Order order = createOrder(createProduct(3L, 1), createProduct(1L, 2), createProduct(2L, 3));
+
+        when(stockReservationEngine.reserve(any(), anyLong())).thenReturn(true);
 
         itemService.createReservation(order);
 
-        verify(itemRepository).findById(any());
-        verify(itemRepository).save(item);
-        verifyNoMoreInteractions(itemRepository);
+        InOrder inOrder = inOrder(stockReservationEngine);
+        inOrder.verify(stockReservationEngine).reserve(1L, 2L);
+        inOrder.verify(stockReservationEngine).reserve(2L, 3L);
+        inOrder.verify(stockReservationEngine).reserve(3L, 1L);
+        verify(reservationRepository).saveAll(argThat(reservations -> reservations.stream()
+                .map(Reservation::getItemId).toList().equals(List.of(1L, 2L, 3L))));
+        verify(reservationRepository, never()).save(any());
+        verify(stockMovementLog).record(List.of(StockMovement.reserve(1L, 2L, order.getId()),
+                StockMovement.reserve(2L, 3L, order.getId()), StockMovement.reserve(3L, 1L, order.getId())));
+    }
 
-        verify(itemStockValidator).validateReservationCreation(item, order);
-        verifyNoMoreInteractions(itemStockValidator);
+    @Test
+    public void createReservation_whenProductsShareItem_reserveSummedQuantityOnce() {
+        Order order = createOrder(createProduct(1L, 2), createProduct(1L, 3));
+
+        when(stockReservationEngine.reserve(1L, 5L)).thenReturn(true);
+
+        itemService.createReservation(order);
+
+        verify(stockReservationEngine).reserve(1L, 5L);
+        verify(stockReservationEngine, times(1)).reserve(any(), anyLong());
+        verify(reservationRepository).saveAll(argThat(reservations -> reservations.size() == 1 &&
+                reservations.iterator().next().getQuantity() == 5));
+    }
+
+    @Test
+    public void createReservation_whenLaterProductIsRefused_releaseReservedProductsAndThrow() {
+        Order order = createOrder(createProduct(1L, 2), createProduct(2L, 3), createProduct(3L, 4));
+
+        when(stockReservationEngine.reserve(1L, 2L)).thenReturn(true);
+        when(stockReservationEngine.reserve(2L, 3L)).thenReturn(true);
+        when(stockReservationEngine.reserve(3L, 4L)).thenReturn(false);
+        when(stockReservationEngine.release(any(), anyLong())).thenReturn(true);
+        when(itemRepository.existsById(3L)).thenReturn(true);
+
+        assertThrows(InsufficientAvailableStockException.class, () -> itemService.createReservation(order));
+
+        InOrder inOrder = inOrder(stockReservationEngine);
+        inOrder.verify(stockReservationEngine).release(2L, 3L);
+        inOrder.verify(stockReservationEngine).release(1L, 2L);
+        verify(stockReservationEngine, never()).release(eq(3L), anyLong());
+        verify(reservationRepository, never()).saveAll(any());
+        verifyNoInteractions(stockMovementLog);
+    }
+
+    @Test
+    public void createReservation_whenSavingReservationFails_releaseStockAndThrowServiceException() {
+        Order order = createOrder(createProduct(1L, 2));
+
+        when(stockReservationEngine.reserve(1L, 2L)).thenReturn(true);
+        doThrow(new QueryTimeoutException("Timeout")).when(reservationRepository).saveAll(any());
+
+        assertThrows(ServiceException.class, () -> itemService.createReservation(order));
+
+        verify(stockReservationEngine).release(1L, 2L);
+        verify(reservationExpiry, never()).schedule(any(), any());
+    }
+
+    @Test
+    public void createReservation_whenEngineIsTransactional_lockItemsAndReserveInOneTransaction() {
+        Order order = createOrder(createProduct(2L, 3), createProduct(1L, 2));
+
+        when(stockReservationEngine.isTransactional()).thenReturn(true);
+        when(stockReservationEngine.reserve(any(), anyLong())).thenReturn(true);
+
+        itemService.createReservation(order);
+
+        InOrder inOrder = inOrder(transactionTemplate, itemRepository, stockReservationEngine, reservationRepository);
+        inOrder.verify(transactionTemplate).execute(any());
+        inOrder.verify(itemRepository).lockAllById(Set.of(1L, 2L));
+        inOrder.verify(stockReservationEngine).reserve(1L, 2L);
+        inOrder.verify(stockReservationEngine).reserve(2L, 3L);
+        inOrder.verify(reservationRepository).saveAll(any());
+        verify(reservationExpiry).schedule(eq(order.getId()), any());
+    }
+
+    @Test
+    public void createReservation_whenRefusedInTransaction_throwWithoutReleasing() {
+        Order order = createOrder(createProduct(1L, 2), createProduct(2L, 3));
+
+        when(stockReservationEngine.isTransactional()).thenReturn(true);
+        when(stockReservationEngine.reserve(1L, 2L)).thenReturn(true);
+        when(stockReservationEngine.reserve(2L, 3L)).thenReturn(false);
+        when(itemRepository.existsById(2L)).thenReturn(true);
+
+        assertThrows(InsufficientAvailableStockException.class, () -> itemService.createReservation(order));
+
+        verify(stockReservationEngine, never()).release(any(), anyLong());
+        verify(reservationRepository, never()).saveAll(any());
+        verifyNoInteractions(reservationExpiry, stockMovementLog);
+    }
+
+    @Test
+    public void createReservation_whenSingleProductIsCoalesced_reserveOutsideTransaction() {
+        Order order = createOrder(createProduct(1L, 2));
+
+        when(stockReservationEngine.isTransactional()).thenReturn(true);
+        when(stockReservationEngine.isCoalescing()).thenReturn(true);
+        when(stockReservationEngine.reserve(1L, 2L)).thenReturn(true);
+
+        itemService.createReservation(order);
+
+        InOrder inOrder = inOrder(stockReservationEngine, transactionTemplate, reservationRepository);
+        inOrder.verify(stockReservationEngine).reserve(1L, 2L);
+        inOrder.verify(transactionTemplate).execute(any());
+        inOrder.verify(reservationRepository).saveAll(any());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    public void createReservation_whenOrderIsRedelivered_skipLinesAlreadyReserved() {
+        Order order = createOrder(createProduct(1L, 2), createProduct(2L, 3));
+
+        when(reservationRepository.findReservedItemIds(order.getId())).thenReturn(Set.of(1L));
+        when(stockReservationEngine.reserve(2L, 3L)).thenReturn(true);
+
+        itemService.createReservation(order);
+
+        verify(stockReservationEngine).reserve(2L, 3L);
+        verify(stockReservationEngine, never()).reserve(eq(1L), anyLong());
+        verify(reservationRepository).saveAll(argThat(reservations -> reservations.stream()
+                .map(Reservation::getItemId).toList().equals(List.of(2L))));
+        verify(stockMovementLog).record(List.of(StockMovement.reserve(2L, 3L, order.getId())));
+    }
+
+    @Test
+    public void createReservation_whenEveryLineIsAlreadyReserved_doNothing() {
+        Order order = createOrder(createProduct(1L, 2));
+
+        when(reservationRepository.findReservedItemIds(order.getId())).thenReturn(Set.of(1L));
+
+        itemService.createReservation(order);
+
+        verify(stockReservationEngine, never()).reserve(any(), anyLong());
+        verify(reservationRepository, never()).saveAll(any());
+        verifyNoInteractions(reservationExpiry, stockMovementLog, transactionTemplate);
+    }
+
+    @Test
+    public void createReservation_whenEngineIsNotDurable_reserveReplayedLinesWithoutSavingThem() {
+        Order order = createOrder(createProduct(1L, 2), createProduct(2L, 3));
+
+        when(stockReservationEngine.isDurable()).thenReturn(false);
+        when(reservationRepository.findReservedItemIds(order.getId())).thenReturn(Set.of(1L));
+        when(stockReservationEngine.reserve(any(), anyLong())).thenReturn(true);
+
+        itemService.createReservation(order);
+
+        verify(stockReservationEngine).reserve(1L, 2L);
+        verify(stockReservationEngine).reserve(2L, 3L);
+        verify(reservationRepository).saveAll(argThat(reservations -> reservations.stream()
+                .map(Reservation::getItemId).toList().equals(List.of(2L))));
+        verify(reservationExpiry).schedule(eq(order.getId()), any());
+    }
+
+    @Test
+    public void createReservation_whenWritingMovementsFails_releaseStockAndThrowServiceException() {
+        Order order = createOrder(createProduct(1L, 2));
+
+        when(stockReservationEngine.reserve(1L, 2L)).thenReturn(true);
+        doThrow(new QueryTimeoutException("Timeout")).when(stockMovementLog).record(anyList());
+
+        assertThrows(ServiceException.class, () -> itemService.createReservation(order));
+
+        verify(reservationRepository).saveAll(any());
+        verify(stockReservationEngine).release(1L, 2L);
+        verify(reservationExpiry, never()).schedule(any(), any());
     }
 
     @ParameterizedTest
@@ -447,90 +866,132 @@ public class ItemServiceTest {
     }
 
     @Test
-    public void rollbackReservation_whenItemReservationValidatorThrowsValidationException_throwValidationException() {
-        Product product = new Product();
-        product.setId(1L);
-        product.setQuantity(1);
-        Order order = new Order();
-        order.setProduct(product);
+    public void rollbackReservation_whenProductQuantityIsNotPositive_throwValidationException() {
+        Order order = createOrder(createProduct(1L, 0));
 
-        Item item = new Item();
-        item.setStockReserved(1L);
-        item.setStockAvailable(1L);
-        item.setId(1L);
+        assertThrows(ValidationException.class, () -> itemService.rollbackReservation(order));
 
-        when(itemRepository.findById(any())).thenReturn(Optional.of(item));
+        verifyNoInteractions(itemRepository);
+    }
 
-        doThrow(ValidationException.class).when(itemStockValidator).validateReservationRollback(item, order);
+    @Test
+    public void rollbackReservation_whenStockConditionIsNotMet_throwInsufficientReserveStockException() {
+        Order order = createOrder(createProduct(1L, 1));
 
-        assertThrows(ValidationException.class, () -> itemService.rollbackReservation(order));
+        settle(order, ReservationState.ROLLED_BACK);
+        when(stockReservationEngine.release(1L, 1L)).thenReturn(false);
+        when(itemRepository.existsById(1L)).thenReturn(true);
 
-        verify(itemStockValidator).validateReservationRollback(item, order);
+        assertThrows(InsufficientReserveStockException.class, () -> itemService.rollbackReservation(order));
+
+        verify(stockReservationEngine).release(1L, 1L);
+        verify(itemRepository).existsById(1L);
+        verifyNoMoreInteractions(itemRepository);
     }
 
     @Test
     public void rollbackReservation_whenItemDoesNotExists_throwEntityNotFoundException() {
-        Product product = new Product();
-        product.setId(1L);
-        product.setQuantity(1);
-        Order order = new Order();
-        order.setProduct(product);
+        Order order = createOrder(createProduct(1L, 1));
 
-        Item item = new Item();
-        item.setStockReserved(1L);
-        item.setStockAvailable(1L);
-        item.setId(1L);
-
-        when(itemRepository.findById(any())).thenReturn(Optional.empty());
+        settle(order, ReservationState.ROLLED_BACK);
+        when(stockReservationEngine.release(1L, 1L)).thenReturn(false);
+        when(itemRepository.existsById(1L)).thenReturn(false);
 
         assertThrows(EntityNotFoundException.class, () -> itemService.rollbackReservation(order));
 
-        verify(itemRepository).findById(any());
+        verify(stockReservationEngine).release(1L, 1L);
+        verify(itemRepository).existsById(1L);
     }
 
     @Test
     public void rollbackReservation_whenItemRepositoryThrowsExceptionExtendsDataAccessException_throwServiceException() {
-        Product product = new Product();
-        product.setId(1L);
-        product.setQuantity(1);
-        Order order = new Order();
-        order.setProduct(product);
-
-        Item item = new Item();
-        item.setStockReserved(1L);
-        item.setStockAvailable(1L);
-        item.setId(1L);
+        Order order = createOrder(createProduct(1L, 1));
 
-        when(itemRepository.save(any())).thenThrow(BadJpqlGrammarException.class);
+        settle(order, ReservationState.ROLLED_BACK);
+        when(stockReservationEngine.release(1L, 1L)).thenThrow(BadJpqlGrammarException.class);
 
         assertThrows(ServiceException.class, () -> itemService.rollbackReservation(order));
 
-        verify(itemRepository).findById(any());
+        verify(stockReservationEngine).release(1L, 1L);
     }
 
     @Test
     public void rollbackReservation_success() {
-        Product product = new Product();
-        product.setId(1L);
-        product.setQuantity(1);
-        Order order = new Order();
-        order.setProduct(product);
+        Order order = createOrder(createProduct(1L, 1));
 
-        Item item = new Item();
-        item.setStockReserved(1L);
-        item.setStockAvailable(1L);
-        item.setId(1L);
+        settle(order, ReservationState.ROLLED_BACK);
+        when(stockReservationEngine.release(1L, 1L)).thenReturn(true);
 
-        when(itemRepository.findById(any())).thenReturn(Optional.of(item));
+        itemService.rollbackReservation(order);
+
+        verify(stockReservationEngine).release(1L, 1L);
+        verifyNoInteractions(itemRepository);
+
+        verifyNoInteractions(itemStockValidator);
+        verify(itemCache).invalidate(1L);
+        verify(stockMovementLog).record(StockMovement.release(1L, 1L, order.getId(), StockMovementReason.RELEASE));
+    }
+
+    @Test
+    public void rollbackReservation_whenOrderQuantityDiffers_releaseReservedQuantity() {
+        Order order = createOrder(createProduct(1L, 5));
+        Reservation reservation = Reservation.of(order, createProduct(1L, 2), Instant.now(), null);
+
+        when(reservationRepository.settle(order.getId(), ReservationState.ROLLED_BACK))
+                .thenReturn(List.of(reservation));
+        when(stockReservationEngine.release(1L, 2L)).thenReturn(true);
 
         itemService.rollbackReservation(order);
 
-        verify(itemRepository).findById(any());
-        verify(itemRepository).save(item);
-        verifyNoMoreInteractions(itemRepository);
+        verify(stockReservationEngine).release(1L, 2L);
+        verifyNoMoreInteractions(stockReservationEngine);
+    }
 
-        verify(itemStockValidator).validateReservationRollback(item, order);
-        verifyNoMoreInteractions(itemStockValidator);
+    @Test
+    public void rollbackReservation_whenAlreadyRolledBack_doNothing() {
+        Order order = createOrder(createProduct(1L, 1));
+
+        when(reservationRepository.findLatestState(order.getId()))
+                .thenReturn(Optional.of(ReservationState.ROLLED_BACK));
+
+        itemService.rollbackReservation(order);
+
+        verifyNoInteractions(stockReservationEngine);
+        verify(itemCache, never()).invalidate(any());
+    }
+
+    @Test
+    public void rollbackReservation_whenReservationExpired_doNotReleaseAgain() {
+        Order order = createOrder(createProduct(1L, 1));
+
+        when(reservationRepository.findLatestState(order.getId())).thenReturn(Optional.of(ReservationState.EXPIRED));
+
+        itemService.rollbackReservation(order);
+
+        verifyNoInteractions(stockReservationEngine);
+        verify(itemCache, never()).invalidate(any());
+    }
+
+    @Test
+    public void rollbackReservation_whenAlreadyConfirmed_throwReservationStateException() {
+        Order order = createOrder(createProduct(1L, 1));
+
+        when(reservationRepository.findLatestState(order.getId())).thenReturn(Optional.of(ReservationState.CONFIRMED));
+
+        assertThrows(ReservationStateException.class, () -> itemService.rollbackReservation(order));
+
+        verifyNoInteractions(stockReservationEngine);
+    }
+
+    @Test
+    public void rollbackReservation_whenThereIsNoReservation_throwReservationStateException() {
+        Order order = createOrder(createProduct(1L, 1));
+
+        when(reservationRepository.findLatestState(order.getId())).thenReturn(Optional.empty());
+
+        assertThrows(ReservationStateException.class, () -> itemService.rollbackReservation(order));
+
+        verifyNoInteractions(stockReservationEngine);
     }
 
     @ParameterizedTest
@@ -540,90 +1001,324 @@ public class ItemServiceTest {
     }
 
     @Test
-    public void confirmReservation_whenItemReservationValidatorThrowsValidationException_throwValidationException() {
-        Product product = new Product();
-        product.setId(1L);
-        product.setQuantity(1);
-        Order order = new Order();
-        order.setProduct(product);
+    public void confirmReservation_whenProductQuantityIsNotPositive_throwValidationException() {
+        Order order = createOrder(createProduct(1L, 0));
 
-        Item item = new Item();
-        item.setStockReserved(1L);
-        item.setStockAvailable(1L);
-        item.setId(1L);
+        assertThrows(ValidationException.class, () -> itemService.confirmReservation(order));
 
-        when(itemRepository.findById(any())).thenReturn(Optional.of(item));
+        verifyNoInteractions(itemRepository);
+    }
 
-        doThrow(ValidationException.class).when(itemStockValidator).validateReservationConfirmation(item, order);
+    @Test
+    public void confirmReservation_whenStockConditionIsNotMet_throwInsufficientReserveStockException() {
+        Order order = createOrder(createProduct(1L, 1));
 
-        assertThrows(ValidationException.class, () -> itemService.confirmReservation(order));
+        settle(order, ReservationState.CONFIRMED);
+        when(stockReservationEngine.confirm(1L, 1L)).thenReturn(false);
+        when(itemRepository.existsById(1L)).thenReturn(true);
 
-        verify(itemStockValidator).validateReservationConfirmation(item, order);
+        assertThrows(InsufficientReserveStockException.class, () -> itemService.confirmReservation(order));
+
+        verify(stockReservationEngine).confirm(1L, 1L);
+        verify(itemRepository).existsById(1L);
+        verifyNoMoreInteractions(itemRepository);
     }
 
     @Test
     public void confirmReservation_whenItemDoesNotExists_throwEntityNotFoundException() {
-        Product product = new Product();
-        product.setId(1L);
-        product.setQuantity(1);
-        Order order = new Order();
-        order.setProduct(product);
+        Order order = createOrder(createProduct(1L, 1));
 
-        Item item = new Item();
-        item.setStockReserved(1L);
-        item.setStockAvailable(1L);
-        item.setId(1L);
-
-        when(itemRepository.findById(any())).thenReturn(Optional.empty());
+        settle(order, ReservationState.CONFIRMED);
+        when(stockReservationEngine.confirm(1L, 1L)).thenReturn(false);
+        when(itemRepository.existsById(1L)).thenReturn(false);
 
         assertThrows(EntityNotFoundException.class, () -> itemService.confirmReservation(order));
 
-        verify(itemRepository).findById(any());
+        verify(stockReservationEngine).confirm(1L, 1L);
+        verify(itemRepository).existsById(1L);
     }
 
     @Test
     public void confirmReservation_whenItemRepositoryThrowsExceptionExtendsDataAccessException_throwServiceException() {
-        Product product = new Product();
-        product.setId(1L);
-        product.setQuantity(1);
-        Order order = new Order();
-        order.setProduct(product);
+        Order order = createOrder(createProduct(1L, 1));
 
-        Item item = new Item();
-        item.setStockReserved(1L);
-        item.setStockAvailable(1L);
-        item.setId(1L);
-
-        when(itemRepository.save(any())).thenThrow(BadJpqlGrammarException.class);
+        settle(order, ReservationState.CONFIRMED);
+        when(stockReservationEngine.confirm(1L, 1L)).thenThrow(BadJpqlGrammarException.class);
 
         assertThrows(ServiceException.class, () -> itemService.confirmReservation(order));
 
-        verify(itemRepository).findById(any());
+        verify(stockReservationEngine).confirm(1L, 1L);
     }
 
     @Test
     public void confirmReservation_success() {
-        Product product = new Product();
-        product.setId(1L);
-        product.setQuantity(1);
-        Order order = new Order();
-        order.setProduct(product);
+        Order order = createOrder(createProduct(1L, 1));
+
+        settle(order, ReservationState.CONFIRMED);
+        when(stockReservationEngine.confirm(1L, 1L)).thenReturn(true);
+
+        itemService.confirmReservation(order);
+
+        verify(stockReservationEngine).confirm(1L, 1L);
+        verifyNoInteractions(itemRepository);
+
+        verifyNoInteractions(itemStockValidator);
+        verify(itemCache).invalidate(1L);
+        verify(stockMovementLog).record(StockMovement.confirm(1L, 1L, order.getId()));
+    }
+
+    @Test
+    public void confirmReservation_whenAlreadyConfirmed_doNothing() {
+        Order order = createOrder(createProduct(1L, 1));
+
+        when(reservationRepository.findLatestState(order.getId())).thenReturn(Optional.of(ReservationState.CONFIRMED));
+
+        itemService.confirmReservation(order);
+
+        verifyNoInteractions(stockReservationEngine);
+    }
+
+    @Test
+    public void confirmReservation_whenReservationExpired_throwReservationExpiredException() {
+        Order order = createOrder(createProduct(1L, 1));
+
+        when(reservationRepository.findLatestState(order.getId())).thenReturn(Optional.of(ReservationState.EXPIRED));
+
+        assertThrows(ReservationExpiredException.class, () -> itemService.confirmReservation(order));
+
+        verifyNoInteractions(stockReservationEngine);
+    }
+
+    @Test
+    public void confirmReservation_whenSettlingThrowsExceptionExtendsDataAccessException_throwServiceException() {
+        Order order = createOrder(createProduct(1L, 1));
+
+        when(reservationRepository.settle(order.getId(), ReservationState.CONFIRMED))
+                .thenThrow(new QueryTimeoutException("Timeout"));
+
+        assertThrows(ServiceException.class, () -> itemService.confirmReservation(order));
+
+        verifyNoInteractions(stockReservationEngine);
+    }
+
+    @ParameterizedTest
+    @NullSource
+    public void applyReservations_whenOrdersIsNull_throwIllegalArgumentException(List<Order> nullOrders) {
+        assertThrows(IllegalArgumentException.class, () -> itemService.applyReservations(nullOrders));
+
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    public void applyReservations_whenItemRepositoryThrowsExceptionExtendsDataAccessException_throwServiceException() {
+        Order order = createOrder(createProduct(1L, 1));
+        order.setStatus(OrderStatus.NEW);
+
+        when(itemRepository.findAllById(any())).thenThrow(BadJpqlGrammarException.class);
+
+        assertThrows(ServiceException.class, () -> itemService.applyReservations(List.of(order)));
+
+        verify(itemRepository).lockAllById(Set.of(1L));
+        verify(itemRepository).findAllById(any());
+        verifyNoMoreInteractions(itemRepository);
+    }
+
+    @Test
+    public void applyReservations_whenStockRunsOut_rejectRemainingOrdersInArrivalOrder() {
+        ItemService service = new ItemService(itemValidator, itemRepository, new ItemStockValidator(),
+                itemFromItemDtoUpdater, converter, stockReservationEngine, itemCache, itemCountCache,
+                itemStockBucketRepository, reservationRepository, reservationExpiry, stockMovementLog,
+                stockLevelPublisher, transactionTemplate);
 
         Item item = new Item();
-        item.setStockReserved(1L);
-        item.setStockAvailable(1L);
         item.setId(1L);
+        item.setStockAvailable(3L);
+        item.setStockReserved(0L);
 
-        when(itemRepository.findById(any())).thenReturn(Optional.of(item));
+        Order first = createOrder(createProduct(1L, 2));
+        first.setStatus(OrderStatus.NEW);
+        Order second = createOrder(createProduct(1L, 2));
+        second.setStatus(OrderStatus.NEW);
+        Order third = createOrder(createProduct(1L, 1));
+        third.setStatus(OrderStatus.NEW);
 
-        itemService.confirmReservation(order);
+        when(itemRepository.findAllById(any())).thenReturn(List.of(item));
 
-        verify(itemRepository).findById(any());
-        verify(itemRepository).save(item);
+        List<ReservationResult> results = service.applyReservations(List.of(first, second, third));
+
+        assertEquals(List.of(true, false, true), results.stream().map(ReservationResult::isApplied).toList());
+        assertEquals(0L, item.getStockAvailable());
+        assertEquals(3L, item.getStockReserved());
+
+        InOrder inOrder = inOrder(itemRepository);
+        inOrder.verify(itemRepository).lockAllById(Set.of(1L));
+        inOrder.verify(itemRepository).findAllById(Set.of(1L));
+        inOrder.verify(itemRepository).saveAll(List.of(item));
         verifyNoMoreInteractions(itemRepository);
+        verify(itemCache).invalidateAll(Set.of(1L));
+        verify(stockLevelPublisher).changed(Set.of(1L));
+        verify(reservationRepository).saveAll(argThat(reservations -> reservations.stream()
+                .map(Reservation::getOrderId).toList().equals(List.of(first.getId(), third.getId()))));
+    }
 
-        verify(itemStockValidator).validateReservationConfirmation(item, order);
+    @Test
+    public void applyReservations_whenOneProductOfOrderIsRefused_rejectWholeOrderAndKeepStock() {
+        ItemService service = new ItemService(itemValidator, itemRepository, new ItemStockValidator(),
+                itemFromItemDtoUpdater, converter, stockReservationEngine, itemCache, itemCountCache,
+                itemStockBucketRepository, reservationRepository, reservationExpiry, stockMovementLog,
+                stockLevelPublisher, transactionTemplate);
+
+        Item first = new Item(1L, "First", 5L, 0L);
+        Item second = new Item(2L, "Second", 1L, 0L);
+
+        Order refused = createOrder(createProduct(2L, 2), createProduct(1L, 3));
+        refused.setStatus(OrderStatus.NEW);
+        Order accepted = createOrder(createProduct(2L, 1), createProduct(1L, 5));
+        accepted.setStatus(OrderStatus.NEW);
+
+        when(itemRepository.findAllById(any())).thenReturn(List.of(second, first));
+
+        List<ReservationResult> results = service.applyReservations(List.of(refused, accepted));
+
+        assertEquals(List.of(false, true), results.stream().map(ReservationResult::isApplied).toList());
+        assertEquals(0L, first.getStockAvailable());
+        assertEquals(5L, first.getStockReserved());
+        assertEquals(0L, second.getStockAvailable());
+        assertEquals(1L, second.getStockReserved());
+
+        verify(itemRepository).saveAll(List.of(first, second));
+        verify(reservationRepository).saveAll(argThat(reservations -> reservations.stream()
+                .map(Reservation::getItemId).toList().equals(List.of(1L, 2L)) &&
+                reservations.stream().allMatch(reservation -> accepted.getId().equals(reservation.getOrderId()))));
+        verify(stockMovementLog, never()).record(StockMovement.reserve(1L, 3L, refused.getId()));
+    }
+
+    @Test
+    public void applyReservations_whenItemDoesNotExist_rejectOnlyOrdersForThatItem() {
+        Item item = new Item();
+        item.setId(1L);
+        item.setStockAvailable(10L);
+        item.setStockReserved(5L);
+
+        Order newOrder = createOrder(createProduct(1L, 1));
+        newOrder.setStatus(OrderStatus.NEW);
+        Order confirmationOrder = createOrder(createProduct(1L, 2));
+        confirmationOrder.setStatus(OrderStatus.CONFIRMATION);
+        Order missingItemOrder = createOrder(createProduct(2L, 1));
+        missingItemOrder.setStatus(OrderStatus.NEW);
+        Reservation reservation = Reservation.of(confirmationOrder, confirmationOrder.getProduct(), Instant.now(),
+                null);
+
+        when(reservationRepository.findAllForUpdate(Set.of(confirmationOrder.getId())))
+                .thenReturn(List.of(reservation));
+        when(itemRepository.findAllById(any())).thenReturn(List.of(item));
+
+        List<ReservationResult> results =
+                itemService.applyReservations(List.of(newOrder, confirmationOrder, missingItemOrder));
+
+        assertEquals(List.of(true, true, false), results.stream().map(ReservationResult::isApplied).toList());
+        assertEquals(9L, item.getStockAvailable());
+        assertEquals(4L, item.getStockReserved());
+
+        verify(itemStockValidator).validateReservationCreation(eq(item),
+                argThat(order -> newOrder.getId().equals(order.getId())));
+        verify(itemStockValidator).validateReservationConfirmation(item, reservation.toOrder());
         verifyNoMoreInteractions(itemStockValidator);
+        verify(itemRepository).saveAll(List.of(item));
+        verify(reservationRepository).updateStates(List.of(reservation));
+        assertEquals(ReservationState.CONFIRMED, reservation.getState());
+        verify(stockMovementLog).record(StockMovement.reserve(1L, 1L, newOrder.getId()));
+        verify(stockMovementLog).record(StockMovement.confirm(1L, 2L, confirmationOrder.getId()));
+        verifyNoMoreInteractions(stockMovementLog);
     }
-}
 
+    @Test
+    public void applyReservations_whenOrderIsSettledTwice_applyItOnce() {
+        Item item = new Item();
+        item.setId(1L);
+        item.setStockAvailable(10L);
+        item.setStockReserved(5L);
+
+        Order rollbackOrder = createOrder(createProduct(1L, 2));
+        rollbackOrder.setStatus(OrderStatus.ROLLBACK);
+        Order duplicateOrder = createOrder(createProduct(1L, 2));
+        duplicateOrder.setId(rollbackOrder.getId());
+        duplicateOrder.setStatus(OrderStatus.ROLLBACK);
+        Reservation reservation = Reservation.of(rollbackOrder, rollbackOrder.getProduct(), Instant.now(), null);
+
+        when(reservationRepository.findAllForUpdate(Set.of(rollbackOrder.getId()))).thenReturn(List.of(reservation));
+        when(itemRepository.findAllById(any())).thenReturn(List.of(item));
+
+        List<ReservationResult> results = itemService.applyReservations(List.of(rollbackOrder, duplicateOrder));
+
+        assertEquals(List.of(true, true), results.stream().map(ReservationResult::isApplied).toList());
+        assertEquals(12L, item.getStockAvailable());
+        assertEquals(3L, item.getStockReserved());
+        verify(stockMovementLog, times(1)).record(any(StockMovement.class));
+        verify(itemStockValidator).validateReservationRollback(item, reservation.toOrder());
+        verifyNoMoreInteractions(itemStockValidator);
+    }
+
+    @Test
+    public void applyReservations_whenOrderIsReservedAndConfirmedInBatch_storeConfirmedReservation() {
+        Item item = new Item();
+        item.setId(1L);
+        item.setStockAvailable(10L);
+        item.setStockReserved(0L);
+
+        Order newOrder = createOrder(createProduct(1L, 2));
+        newOrder.setStatus(OrderStatus.NEW);
+        Order confirmationOrder = createOrder(createProduct(1L, 2));
+        confirmationOrder.setId(newOrder.getId());
+        confirmationOrder.setStatus(OrderStatus.CONFIRMATION);
+
+        when(itemRepository.findAllById(any())).thenReturn(List.of(item));
+
+        List<ReservationResult> results = itemService.applyReservations(List.of(newOrder, confirmationOrder));
+
+        assertEquals(List.of(true, true), results.stream().map(ReservationResult::isApplied).toList());
+        assertEquals(8L, item.getStockAvailable());
+        assertEquals(0L, item.getStockReserved());
+        verify(reservationRepository).saveAll(argThat(reservations -> reservations.size() == 1 &&
+                reservations.iterator().next().getState() == ReservationState.CONFIRMED));
+        verify(reservationRepository).updateStates(List.of());
+        verify(reservationExpiry, never()).schedule(any(), any());
+    }
+
+    @Test
+    public void applyReservations_whenConfirmingUnknownOrder_rejectOrder() {
+        Order confirmationOrder = createOrder(createProduct(1L, 2));
+        confirmationOrder.setStatus(OrderStatus.CONFIRMATION);
+
+        List<ReservationResult> results = itemService.applyReservations(List.of(confirmationOrder));
+
+        assertEquals(List.of(false), results.stream().map(ReservationResult::isApplied).toList());
+        verifyNoInteractions(itemStockValidator);
+    }
+
+    private void settle(Order order, ReservationState state) {
+        when(reservationRepository.settle(order.getId(), state))
+                .thenReturn(List.of(Reservation.of(order, order.getProduct(), Instant.now(), null)));
+    }
+
+    private Order createOrder(Product product) {
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setProduct(product);
+        return order;
+    }
+
+    private Order createOrder(Product... products) {
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setProducts(List.of(products));
+        return order;
+    }
+
+    private Product createProduct(Long id, Integer quantity) {
+        Product product = new Product();
+        product.setId(id);
+        product.setQuantity(quantity);
+        return product;
+    }
+}
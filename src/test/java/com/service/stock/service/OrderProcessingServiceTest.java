@@ -1,7 +1,8 @@
 package com.service.stock.service;
 
-import com.service.avro.model.AvroOrder;
-import com.service.avro.model.AvroOrderStatus;
+import com.service.stock.cache.OrderIdempotencyCache;
+import com.service.stock.model.Order;
+import com.service.stock.model.OrderStatus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,6 +11,11 @@ import org.junit.jupiter.params.provider.NullSource;
 import org.mockito.Mock;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
@@ -22,67 +28,173 @@ public class OrderProcessingServiceTest {
     @Mock
     private OrderService orderService;
 
+    @Mock
+    private OrderIdempotencyCache orderIdempotencyCache;
+
     @BeforeEach
     public void setUp(){
-        this.orderProcessingService = new OrderProcessingService(orderService);
+        this.orderProcessingService = new OrderProcessingService(orderService, orderIdempotencyCache);
     }
 
     @ParameterizedTest
     @NullSource
-    public void process_whenAvroOrderIsNull_throwIllegalArgumentException(AvroOrder nullAvroOrder){
-        assertThrows(IllegalArgumentException.class, () -> orderProcessingService.process(nullAvroOrder));
+    public void process_whenOrderIsNull_throwIllegalArgumentException(Order nullOrder){
+        assertThrows(IllegalArgumentException.class, () -> orderProcessingService.process(nullOrder));
     }
 
     @Test
-    public void process_whenAvroOrderStatusIsNew_callOrderServiceProcessNewOrder(){
-        AvroOrder avroOrder = new AvroOrder();
-        avroOrder.setStatus(AvroOrderStatus.NEW);
+    public void process_whenOrderStatusIsNew_callOrderServiceProcessNewOrder(){
+        Order order = new Order();
+        order.setStatus(OrderStatus.NEW);
 
-        assertDoesNotThrow(() -> orderProcessingService.process(avroOrder));
+        assertDoesNotThrow(() -> orderProcessingService.process(order));
 
-        verify(orderService).processNewOrder(avroOrder);
+        verify(orderService).processNewOrder(order);
         verifyNoMoreInteractions(orderService);
     }
 
     @Test
-    public void process_whenAvroOrderStatusIsRollback_callOrderServiceProcessRollbackOrder(){
-        AvroOrder avroOrder = new AvroOrder();
-        avroOrder.setStatus(AvroOrderStatus.ROLLBACK);
+    public void process_whenOrderStatusIsRollback_callOrderServiceProcessRollbackOrder(){
+        Order order = new Order();
+        order.setStatus(OrderStatus.ROLLBACK);
 
-        assertDoesNotThrow(() -> orderProcessingService.process(avroOrder));
+        assertDoesNotThrow(() -> orderProcessingService.process(order));
 
-        verify(orderService).processRollbackOrder(avroOrder);
+        verify(orderService).processRollbackOrder(order);
         verifyNoMoreInteractions(orderService);
     }
 
     @Test
-    public void process_whenAvroOrderStatusIsConfirmation_callOrderServiceProcessConfirmationOrder(){
-        AvroOrder avroOrder = new AvroOrder();
-        avroOrder.setStatus(AvroOrderStatus.CONFIRMATION);
+    public void process_whenOrderStatusIsConfirmation_callOrderServiceProcessConfirmationOrder(){
+        Order order = new Order();
+        order.setStatus(OrderStatus.CONFIRMATION);
 
-        assertDoesNotThrow(() -> orderProcessingService.process(avroOrder));
+        assertDoesNotThrow(() -> orderProcessingService.process(order));
 
-        verify(orderService).processConfirmationOrder(avroOrder);
+        verify(orderService).processConfirmationOrder(order);
         verifyNoMoreInteractions(orderService);
     }
 
     @Test
-    public void process_whenAvroOrderStatusIsNull_doesNotThrowAnyExceptionsAndDoesNotCallAnyOrderServiceMethod(){
-        AvroOrder avroOrder = new AvroOrder();
+    public void process_whenOrderStatusIsNull_doesNotThrowAnyExceptionsAndDoesNotCallAnyOrderServiceMethod(){
+        Order order = new Order();
 
-        assertDoesNotThrow(() -> orderProcessingService.process(avroOrder));
+        assertDoesNotThrow(() -> orderProcessingService.process(order));
 
         verifyNoInteractions(orderService);
     }
 
     @Test
     public void process_whenUnknownOrderStatus_doesNotThrowAnyExceptionsAndDoesNotCallAnyOrderServiceMethod(){
-        AvroOrder avroOrder = new AvroOrder();
-        avroOrder.setStatus(AvroOrderStatus.ACCEPT);
+        Order order = new Order();
+        order.setStatus(OrderStatus.ACCEPT);
+
+        assertDoesNotThrow(() -> orderProcessingService.process(order));
+
+        verifyNoInteractions(orderService);
+    }
+
+    @ParameterizedTest
+    @NullSource
+    public void processBatch_whenOrdersIsNull_throwIllegalArgumentException(List<Order> nullOrders){
+        assertThrows(IllegalArgumentException.class, () -> orderProcessingService.processBatch(nullOrders));
+    }
+
+    @Test
+    public void processBatch_skipOrdersWithoutProcessableStatus(){
+        Order newOrder = new Order();
+        newOrder.setStatus(OrderStatus.NEW);
+        Order acceptOrder = new Order();
+        acceptOrder.setStatus(OrderStatus.ACCEPT);
+        Order nullStatusOrder = new Order();
+        Order confirmationOrder = new Order();
+        confirmationOrder.setStatus(OrderStatus.CONFIRMATION);
+
+        assertDoesNotThrow(() -> orderProcessingService.processBatch(
+                Arrays.asList(newOrder, acceptOrder, null, nullStatusOrder, confirmationOrder)));
+
+        verify(orderService).processOrders(List.of(newOrder, confirmationOrder));
+        verifyNoMoreInteractions(orderService);
+    }
+
+    @Test
+    public void processBatch_whenNoProcessableOrders_doesNotCallAnyOrderServiceMethod(){
+        Order rejectOrder = new Order();
+        rejectOrder.setStatus(OrderStatus.REJECT);
+
+        assertDoesNotThrow(() -> orderProcessingService.processBatch(List.of(rejectOrder)));
+
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    public void process_whenNewOrderIsProcessed_cacheResult(){
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setStatus(OrderStatus.NEW);
+        when(orderService.processNewOrder(order)).thenAnswer(invocation -> {
+            order.setStatus(OrderStatus.ACCEPT);
+            return order;
+        });
+
+        orderProcessingService.process(order);
+
+        verify(orderIdempotencyCache).putResult(order.getId(), OrderStatus.NEW, OrderStatus.ACCEPT);
+    }
 
-        assertDoesNotThrow(() -> orderProcessingService.process(avroOrder));
+    @Test
+    public void process_whenNewOrderIsRedelivered_sendCachedResultWithoutProcessing(){
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setStatus(OrderStatus.NEW);
+
+        when(orderIdempotencyCache.getResult(order.getId(), OrderStatus.NEW))
+                .thenReturn(Optional.of(OrderStatus.REJECT));
+
+        orderProcessingService.process(order);
+
+        verify(orderService).sendResult(order, OrderStatus.REJECT);
+        verifyNoMoreInteractions(orderService);
+    }
+
+    @Test
+    public void process_whenRollbackOrderIsRedelivered_skipOrder(){
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setStatus(OrderStatus.ROLLBACK);
+
+        when(orderIdempotencyCache.getResult(order.getId(), OrderStatus.ROLLBACK))
+                .thenReturn(Optional.of(OrderStatus.ROLLBACK));
+
+        orderProcessingService.process(order);
 
         verifyNoInteractions(orderService);
     }
 
+    @Test
+    public void processBatch_whenOrderIsRedelivered_processOnlyNewOnesAndCacheTheirResults(){
+        Order redeliveredOrder = new Order();
+        redeliveredOrder.setId(UUID.randomUUID());
+        redeliveredOrder.setStatus(OrderStatus.NEW);
+        Order newOrder = new Order();
+        newOrder.setId(UUID.randomUUID());
+        newOrder.setStatus(OrderStatus.NEW);
+        Order result = new Order();
+        result.setStatus(OrderStatus.REJECT);
+
+        when(orderIdempotencyCache.getResult(redeliveredOrder.getId(), OrderStatus.NEW))
+                .thenReturn(Optional.of(OrderStatus.ACCEPT));
+        when(orderService.processOrders(List.of(newOrder))).thenAnswer(invocation -> {
+            newOrder.setStatus(OrderStatus.REJECT);
+            return List.of(result);
+        });
+
+        orderProcessingService.processBatch(List.of(redeliveredOrder, newOrder));
+
+        verify(orderService).sendResult(redeliveredOrder, OrderStatus.ACCEPT);
+        verify(orderService).processOrders(List.of(newOrder));
+        verify(orderIdempotencyCache).putResult(newOrder.getId(), OrderStatus.NEW, OrderStatus.REJECT);
+        verifyNoMoreInteractions(orderService);
+    }
+
 }
@@ -1,10 +1,14 @@
 package com.service.stock.service;
 
-import com.service.avro.model.AvroOrder;
-import com.service.stock.converter.ConverterService;
+import com.service.stock.exception.InsufficientAvailableStockException;
+import com.service.stock.exception.InsufficientReserveStockException;
 import com.service.stock.exception.ServiceException;
+import com.service.stock.exception.ValidationException;
+import com.service.stock.metrics.OrderMetrics;
 import com.service.stock.model.Order;
 import com.service.stock.model.OrderStatus;
+import com.service.stock.model.ReservationResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,7 +17,10 @@ import org.junit.jupiter.params.provider.NullSource;
 import org.mockito.Mock;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(SpringExtension.class)
@@ -21,117 +28,216 @@ public class OrderServiceTest {
 
     private OrderService orderService;
 
+    private SimpleMeterRegistry meterRegistry;
+
     @Mock
     private ItemService itemService;
 
     @Mock
     private KafkaStockOrderProducerService kafkaStockOrderProducerService;
 
-    @Mock
-    private ConverterService converterService;
-
     @BeforeEach
     public void setUp(){
-        this.orderService = new OrderService(itemService, kafkaStockOrderProducerService, converterService);
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.orderService = new OrderService(itemService, kafkaStockOrderProducerService,
+                new OrderMetrics(meterRegistry));
     }
 
     @ParameterizedTest
     @NullSource
-    public void processNewOrder_whenAvroOrderIsNull_throwIllegalArgumentException(AvroOrder nullAvroOrder){
-        assertThrows(IllegalArgumentException.class, () -> orderService.processNewOrder(nullAvroOrder));
+    public void processNewOrder_whenOrderIsNull_throwIllegalArgumentException(Order nullOrder){
+        assertThrows(IllegalArgumentException.class, () -> orderService.processNewOrder(nullOrder));
     }
 
     @ParameterizedTest
     @NullSource
-    public void processRollbackOrder_whenAvroOrderIsNull_throwIllegalArgumentException(AvroOrder nullAvroOrder){
-        assertThrows(IllegalArgumentException.class, () -> orderService.processRollbackOrder(nullAvroOrder));
+    public void processRollbackOrder_whenOrderIsNull_throwIllegalArgumentException(Order nullOrder){
+        assertThrows(IllegalArgumentException.class, () -> orderService.processRollbackOrder(nullOrder));
     }
 
     @ParameterizedTest
     @NullSource
-    public void processConfirmationOrder_whenAvroOrderIsNull_throwIllegalArgumentException(AvroOrder nullAvroOrder){
-        assertThrows(IllegalArgumentException.class, () -> orderService.processConfirmationOrder(nullAvroOrder));
+    public void processConfirmationOrder_whenOrderIsNull_throwIllegalArgumentException(Order nullOrder){
+        assertThrows(IllegalArgumentException.class, () -> orderService.processConfirmationOrder(nullOrder));
     }
 
     @Test
     public void processNewOrder_whenItemServiceThrowsServiceException_setOrderStatusToRejectAndDoNotThrowAnyException(){
-        AvroOrder avroOrder = new AvroOrder();
         Order order = new Order();
         order.setStatus(OrderStatus.NEW);
 
-        when(converterService.convert(avroOrder, Order.class)).thenReturn(order);
         doThrow(ServiceException.class).when(itemService).createReservation(order);
 
-        assertDoesNotThrow(() -> orderService.processNewOrder(avroOrder));
+        assertDoesNotThrow(() -> orderService.processNewOrder(order));
         assertEquals(order.getStatus(), OrderStatus.REJECT);
 
-        verify(converterService).convert(avroOrder, Order.class);
         verify(itemService).createReservation(order);
         verify(kafkaStockOrderProducerService).sendOrder(order);
     }
 
+    @Test
+    public void processNewOrder_whenOrderIsInvalid_publishRejectWithReason(){
+        Order order = new Order();
+        order.setStatus(OrderStatus.NEW);
+
+        doThrow(new ValidationException("Product must be provided")).when(itemService).createReservation(order);
+
+        assertDoesNotThrow(() -> orderService.processNewOrder(order));
+        assertEquals(OrderStatus.REJECT, order.getStatus());
+
+        verify(kafkaStockOrderProducerService).sendOrder(order);
+        assertEquals(1, meterRegistry.get(OrderMetrics.RESULT_COUNTER_NAME)
+                .tag("reason", "invalid_order").counter().count());
+    }
+
     @Test
     public void processNewOrder_whenItemServiceDoesNotThrowServiceException_setOrderStatusToAccept(){
-        AvroOrder avroOrder = new AvroOrder();
         Order order = new Order();
         order.setStatus(OrderStatus.NEW);
 
-        when(converterService.convert(avroOrder, Order.class)).thenReturn(order);
 
-        assertDoesNotThrow(() -> orderService.processNewOrder(avroOrder));
+        assertDoesNotThrow(() -> orderService.processNewOrder(order));
         assertEquals(order.getStatus(), OrderStatus.ACCEPT);
 
-        verify(converterService).convert(avroOrder, Order.class);
         verify(itemService).createReservation(order);
         verify(kafkaStockOrderProducerService).sendOrder(order);
     }
 
+    @Test
+    public void processNewOrder_recordTimersAndCountResult(){
+        Order order = new Order();
+        order.setStatus(OrderStatus.NEW);
+
+
+        orderService.processNewOrder(order);
+
+        assertEquals(1, meterRegistry.get(OrderMetrics.RESERVATION_TIMER_NAME).tag("operation", "create")
+                .tag("outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get(OrderMetrics.PUBLISH_TIMER_NAME).tag("outcome", "success").timer()
+                .count());
+        assertEquals(1, meterRegistry.get(OrderMetrics.RESULT_COUNTER_NAME).tag("status", "ACCEPT")
+                .tag("reason", OrderMetrics.NO_REASON).counter().count());
+    }
+
+    @Test
+    public void processNewOrder_whenStockIsInsufficient_countRejectWithReason(){
+        Order order = new Order();
+        order.setStatus(OrderStatus.NEW);
+
+        doThrow(InsufficientAvailableStockException.class).when(itemService).createReservation(order);
+
+        orderService.processNewOrder(order);
+
+        assertEquals(1, meterRegistry.get(OrderMetrics.RESERVATION_TIMER_NAME).tag("operation", "create")
+                .tag("outcome", "failure").timer().count());
+        assertEquals(1, meterRegistry.get(OrderMetrics.RESULT_COUNTER_NAME).tag("status", "REJECT")
+                .tag("reason", "insufficient_stock").counter().count());
+    }
+
     @Test
     public void processRollbackOrder_whenAllIsFine(){
-        AvroOrder avroOrder = new AvroOrder();
         Order order = new Order();
         order.setStatus(OrderStatus.NEW);
 
-        when(converterService.convert(avroOrder, Order.class)).thenReturn(order);
 
-        assertDoesNotThrow(() -> orderService.processRollbackOrder(avroOrder));
+        assertDoesNotThrow(() -> orderService.processRollbackOrder(order));
 
-        verify(converterService).convert(avroOrder, Order.class);
         verify(itemService).rollbackReservation(order);
         verifyNoInteractions(kafkaStockOrderProducerService);
     }
 
     @Test
     public void processRollbackOrder_whenItemServiceThrowServiceException_doesNotThrowsException(){
-        AvroOrder avroOrder = new AvroOrder();
         Order order = new Order();
         order.setStatus(OrderStatus.NEW);
 
-        when(converterService.convert(avroOrder, Order.class)).thenReturn(order);
-        doThrow(ServiceException.class).when(itemService).rollbackReservation(order);
+        doThrow(InsufficientReserveStockException.class).when(itemService).rollbackReservation(order);
 
-        assertDoesNotThrow(() -> orderService.processRollbackOrder(avroOrder));
+        assertDoesNotThrow(() -> orderService.processRollbackOrder(order));
 
-        verify(converterService).convert(avroOrder, Order.class);
         verify(itemService).rollbackReservation(order);
         verifyNoInteractions(kafkaStockOrderProducerService);
+        assertEquals(1, meterRegistry.get(OrderMetrics.ERROR_COUNTER_NAME).tag("operation", "rollback")
+                .tag("reason", "insufficient_reserved_stock").counter().count());
     }
 
     @Test
     public void processConfirmationOrder_whenAllIsFine(){
-        AvroOrder avroOrder = new AvroOrder();
         Order order = new Order();
         order.setStatus(OrderStatus.NEW);
 
-        when(converterService.convert(avroOrder, Order.class)).thenReturn(order);
         doThrow(ServiceException.class).when(itemService).confirmReservation(order);
 
-        assertDoesNotThrow(() -> orderService.processConfirmationOrder(avroOrder));
+        assertDoesNotThrow(() -> orderService.processConfirmationOrder(order));
 
-        verify(converterService).convert(avroOrder, Order.class);
         verify(itemService).confirmReservation(order);
         verifyNoInteractions(kafkaStockOrderProducerService);
     }
 
+    @ParameterizedTest
+    @NullSource
+    public void processOrders_whenOrdersIsNull_throwIllegalArgumentException(List<Order> nullOrders){
+        assertThrows(IllegalArgumentException.class, () -> orderService.processOrders(nullOrders));
+    }
+
+    @Test
+    public void processOrders_sendAcceptOrRejectOnlyForNewOrders(){
+        Order acceptedOrder = new Order();
+        acceptedOrder.setCustomerId(1L);
+        acceptedOrder.setStatus(OrderStatus.NEW);
+        Order rejectedOrder = new Order();
+        rejectedOrder.setCustomerId(2L);
+        rejectedOrder.setStatus(OrderStatus.NEW);
+        Order rollbackOrder = new Order();
+        rollbackOrder.setCustomerId(3L);
+        rollbackOrder.setStatus(OrderStatus.ROLLBACK);
+
+        when(itemService.applyReservations(List.of(acceptedOrder, rejectedOrder, rollbackOrder))).thenReturn(
+                List.of(new ReservationResult(acceptedOrder, true), new ReservationResult(rejectedOrder, false),
+                        new ReservationResult(rollbackOrder, false)));
+
+        List<Order> results = assertDoesNotThrow(() -> orderService.processOrders(
+                List.of(acceptedOrder, rejectedOrder, rollbackOrder)));
+        assertEquals(List.of(acceptedOrder, rejectedOrder, rollbackOrder), results);
+        assertEquals(OrderStatus.ACCEPT, acceptedOrder.getStatus());
+        assertEquals(OrderStatus.REJECT, rejectedOrder.getStatus());
+        assertEquals(OrderStatus.ROLLBACK, rollbackOrder.getStatus());
+
+        verify(kafkaStockOrderProducerService).sendOrder(acceptedOrder);
+        verify(kafkaStockOrderProducerService).sendOrder(rejectedOrder);
+        verifyNoMoreInteractions(kafkaStockOrderProducerService);
+        assertEquals(1, meterRegistry.get(OrderMetrics.RESULT_COUNTER_NAME).tag("status", "REJECT")
+                .tag("reason", OrderMetrics.NOT_APPLIED_REASON).counter().count());
+        assertEquals(1, meterRegistry.get(OrderMetrics.ERROR_COUNTER_NAME).tag("operation", "batch").counter()
+                .count());
+    }
+
+    @Test
+    public void processOrders_whenBatchFails_processOrdersOneAtATime(){
+        Order order = new Order();
+        order.setStatus(OrderStatus.NEW);
+
+        doThrow(ServiceException.class).when(itemService).applyReservations(any());
+
+        List<Order> results = assertDoesNotThrow(() -> orderService.processOrders(List.of(order)));
+        assertEquals(List.of(order), results);
+        assertEquals(OrderStatus.ACCEPT, order.getStatus());
+
+        verify(itemService).createReservation(order);
+        verify(kafkaStockOrderProducerService).sendOrder(order);
+    }
+
+    @Test
+    public void sendResult_whenResultIsKnown_sendOrderWithResultWithoutReservation(){
+        Order order = new Order();
+        order.setStatus(OrderStatus.NEW);
+
+
+        orderService.sendResult(order, OrderStatus.REJECT);
+
+        assertEquals(OrderStatus.REJECT, order.getStatus());
+        verify(kafkaStockOrderProducerService).sendOrder(order);
+        verifyNoInteractions(itemService);
+    }
 
 }
@@ -0,0 +1,83 @@
+package com.service.stock.service;
+
+import com.service.avro.model.AvroOrder;
+import com.service.avro.model.AvroOrderStatus;
+import com.service.avro.model.AvroProduct;
+import com.service.stock.converter.OrderToAvroOrderConverter;
+import com.service.stock.exception.ServiceException;
+import com.service.stock.model.Order;
+import com.service.stock.repository.OrderOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class OutboxStockOrderProducerServiceTest {
+
+    private OutboxStockOrderProducerService producerService;
+
+    @Mock
+    private KafkaTemplate<String, AvroOrder> template;
+
+    @Mock
+    private OrderToAvroOrderConverter converter;
+
+    @Mock
+    private OrderOutboxRepository orderOutboxRepository;
+
+    private Order order;
+
+    private AvroOrder avroOrder;
+
+    @BeforeEach
+    public void setUp() {
+        producerService = new OutboxStockOrderProducerService(template, converter, orderOutboxRepository);
+
+        AvroProduct avroProduct = new AvroProduct();
+        avroProduct.setId(1L);
+        avroProduct.setQuantity(2);
+        avroProduct.setPrice(100L);
+
+        avroOrder = new AvroOrder();
+        avroOrder.setId(UUID.randomUUID().toString());
+        avroOrder.setCustomerId(1L);
+        avroOrder.setProduct(avroProduct);
+        avroOrder.setStatus(AvroOrderStatus.ACCEPT);
+        avroOrder.setSource("Source");
+
+        order = new Order();
+        when(converter.convert(order)).thenReturn(avroOrder);
+    }
+
+    @Test
+    public void sendOrder_always_addOrderToOutboxInsteadOfKafka() throws Exception {
+        producerService.sendOrder(order);
+
+        ArgumentCaptor<byte[]> payload = ArgumentCaptor.forClass(byte[].class);
+        verify(orderOutboxRepository).addMessage(eq(avroOrder.getId().toString()), payload.capture());
+        assertEquals(avroOrder, AvroOrder.fromByteBuffer(ByteBuffer.wrap(payload.getValue())));
+        verifyNoInteractions(template);
+    }
+
+    @Test
+    public void sendOrder_whenOutboxIsNotWritable_throwServiceException() {
+        doThrow(DataAccessResourceFailureException.class).when(orderOutboxRepository)
+                .addMessage(anyString(), any(byte[].class));
+
+        assertThrows(ServiceException.class, () -> producerService.sendOrder(order));
+    }
+}
@@ -0,0 +1,156 @@
+package com.service.stock.stocklevel;
+
+import com.service.avro.model.AvroStockLevel;
+import com.service.stock.exception.ServiceException;
+import com.service.stock.model.ItemStockLevel;
+import com.service.stock.repository.ItemStockLevelRepository;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class StockLevelPublisherTest {
+
+    private static final String TOPIC = "stock-levels";
+
+    private StockLevelPublisher stockLevelPublisher;
+
+    @Mock
+    private ItemStockLevelRepository itemStockLevelRepository;
+
+    @Mock
+    private KafkaTemplate<String, AvroStockLevel> template;
+
+    @BeforeEach
+    public void setUp() {
+        stockLevelPublisher = new StockLevelPublisher(itemStockLevelRepository, template);
+        ReflectionTestUtils.setField(stockLevelPublisher, "enabled", true);
+        ReflectionTestUtils.setField(stockLevelPublisher, "topic", TOPIC);
+        ReflectionTestUtils.setField(stockLevelPublisher, "batchSize", 2);
+        when(template.send(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+    }
+
+    @Test
+    public void publishChanged_whenItemChangedSeveralTimes_publishOneLevel() {
+        when(itemStockLevelRepository.findAllById(List.of(1L)))
+                .thenReturn(List.of(new ItemStockLevel(1L, 7L, 3L, 4L)));
+
+        stockLevelPublisher.changed(1L);
+        stockLevelPublisher.changed(1L);
+        stockLevelPublisher.changed(List.of(1L));
+        stockLevelPublisher.publishChanged();
+        stockLevelPublisher.publishChanged();
+
+        verify(itemStockLevelRepository).findAllById(List.of(1L));
+        verify(template).send(TOPIC, "1", new AvroStockLevel(1L, 7L, 3L, 4L));
+        verifyNoMoreInteractions(template);
+    }
+
+    @Test
+    public void publishChanged_whenItemDoesNotExist_publishTombstone() {
+        when(itemStockLevelRepository.findAllById(any())).thenReturn(List.of());
+
+        stockLevelPublisher.changed(1L);
+        stockLevelPublisher.publishChanged();
+
+        verify(template).send(eq(TOPIC), eq("1"), isNull());
+    }
+
+    @Test
+    public void publishChanged_whenMoreItemsThanBatchSize_readInChunks() {
+        when(itemStockLevelRepository.findAllById(any())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0)
+                .stream().map(itemId -> new ItemStockLevel(itemId, 1L, 0L, 1L)).toList());
+
+        stockLevelPublisher.changed(List.of(1L, 2L, 3L));
+        stockLevelPublisher.publishChanged();
+
+        verify(itemStockLevelRepository, times(2)).findAllById(argThat(itemIds -> itemIds.size() <= 2));
+        verify(template, times(3)).send(eq(TOPIC), anyString(), any(AvroStockLevel.class));
+    }
+
+    @Test
+    public void publishChanged_whenReadFails_publishWithNextWindow() {
+        when(itemStockLevelRepository.findAllById(any()))
+                .thenThrow(new QueryTimeoutException("Timeout"))
+                .thenReturn(List.of(new ItemStockLevel(1L, 7L, 3L, 4L)));
+
+        stockLevelPublisher.changed(1L);
+        stockLevelPublisher.publishChanged();
+        verifyNoInteractions(template);
+
+        stockLevelPublisher.publishChanged();
+        verify(template).send(TOPIC, "1", new AvroStockLevel(1L, 7L, 3L, 4L));
+    }
+
+    @Test
+    public void publishChanged_whenSendFails_publishWithNextWindow() {
+        when(itemStockLevelRepository.findAllById(List.of(1L)))
+                .thenReturn(List.of(new ItemStockLevel(1L, 7L, 3L, 4L)));
+        when(template.send(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException("Timeout")))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        stockLevelPublisher.changed(1L);
+        stockLevelPublisher.publishChanged();
+        stockLevelPublisher.publishChanged();
+        stockLevelPublisher.publishChanged();
+
+        verify(template, times(2)).send(TOPIC, "1", new AvroStockLevel(1L, 7L, 3L, 4L));
+    }
+
+    @Test
+    public void changed_whenDisabled_doNotPublish() {
+        ReflectionTestUtils.setField(stockLevelPublisher, "enabled", false);
+
+        stockLevelPublisher.changed(1L);
+        stockLevelPublisher.changed(Set.of(2L));
+        stockLevelPublisher.publishChanged();
+
+        verifyNoInteractions(itemStockLevelRepository, template);
+    }
+
+    @Test
+    public void publishAll_whenSeveralPages_publishEveryItemByKeyset() {
+        when(itemStockLevelRepository.findPageAfter(Long.MIN_VALUE, 2))
+                .thenReturn(List.of(new ItemStockLevel(1L, 1L, 0L, 0L), new ItemStockLevel(2L, 2L, 0L, 0L)));
+        when(itemStockLevelRepository.findPageAfter(2L, 2))
+                .thenReturn(List.of(new ItemStockLevel(5L, 5L, 0L, 0L)));
+
+        assertEquals(3, stockLevelPublisher.publishAll());
+
+        verify(template).send(TOPIC, "1", new AvroStockLevel(1L, 1L, 0L, 0L));
+        verify(template).send(TOPIC, "2", new AvroStockLevel(2L, 2L, 0L, 0L));
+        verify(template).send(TOPIC, "5", new AvroStockLevel(5L, 5L, 0L, 0L));
+        verify(template).flush();
+        verify(itemStockLevelRepository, never()).findPageAfter(5L, 2);
+    }
+
+    @Test
+    public void publishAll_whenReadFails_throwServiceException() {
+        when(itemStockLevelRepository.findPageAfter(anyLong(), anyInt()))
+                .thenThrow(new QueryTimeoutException("Timeout"));
+
+        assertThrows(ServiceException.class, () -> stockLevelPublisher.publishAll());
+    }
+}
@@ -0,0 +1,244 @@
+package com.service.stock.stocklevel;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.service.stock.exception.ServiceException;
+import com.service.stock.model.ItemStockLevel;
+import com.service.stock.repository.ItemStockLevelRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class StockLevelStreamTest {
+
+    private static final long TIMEOUT_MS = 1000;
+
+    private static final String LEVEL_EVENT =
+            "event:stock\ndata:{\"itemId\":1,\"stockAvailable\":7,\"stockReserved\":3,\"version\":4}\n\n";
+
+    private StockLevelStream stockLevelStream;
+
+    @Mock
+    private ItemStockLevelRepository itemStockLevelRepository;
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private AsyncContext asyncContext;
+
+    @Mock
+    private ServletOutputStream outputStream;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        stockLevelStream = new StockLevelStream(itemStockLevelRepository, new ObjectMapper(),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(stockLevelStream, "stockLevelsEnabled", true);
+        ReflectionTestUtils.setField(stockLevelStream, "maxSubscribers", 2);
+        ReflectionTestUtils.setField(stockLevelStream, "maxItemIds", 3);
+        ReflectionTestUtils.setField(stockLevelStream, "timeoutMs", 60_000L);
+        ReflectionTestUtils.setField(stockLevelStream, "sendThreads", 1);
+        ReflectionTestUtils.setField(stockLevelStream, "sendTimeoutMs", 60_000L);
+        stockLevelStream.init();
+        when(request.startAsync(request, response)).thenReturn(asyncContext);
+        when(response.getOutputStream()).thenReturn(outputStream);
+        when(outputStream.isReady()).thenReturn(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        stockLevelStream.shutdown();
+    }
+
+    @Test
+    public void subscribe_whenItemIdsAreGiven_sendCurrentLevelsOnceWritable() throws IOException {
+        when(itemStockLevelRepository.findAllById(any())).thenReturn(List.of(new ItemStockLevel(1L, 7L, 3L, 4L)));
+
+        WriteListener writeListener = subscribe(Set.of(1L, 2L));
+        verify(outputStream, after(100).never()).write(any(byte[].class));
+
+        writeListener.onWritePossible();
+
+        String sent = sent(2);
+        assertTrue(sent.contains(LEVEL_EVENT));
+        assertTrue(sent.contains("event:deleted\ndata:2\n\n"));
+        verify(asyncContext).setTimeout(60_000L);
+        verify(response).setContentType("text/event-stream");
+        assertTrue(stockLevelStream.hasSubscribers());
+    }
+
+    @Test
+    public void subscribe_whenAllItems_doNotReadLevels() {
+        subscribe(Set.of());
+
+        verifyNoInteractions(itemStockLevelRepository);
+        assertTrue(stockLevelStream.hasSubscribers());
+    }
+
+    @Test
+    public void subscribe_whenTooManyItemIds_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> stockLevelStream.subscribe(Set.of(1L, 2L, 3L, 4L), request, response));
+
+        verify(request, never()).startAsync(any(), any());
+        assertFalse(stockLevelStream.hasSubscribers());
+    }
+
+    @Test
+    public void subscribe_whenStockLevelsTopicIsDisabled_throwServiceException() {
+        ReflectionTestUtils.setField(stockLevelStream, "stockLevelsEnabled", false);
+
+        assertThrows(ServiceException.class, () -> stockLevelStream.subscribe(Set.of(1L), request, response));
+
+        assertFalse(stockLevelStream.hasSubscribers());
+    }
+
+    @Test
+    public void subscribe_whenSubscribersLimitIsReached_throwServiceException() {
+        subscribe(Set.of());
+        subscribe(Set.of());
+
+        assertThrows(ServiceException.class, () -> stockLevelStream.subscribe(Set.of(), request, response));
+    }
+
+    @Test
+    public void subscribe_whenReadFails_throwServiceExceptionAndUnsubscribe() {
+        when(itemStockLevelRepository.findAllById(any())).thenThrow(new QueryTimeoutException("Timeout"));
+
+        assertThrows(ServiceException.class, () -> stockLevelStream.subscribe(Set.of(1L), request, response));
+
+        verify(request, never()).startAsync(any(), any());
+        assertFalse(stockLevelStream.hasSubscribers());
+    }
+
+    @Test
+    public void publish_whenSubscribedToOtherItem_doNotSend() throws IOException {
+        when(itemStockLevelRepository.findAllById(any())).thenReturn(List.of());
+        ServletOutputStream otherOutputStream = mock(ServletOutputStream.class);
+        when(otherOutputStream.isReady()).thenReturn(true);
+        when(response.getOutputStream()).thenReturn(otherOutputStream, outputStream);
+        stockLevelStream.subscribe(Set.of(2L), request, response);
+        ArgumentCaptor<WriteListener> captor = ArgumentCaptor.forClass(WriteListener.class);
+        verify(otherOutputStream).setWriteListener(captor.capture());
+        captor.getValue().onWritePossible();
+        subscribe(Set.of()).onWritePossible();
+
+        stockLevelStream.publish(new ItemStockLevel(1L, 7L, 3L, 4L));
+
+        assertEquals(LEVEL_EVENT, sent(1));
+        verify(otherOutputStream, after(100).times(1)).write(any(byte[].class));
+    }
+
+    @Test
+    public void publish_whenOutputIsNotReady_sendOnlyLatestLevelOnceWritable() throws IOException {
+        WriteListener writeListener = subscribe(Set.of());
+        writeListener.onWritePossible();
+        when(outputStream.isReady()).thenReturn(false);
+
+        stockLevelStream.publish(new ItemStockLevel(1L, 1L, 0L, 1L));
+        verify(outputStream, timeout(TIMEOUT_MS).atLeastOnce()).isReady();
+        stockLevelStream.publish(new ItemStockLevel(1L, 7L, 3L, 4L));
+        stockLevelStream.deleted(5L);
+        verify(outputStream, after(100).never()).write(any(byte[].class));
+
+        when(outputStream.isReady()).thenReturn(true);
+        writeListener.onWritePossible();
+
+        String sent = sent(2);
+        assertTrue(sent.contains(LEVEL_EVENT));
+        assertTrue(sent.contains("event:deleted\ndata:5\n\n"));
+    }
+
+    @Test
+    public void publish_whenClientIsGone_unsubscribe() throws IOException {
+        doThrow(new IOException("Broken pipe")).when(outputStream).write(any(byte[].class));
+        subscribe(Set.of()).onWritePossible();
+
+        stockLevelStream.publish(new ItemStockLevel(1L, 7L, 3L, 4L));
+
+        verify(asyncContext, timeout(TIMEOUT_MS)).complete();
+        assertFalse(stockLevelStream.hasSubscribers());
+    }
+
+    @Test
+    public void heartbeat_whenSubscribed_sendComment() throws IOException {
+        subscribe(Set.of()).onWritePossible();
+
+        stockLevelStream.heartbeat();
+
+        assertEquals(":heartbeat\n\n", sent(1));
+    }
+
+    @Test
+    public void heartbeat_whenOutputStaysNotReady_dropClient() throws IOException {
+        ReflectionTestUtils.setField(stockLevelStream, "sendTimeoutMs", 0L);
+        // Not ready before the first drain, so any call seen below already left the client waiting for the output
+        when(outputStream.isReady()).thenReturn(false);
+        subscribe(Set.of()).onWritePossible();
+        stockLevelStream.publish(new ItemStockLevel(1L, 7L, 3L, 4L));
+        verify(outputStream, timeout(TIMEOUT_MS).atLeastOnce()).isReady();
+
+        stockLevelStream.heartbeat();
+
+        verify(asyncContext).complete();
+        assertFalse(stockLevelStream.hasSubscribers());
+    }
+
+    @Test
+    public void onTimeout_always_completeAndUnsubscribe() throws IOException {
+        subscribe(Set.of());
+        ArgumentCaptor<AsyncListener> captor = ArgumentCaptor.forClass(AsyncListener.class);
+        verify(asyncContext).addListener(captor.capture());
+
+        captor.getValue().onTimeout(new AsyncEvent(asyncContext));
+
+        verify(asyncContext).complete();
+        assertFalse(stockLevelStream.hasSubscribers());
+    }
+
+    private WriteListener subscribe(Set<Long> itemIds) {
+        stockLevelStream.subscribe(itemIds, request, response);
+        ArgumentCaptor<WriteListener> captor = ArgumentCaptor.forClass(WriteListener.class);
+        verify(outputStream, atLeastOnce()).setWriteListener(captor.capture());
+        return captor.getValue();
+    }
+
+    private String sent(int events) {
+        ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+        try {
+            verify(outputStream, timeout(TIMEOUT_MS).times(events)).write(captor.capture());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return captor.getAllValues().stream().map(bytes -> new String(bytes, StandardCharsets.UTF_8))
+                .collect(Collectors.joining());
+    }
+}
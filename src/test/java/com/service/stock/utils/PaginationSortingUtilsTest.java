@@ -49,4 +49,11 @@ public class PaginationSortingUtilsTest {
         assertEquals(pageable.getSort().getOrderFor("name").getProperty(), "name");
         assertEquals(pageable.getClass(), OffsetBasedPageRequest.class);
     }
+
+    @Test
+    public void getSort_whenSortFieldAndDirectionAreValid_returnSort() {
+        Sort sort = PaginationSortingUtils.getSort(new String[]{"stockAvailable", "desc"});
+
+        assertEquals(Sort.by(Sort.Direction.DESC, "stockAvailable"), sort);
+    }
 }